@@ -1,213 +1,302 @@
 package com.cinema.config;
 
-import com.cinema.entity.*;
-import com.cinema.repository.*;
+import com.cinema.entity.Screen;
+import com.cinema.repository.ScreenRepository;
+import com.cinema.service.SeatLayoutService;
 import com.cinema.util.PasswordUtil;
+import com.cinema.util.SeatLayout;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.boot.CommandLineRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
 
+// Demo data. Cinemas, screens and movies are applied once per database: the seed_versions row of
+// SEED_VERSION is written first, in the same transaction, so later boots (and nodes racing this one)
+// skip them after a single lookup. Shows are dated from the day they are seeded, so they are topped
+// up on every boot instead: tomorrow's and the day after's demo shows are added where missing.
+// Each table is seeded set-wise: one query for the keys already present, one batch for the rest.
+// Off in the railway profile unless SEED_ENABLED is set.
+@Slf4j
 @Component
 @RequiredArgsConstructor
+@ConditionalOnProperty(name = "seed.enabled", havingValue = "true", matchIfMissing = true)
 public class DataInitializer implements CommandLineRunner {
 
-    private final UserRepository userRepository;
-    private final CinemaRepository cinemaRepository;
+    // Bump when the rows below change; databases that applied an older version get the new rows
+    static final String SEED_VERSION = "2025.08-1";
+
+    private record CinemaSeed(String name, String location, String contactInfo) {
+    }
+
+    private record ScreenSeed(String cinema, String name, int capacity, int rows, int seatsPerRow) {
+    }
+
+    private record MovieSeed(String title, String description, String genre, String rating, int duration,
+                             LocalDate releaseDate, String posterUrl) {
+    }
+
+    private record ShowSeed(String movie, String cinema, String screen, int daysAhead, LocalTime time, double price) {
+    }
+
+    // ✅ Cinemas - Indian Cinema Names
+    private static final List<CinemaSeed> CINEMAS = List.of(
+            new CinemaSeed("PVR Cinemas - Phoenix MarketCity", "Phoenix MarketCity, Whitefield, Bangalore", "+91-80-1234-5678"),
+            new CinemaSeed("INOX Megaplex - Forum Mall", "Forum Mall, Koramangala, Bangalore", "+91-80-2345-6789"),
+            new CinemaSeed("Cinepolis - Orion Mall", "Orion Mall, Rajajinagar, Bangalore", "+91-80-3456-7890"));
+
+    private static final String PVR = CINEMAS.get(0).name();
+    private static final String INOX = CINEMAS.get(1).name();
+    private static final String CINEPOLIS = CINEMAS.get(2).name();
+
+    // ✅ Screens
+    private static final List<ScreenSeed> SCREENS = List.of(
+            new ScreenSeed(PVR, "Screen 1", 100, 10, 10),
+            new ScreenSeed(PVR, "Screen 2", 80, 8, 10),
+            new ScreenSeed(INOX, "Screen A", 120, 12, 10),
+            new ScreenSeed(INOX, "Screen B", 90, 9, 10),
+            new ScreenSeed(CINEPOLIS, "Screen X", 110, 11, 10),
+            new ScreenSeed(CINEPOLIS, "Screen Y", 95, 9, 10));
+
+    // ✅ Movies - Upcoming Hindi and English Movies
+    private static final List<MovieSeed> MOVIES = List.of(
+            // Hindi Movies
+            new MovieSeed(
+                    "War 2",
+                    "The sixth entry in Yash Raj Films' Spy Universe, featuring Hrithik Roshan and Jr. NTR in an action-packed thriller.",
+                    "Action, Thriller, Spy", "UA", 150,
+                    LocalDate.of(2025, 8, 14),
+                    "https://encrypted-tbn0.gstatic.com/images?q=tbn:ANd9GcTFVy-D121jsb-Q6Uc11E_Q0Dp4C7UI88miYw&s"),
+            new MovieSeed(
+                    "Param Sundari",
+                    "A romantic drama starring Janhvi Kapoor and Sidharth Malhotra, exploring the complexities of love and relationships.",
+                    "Romance, Drama", "UA", 130,
+                    LocalDate.of(2025, 7, 25),
+                    "https://encrypted-tbn0.gstatic.com/images?q=tbn:ANd9GcS9UYyX_ewY6iKRXDL_qzuwJM4wYC8i_3Z6Rg&s"),
+            // English Movies
+            new MovieSeed(
+                    "Fantastic Four",
+                    "Marvel's first family returns in this highly anticipated reboot featuring the iconic superhero team in a new adventure.",
+                    "Action, Adventure, Sci-Fi", "PG-13", 135,
+                    LocalDate.of(2025, 7, 25),
+                    "https://m.media-amazon.com/images/M/MV5BOGM5MzA3MDAtYmEwMi00ZDNiLTg4MDgtMTZjOTc0ZGMyNTIwXkEyXkFqcGc@._V1_FMjpg_UX1000_.jpg"),
+            new MovieSeed(
+                    "Thunderbolts",
+                    "Marvel's anti-hero team assembles in this action-packed adventure featuring some of the most complex characters in the MCU.",
+                    "Action, Adventure, Sci-Fi", "PG-13", 145,
+                    LocalDate.of(2025, 8, 1),
+                    "https://m.media-amazon.com/images/M/MV5BYWE2NmNmYTItZGY0ZC00MmY2LTk1NDAtMGUyMGEzMjcxNWM0XkEyXkFqcGc@._V1_.jpg"));
+
+    // ✅ Shows - Multiple shows for each movie across different cinemas, dated from the day of each boot
+    private static final List<ShowSeed> SHOWS = List.of(
+            // War 2 shows
+            new ShowSeed("War 2", PVR, "Screen 1", 1, LocalTime.of(10, 0), 350.0),
+            new ShowSeed("War 2", PVR, "Screen 1", 1, LocalTime.of(14, 30), 350.0),
+            new ShowSeed("War 2", PVR, "Screen 2", 1, LocalTime.of(19, 0), 350.0),
+            new ShowSeed("War 2", PVR, "Screen 1", 2, LocalTime.of(11, 0), 350.0),
+            // Param Sundari shows
+            new ShowSeed("Param Sundari", INOX, "Screen B", 1, LocalTime.of(10, 30), 200.0),
+            new ShowSeed("Param Sundari", INOX, "Screen A", 1, LocalTime.of(14, 0), 200.0),
+            new ShowSeed("Param Sundari", INOX, "Screen B", 1, LocalTime.of(18, 30), 200.0),
+            new ShowSeed("Param Sundari", INOX, "Screen A", 2, LocalTime.of(11, 30), 200.0),
+            // Fantastic Four shows
+            new ShowSeed("Fantastic Four", CINEPOLIS, "Screen X", 1, LocalTime.of(11, 30), 400.0),
+            new ShowSeed("Fantastic Four", CINEPOLIS, "Screen X", 1, LocalTime.of(15, 0), 400.0),
+            new ShowSeed("Fantastic Four", CINEPOLIS, "Screen Y", 1, LocalTime.of(19, 30), 400.0),
+            new ShowSeed("Fantastic Four", CINEPOLIS, "Screen X", 2, LocalTime.of(12, 30), 400.0),
+            // Thunderbolts shows
+            new ShowSeed("Thunderbolts", CINEPOLIS, "Screen Y", 1, LocalTime.of(13, 0), 450.0),
+            new ShowSeed("Thunderbolts", CINEPOLIS, "Screen X", 1, LocalTime.of(17, 0), 450.0),
+            new ShowSeed("Thunderbolts", CINEPOLIS, "Screen Y", 1, LocalTime.of(21, 0), 450.0),
+            new ShowSeed("Thunderbolts", CINEPOLIS, "Screen X", 2, LocalTime.of(14, 0), 450.0));
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
     private final ScreenRepository screenRepository;
-    private final MovieRepository movieRepository;
-    private final ShowRepository showRepository;
-    private final SeatRepository seatRepository;
+    private final SeatLayoutService seatLayoutService;
 
     @Override
+    @Transactional
     public void run(String... args) {
-        migrateExistingPasswords();
-        initializeData();
+        long start = System.nanoTime();
+        if (claimSeedVersion()) {
+            log.info("Applying seed data {}...", SEED_VERSION);
+            migratePlaintextPasswords();
+            seedScreens(seedCinemas());
+            seedMovies();
+        } else {
+            log.info("Seed data {} already applied", SEED_VERSION);
+        }
+        int shows = seedShows(movieIds(), screenIds(cinemaIds()));
+        log.info("Seed data {} checked in {} ms ({} demo shows added)", SEED_VERSION, (System.nanoTime() - start) / 1_000_000, shows);
     }
 
-    private void migrateExistingPasswords() {
-        // Migrate existing users with plain text passwords to hashed passwords
-        userRepository.findAll().forEach(user -> {
-            if (user.getPassword() != null && !user.getPassword().contains("=")) {
-                // If password doesn't contain '=' it's likely plain text (Base64 contains '=')
-                if (user.getPassword().equals("123456")) {
-                    user.setPassword(PasswordUtil.hashPassword("123456"));
-                    userRepository.save(user);
-                    System.out.println("Migrated password for user: " + user.getEmail());
-                }
-            }
-        });
+    private boolean claimSeedVersion() {
+        try {
+            jdbcTemplate.update("INSERT INTO seed_versions (version, applied_at) VALUES (:version, :appliedAt)",
+                    new MapSqlParameterSource("version", SEED_VERSION).addValue("appliedAt", LocalDateTime.now()));
+            return true;
+        } catch (DuplicateKeyException e) {
+            return false;
+        }
     }
 
-    private void initializeData() {
-        System.out.println("Starting data initialization...");
-        
-        
-        // ✅ Users
-
-        // ✅ Cinemas - Indian Cinema Names
-        Cinema cinema1 = createCinemaIfNotExists("PVR Cinemas - Phoenix MarketCity", "Phoenix MarketCity, Whitefield, Bangalore", "+91-80-1234-5678");
-        Cinema cinema2 = createCinemaIfNotExists("INOX Megaplex - Forum Mall", "Forum Mall, Koramangala, Bangalore", "+91-80-2345-6789");
-        Cinema cinema3 = createCinemaIfNotExists("Cinepolis - Orion Mall", "Orion Mall, Rajajinagar, Bangalore", "+91-80-3456-7890");
-
-        // ✅ Screens
-        Screen screen1 = createScreenIfNotExists("Screen 1", 100, 10, 10, cinema1);
-        Screen screen2 = createScreenIfNotExists("Screen 2", 80, 8, 10, cinema1);
-        Screen screen3 = createScreenIfNotExists("Screen A", 120, 12, 10, cinema2);
-        Screen screen4 = createScreenIfNotExists("Screen B", 90, 9, 10, cinema2);
-        Screen screen5 = createScreenIfNotExists("Screen X", 110, 11, 10, cinema3);
-        Screen screen6 = createScreenIfNotExists("Screen Y", 95, 9, 10, cinema3);
-
-        // ✅ Movies - Upcoming Hindi and English Movies
-        // Hindi Movies
-        Movie movie1 = createMovieIfNotExists(
-                "War 2",
-                "The sixth entry in Yash Raj Films' Spy Universe, featuring Hrithik Roshan and Jr. NTR in an action-packed thriller.",
-                "Action, Thriller, Spy", "UA", 150,
-                LocalDate.of(2025, 8, 14),
-                "https://encrypted-tbn0.gstatic.com/images?q=tbn:ANd9GcTFVy-D121jsb-Q6Uc11E_Q0Dp4C7UI88miYw&s"
-        );
-        System.out.println("Movie 1 created: " + movie1.getTitle());
-
-        
-
-        Movie movie4 = createMovieIfNotExists(
-                "Param Sundari",
-                "A romantic drama starring Janhvi Kapoor and Sidharth Malhotra, exploring the complexities of love and relationships.",
-                "Romance, Drama", "UA", 130,
-                LocalDate.of(2025, 7, 25),
-                "https://encrypted-tbn0.gstatic.com/images?q=tbn:ANd9GcS9UYyX_ewY6iKRXDL_qzuwJM4wYC8i_3Z6Rg&s"
-        );
-
-        // English Movies
-        Movie movie5 = createMovieIfNotExists(
-                "Fantastic Four",
-                "Marvel's first family returns in this highly anticipated reboot featuring the iconic superhero team in a new adventure.",
-                "Action, Adventure, Sci-Fi", "PG-13", 135,
-                LocalDate.of(2025, 7, 25),
-                "https://m.media-amazon.com/images/M/MV5BOGM5MzA3MDAtYmEwMi00ZDNiLTg4MDgtMTZjOTc0ZGMyNTIwXkEyXkFqcGc@._V1_FMjpg_UX1000_.jpg"
-        );
-
-        Movie movie6 = createMovieIfNotExists(
-                "Thunderbolts",
-                "Marvel's anti-hero team assembles in this action-packed adventure featuring some of the most complex characters in the MCU.",
-                "Action, Adventure, Sci-Fi", "PG-13", 145,
-                LocalDate.of(2025, 8, 1),
-                "https://m.media-amazon.com/images/M/MV5BYWE2NmNmYTItZGY0ZC00MmY2LTk1NDAtMGUyMGEzMjcxNWM0XkEyXkFqcGc@._V1_.jpg"
-        );
-
-        // ✅ Shows - Multiple shows for each movie across different cinemas
-        // War 2 shows
-        createShowIfNotExists(movie1, screen1, LocalDate.now().plusDays(1), LocalTime.of(10, 0), 350.0);
-        createShowIfNotExists(movie1, screen1, LocalDate.now().plusDays(1), LocalTime.of(14, 30), 350.0);
-        createShowIfNotExists(movie1, screen2, LocalDate.now().plusDays(1), LocalTime.of(19, 0), 350.0);
-        createShowIfNotExists(movie1, screen1, LocalDate.now().plusDays(2), LocalTime.of(11, 0), 350.0);
-
-       
-
-        // Param Sundari shows
-        createShowIfNotExists(movie4, screen4, LocalDate.now().plusDays(1), LocalTime.of(10, 30), 200.0);
-        createShowIfNotExists(movie4, screen3, LocalDate.now().plusDays(1), LocalTime.of(14, 0), 200.0);
-        createShowIfNotExists(movie4, screen4, LocalDate.now().plusDays(1), LocalTime.of(18, 30), 200.0);
-        createShowIfNotExists(movie4, screen3, LocalDate.now().plusDays(2), LocalTime.of(11, 30), 200.0);
-
-        // Fantastic Four shows
-        createShowIfNotExists(movie5, screen5, LocalDate.now().plusDays(1), LocalTime.of(11, 30), 400.0);
-        createShowIfNotExists(movie5, screen5, LocalDate.now().plusDays(1), LocalTime.of(15, 0), 400.0);
-        createShowIfNotExists(movie5, screen6, LocalDate.now().plusDays(1), LocalTime.of(19, 30), 400.0);
-        createShowIfNotExists(movie5, screen5, LocalDate.now().plusDays(2), LocalTime.of(12, 30), 400.0);
-
-        // Thunderbolts shows
-        createShowIfNotExists(movie6, screen6, LocalDate.now().plusDays(1), LocalTime.of(13, 0), 450.0);
-        createShowIfNotExists(movie6, screen5, LocalDate.now().plusDays(1), LocalTime.of(17, 0), 450.0);
-        createShowIfNotExists(movie6, screen6, LocalDate.now().plusDays(1), LocalTime.of(21, 0), 450.0);
-        createShowIfNotExists(movie6, screen5, LocalDate.now().plusDays(2), LocalTime.of(14, 0), 450.0);
-
-        // ✅ Seats
-        createSeatsForScreen(screen1);
-        createSeatsForScreen(screen2);
-        createSeatsForScreen(screen3);
-        createSeatsForScreen(screen4);
-        createSeatsForScreen(screen5);
-        createSeatsForScreen(screen6);
+    // Users created with the plain demo password before passwords were hashed
+    private void migratePlaintextPasswords() {
+        int migrated = jdbcTemplate.update("UPDATE users SET password = :hash WHERE password = '123456'",
+                new MapSqlParameterSource("hash", PasswordUtil.hashPassword("123456")));
+        if (migrated > 0) {
+            log.info("Migrated {} plain text passwords", migrated);
+        }
     }
 
-    // ----------------- HELPERS -----------------
-    
-    private Cinema createCinemaIfNotExists(String name, String location, String contact) {
-        return cinemaRepository.findByName(name).orElseGet(() -> {
-            Cinema c = new Cinema();
-            c.setName(name);
-            c.setLocation(location);
-            c.setContactInfo(contact);
-            return cinemaRepository.save(c);
-        });
+    private Map<String, Long> seedCinemas() {
+        Set<String> names = CINEMAS.stream().map(CinemaSeed::name).collect(Collectors.toSet());
+        Set<String> existing = new HashSet<>(jdbcTemplate.queryForList(
+                "SELECT name FROM cinemas WHERE name IN (:names)", Map.of("names", names), String.class));
+        List<MapSqlParameterSource> rows = new ArrayList<>();
+        for (CinemaSeed cinema : CINEMAS) {
+            if (!existing.contains(cinema.name())) {
+                rows.add(new MapSqlParameterSource("name", cinema.name())
+                        .addValue("location", cinema.location())
+                        .addValue("contactInfo", cinema.contactInfo()));
+            }
+        }
+        insert("INSERT INTO cinemas (name, location, contact_info) VALUES (:name, :location, :contactInfo)", rows);
+        return cinemaIds();
     }
 
-    private Screen createScreenIfNotExists(String name, int capacity, int rows, int seatsPerRow, Cinema cinema) {
-        return screenRepository.findByNameAndCinema(name, cinema).orElseGet(() -> {
-            Screen s = new Screen();
-            s.setName(name);
-            s.setCapacity(capacity);
-            s.setTotalRows(rows);
-            s.setSeatsPerRow(seatsPerRow);
-            s.setCinema(cinema);
-            return screenRepository.save(s);
-        });
+    private Map<String, Long> cinemaIds() {
+        Set<String> names = CINEMAS.stream().map(CinemaSeed::name).collect(Collectors.toSet());
+        Map<String, Long> ids = new HashMap<>();
+        jdbcTemplate.query("SELECT id, name FROM cinemas WHERE name IN (:names) ORDER BY id", Map.of("names", names),
+                row -> { ids.putIfAbsent(row.getString("name"), row.getLong("id")); });
+        return ids;
     }
 
-    private Movie createMovieIfNotExists(String title, String desc, String genre, String rating,
-                                         int duration, LocalDate release, String posterUrl) {
-        return movieRepository.findByTitle(title).orElseGet(() -> {
-            Movie m = new Movie();
-            m.setTitle(title);
-            m.setDescription(desc);
-            m.setGenre(genre);
-            m.setRating(rating);
-            m.setDuration(duration);
-            m.setReleaseDate(release);
-            m.setPosterUrl(posterUrl);
-            m.setIsActive(true);
-            // Movies are now independent - no cinema assignment needed
-            return movieRepository.save(m);
-        });
+    // Keyed by cinema name and screen name; new screens get their seats
+    private Map<String, Long> seedScreens(Map<String, Long> cinemaIds) {
+        Map<String, Long> ids = screenIds(cinemaIds);
+        List<MapSqlParameterSource> rows = new ArrayList<>();
+        for (ScreenSeed screen : SCREENS) {
+            if (!ids.containsKey(screen.cinema() + "/" + screen.name())) {
+                rows.add(new MapSqlParameterSource("name", screen.name())
+                        .addValue("capacity", screen.capacity())
+                        .addValue("totalRows", screen.rows())
+                        .addValue("seatsPerRow", screen.seatsPerRow())
+                        .addValue("cinemaId", cinemaIds.get(screen.cinema())));
+            }
+        }
+        if (rows.isEmpty()) {
+            return ids;
+        }
+        insert("INSERT INTO screens (name, capacity, total_rows, seats_per_row, cinema_id) "
+                + "VALUES (:name, :capacity, :totalRows, :seatsPerRow, :cinemaId)", rows);
+
+        Set<Long> before = new HashSet<>(ids.values());
+        ids = screenIds(cinemaIds);
+        List<Long> created = ids.values().stream().filter(id -> !before.contains(id)).collect(Collectors.toList());
+        for (Screen screen : screenRepository.findAllById(created)) {
+            seatLayoutService.createSeats(screen, SeatLayout.rectangular(screen.getTotalRows(), screen.getSeatsPerRow()));
+        }
+        return ids;
+    }
+
+    private Map<String, Long> screenIds(Map<String, Long> cinemaIds) {
+        if (cinemaIds.isEmpty()) {
+            return Map.of();
+        }
+        Map<Long, String> cinemaNames = cinemaIds.entrySet().stream()
+                .collect(Collectors.toMap(Map.Entry::getValue, Map.Entry::getKey));
+        Map<String, Long> ids = new HashMap<>();
+        jdbcTemplate.query("SELECT id, name, cinema_id FROM screens WHERE cinema_id IN (:cinemaIds) ORDER BY id",
+                Map.of("cinemaIds", cinemaIds.values()),
+                row -> { ids.putIfAbsent(cinemaNames.get(row.getLong("cinema_id")) + "/" + row.getString("name"), row.getLong("id")); });
+        return ids;
     }
 
-    private Show createShowIfNotExists(Movie movie, Screen screen, LocalDate date, LocalTime time, double price) {
-        return showRepository.findByMovieAndScreenAndDateAndTime(movie, screen, date, time).orElseGet(() -> {
-            try {
-            Show s = new Show();
-            s.setDate(date);
-            s.setTime(time);
-            s.setTicketPrice(price);
-            s.setIsActive(true);
-            s.setMovie(movie);
-            s.setScreen(screen);
-            return showRepository.save(s);
-            } catch (Exception e) {
-                // If there's a constraint violation, try to find the existing show
-                System.out.println("Show already exists or constraint violation, attempting to find existing show...");
-                return showRepository.findByMovieAndScreenAndDateAndTime(movie, screen, date, time)
-                    .orElseThrow(() -> new RuntimeException("Failed to create or find show", e));
+    private void seedMovies() {
+        Set<String> titles = MOVIES.stream().map(MovieSeed::title).collect(Collectors.toSet());
+        Set<String> existing = new HashSet<>(jdbcTemplate.queryForList(
+                "SELECT title FROM movies WHERE title IN (:titles)", Map.of("titles", titles), String.class));
+        List<MapSqlParameterSource> rows = new ArrayList<>();
+        for (MovieSeed movie : MOVIES) {
+            if (!existing.contains(movie.title())) {
+                rows.add(new MapSqlParameterSource("title", movie.title())
+                        .addValue("description", movie.description())
+                        .addValue("genre", movie.genre())
+                        .addValue("rating", movie.rating())
+                        .addValue("duration", movie.duration())
+                        .addValue("releaseDate", movie.releaseDate())
+                        .addValue("posterUrl", movie.posterUrl()));
             }
-        });
+        }
+        insert("INSERT INTO movies (title, description, genre, rating, duration, release_date, poster_url, is_active) "
+                + "VALUES (:title, :description, :genre, :rating, :duration, :releaseDate, :posterUrl, TRUE)", rows);
+    }
+
+    private Map<String, Long> movieIds() {
+        Set<String> titles = MOVIES.stream().map(MovieSeed::title).collect(Collectors.toSet());
+        Map<String, Long> ids = new HashMap<>();
+        jdbcTemplate.query("SELECT id, title FROM movies WHERE title IN (:titles) ORDER BY id", Map.of("titles", titles),
+                row -> { ids.putIfAbsent(row.getString("title"), row.getLong("id")); });
+        return ids;
     }
 
-    private void createSeatsForScreen(Screen screen) {
-        if (seatRepository.countByScreen(screen) > 0) return; // prevent duplicates
-
-        for (int row = 1; row <= screen.getTotalRows(); row++) {
-            for (int seatNum = 1; seatNum <= screen.getSeatsPerRow(); seatNum++) {
-                Seat seat = new Seat();
-                seat.setSeatRow(row);
-                seat.setSeatNumber(seatNum);
-                seat.setSeatCode(String.format("%c%d", 'A' + row - 1, seatNum));
-                seat.setStatus(Seat.SeatStatus.AVAILABLE);
-                seat.setScreen(screen);
-                seatRepository.save(seat);
+    // Keyed by the (screen_id, date, time) unique constraint. Shows whose movie or screen an admin
+    // has since removed are left out, and a node seeding the same shows at the same time wins the race
+    private int seedShows(Map<String, Long> movieIds, Map<String, Long> screenIds) {
+        if (screenIds.isEmpty()) {
+            return 0;
+        }
+        LocalDate today = LocalDate.now();
+        Set<String> existing = new HashSet<>();
+        jdbcTemplate.query("SELECT screen_id, date, time FROM shows WHERE screen_id IN (:screenIds) AND date BETWEEN :from AND :to",
+                new MapSqlParameterSource("screenIds", screenIds.values())
+                        .addValue("from", today.plusDays(1))
+                        .addValue("to", today.plusDays(2)),
+                row -> { existing.add(row.getLong("screen_id") + "/" + row.getObject("date", LocalDate.class) + "/" + row.getObject("time", LocalTime.class)); });
+
+        List<MapSqlParameterSource> rows = new ArrayList<>();
+        for (ShowSeed show : SHOWS) {
+            Long movieId = movieIds.get(show.movie());
+            Long screenId = screenIds.get(show.cinema() + "/" + show.screen());
+            LocalDate date = today.plusDays(show.daysAhead());
+            if (movieId != null && screenId != null && !existing.contains(screenId + "/" + date + "/" + show.time())) {
+                rows.add(new MapSqlParameterSource("date", date)
+                        .addValue("time", show.time())
+                        .addValue("price", show.price())
+                        .addValue("movieId", movieId)
+                        .addValue("screenId", screenId));
             }
         }
+        try {
+            insert("INSERT INTO shows (date, time, ticket_price, is_active, movie_id, screen_id) "
+                    + "VALUES (:date, :time, :price, TRUE, :movieId, :screenId)", rows);
+        } catch (DuplicateKeyException e) {
+            log.info("Demo shows were added by another node");
+            return 0;
+        }
+        return rows.size();
+    }
+
+    private void insert(String sql, List<MapSqlParameterSource> rows) {
+        if (!rows.isEmpty()) {
+            jdbcTemplate.batchUpdate(sql, rows.toArray(new MapSqlParameterSource[0]));
+        }
     }
 }
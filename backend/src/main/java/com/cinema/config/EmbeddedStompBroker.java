@@ -0,0 +1,65 @@
+package com.cinema.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.activemq.artemis.core.config.impl.ConfigurationImpl;
+import org.apache.activemq.artemis.core.server.embedded.EmbeddedActiveMQ;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+// In-process Artemis broker with a STOMP acceptor, for tests and single-node runs of the relay
+// mode. Production nodes point seat.broker.relay.host at a shared broker instead.
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "seat.broker.embedded.enabled", havingValue = "true")
+public class EmbeddedStompBroker implements SmartLifecycle {
+    
+    private final EmbeddedActiveMQ broker = new EmbeddedActiveMQ();
+    private final int port;
+    private volatile boolean running;
+    
+    public EmbeddedStompBroker(@Value("${seat.broker.relay.port:61613}") int port) {
+        this.port = port;
+    }
+    
+    @Override
+    public void start() {
+        try {
+            ConfigurationImpl configuration = new ConfigurationImpl();
+            configuration.setPersistenceEnabled(false);
+            configuration.setSecurityEnabled(false);
+            // Map STOMP /topic destinations to multicast addresses and /queue to anycast ones,
+            // which is what Spring's relay expects for broadcasts and user queues
+            configuration.addAcceptorConfiguration("stomp", "tcp://localhost:" + port
+                    + "?protocols=STOMP;anycastPrefix=/queue/;multicastPrefix=/topic/");
+            broker.setConfiguration(configuration);
+            broker.start();
+            running = true;
+            log.info("Embedded STOMP broker listening on port {}", port);
+        } catch (Exception e) {
+            throw new IllegalStateException("Could not start embedded STOMP broker on port " + port, e);
+        }
+    }
+    
+    @Override
+    public void stop() {
+        try {
+            broker.stop();
+        } catch (Exception e) {
+            log.warn("Error stopping embedded STOMP broker", e);
+        }
+        running = false;
+    }
+    
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+    
+    // Start before the broker relay connects and stop after it has disconnected
+    @Override
+    public int getPhase() {
+        return Integer.MIN_VALUE;
+    }
+}
@@ -0,0 +1,177 @@
+package com.cinema.config;
+
+import com.cinema.service.IdempotencyStore;
+import com.cinema.service.SessionTokenService;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StreamUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.regex.Pattern;
+
+// Makes POST /api/bookings and /api/seats/block safe to retry. A request carrying an Idempotency-Key
+// header runs once per user and key; a retry with the same key and body gets the stored response,
+// marked "Idempotent-Replayed: true", and one arriving while the first is still running waits for it.
+// Reusing a key with a different body is refused with 422. Runs after SessionTokenFilter, whose
+// principal scopes the keys, so two users can't see each other's responses through a shared key.
+@Component
+@Order(SessionTokenFilter.ORDER + 1)
+@RequiredArgsConstructor
+public class IdempotencyFilter extends OncePerRequestFilter {
+    
+    public static final String HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+    
+    private static final int MAX_KEY_LENGTH = 255;
+    private static final Pattern IDEMPOTENT_POSTS = Pattern.compile("/api/bookings|/api/seats/block");
+    
+    private final IdempotencyStore idempotencyStore;
+    
+    @Override
+    protected void doFilterInternal(@NonNull HttpServletRequest request, @NonNull HttpServletResponse response,
+                                    @NonNull FilterChain filterChain) throws ServletException, IOException {
+        String key = request.getHeader(HEADER);
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        Object principal = request.getAttribute(SessionTokenFilter.PRINCIPAL_ATTRIBUTE);
+        if (key == null || principal == null || !"POST".equals(request.getMethod()) || !IDEMPOTENT_POSTS.matcher(path).matches()) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            error(response, HttpServletResponse.SC_BAD_REQUEST, HEADER + " must be 1 to " + MAX_KEY_LENGTH + " characters");
+            return;
+        }
+        
+        byte[] body = StreamUtils.copyToByteArray(request.getInputStream());
+        String scopeKey = sha256(((SessionTokenService.Principal) principal).userId() + "\n" + path + "\n" + key);
+        IdempotencyStore.Claim claim;
+        try {
+            claim = idempotencyStore.claim(scopeKey, sha256(body));
+        } catch (IdempotencyStore.KeyReuseException e) {
+            error(response, 422, e.getMessage());
+            return;
+        } catch (IdempotencyStore.InProgressException e) {
+            response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+            error(response, HttpServletResponse.SC_CONFLICT, e.getMessage());
+            return;
+        }
+        if (!claim.isOwner()) {
+            replay(response, claim.replay());
+            return;
+        }
+        
+        ContentCachingResponseWrapper cachingResponse = new ContentCachingResponseWrapper(response);
+        boolean stored = false;
+        try {
+            filterChain.doFilter(new CachedBodyRequest(request, body), cachingResponse);
+            if (cachingResponse.getStatus() < HttpServletResponse.SC_INTERNAL_SERVER_ERROR) {
+                idempotencyStore.complete(scopeKey, new IdempotencyStore.StoredResponse(cachingResponse.getStatus(),
+                        cachingResponse.getContentType(), cachingResponse.getContentAsByteArray()));
+                stored = true;
+            }
+        } finally {
+            if (!stored) {
+                idempotencyStore.abandon(scopeKey);
+            }
+            cachingResponse.copyBodyToResponse();
+        }
+    }
+    
+    private static void replay(HttpServletResponse response, IdempotencyStore.StoredResponse stored) throws IOException {
+        response.setStatus(stored.status());
+        response.setHeader(REPLAYED_HEADER, "true");
+        if (stored.contentType() != null) {
+            response.setContentType(stored.contentType());
+        }
+        if (stored.body() != null) {
+            response.setContentLength(stored.body().length);
+            response.getOutputStream().write(stored.body());
+        }
+    }
+    
+    // Messages are fixed strings, so no JSON escaping is needed
+    private static void error(HttpServletResponse response, int status, String message) throws IOException {
+        response.setStatus(status);
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.getWriter().write("{\"error\":\"" + message + "\"}");
+    }
+    
+    private static String sha256(String value) {
+        return sha256(value.getBytes(StandardCharsets.UTF_8));
+    }
+    
+    private static String sha256(byte[] value) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(value));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+    
+    // The body was read to hash it; controllers read it again from here
+    private static class CachedBodyRequest extends HttpServletRequestWrapper {
+        
+        private final byte[] body;
+        
+        CachedBodyRequest(HttpServletRequest request, byte[] body) {
+            super(request);
+            this.body = body;
+        }
+        
+        @Override
+        public ServletInputStream getInputStream() {
+            ByteArrayInputStream in = new ByteArrayInputStream(body);
+            return new ServletInputStream() {
+                @Override
+                public boolean isFinished() {
+                    return in.available() == 0;
+                }
+                
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+                
+                @Override
+                public void setReadListener(ReadListener listener) {
+                    throw new UnsupportedOperationException();
+                }
+                
+                @Override
+                public int read() {
+                    return in.read();
+                }
+                
+                @Override
+                public int read(@NonNull byte[] buffer, int offset, int length) {
+                    return in.read(buffer, offset, length);
+                }
+            };
+        }
+        
+        @Override
+        public BufferedReader getReader() {
+            return new BufferedReader(new InputStreamReader(getInputStream(), StandardCharsets.UTF_8));
+        }
+    }
+}
@@ -0,0 +1,163 @@
+package com.cinema.config;
+
+import com.cinema.dto.SeatDeltaDto;
+import com.cinema.service.SeatMapService;
+import com.cinema.service.SeatUpdatePublisher;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.lang.NonNull;
+import org.springframework.messaging.converter.MappingJackson2MessageConverter;
+import org.springframework.messaging.simp.stomp.ReactorNettyTcpStompClient;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaders;
+import org.springframework.messaging.simp.stomp.StompSession;
+import org.springframework.messaging.simp.stomp.StompSessionHandlerAdapter;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import org.springframework.stereotype.Component;
+
+import java.lang.reflect.Type;
+import java.time.Duration;
+import java.time.Instant;
+
+// Keeps this node's seat maps current with the changes other nodes commit, in relay mode. It
+// subscribes to SeatUpdatePublisher.NODE_TOPIC on the shared broker and hands every frame from
+// another node to SeatMapService; its own frames are skipped by node id. Whenever changes may have
+// been missed (before the subscription is confirmed, after the connection drops, or when a node's
+// sequence for a show jumps) the affected maps are evicted and reloaded from the database.
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "seat.broker.mode", havingValue = "relay")
+public class RemoteSeatEventListener extends StompSessionHandlerAdapter implements SmartLifecycle {
+
+    private static final long RECONNECT_DELAY_MS = 5000;
+
+    private final SeatMapService seatMapService;
+    private final String nodeId;
+    private final String login;
+    private final String passcode;
+    private final ReactorNettyTcpStompClient client;
+    private final ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+    // Last sequence seen per node and show, keyed "nodeId:showId"; shows that went quiet are forgotten
+    private final Cache<String, Long> lastSequences = Caffeine.newBuilder()
+            .expireAfterAccess(Duration.ofHours(6))
+            .build();
+    private volatile StompSession session;
+    private volatile boolean running;
+    private volatile boolean subscribed;
+
+    public RemoteSeatEventListener(SeatMapService seatMapService,
+                                   SeatUpdatePublisher seatUpdatePublisher,
+                                   ObjectMapper objectMapper,
+                                   @Value("${seat.broker.relay.host:localhost}") String host,
+                                   @Value("${seat.broker.relay.port:61613}") int port,
+                                   @Value("${seat.broker.relay.login:guest}") String login,
+                                   @Value("${seat.broker.relay.passcode:guest}") String passcode) {
+        this.seatMapService = seatMapService;
+        this.nodeId = seatUpdatePublisher.getNodeId();
+        this.login = login;
+        this.passcode = passcode;
+        MappingJackson2MessageConverter converter = new MappingJackson2MessageConverter();
+        converter.setObjectMapper(objectMapper);
+        this.client = new ReactorNettyTcpStompClient(host, port);
+        this.client.setMessageConverter(converter);
+        this.scheduler.setThreadNamePrefix("seat-events-");
+        this.scheduler.setDaemon(true);
+        this.scheduler.initialize();
+        this.client.setTaskScheduler(scheduler);
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        connect();
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        StompSession current = session;
+        if (current != null && current.isConnected()) {
+            current.disconnect();
+        }
+        client.shutdown();
+        scheduler.shutdown();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void connect() {
+        if (!running) {
+            return;
+        }
+        StompHeaders headers = new StompHeaders();
+        headers.setLogin(login);
+        headers.setPasscode(passcode);
+        // A failed attempt is reported to handleTransportError as well, which tries again
+        client.connectAsync(headers, this);
+    }
+
+    private void reconnectLater() {
+        if (running) {
+            scheduler.schedule(this::connect, Instant.now().plusMillis(RECONNECT_DELAY_MS));
+        }
+    }
+
+    @Override
+    public void afterConnected(@NonNull StompSession session, @NonNull StompHeaders connectedHeaders) {
+        this.session = session;
+        session.setAutoReceipt(true);
+        session.subscribe(SeatUpdatePublisher.NODE_TOPIC, this).addReceiptTask(() -> {
+            // Changes committed while no subscription was active never reach this node
+            lastSequences.invalidateAll();
+            seatMapService.evictAll();
+            subscribed = true;
+        });
+    }
+
+    public boolean isSubscribed() {
+        return subscribed;
+    }
+
+    @Override
+    @NonNull
+    public Type getPayloadType(@NonNull StompHeaders headers) {
+        return SeatDeltaDto.class;
+    }
+
+    @Override
+    public void handleFrame(@NonNull StompHeaders headers, Object payload) {
+        SeatDeltaDto delta = (SeatDeltaDto) payload;
+        if (delta == null || nodeId.equals(delta.getNodeId())) {
+            return;
+        }
+        Long last = lastSequences.asMap().put(delta.getNodeId() + ":" + delta.getShowId(), delta.getSequence());
+        if (last != null && delta.getFirstSequence() > last + 1) {
+            // That node's map was reloaded, or a frame went missing: start over from the database
+            seatMapService.evict(delta.getShowId());
+        } else {
+            seatMapService.applyRemoteChanges(delta);
+        }
+    }
+
+    @Override
+    public void handleException(@NonNull StompSession session, StompCommand command, @NonNull StompHeaders headers,
+                                @NonNull byte[] payload, @NonNull Throwable exception) {
+        log.warn("Could not apply a seat event from another node", exception);
+    }
+
+    @Override
+    public void handleTransportError(@NonNull StompSession session, @NonNull Throwable exception) {
+        log.warn("No STOMP broker connection for seat events, reconnecting in {} ms", RECONNECT_DELAY_MS, exception);
+        this.session = null;
+        subscribed = false;
+        reconnectLater();
+    }
+}
@@ -0,0 +1,50 @@
+package com.cinema.config;
+
+import com.cinema.service.SessionTokenService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.lang.NonNull;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageDeliveryException;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.MessageHeaderAccessor;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+// STOMP clients that hold seats send their session token as an "Authorization: Bearer <token>"
+// header of the CONNECT frame, so it never appears in a URL (and in access logs or proxies with it).
+// A valid token's principal is kept in the WebSocket session under SessionTokenFilter.PRINCIPAL_ATTRIBUTE;
+// a bad one rejects the CONNECT, and without one the connection still opens, for subscribing.
+@Component
+@RequiredArgsConstructor
+public class SessionChannelInterceptor implements ChannelInterceptor {
+
+    private static final String BEARER = "Bearer ";
+
+    private final SessionTokenService sessionTokenService;
+
+    @Override
+    public Message<?> preSend(@NonNull Message<?> message, @NonNull MessageChannel channel) {
+        StompHeaderAccessor accessor = MessageHeaderAccessor.getAccessor(message, StompHeaderAccessor.class);
+        if (accessor == null || accessor.getCommand() != StompCommand.CONNECT) {
+            return message;
+        }
+        String authorization = accessor.getFirstNativeHeader(HttpHeaders.AUTHORIZATION);
+        if (authorization != null && authorization.regionMatches(true, 0, BEARER, 0, BEARER.length())) {
+            Map<String, Object> attributes = accessor.getSessionAttributes();
+            try {
+                SessionTokenService.Principal principal = sessionTokenService.verify(authorization.substring(BEARER.length()).trim());
+                if (attributes != null) {
+                    attributes.put(SessionTokenFilter.PRINCIPAL_ATTRIBUTE, principal);
+                }
+            } catch (SessionTokenService.InvalidTokenException e) {
+                throw new MessageDeliveryException(message, e.getMessage());
+            }
+        }
+        return message;
+    }
+}
@@ -0,0 +1,79 @@
+package com.cinema.config;
+
+import com.cinema.service.SessionTokenService;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.regex.Pattern;
+
+// Verifies "Authorization: Bearer <token>" on every request and exposes the session's user to
+// controllers as the PRINCIPAL_ATTRIBUTE request attribute. A bad, expired or revoked token is
+// answered with 401 at once. Requests without a token pass through anonymously, except the writes
+// that act on behalf of a user (booking, holding seats, logging out), the booking reads and the user
+// administration (listing, editing, deleting and promoting users), which need one.
+@Component
+@Order(SessionTokenFilter.ORDER)
+@RequiredArgsConstructor
+public class SessionTokenFilter extends OncePerRequestFilter {
+    
+    // After Spring Boot's own filters (encoding, request context), before filters that need the principal
+    public static final int ORDER = 0;
+    
+    public static final String PRINCIPAL_ATTRIBUTE = SessionTokenFilter.class.getName() + ".principal";
+    
+    private static final String BEARER = "Bearer ";
+    private static final Pattern SESSION_POSTS = Pattern.compile("/api/bookings|/api/seats/(un)?block|/api/users/logout");
+    private static final Pattern SESSION_PUTS = Pattern.compile("/api/bookings/[^/]+/cancel|/api/users/[^/]+(/promote-admin)?");
+    private static final Pattern SESSION_GETS = Pattern.compile("/api/bookings(/admin|/user/[^/]+|/[^/]+)?|/api/users");
+    private static final Pattern SESSION_DELETES = Pattern.compile("/api/users/[^/]+");
+    
+    private final SessionTokenService sessionTokenService;
+    
+    @Override
+    protected void doFilterInternal(@NonNull HttpServletRequest request, @NonNull HttpServletResponse response,
+                                    @NonNull FilterChain filterChain) throws ServletException, IOException {
+        String authorization = request.getHeader(HttpHeaders.AUTHORIZATION);
+        if (authorization != null && authorization.regionMatches(true, 0, BEARER, 0, BEARER.length())) {
+            try {
+                request.setAttribute(PRINCIPAL_ATTRIBUTE,
+                        sessionTokenService.verify(authorization.substring(BEARER.length()).trim()));
+            } catch (SessionTokenService.InvalidTokenException e) {
+                unauthorized(response, "Bearer error=\"invalid_token\"", e.getMessage());
+                return;
+            }
+        } else if (requiresSession(request)) {
+            unauthorized(response, "Bearer", "Log in to continue");
+            return;
+        }
+        filterChain.doFilter(request, response);
+    }
+    
+    private static boolean requiresSession(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        return switch (request.getMethod()) {
+            case "POST" -> SESSION_POSTS.matcher(path).matches();
+            case "PUT" -> SESSION_PUTS.matcher(path).matches();
+            case "GET" -> SESSION_GETS.matcher(path).matches();
+            case "DELETE" -> SESSION_DELETES.matcher(path).matches();
+            default -> false;
+        };
+    }
+    
+    // Messages are fixed strings, so no JSON escaping is needed
+    private static void unauthorized(HttpServletResponse response, String challenge, String message) throws IOException {
+        response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
+        response.setHeader(HttpHeaders.WWW_AUTHENTICATE, challenge);
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.getWriter().write("{\"error\":\"" + message + "\"}");
+    }
+}
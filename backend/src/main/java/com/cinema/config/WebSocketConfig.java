@@ -1,19 +1,59 @@
 package com.cinema.config;
 
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.lang.NonNull;
+import org.springframework.messaging.simp.config.ChannelRegistration;
 import org.springframework.messaging.simp.config.MessageBrokerRegistry;
 import org.springframework.web.socket.config.annotation.EnableWebSocketMessageBroker;
 import org.springframework.web.socket.config.annotation.StompEndpointRegistry;
 import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketTransportRegistration;
 
 @Configuration
 @EnableWebSocketMessageBroker
 public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
     
+    // "simple" keeps subscriptions in this JVM; "relay" forwards them to an external STOMP broker
+    // so that events published on any node reach clients connected to every other node
+    @Value("${seat.broker.mode:simple}")
+    private String brokerMode;
+    
+    @Value("${seat.broker.relay.host:localhost}")
+    private String relayHost;
+    
+    @Value("${seat.broker.relay.port:61613}")
+    private int relayPort;
+    
+    @Value("${seat.broker.relay.login:guest}")
+    private String relayLogin;
+    
+    @Value("${seat.broker.relay.passcode:guest}")
+    private String relayPasscode;
+    
+    @Autowired
+    private SessionChannelInterceptor sessionChannelInterceptor;
+    
+    @Value("${seat.broadcast.send-time-limit-ms:5000}")
+    private int sendTimeLimitMs;
+    
+    @Value("${seat.broadcast.send-buffer-size-limit:262144}")
+    private int sendBufferSizeLimit;
+    
     @Override
     public void configureMessageBroker(@NonNull MessageBrokerRegistry config) {
-        config.enableSimpleBroker("/topic");
+        if ("relay".equals(brokerMode)) {
+            config.enableStompBrokerRelay("/topic", "/queue")
+                    .setRelayHost(relayHost)
+                    .setRelayPort(relayPort)
+                    .setClientLogin(relayLogin)
+                    .setClientPasscode(relayPasscode)
+                    .setSystemLogin(relayLogin)
+                    .setSystemPasscode(relayPasscode);
+        } else {
+            config.enableSimpleBroker("/topic", "/queue");
+        }
         config.setApplicationDestinationPrefixes("/app");
     }
     
@@ -23,4 +63,17 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
                 .setAllowedOrigins("http://localhost:5173", "http://localhost:3000")
                 .withSockJS();
     }
-}
\ No newline at end of file
+    
+    @Override
+    public void configureClientInboundChannel(@NonNull ChannelRegistration registration) {
+        registration.interceptors(sessionChannelInterceptor);
+    }
+    
+    // A subscriber whose unsent frames exceed either limit is disconnected rather than buffered
+    // without bound; clients reconnect and reload the seat map snapshot
+    @Override
+    public void configureWebSocketTransport(@NonNull WebSocketTransportRegistration registration) {
+        registration.setSendTimeLimit(sendTimeLimitMs)
+                .setSendBufferSizeLimit(sendBufferSizeLimit);
+    }
+}
@@ -1,14 +1,22 @@
 package com.cinema.controller;
 
+import com.cinema.config.SessionTokenFilter;
 import com.cinema.dto.BookingDto;
 import com.cinema.dto.BookingRequest;
+import com.cinema.dto.PageDto;
+import com.cinema.entity.Booking;
+import com.cinema.exception.AccessDeniedException;
+import com.cinema.service.BookingPipeline;
 import com.cinema.service.BookingService;
+import com.cinema.service.SessionTokenService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import jakarta.validation.Valid;
+import java.time.LocalDate;
 import java.util.List;
 
 @RestController
@@ -17,34 +25,69 @@ import java.util.List;
 public class BookingController {
     
     private final BookingService bookingService;
+    private final BookingPipeline bookingPipeline;
     
+    // With booking.pipeline.enabled the booking is committed together with others for the same show
     @PostMapping
-    public ResponseEntity<BookingDto> createBooking(@Valid @RequestBody BookingRequest request) {
-        BookingDto booking = bookingService.createBooking(request);
+    public ResponseEntity<BookingDto> createBooking(@Valid @RequestBody BookingRequest request,
+                                                    @RequestAttribute(SessionTokenFilter.PRINCIPAL_ATTRIBUTE) SessionTokenService.Principal principal) {
+        BookingDto booking = bookingPipeline.isEnabled()
+                ? bookingPipeline.book(principal.userId(), request)
+                : bookingService.createBooking(principal.userId(), request);
         return new ResponseEntity<>(booking, HttpStatus.CREATED);
     }
     
     @GetMapping("/{id}")
-    public ResponseEntity<BookingDto> getBookingById(@PathVariable Long id) {
-        BookingDto booking = bookingService.getBookingById(id);
+    public ResponseEntity<BookingDto> getBookingById(@PathVariable Long id,
+                                                     @RequestAttribute(SessionTokenFilter.PRINCIPAL_ATTRIBUTE) SessionTokenService.Principal principal) {
+        BookingDto booking = bookingService.getBookingById(id, principal);
         return ResponseEntity.ok(booking);
     }
     
+    // A user's own bookings; admins may list anyone's
     @GetMapping("/user/{userId}")
-    public ResponseEntity<List<BookingDto>> getBookingsByUserId(@PathVariable Long userId) {
+    public ResponseEntity<List<BookingDto>> getBookingsByUserId(@PathVariable Long userId,
+                                                                @RequestAttribute(SessionTokenFilter.PRINCIPAL_ATTRIBUTE) SessionTokenService.Principal principal) {
+        if (!principal.admin() && principal.userId() != userId) {
+            throw new AccessDeniedException("Bookings of user " + userId + " belong to another user");
+        }
         List<BookingDto> bookings = bookingService.getBookingsByUserId(userId);
         return ResponseEntity.ok(bookings);
     }
     
     @PutMapping("/{id}/cancel")
-    public ResponseEntity<BookingDto> cancelBooking(@PathVariable Long id) {
-        BookingDto booking = bookingService.cancelBooking(id);
+    public ResponseEntity<BookingDto> cancelBooking(@PathVariable Long id,
+                                                    @RequestAttribute(SessionTokenFilter.PRINCIPAL_ATTRIBUTE) SessionTokenService.Principal principal) {
+        BookingDto booking = bookingService.cancelBooking(id, principal);
         return ResponseEntity.ok(booking);
     }
     
+    // Paginated booking list for the admin panel; every filter is optional
+    @GetMapping("/admin")
+    public ResponseEntity<PageDto<BookingDto>> searchBookings(
+            @RequestParam(name = "from_date", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fromDate,
+            @RequestParam(name = "to_date", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate toDate,
+            @RequestParam(name = "show_id", required = false) Long showId,
+            @RequestParam(name = "cinema_id", required = false) Long cinemaId,
+            @RequestParam(required = false) Booking.BookingStatus status,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestAttribute(SessionTokenFilter.PRINCIPAL_ATTRIBUTE) SessionTokenService.Principal principal) {
+        requireAdmin(principal);
+        PageDto<BookingDto> bookings = bookingService.searchBookings(fromDate, toDate, showId, cinemaId, status, page, size);
+        return ResponseEntity.ok(bookings);
+    }
+    
     @GetMapping
-    public ResponseEntity<List<BookingDto>> getAllBookings() {
+    public ResponseEntity<List<BookingDto>> getAllBookings(@RequestAttribute(SessionTokenFilter.PRINCIPAL_ATTRIBUTE) SessionTokenService.Principal principal) {
+        requireAdmin(principal);
         List<BookingDto> bookings = bookingService.getAllBookings();
         return ResponseEntity.ok(bookings);
     }
+    
+    private static void requireAdmin(SessionTokenService.Principal principal) {
+        if (!principal.admin()) {
+            throw new AccessDeniedException("Only admins can list all bookings");
+        }
+    }
 }
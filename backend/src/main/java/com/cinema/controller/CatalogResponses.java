@@ -0,0 +1,175 @@
+package com.cinema.controller;
+
+import com.cinema.service.CatalogVersions;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.util.DigestUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Supplier;
+import java.util.zip.GZIPOutputStream;
+
+// Responses of the public catalog and showtime listings.
+// Conditional GET: the ETag is an MD5 of the rendered JSON, so every node, before and after a restart,
+// tags the same listing the same way and a client moving between nodes keeps getting 304s. A request
+// whose If-None-Match matches this node's current rendering is answered 304 before any query runs;
+// one that only matches after rendering (the listing was rendered elsewhere first) still gets a 304,
+// without the body. The gzipped body is a different representation, so it carries the same tag with
+// a "-gzip" suffix: a strong validator is never shared between content codings. With the default
+// max-age of 0 the listings are "public, no-cache": browsers, nginx or a CDN may store them but
+// revalidate every use.
+// Pre-rendered bodies: a listing is serialized (and gzipped, when large enough) once per version and
+// the bytes are written as they are for every later request. The key is the request URI and parameters
+// plus this node's CatalogVersions counters, so the mutations that bump a version retire its
+// renderings; old ones age out of the cache, and none is served more than ten minutes after
+// it was rendered.
+@Component
+public class CatalogResponses {
+    
+    private static final int GZIP_MIN_BYTES = 1024;
+    
+    private record Rendered(byte[] json, byte[] gzip, String hash) {
+        
+        String etag(boolean gzipped) {
+            return "\"" + hash + (gzipped ? "-gzip" : "") + "\"";
+        }
+    }
+    
+    private final CatalogVersions catalogVersions;
+    private final ObjectMapper objectMapper;
+    private final CacheControl cacheControl;
+    private final Cache<String, Rendered> rendered;
+    
+    public CatalogResponses(CatalogVersions catalogVersions,
+                            ObjectMapper objectMapper,
+                            MeterRegistry meterRegistry,
+                            @Value("${catalog.http.max-age:0s}") Duration maxAge,
+                            @Value("${catalog.http.rendered-max-bytes:33554432}") long renderedMaxBytes) {
+        this.catalogVersions = catalogVersions;
+        this.objectMapper = objectMapper;
+        this.cacheControl = maxAge.isZero()
+                ? CacheControl.noCache().cachePublic()
+                : CacheControl.maxAge(maxAge).cachePublic();
+        this.rendered = Caffeine.newBuilder()
+                .maximumWeight(renderedMaxBytes)
+                .<String, Rendered>weigher((key, value) -> value.json().length + (value.gzip() == null ? 0 : value.gzip().length))
+                .expireAfterWrite(Duration.ofMinutes(10))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, rendered, "catalog.responses");
+    }
+    
+    public ResponseEntity<byte[]> respond(HttpServletRequest request, Supplier<?> body, CatalogVersions.Aggregate... aggregates) {
+        String key = key(request, catalogVersions.key(aggregates));
+        String ifNoneMatch = request.getHeader(HttpHeaders.IF_NONE_MATCH);
+        boolean acceptsGzip = acceptsGzip(request.getHeader(HttpHeaders.ACCEPT_ENCODING));
+        Rendered cached = rendered.getIfPresent(key);
+        if (cached != null && matches(ifNoneMatch, etag(cached, acceptsGzip))) {
+            return notModified(etag(cached, acceptsGzip));
+        }
+        
+        Rendered response = cached != null ? cached : rendered.get(key, k -> render(body.get()));
+        String etag = etag(response, acceptsGzip);
+        if (matches(ifNoneMatch, etag)) {
+            return notModified(etag);
+        }
+        ResponseEntity.BodyBuilder builder = ResponseEntity.ok()
+                .eTag(etag)
+                .cacheControl(cacheControl)
+                .contentType(MediaType.APPLICATION_JSON)
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (response.gzip() != null && acceptsGzip) {
+            return builder.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(response.gzip());
+        }
+        return builder.body(response.json());
+    }
+    
+    // The tag of the representation this request gets: small bodies are never gzipped
+    private static String etag(Rendered response, boolean acceptsGzip) {
+        return response.etag(response.gzip() != null && acceptsGzip);
+    }
+    
+    private ResponseEntity<byte[]> notModified(String etag) {
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).cacheControl(cacheControl).build();
+    }
+    
+    // The URI with the parameters in name order, so the same search spelled differently shares a rendering
+    private static String key(HttpServletRequest request, String version) {
+        StringBuilder key = new StringBuilder(request.getRequestURI());
+        char separator = '?';
+        for (Map.Entry<String, String[]> parameter : new TreeMap<>(request.getParameterMap()).entrySet()) {
+            for (String value : parameter.getValue()) {
+                key.append(separator).append(parameter.getKey()).append('=').append(value);
+                separator = '&';
+            }
+        }
+        return key.append(' ').append(version).toString();
+    }
+    
+    // Serialized with the application's ObjectMapper, so the bytes match what Jackson would have written
+    private Rendered render(Object body) {
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(body);
+            String hash = DigestUtils.md5DigestAsHex(json);
+            if (json.length < GZIP_MIN_BYTES) {
+                return new Rendered(json, null, hash);
+            }
+            ByteArrayOutputStream gzip = new ByteArrayOutputStream(json.length / 4);
+            try (GZIPOutputStream out = new GZIPOutputStream(gzip)) {
+                out.write(json);
+            }
+            return new Rendered(json, gzip.toByteArray(), hash);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to render catalog listing", e);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+    
+    // If-None-Match uses weak comparison and may list several tags
+    private static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals("*") || tag.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    private static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.trim().split(";");
+            if (parts[0].trim().equalsIgnoreCase("gzip")) {
+                return parts.length == 1 || !parts[1].replace(" ", "").equals("q=0");
+            }
+        }
+        return false;
+    }
+}
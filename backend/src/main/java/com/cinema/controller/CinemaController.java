@@ -2,7 +2,9 @@ package com.cinema.controller;
 
 import com.cinema.dto.CinemaDto;
 import com.cinema.dto.MovieDto;
+import com.cinema.service.CatalogVersions;
 import com.cinema.service.CinemaService;
+import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -16,11 +18,11 @@ import java.util.List;
 public class CinemaController {
     
     private final CinemaService cinemaService;
+    private final CatalogResponses catalogResponses;
     
     @GetMapping
-    public ResponseEntity<List<CinemaDto>> getAllCinemas() {
-        List<CinemaDto> cinemas = cinemaService.getAllCinemas();
-        return ResponseEntity.ok(cinemas);
+    public ResponseEntity<byte[]> getAllCinemas(HttpServletRequest request) {
+        return catalogResponses.respond(request, cinemaService::getAllCinemas, CatalogVersions.Aggregate.CINEMAS);
     }
     
     @GetMapping("/{id}")
@@ -30,9 +32,10 @@ public class CinemaController {
     }
     
     @GetMapping("/{id}/movies")
-    public ResponseEntity<List<MovieDto>> getMoviesByCinemaId(@PathVariable Long id) {
-        List<MovieDto> movies = cinemaService.getMoviesByCinemaId(id);
-        return ResponseEntity.ok(movies);
+    public ResponseEntity<byte[]> getMoviesByCinemaId(@PathVariable Long id, HttpServletRequest request) {
+        // The listing is the movies this cinema has shows for
+        return catalogResponses.respond(request, () -> cinemaService.getMoviesByCinemaId(id),
+                CatalogVersions.Aggregate.MOVIES, CatalogVersions.Aggregate.SHOWS);
     }
 
     @PostMapping
@@ -0,0 +1,54 @@
+package com.cinema.controller;
+
+import com.cinema.dto.ConflictResponse;
+import com.cinema.exception.AccessDeniedException;
+import com.cinema.exception.SeatConflictException;
+import com.cinema.service.BookingPipeline;
+import jakarta.persistence.OptimisticLockException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+import java.util.List;
+
+@RestControllerAdvice
+public class ConflictExceptionHandler {
+    
+    @ExceptionHandler(SeatConflictException.class)
+    public ResponseEntity<ConflictResponse> handleSeatConflict(SeatConflictException e) {
+        return ResponseEntity.status(HttpStatus.CONFLICT)
+                .body(new ConflictResponse(e.getMessage(), e.getSeatCodes()));
+    }
+    
+    @ExceptionHandler(AccessDeniedException.class)
+    public ResponseEntity<ConflictResponse> handleAccessDenied(AccessDeniedException e) {
+        return ResponseEntity.status(HttpStatus.FORBIDDEN)
+                .body(new ConflictResponse(e.getMessage(), List.of()));
+    }
+    
+    // Still losing after every retry on a path that can't name the seats involved (seat writes
+    // report theirs as a SeatConflictException); the client should reload and try again
+    @ExceptionHandler({OptimisticLockingFailureException.class, OptimisticLockException.class})
+    public ResponseEntity<ConflictResponse> handleOptimisticLockFailure(RuntimeException e) {
+        return ResponseEntity.status(HttpStatus.CONFLICT)
+                .body(new ConflictResponse("Seats were updated concurrently, please try again", List.of()));
+    }
+    
+    // A show's booking queue is full; clients back off and retry instead of waiting in line
+    @ExceptionHandler(BookingPipeline.PipelineBusyException.class)
+    public ResponseEntity<ConflictResponse> handlePipelineBusy(BookingPipeline.PipelineBusyException e) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(new ConflictResponse(e.getMessage(), List.of()));
+    }
+    
+    // The booking outlasted booking.pipeline.timeout; it may still go through, so no Retry-After
+    @ExceptionHandler(BookingPipeline.PipelineTimeoutException.class)
+    public ResponseEntity<ConflictResponse> handlePipelineTimeout(BookingPipeline.PipelineTimeoutException e) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .body(new ConflictResponse(e.getMessage(), List.of()));
+    }
+}
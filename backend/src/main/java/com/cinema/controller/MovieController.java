@@ -2,7 +2,9 @@ package com.cinema.controller;
 
 import com.cinema.dto.MovieDto;
 import com.cinema.dto.ShowDto;
+import com.cinema.service.CatalogVersions;
 import com.cinema.service.MovieService;
+import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -16,13 +18,12 @@ import java.util.List;
 public class MovieController {
 
     private final MovieService movieService;
+    private final CatalogResponses catalogResponses;
 
     @GetMapping
-    public ResponseEntity<List<MovieDto>> getAllMovies() {
+    public ResponseEntity<byte[]> getAllMovies(HttpServletRequest request) {
         try {
-            List<MovieDto> movies = movieService.getAllMovies();
-            System.out.println("Found " + movies.size() + " movies");
-            return ResponseEntity.ok(movies);
+            return catalogResponses.respond(request, movieService::getAllMovies, CatalogVersions.Aggregate.MOVIES);
         } catch (Exception e) {
             System.err.println("Error getting movies: " + e.getMessage());
             e.printStackTrace();
@@ -37,9 +38,8 @@ public class MovieController {
     }
 
     @GetMapping("/{movieId}/shows")
-    public ResponseEntity<List<ShowDto>> getShowsByMovieId(@PathVariable Long movieId) {
-        List<ShowDto> shows = movieService.getShowsByMovieId(movieId);
-        return ResponseEntity.ok(shows);
+    public ResponseEntity<byte[]> getShowsByMovieId(@PathVariable Long movieId, HttpServletRequest request) {
+        return catalogResponses.respond(request, () -> movieService.getShowsByMovieId(movieId), CatalogVersions.Aggregate.SHOWS);
     }
 
     @PostMapping
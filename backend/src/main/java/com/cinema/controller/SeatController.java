@@ -1,8 +1,11 @@
 package com.cinema.controller;
 
+import com.cinema.config.SessionTokenFilter;
 import com.cinema.dto.SeatBlockRequest;
 import com.cinema.dto.SeatDto;
+import com.cinema.dto.SeatMapDto;
 import com.cinema.service.SeatService;
+import com.cinema.service.SessionTokenService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -23,15 +26,29 @@ public class SeatController {
         return ResponseEntity.ok(seats);
     }
     
+    @GetMapping("/show/{showId}")
+    public ResponseEntity<List<SeatDto>> getSeatsByShowId(@PathVariable Long showId) {
+        List<SeatDto> seats = seatService.getSeatsByShowId(showId);
+        return ResponseEntity.ok(seats);
+    }
+    
+    @GetMapping("/show/{showId}/map")
+    public ResponseEntity<SeatMapDto> getSeatMapByShowId(@PathVariable Long showId) {
+        SeatMapDto seatMap = seatService.getSeatMapByShowId(showId);
+        return ResponseEntity.ok(seatMap);
+    }
+    
     @PostMapping("/block")
-    public ResponseEntity<List<SeatDto>> blockSeats(@Valid @RequestBody SeatBlockRequest request) {
-        List<SeatDto> blockedSeats = seatService.blockSeats(request);
+    public ResponseEntity<List<SeatDto>> blockSeats(@Valid @RequestBody SeatBlockRequest request,
+                                                    @RequestAttribute(SessionTokenFilter.PRINCIPAL_ATTRIBUTE) SessionTokenService.Principal principal) {
+        List<SeatDto> blockedSeats = seatService.blockSeats(principal.userId(), request);
         return ResponseEntity.ok(blockedSeats);
     }
     
     @PostMapping("/unblock")
-    public ResponseEntity<Void> unblockSeats(@RequestBody List<Long> seatIds) {
-        seatService.unblockSeats(seatIds);
+    public ResponseEntity<Void> unblockSeats(@Valid @RequestBody SeatBlockRequest request,
+                                             @RequestAttribute(SessionTokenFilter.PRINCIPAL_ATTRIBUTE) SessionTokenService.Principal principal) {
+        seatService.unblockSeats(principal.userId(), request);
         return ResponseEntity.ok().build();
     }
 }
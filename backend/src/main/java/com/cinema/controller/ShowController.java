@@ -1,12 +1,20 @@
 package com.cinema.controller;
 
+import com.cinema.dto.ScheduleImportResponse;
 import com.cinema.dto.ShowDto;
+import com.cinema.service.CatalogVersions;
+import com.cinema.service.ShowScheduleService;
 import com.cinema.service.ShowService;
+import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDate;
+import java.time.LocalTime;
 import java.util.List;
 import java.util.Map;
 
@@ -16,11 +24,38 @@ import java.util.Map;
 public class ShowController {
 
     private final ShowService showService;
+    private final ShowScheduleService showScheduleService;
+    private final CatalogResponses catalogResponses;
 
     @GetMapping
-    public ResponseEntity<List<ShowDto>> getAllShows() {
-        List<ShowDto> shows = showService.getAllShows();
-        return ResponseEntity.ok(shows);
+    public ResponseEntity<byte[]> getAllShows(HttpServletRequest request) {
+        return catalogResponses.respond(request, showService::getAllShows, CatalogVersions.Aggregate.SHOWS);
+    }
+
+    // Showtime search; every filter is optional. Dates default to the coming week, and pages are
+    // continued with the next_cursor of the previous one. Bad dates or cursors are a 400; anything
+    // else is left to fail as a server error
+    @GetMapping("/search")
+    public ResponseEntity<?> searchShows(
+            @RequestParam(name = "from_date", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fromDate,
+            @RequestParam(name = "to_date", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate toDate,
+            @RequestParam(name = "movie_id", required = false) Long movieId,
+            @RequestParam(name = "cinema_id", required = false) Long cinemaId,
+            @RequestParam(required = false) String city,
+            @RequestParam(name = "from_time", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.TIME) LocalTime fromTime,
+            @RequestParam(name = "to_time", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.TIME) LocalTime toTime,
+            @RequestParam(name = "min_price", required = false) Double minPrice,
+            @RequestParam(name = "max_price", required = false) Double maxPrice,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size,
+            HttpServletRequest request) {
+        try {
+            return catalogResponses.respond(request,
+                    () -> showService.searchShows(fromDate, toDate, movieId, cinemaId, city, fromTime, toTime, minPrice, maxPrice, cursor, size),
+                    CatalogVersions.Aggregate.SHOWS);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
     }
 
     @GetMapping("/{id}")
@@ -30,9 +65,8 @@ public class ShowController {
     }
 
     @GetMapping("/movie/{movieId}")
-    public ResponseEntity<List<ShowDto>> getShowsByMovieId(@PathVariable Long movieId) {
-        List<ShowDto> shows = showService.getShowsByMovieId(movieId);
-        return ResponseEntity.ok(shows);
+    public ResponseEntity<byte[]> getShowsByMovieId(@PathVariable Long movieId, HttpServletRequest request) {
+        return catalogResponses.respond(request, () -> showService.getShowsByMovieId(movieId), CatalogVersions.Aggregate.SHOWS);
     }
 
     @PostMapping
@@ -45,6 +79,25 @@ public class ShowController {
         }
     }
 
+    // Bulk schedule import, all or nothing: 400 with every rejected row and conflict if any,
+    // otherwise the number of shows created
+    @PostMapping(value = "/import", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<ScheduleImportResponse> importSchedule(@RequestBody List<ShowDto> shows) {
+        return importResponse(showScheduleService.importSchedule(shows));
+    }
+
+    @PostMapping(value = "/import", consumes = "text/csv")
+    public ResponseEntity<ScheduleImportResponse> importScheduleCsv(@RequestBody String csv) {
+        return importResponse(showScheduleService.importCsv(csv));
+    }
+
+    private static ResponseEntity<ScheduleImportResponse> importResponse(ScheduleImportResponse result) {
+        if (!result.getProblems().isEmpty()) {
+            return ResponseEntity.badRequest().body(result);
+        }
+        return new ResponseEntity<>(result, HttpStatus.CREATED);
+    }
+
     @PutMapping("/{id}")
     public ResponseEntity<?> updateShow(@PathVariable Long id, @RequestBody ShowDto showDto) {
         try {
@@ -1,16 +1,23 @@
 package com.cinema.controller;
 
+import com.cinema.config.SessionTokenFilter;
+import com.cinema.exception.AccessDeniedException;
 import com.cinema.dto.LoginRequest;
 import com.cinema.dto.SignupRequest;
 import com.cinema.dto.UserDto;
+import com.cinema.service.PasswordHasher;
+import com.cinema.service.SessionTokenService;
 import com.cinema.service.UserService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import jakarta.validation.Valid;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 @RestController
 @RequestMapping("/api/users")
@@ -19,30 +26,41 @@ public class UserController {
     
     private final UserService userService;
     
+    // Signup and login return once the password hash is queued; Spring MVC writes the response
+    // from the hashing thread, so request threads stay free for other traffic during a login storm
     @PostMapping("/signup")
-    public ResponseEntity<UserDto> signup(@Valid @RequestBody SignupRequest signupRequest) {
+    public CompletableFuture<ResponseEntity<UserDto>> signup(@Valid @RequestBody SignupRequest signupRequest) {
         try {
-            UserDto createdUser = userService.signup(signupRequest);
-            return new ResponseEntity<>(createdUser, HttpStatus.CREATED);
+            return userService.signup(signupRequest)
+                    .thenApply(createdUser -> new ResponseEntity<>(createdUser, HttpStatus.CREATED))
+                    .exceptionally(e -> failure(e, HttpStatus.BAD_REQUEST));
         } catch (RuntimeException e) {
-            return ResponseEntity.badRequest().build();
+            return CompletableFuture.completedFuture(failure(e, HttpStatus.BAD_REQUEST));
         }
     }
     
     @PostMapping("/login")
-    public ResponseEntity<UserDto> login(@Valid @RequestBody LoginRequest loginRequest) {
+    public CompletableFuture<ResponseEntity<UserDto>> login(@Valid @RequestBody LoginRequest loginRequest) {
         try {
-            UserDto user = userService.login(loginRequest);
-            return ResponseEntity.ok(user);
+            return userService.login(loginRequest)
+                    .thenApply(ResponseEntity::ok)
+                    .exceptionally(e -> failure(e, HttpStatus.UNAUTHORIZED));
         } catch (RuntimeException e) {
-            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+            return CompletableFuture.completedFuture(failure(e, HttpStatus.UNAUTHORIZED));
         }
     }
     
+    // Ends the session on this node; the token is refused from now on
+    @PostMapping("/logout")
+    public ResponseEntity<Void> logout(@RequestAttribute(SessionTokenFilter.PRINCIPAL_ATTRIBUTE) SessionTokenService.Principal principal) {
+        userService.logout(principal);
+        return ResponseEntity.noContent().build();
+    }
+    
     @PostMapping
-    public ResponseEntity<UserDto> createUser(@Valid @RequestBody UserDto userDto) {
-        UserDto createdUser = userService.createUser(userDto);
-        return new ResponseEntity<>(createdUser, HttpStatus.CREATED);
+    public CompletableFuture<ResponseEntity<UserDto>> createUser(@Valid @RequestBody UserDto userDto) {
+        return userService.createUser(userDto)
+                .thenApply(createdUser -> new ResponseEntity<>(createdUser, HttpStatus.CREATED));
     }
     
     @GetMapping("/{id}")
@@ -57,26 +75,34 @@ public class UserController {
         return ResponseEntity.ok(user);
     }
     
+    // Listing, editing, deleting and promoting users are for admins
     @GetMapping
-    public ResponseEntity<List<UserDto>> getAllUsers() {
+    public ResponseEntity<List<UserDto>> getAllUsers(@RequestAttribute(SessionTokenFilter.PRINCIPAL_ATTRIBUTE) SessionTokenService.Principal principal) {
+        requireAdmin(principal);
         List<UserDto> users = userService.getAllUsers();
         return ResponseEntity.ok(users);
     }
     
     @PutMapping("/{id}")
-    public ResponseEntity<UserDto> updateUser(@PathVariable Long id, @Valid @RequestBody UserDto userDto) {
+    public ResponseEntity<UserDto> updateUser(@PathVariable Long id, @Valid @RequestBody UserDto userDto,
+                                              @RequestAttribute(SessionTokenFilter.PRINCIPAL_ATTRIBUTE) SessionTokenService.Principal principal) {
+        requireAdmin(principal);
         UserDto updatedUser = userService.updateUser(id, userDto);
         return ResponseEntity.ok(updatedUser);
     }
     
     @DeleteMapping("/{id}")
-    public ResponseEntity<Void> deleteUser(@PathVariable Long id) {
+    public ResponseEntity<Void> deleteUser(@PathVariable Long id,
+                                           @RequestAttribute(SessionTokenFilter.PRINCIPAL_ATTRIBUTE) SessionTokenService.Principal principal) {
+        requireAdmin(principal);
         userService.deleteUser(id);
         return ResponseEntity.noContent().build();
     }
     
     @PutMapping("/{id}/promote-admin")
-    public ResponseEntity<UserDto> promoteToAdmin(@PathVariable Long id) {
+    public ResponseEntity<UserDto> promoteToAdmin(@PathVariable Long id,
+                                                  @RequestAttribute(SessionTokenFilter.PRINCIPAL_ATTRIBUTE) SessionTokenService.Principal principal) {
+        requireAdmin(principal);
         try {
             UserDto user = userService.getUserById(id);
             user.setIsAdmin(true);
@@ -86,4 +112,19 @@ public class UserController {
             return ResponseEntity.notFound().build();
         }
     }
+    
+    private static void requireAdmin(SessionTokenService.Principal principal) {
+        if (!principal.admin()) {
+            throw new AccessDeniedException("Only admins can manage users");
+        }
+    }
+    
+    // A full hashing queue is answered with 503 so clients back off instead of retrying at once
+    private static <T> ResponseEntity<T> failure(Throwable e, HttpStatus status) {
+        Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+        if (cause instanceof PasswordHasher.HashingBusyException) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, "1").build();
+        }
+        return ResponseEntity.status(status).build();
+    }
 }
@@ -1,15 +1,24 @@
 package com.cinema.controller;
 
+import com.cinema.config.SessionTokenFilter;
+import com.cinema.dto.ConflictResponse;
 import com.cinema.dto.SeatDto;
 import com.cinema.dto.SeatBlockRequest;
+import com.cinema.exception.SeatConflictException;
 import com.cinema.service.SeatService;
+import com.cinema.service.SessionTokenService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.messaging.handler.annotation.MessageExceptionHandler;
 import org.springframework.messaging.handler.annotation.MessageMapping;
-import org.springframework.messaging.handler.annotation.SendTo;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.annotation.SendToUser;
 import org.springframework.stereotype.Controller;
 
 import java.util.List;
+import java.util.Map;
 
+// Seat changes reach every viewer through /topic/shows/{showId}/seats once they commit;
+// replies here only go back to the session that sent the request.
 @Controller
 @RequiredArgsConstructor
 public class WebSocketController {
@@ -17,14 +26,35 @@ public class WebSocketController {
     private final SeatService seatService;
     
     @MessageMapping("/seats/block")
-    @SendTo("/topic/seats")
-    public List<SeatDto> blockSeats(SeatBlockRequest request) {
-        return seatService.blockSeats(request);
+    @SendToUser("/queue/seats")
+    public List<SeatDto> blockSeats(SeatBlockRequest request, SimpMessageHeaderAccessor headers) {
+        return seatService.blockSeats(principal(headers).userId(), request);
     }
     
     @MessageMapping("/seats/unblock")
-    @SendTo("/topic/seats")
-    public void unblockSeats(List<Long> seatIds) {
-        seatService.unblockSeats(seatIds);
+    public void unblockSeats(SeatBlockRequest request, SimpMessageHeaderAccessor headers) {
+        seatService.unblockSeats(principal(headers).userId(), request);
+    }
+    
+    @MessageExceptionHandler(SessionTokenService.InvalidTokenException.class)
+    @SendToUser("/queue/errors")
+    public ConflictResponse handleMissingSession(SessionTokenService.InvalidTokenException e) {
+        return new ConflictResponse(e.getMessage(), List.of());
+    }
+    
+    @MessageExceptionHandler(SeatConflictException.class)
+    @SendToUser("/queue/errors")
+    public ConflictResponse handleSeatConflict(SeatConflictException e) {
+        return new ConflictResponse(e.getMessage(), e.getSeatCodes());
+    }
+    
+    // Set by SessionChannelInterceptor when the client's CONNECT frame carried an Authorization header
+    private static SessionTokenService.Principal principal(SimpMessageHeaderAccessor headers) {
+        Map<String, Object> attributes = headers.getSessionAttributes();
+        Object principal = attributes != null ? attributes.get(SessionTokenFilter.PRINCIPAL_ATTRIBUTE) : null;
+        if (principal == null) {
+            throw new SessionTokenService.InvalidTokenException("Log in to continue");
+        }
+        return (SessionTokenService.Principal) principal;
     }
 }
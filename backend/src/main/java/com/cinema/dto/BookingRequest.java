@@ -13,9 +13,7 @@ import java.util.List;
 @AllArgsConstructor
 public class BookingRequest {
     
-    @NotNull(message = "User ID is required")
-    private Long userId;
-    
+    // The booking goes to the user the session token belongs to
     @NotNull(message = "Show ID is required")
     private Long showId;
     
@@ -0,0 +1,16 @@
+package com.cinema.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ConflictResponse {
+    
+    private String error;
+    private List<String> seatCodes;
+}
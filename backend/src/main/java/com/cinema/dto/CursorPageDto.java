@@ -0,0 +1,19 @@
+package com.cinema.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+// A page of a keyset-paginated list: pass next_cursor back as the cursor parameter for the
+// following page; it is absent on the last page
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CursorPageDto<T> {
+    
+    private List<T> content;
+    private Integer size;
+    private String nextCursor;
+}
@@ -0,0 +1,27 @@
+package com.cinema.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ScheduleImportResponse {
+    
+    private Integer imported;
+    private List<Problem> problems;
+    
+    // A rejected row: rows count from 1, and a conflict names the other row or the existing show
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Problem {
+        private Integer row;
+        private String message;
+        private Integer conflictingRow;
+        private Long conflictingShowId;
+    }
+}
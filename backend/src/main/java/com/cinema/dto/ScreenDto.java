@@ -7,6 +7,7 @@ import lombok.NoArgsConstructor;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Positive;
+import java.util.List;
 
 @Data
 @NoArgsConstructor
@@ -26,4 +27,8 @@ public class ScreenDto {
     private Integer seatsPerRow = 10;
     
     private Long cinemaId;
+    
+    // Optional seat drawing for new screens, one string per row: S standard, P premium, R recliner,
+    // W wheelchair space, '.' aisle or gap
+    private List<String> layout;
 }
@@ -13,8 +13,9 @@ import java.util.List;
 @AllArgsConstructor
 public class SeatBlockRequest {
     
-    @NotNull(message = "User ID is required")
-    private Long userId;
+    // Seats are held for the user the session token belongs to
+    @NotNull(message = "Show ID is required")
+    private Long showId;
     
     @NotNull(message = "Seat IDs are required")
     @Size(min = 1, max = 6, message = "You can block between 1 and 6 seats")
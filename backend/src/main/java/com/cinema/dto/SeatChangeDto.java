@@ -0,0 +1,19 @@
+package com.cinema.dto;
+
+import com.cinema.entity.Seat;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+// Seats of one show that are now in the same state
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SeatChangeDto {
+    
+    private List<Long> seatIds;
+    private Seat.SeatStatus status;
+    private Long blockedByUserId;
+}
@@ -0,0 +1,23 @@
+package com.cinema.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+// Committed seat changes of a show, merged over a short window so each seat appears once with its
+// latest state. Covers change events firstSequence..sequence of the sending node; a client whose
+// last applied sequence from that node is below firstSequence - 1 has missed events and reloads
+// the snapshot from /api/seats/show/{showId}/map.
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SeatDeltaDto {
+    
+    private Long showId;
+    private String nodeId;
+    private Long firstSequence;
+    private Long sequence;
+    private List<SeatChangeDto> changes;
+}
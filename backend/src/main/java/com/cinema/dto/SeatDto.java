@@ -4,6 +4,7 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import com.cinema.entity.Seat;
 import com.cinema.entity.Seat.SeatStatus;
 
 @Data
@@ -15,8 +16,10 @@ public class SeatDto {
     private Integer seatRow;
     private Integer seatNumber;
     private String seatCode;
+    private Seat.SeatCategory category;
     private SeatStatus status;
     private Long screenId;
+    private Long showId;
     private Long bookingId;
     private Long blockedByUserId;
     private String blockedByUserName;
@@ -0,0 +1,26 @@
+package com.cinema.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Compact seat availability of a show. Each bitmap is base64 encoded, one bit per
+// position in row-major order: position (row - 1) * seatsPerRow + (seatNumber - 1)
+// is bit (position % 8) of byte (position / 8).
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SeatMapDto {
+    
+    private Long showId;
+    private Long screenId;
+    private Integer totalRows;
+    private Integer seatsPerRow;
+    private Long version;
+    // Last change event of nodeId on /topic/shows/{showId}/seats already reflected in the bitmaps
+    private String nodeId;
+    private Long sequence;
+    private byte[] layout;
+    private byte[] held;
+    private byte[] booked;
+}
@@ -30,4 +30,10 @@ public class UserDto {
     private String phoneNumber;
     
     private Boolean isAdmin = false;
+    
+    // Issued on signup and login; sent back as "Authorization: Bearer <token>"
+    private String token;
+    
+    // Epoch milliseconds
+    private Long tokenExpiresAt;
 }
@@ -40,13 +40,18 @@ public class Booking {
     @JoinColumn(name = "show_id", nullable = false)
     private Show show;
     
-    @OneToMany(mappedBy = "booking", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
-    private List<Seat> seats;
+    // Show inventory rows, owned by the show: a booking only points at them
+    @OneToMany(mappedBy = "booking", fetch = FetchType.LAZY)
+    private List<ShowSeat> seats;
+    
+    @Version
+    @Column(nullable = false, columnDefinition = "BIGINT DEFAULT 0")
+    private Long version;
     
     @PrePersist
     protected void onCreate() {
+        // bookingReference is assigned by BookingReferenceService
         bookingDate = LocalDateTime.now();
-        bookingReference = "BK" + System.currentTimeMillis();
     }
     
     public enum BookingStatus {
@@ -0,0 +1,38 @@
+package com.cinema.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// Outbox row of the database invalidation transport; every node polls rows above the last id it saw
+@Entity
+@Table(name = "catalog_invalidations", indexes = @Index(columnList = "created_at"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CatalogInvalidation {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Column(name = "node_id", nullable = false, length = 36)
+    private String nodeId;
+    
+    @Column(nullable = false)
+    private Long sequence;
+    
+    // Evicted cache keys as comma separated REGION:id pairs
+    @Column(name = "cache_keys", nullable = false, columnDefinition = "TEXT")
+    private String cacheKeys;
+    
+    // Comma separated CatalogVersions aggregates
+    @Column(nullable = false, length = 64)
+    private String aggregates;
+    
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+}
@@ -25,26 +25,21 @@ public class Seat {
     @Column(name = "seat_code")
     private String seatCode; // e.g., "A1", "B5"
     
+    // Null on seats created before categories existed, which are standard seats
     @Enumerated(EnumType.STRING)
-    @Column(nullable = false)
-    private SeatStatus status = SeatStatus.AVAILABLE;
+    @Column(length = 16)
+    private SeatCategory category = SeatCategory.STANDARD;
     
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "screen_id", nullable = false)
     private Screen screen;
     
-    @ManyToOne(fetch = FetchType.LAZY)
-    @JoinColumn(name = "booking_id")
-    private Booking booking;
-    
-    @ManyToOne(fetch = FetchType.LAZY)
-    @JoinColumn(name = "blocked_by_user_id")
-    private User blockedByUser;
-    
-    @Column(name = "blocked_until")
-    private java.time.LocalDateTime blockedUntil;
-    
+    // Per-show availability lives on ShowSeat; a Seat is only a position in the screen layout
     public enum SeatStatus {
         AVAILABLE, BOOKED, BLOCKED
     }
+    
+    public enum SeatCategory {
+        STANDARD, PREMIUM, RECLINER, ACCESSIBLE
+    }
 }
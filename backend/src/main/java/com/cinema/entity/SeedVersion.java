@@ -0,0 +1,24 @@
+package com.cinema.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// Marker of a demo data version that has been applied to this database; see DataInitializer
+@Entity
+@Table(name = "seed_versions")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SeedVersion {
+    
+    @Id
+    @Column(length = 32)
+    private String version;
+    
+    @Column(name = "applied_at", nullable = false)
+    private LocalDateTime appliedAt;
+}
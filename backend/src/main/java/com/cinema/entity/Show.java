@@ -11,7 +11,13 @@ import java.util.List;
 
 @Entity
 @Table(name = "shows", 
-       uniqueConstraints = @UniqueConstraint(columnNames = {"screen_id", "date", "time"}))
+       uniqueConstraints = @UniqueConstraint(columnNames = {"screen_id", "date", "time"}),
+       indexes = {
+               // Showtimes of a movie over a date range, in (date, time) order
+               @Index(name = "idx_shows_movie_active_date", columnList = "movie_id, is_active, date, time"),
+               // Showtimes of every movie over a date range
+               @Index(name = "idx_shows_active_date", columnList = "is_active, date, time")
+       })
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -43,4 +49,7 @@ public class Show {
     
     @OneToMany(mappedBy = "show", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
     private List<Booking> bookings;
+    
+    @OneToMany(mappedBy = "show", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
+    private List<ShowSeat> showSeats;
 }
@@ -0,0 +1,48 @@
+package com.cinema.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "show_seats",
+       uniqueConstraints = @UniqueConstraint(columnNames = {"show_id", "seat_id"}))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ShowSeat {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "show_id", nullable = false)
+    private Show show;
+    
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "seat_id", nullable = false)
+    private Seat seat;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private Seat.SeatStatus status = Seat.SeatStatus.AVAILABLE;
+    
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "booking_id")
+    private Booking booking;
+    
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "blocked_by_user_id")
+    private User blockedByUser;
+    
+    @Column(name = "blocked_until")
+    private LocalDateTime blockedUntil;
+    
+    @Version
+    @Column(nullable = false, columnDefinition = "BIGINT DEFAULT 0")
+    private Long version;
+}
@@ -0,0 +1,9 @@
+package com.cinema.exception;
+
+// Thrown when the session's user may not act on the resource, e.g. cancelling another user's booking
+public class AccessDeniedException extends RuntimeException {
+    
+    public AccessDeniedException(String message) {
+        super(message);
+    }
+}
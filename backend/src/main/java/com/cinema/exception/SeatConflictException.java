@@ -0,0 +1,23 @@
+package com.cinema.exception;
+
+import java.util.List;
+
+// Thrown when some of the requested seats were taken by another user first
+public class SeatConflictException extends RuntimeException {
+    
+    private final List<String> seatCodes;
+    
+    public SeatConflictException(List<String> seatCodes) {
+        super("Seats not available: " + String.join(", ", seatCodes));
+        this.seatCodes = seatCodes;
+    }
+    
+    public SeatConflictException(List<String> seatCodes, Throwable cause) {
+        super("Seats not available: " + String.join(", ", seatCodes), cause);
+        this.seatCodes = seatCodes;
+    }
+    
+    public List<String> getSeatCodes() {
+        return seatCodes;
+    }
+}
@@ -2,12 +2,15 @@ package com.cinema.repository;
 
 import com.cinema.entity.Booking;
 import com.cinema.entity.Booking.BookingStatus;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -18,15 +21,38 @@ public interface BookingRepository extends JpaRepository<Booking, Long> {
     
     List<Booking> findByUserIdAndStatusOrderByBookingDateDesc(Long userId, BookingStatus status);
     
-    @Query("SELECT b FROM Booking b LEFT JOIN FETCH b.seats s LEFT JOIN FETCH b.user u LEFT JOIN FETCH b.show sh LEFT JOIN FETCH sh.movie m LEFT JOIN FETCH sh.screen sc LEFT JOIN FETCH sc.cinema c WHERE b.id = :id")
+    @Query("SELECT b FROM Booking b LEFT JOIN FETCH b.seats s LEFT JOIN FETCH s.seat LEFT JOIN FETCH b.user u LEFT JOIN FETCH b.show sh LEFT JOIN FETCH sh.movie m LEFT JOIN FETCH sh.screen sc LEFT JOIN FETCH sc.cinema c WHERE b.id = :id")
     Optional<Booking> findByIdWithDetails(@Param("id") Long id);
     
-    @Query("SELECT b FROM Booking b LEFT JOIN FETCH b.seats s LEFT JOIN FETCH b.user u LEFT JOIN FETCH b.show sh LEFT JOIN FETCH sh.movie m LEFT JOIN FETCH sh.screen sc LEFT JOIN FETCH sc.cinema c WHERE b.user.id = :userId ORDER BY b.bookingDate DESC")
+    @Query("SELECT b FROM Booking b LEFT JOIN FETCH b.seats s LEFT JOIN FETCH s.seat LEFT JOIN FETCH b.user u LEFT JOIN FETCH b.show sh LEFT JOIN FETCH sh.movie m LEFT JOIN FETCH sh.screen sc LEFT JOIN FETCH sc.cinema c WHERE b.user.id = :userId ORDER BY b.bookingDate DESC")
     List<Booking> findByUserIdWithDetails(@Param("userId") Long userId);
     
+    @Query("SELECT b FROM Booking b LEFT JOIN FETCH b.seats s LEFT JOIN FETCH s.seat LEFT JOIN FETCH b.user u LEFT JOIN FETCH b.show sh LEFT JOIN FETCH sh.movie m LEFT JOIN FETCH sh.screen sc LEFT JOIN FETCH sc.cinema c ORDER BY b.bookingDate DESC, b.id DESC")
+    List<Booking> findAllWithDetails();
+    
+    @Query("SELECT b FROM Booking b LEFT JOIN FETCH b.seats s LEFT JOIN FETCH s.seat LEFT JOIN FETCH b.user u LEFT JOIN FETCH b.show sh LEFT JOIN FETCH sh.movie m LEFT JOIN FETCH sh.screen sc LEFT JOIN FETCH sc.cinema c WHERE b.id IN :ids")
+    List<Booking> findAllWithDetailsByIdIn(@Param("ids") Collection<Long> ids);
+    
+    // Pages over ids only; fetching the details of a page is left to findAllWithDetailsByIdIn, since
+    // paginating a query that fetch-joins the seats collection would happen in memory
+    @Query(value = "SELECT b.id FROM Booking b WHERE " + ADMIN_FILTER + " ORDER BY b.bookingDate DESC, b.id DESC",
+           countQuery = "SELECT COUNT(b) FROM Booking b WHERE " + ADMIN_FILTER)
+    Page<Long> findIdsByFilter(@Param("fromDate") LocalDateTime fromDate, @Param("toDate") LocalDateTime toDate,
+                               @Param("showId") Long showId, @Param("cinemaId") Long cinemaId,
+                               @Param("status") BookingStatus status, Pageable pageable);
+    
+    String ADMIN_FILTER = "(:fromDate IS NULL OR b.bookingDate >= :fromDate) " +
+            "AND (:toDate IS NULL OR b.bookingDate < :toDate) " +
+            "AND (:showId IS NULL OR b.show.id = :showId) " +
+            "AND (:cinemaId IS NULL OR b.show.id IN (SELECT s.id FROM Show s WHERE s.screen.cinema.id = :cinemaId)) " +
+            "AND (:status IS NULL OR b.status = :status)";
+    
     @Query("SELECT COUNT(b) FROM Booking b WHERE b.show.id = :showId AND b.status = 'CONFIRMED'")
     Long countConfirmedBookingsByShowId(@Param("showId") Long showId);
     
     @Query("SELECT b FROM Booking b WHERE b.bookingDate >= :startDate AND b.bookingDate <= :endDate")
     List<Booking> findBookingsByDateRange(@Param("startDate") LocalDateTime startDate, @Param("endDate") LocalDateTime endDate);
+    
+    @Query("SELECT b.show.id FROM Booking b WHERE b.id = :bookingId")
+    Long findShowIdByBookingId(@Param("bookingId") Long bookingId);
 }
@@ -0,0 +1,27 @@
+package com.cinema.repository;
+
+import com.cinema.entity.CatalogInvalidation;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface CatalogInvalidationRepository extends JpaRepository<CatalogInvalidation, Long> {
+    
+    List<CatalogInvalidation> findByIdGreaterThanOrderByIdAsc(Long id, Pageable pageable);
+    
+    List<CatalogInvalidation> findByIdBetweenOrderByIdAsc(Long from, Long to);
+    
+    @Query("SELECT COALESCE(MAX(ci.id), 0) FROM CatalogInvalidation ci")
+    Long findMaxId();
+    
+    @Modifying
+    @Query("DELETE FROM CatalogInvalidation ci WHERE ci.createdAt < :before")
+    int deleteCreatedBefore(@Param("before") LocalDateTime before);
+}
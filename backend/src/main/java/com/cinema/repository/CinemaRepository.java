@@ -12,11 +12,15 @@ import java.util.Optional;
 @Repository
 public interface CinemaRepository extends JpaRepository<Cinema, Long> {
     
-    Optional<Cinema> findByName(String name);
+    // One row per cinema and screen (screen columns are null for a cinema without screens)
+    record CinemaScreenRow(Long id, String name, String location, String contactInfo,
+                           Long screenId, String screenName, Integer capacity, Integer totalRows, Integer seatsPerRow) {
+    }
+    
+    @Query("SELECT new com.cinema.repository.CinemaRepository$CinemaScreenRow(c.id, c.name, c.location, c.contactInfo, sc.id, sc.name, sc.capacity, sc.totalRows, sc.seatsPerRow) FROM Cinema c LEFT JOIN c.screens sc ORDER BY c.id, sc.id")
+    List<CinemaScreenRow> findAllCinemaScreenRows();
+    
     
     @Query("SELECT DISTINCT c FROM Cinema c LEFT JOIN FETCH c.screens WHERE c.id = :id")
     Optional<Cinema> findByIdWithScreens(@Param("id") Long id);
-    
-    @Query("SELECT DISTINCT c FROM Cinema c LEFT JOIN FETCH c.screens")
-    List<Cinema> findAllWithScreens();
 }
@@ -6,18 +6,27 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface MovieRepository extends JpaRepository<Movie, Long> {
     
-    Optional<Movie> findByTitle(String title);
+    // Movie list row; description is null unless the query selects it (the catalog page shows it
+    // and the admin form edits rows in place, the per-cinema list does neither)
+    record MovieSummary(Long id, String title, String description, String genre, String rating,
+                        Integer duration, LocalDate releaseDate, String posterUrl, Boolean isActive) {
+    }
+    
+    @Query("SELECT new com.cinema.repository.MovieRepository$MovieSummary(m.id, m.title, m.description, m.genre, m.rating, m.duration, m.releaseDate, m.posterUrl, m.isActive) FROM Movie m ORDER BY m.id")
+    List<MovieSummary> findAllSummaries();
+    
     
     @Query("SELECT m FROM Movie m LEFT JOIN FETCH m.shows WHERE m.id = :id")
     Optional<Movie> findByIdWithShows(@Param("id") Long id);
     
     // Find movies that have shows in screens belonging to a specific cinema
-    @Query("SELECT DISTINCT m FROM Movie m JOIN m.shows s JOIN s.screen sc WHERE sc.cinema.id = :cinemaId")
-    List<Movie> findMoviesByCinemaId(@Param("cinemaId") Long cinemaId);
+    @Query("SELECT DISTINCT new com.cinema.repository.MovieRepository$MovieSummary(m.id, m.title, CAST(NULL AS String), m.genre, m.rating, m.duration, m.releaseDate, m.posterUrl, m.isActive) FROM Show s JOIN s.movie m WHERE s.screen.cinema.id = :cinemaId ORDER BY m.id")
+    List<MovieSummary> findMoviesByCinemaId(@Param("cinemaId") Long cinemaId);
 }
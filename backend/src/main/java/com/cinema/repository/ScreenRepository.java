@@ -1,6 +1,5 @@
 package com.cinema.repository;
 
-import com.cinema.entity.Cinema;
 import com.cinema.entity.Screen;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
@@ -13,9 +12,14 @@ import java.util.Optional;
 @Repository
 public interface ScreenRepository extends JpaRepository<Screen, Long> {
     
+    record ScreenSummary(Long id, String name, Integer capacity, Integer totalRows, Integer seatsPerRow, Long cinemaId) {
+    }
+    
+    @Query("SELECT new com.cinema.repository.ScreenRepository$ScreenSummary(sc.id, sc.name, sc.capacity, sc.totalRows, sc.seatsPerRow, sc.cinema.id) FROM Screen sc")
+    List<ScreenSummary> findAllSummaries();
+    
     List<Screen> findByCinemaId(Long cinemaId);
     
-    Optional<Screen> findByNameAndCinema(String name, Cinema cinema);
     
     @Query("SELECT s FROM Screen s LEFT JOIN FETCH s.seats WHERE s.id = :id")
     Optional<Screen> findByIdWithSeats(@Param("id") Long id);
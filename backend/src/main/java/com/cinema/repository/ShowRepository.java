@@ -1,8 +1,7 @@
 package com.cinema.repository;
 
-import com.cinema.entity.Movie;
-import com.cinema.entity.Screen;
 import com.cinema.entity.Show;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -10,32 +9,69 @@ import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
 import java.time.LocalTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 @Repository
 public interface ShowRepository extends JpaRepository<Show, Long> {
     
-    @Query("SELECT s FROM Show s LEFT JOIN FETCH s.movie m LEFT JOIN FETCH s.screen sc WHERE m.id = :movieId AND s.isActive = true")
-    List<Show> findByMovieId(@Param("movieId") Long movieId);
+    // A show list row with the movie, screen and cinema columns it displays. Built by a constructor
+    // expression, so list reads put no entities in the persistence context
+    record ShowSummary(Long id, LocalDate date, LocalTime time, Double ticketPrice, Boolean isActive,
+                       Long movieId, String movieTitle, Long screenId, String screenName,
+                       Long cinemaId, String cinemaName, String cinemaLocation, String cinemaContactInfo) {
+    }
     
-    List<Show> findByScreenIdAndDateAndIsActiveTrue(Long screenId, LocalDate date);
+    String SHOW_SUMMARY = "SELECT new com.cinema.repository.ShowRepository$ShowSummary("
+            + "s.id, s.date, s.time, s.ticketPrice, s.isActive, m.id, m.title, sc.id, sc.name, "
+            + "c.id, c.name, c.location, c.contactInfo) "
+            + "FROM Show s JOIN s.movie m JOIN s.screen sc JOIN sc.cinema c";
     
-    Optional<Show> findByMovieAndScreenAndDateAndTime(Movie movie, Screen screen, LocalDate date, LocalTime time);
+    // Listings are ordered so every node renders them, and tags them, the same way
+    @Query(SHOW_SUMMARY + " ORDER BY s.id")
+    List<ShowSummary> findAllSummaries();
     
-    @Query("SELECT s FROM Show s LEFT JOIN FETCH s.bookings b LEFT JOIN FETCH b.seats WHERE s.id = :id")
-    Optional<Show> findByIdWithBookingsAndSeats(@Param("id") Long id);
+    @Query(SHOW_SUMMARY + " WHERE m.id = :movieId AND s.isActive = true ORDER BY s.id")
+    List<ShowSummary> findSummariesByMovieId(@Param("movieId") Long movieId);
     
-    @Query("SELECT DISTINCT s FROM Show s LEFT JOIN FETCH s.movie m LEFT JOIN FETCH s.screen sc WHERE s.screen.cinema.id = :cinemaId AND s.isActive = true")
-    List<Show> findByCinemaIdWithMovieAndScreen(@Param("cinemaId") Long cinemaId);
+    // Showtime search, ordered by (date, time, id) and continued after the last row of the previous
+    // page. Date bounds are always set, so with or without a movie the scan is an index range over
+    // idx_shows_movie_active_date or idx_shows_active_date
+    @Query(SHOW_SUMMARY + " WHERE s.isActive = true AND s.date >= :fromDate AND s.date <= :toDate "
+            + "AND (:movieId IS NULL OR m.id = :movieId) "
+            + "AND (:cinemaId IS NULL OR c.id = :cinemaId) "
+            + "AND (:city IS NULL OR LOWER(c.location) LIKE LOWER(CONCAT('%', :city, '%'))) "
+            + "AND (:fromTime IS NULL OR s.time >= :fromTime) "
+            + "AND (:toTime IS NULL OR s.time <= :toTime) "
+            + "AND (:minPrice IS NULL OR s.ticketPrice >= :minPrice) "
+            + "AND (:maxPrice IS NULL OR s.ticketPrice <= :maxPrice) "
+            + "AND (:afterDate IS NULL OR s.date > :afterDate "
+            + "OR (s.date = :afterDate AND (s.time > :afterTime OR (s.time = :afterTime AND s.id > :afterId)))) "
+            + "ORDER BY s.date, s.time, s.id")
+    List<ShowSummary> searchSummaries(@Param("fromDate") LocalDate fromDate, @Param("toDate") LocalDate toDate,
+                                      @Param("movieId") Long movieId, @Param("cinemaId") Long cinemaId,
+                                      @Param("city") String city,
+                                      @Param("fromTime") LocalTime fromTime, @Param("toTime") LocalTime toTime,
+                                      @Param("minPrice") Double minPrice, @Param("maxPrice") Double maxPrice,
+                                      @Param("afterDate") LocalDate afterDate, @Param("afterTime") LocalTime afterTime,
+                                      @Param("afterId") Long afterId, Limit limit);
     
-    // Get all shows on a specific screen and date for conflict checking
-    @Query("SELECT s FROM Show s LEFT JOIN FETCH s.movie WHERE s.screen.id = :screenId AND s.date = :date AND s.isActive = true")
-    List<Show> findShowsByScreenAndDate(@Param("screenId") Long screenId, @Param("date") LocalDate date);
+    // An active show's slot on its screen, for conflict checks
+    record ScheduledShow(Long id, LocalDate date, LocalTime time, Integer duration, String movieTitle) {
+    }
     
-    // Get all shows on a specific screen and date excluding a specific show (for updates)
-    @Query("SELECT s FROM Show s LEFT JOIN FETCH s.movie WHERE s.screen.id = :screenId AND s.date = :date AND s.isActive = true AND s.id != :excludeShowId")
-    List<Show> findShowsByScreenAndDateExcluding(@Param("screenId") Long screenId, @Param("date") LocalDate date, @Param("excludeShowId") Long excludeShowId);
+    @Query("SELECT new com.cinema.repository.ShowRepository$ScheduledShow(s.id, s.date, s.time, m.duration, m.title) "
+            + "FROM Show s JOIN s.movie m WHERE s.screen.id = :screenId AND s.isActive = true "
+            + "AND s.date >= :fromDate AND s.date <= :toDate")
+    List<ScheduledShow> findScheduledShows(@Param("screenId") Long screenId,
+                                           @Param("fromDate") LocalDate fromDate, @Param("toDate") LocalDate toDate);
+    
+    List<Show> findByScreenIdAndDateAndIsActiveTrue(Long screenId, LocalDate date);
+    
+    @Query("SELECT DISTINCT s FROM Show s LEFT JOIN FETCH s.movie m LEFT JOIN FETCH s.screen sc WHERE s.screen.cinema.id = :cinemaId AND s.isActive = true")
+    List<Show> findByCinemaIdWithMovieAndScreen(@Param("cinemaId") Long cinemaId);
     
     // Find all shows for a specific movie (for cascade delete)
     @Query("SELECT s FROM Show s WHERE s.movie.id = :movieId")
@@ -52,4 +88,21 @@ public interface ShowRepository extends JpaRepository<Show, Long> {
     // Find all active shows that have passed their date (for automatic deactivation)
     @Query("SELECT s FROM Show s WHERE s.isActive = true AND s.date < :currentDate")
     List<Show> findActiveShowsBeforeDate(@Param("currentDate") LocalDate currentDate);
+    
+    // Active shows from a date onwards (for warming up in-memory seat maps)
+    @Query("SELECT s FROM Show s WHERE s.isActive = true AND s.date >= :fromDate")
+    List<Show> findActiveShowsFromDate(@Param("fromDate") LocalDate fromDate);
+    
+    // Which of the given shows are before a date (for dropping in-memory seat maps of past shows)
+    @Query("SELECT s.id FROM Show s WHERE s.id IN :showIds AND s.date < :date")
+    List<Long> findIdsBeforeDate(@Param("showIds") Collection<Long> showIds, @Param("date") LocalDate date);
+    
+    @Query("SELECT s.screen.id FROM Show s WHERE s.id = :showId")
+    Long findScreenIdByShowId(@Param("showId") Long showId);
+    
+    @Query("SELECT s.screen.cinema.id FROM Show s WHERE s.id = :showId")
+    Long findCinemaIdByShowId(@Param("showId") Long showId);
+    
+    @Query("SELECT DISTINCT s.screen.cinema.id FROM Show s WHERE s.movie.id = :movieId")
+    Set<Long> findCinemaIdsByMovieId(@Param("movieId") Long movieId);
 }
\ No newline at end of file
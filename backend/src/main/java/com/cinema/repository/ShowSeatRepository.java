@@ -0,0 +1,73 @@
+package com.cinema.repository;
+
+import com.cinema.entity.Seat.SeatStatus;
+import com.cinema.entity.ShowSeat;
+import com.cinema.entity.User;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface ShowSeatRepository extends JpaRepository<ShowSeat, Long> {
+    
+    // Minimal per-seat state used to build the in-memory seat map of a show
+    interface SeatState {
+        Long getSeatId();
+        Integer getSeatRow();
+        Integer getSeatNumber();
+        String getSeatCode();
+        SeatStatus getStatus();
+        Long getBlockedByUserId();
+        LocalDateTime getBlockedUntil();
+    }
+    
+    interface ActiveHold {
+        Long getShowSeatId();
+        Long getShowId();
+        Long getSeatId();
+        LocalDateTime getBlockedUntil();
+    }
+    
+    @Query("SELECT ss.id AS showSeatId, ss.show.id AS showId, ss.seat.id AS seatId, ss.blockedUntil AS blockedUntil FROM ShowSeat ss WHERE ss.status = 'BLOCKED'")
+    List<ActiveHold> findActiveHolds();
+    
+    @Query("SELECT s.id AS seatId, s.seatRow AS seatRow, s.seatNumber AS seatNumber, s.seatCode AS seatCode, ss.status AS status, ss.blockedByUser.id AS blockedByUserId, ss.blockedUntil AS blockedUntil FROM ShowSeat ss JOIN ss.seat s WHERE ss.show.id = :showId")
+    List<SeatState> findSeatStatesByShowId(@Param("showId") Long showId);
+    
+    @Query("SELECT ss FROM ShowSeat ss JOIN FETCH ss.seat s WHERE ss.show.id = :showId AND s.id IN :seatIds")
+    List<ShowSeat> findByShowIdAndSeatIds(@Param("showId") Long showId, @Param("seatIds") Collection<Long> seatIds);
+    
+    long countByShowId(Long showId);
+    
+    @Query("SELECT COUNT(ss) FROM ShowSeat ss WHERE ss.show.id = :showId AND ss.status <> 'AVAILABLE'")
+    long countUnavailableByShowId(@Param("showId") Long showId);
+    
+    @Query("SELECT ss FROM ShowSeat ss WHERE ss.status = 'BLOCKED' AND ss.blockedUntil < :now")
+    List<ShowSeat> findExpiredBlockedSeats(@Param("now") LocalDateTime now);
+    
+    // Holds only seats that are free (or whose hold expired or already belongs to the user);
+    // the returned row count tells the caller whether every seat was won
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE VERSIONED ShowSeat ss SET ss.status = 'BLOCKED', ss.blockedByUser = :user, ss.blockedUntil = :blockedUntil " +
+           "WHERE ss.show.id = :showId AND ss.seat.id IN :seatIds AND (ss.status = 'AVAILABLE' " +
+           "OR (ss.status = 'BLOCKED' AND (ss.blockedUntil < :now OR ss.blockedByUser = :user)))")
+    int holdSeatsIfAvailable(@Param("showId") Long showId, @Param("seatIds") Collection<Long> seatIds,
+                             @Param("user") User user, @Param("blockedUntil") LocalDateTime blockedUntil,
+                             @Param("now") LocalDateTime now);
+    
+    // Releases only holds that are still in place and have run out
+    @Modifying
+    @Query("UPDATE VERSIONED ShowSeat ss SET ss.status = 'AVAILABLE', ss.blockedByUser = null, ss.blockedUntil = null " +
+           "WHERE ss.id IN :showSeatIds AND ss.status = 'BLOCKED' AND ss.blockedUntil <= :now")
+    int unblockExpiredSeats(@Param("showSeatIds") List<Long> showSeatIds, @Param("now") LocalDateTime now);
+    
+    @Modifying
+    @Query("DELETE FROM ShowSeat ss WHERE ss.show.id = :showId")
+    void deleteByShowId(@Param("showId") Long showId);
+}
@@ -0,0 +1,384 @@
+package com.cinema.service;
+
+import com.cinema.dto.BookingDto;
+import com.cinema.dto.BookingRequest;
+import com.cinema.entity.Booking;
+import com.cinema.entity.Seat;
+import com.cinema.entity.Show;
+import com.cinema.entity.ShowSeat;
+import com.cinema.exception.SeatConflictException;
+import com.cinema.repository.BookingRepository;
+import com.cinema.repository.ShowRepository;
+import com.cinema.repository.ShowSeatRepository;
+import com.cinema.repository.UserRepository;
+import com.cinema.util.ShowSeatMap;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+import org.hibernate.Session;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+// Group commit for bookings, switched on with booking.pipeline.enabled. Requests wait in a bounded
+// queue per show; a show's queue is drained by one writer at a time, which takes up to max-batch
+// requests, turns away the ones whose seats are taken in the in-memory seat map or by an earlier
+// request of the same batch, and books the rest in a single transaction: one show lookup, one seat
+// query, an insert per booking (booking ids come from an IDENTITY column, so Hibernate can't batch
+// them) and the seat updates sent as JDBC batches. Each caller's future is completed once that
+// transaction has committed.
+// The seat rows are still checked and versioned inside the transaction, so bookings made on other
+// nodes or through BookingService are never overwritten; if the batch loses such a race, or fails
+// for any other reason, its requests are settled one by one through BookingService.createBooking.
+// A full queue fails fast with PipelineBusyException, and book() gives up after booking.pipeline.timeout
+// with PipelineTimeoutException; both are answered with 503. A request whose caller gave up while it
+// was queued is dropped, but one already in a batch may still be booked.
+// A show's lane is removed once it is drained, so there are lanes only for shows being booked.
+@Service
+public class BookingPipeline {
+
+    public static class PipelineBusyException extends RuntimeException {
+        public PipelineBusyException() {
+            super("Too many bookings in progress for this show, try again shortly");
+        }
+    }
+
+    public static class PipelineTimeoutException extends RuntimeException {
+        public PipelineTimeoutException() {
+            super("Booking is taking longer than expected; check your bookings before trying again");
+        }
+    }
+
+    private record PendingBooking(Long userId, BookingRequest request, CompletableFuture<BookingDto> result) {
+    }
+
+    // At most one drain of a lane is queued or running at any time: that is its single writer
+    private static final class Lane {
+        private final Long showId;
+        private final BlockingQueue<PendingBooking> queue;
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+
+        private Lane(Long showId, int capacity) {
+            this.showId = showId;
+            this.queue = new ArrayBlockingQueue<>(capacity);
+        }
+    }
+
+    private final BookingService bookingService;
+    private final BookingRepository bookingRepository;
+    private final ShowRepository showRepository;
+    private final ShowSeatRepository showSeatRepository;
+    private final UserRepository userRepository;
+    private final SeatService seatService;
+    private final SeatMapService seatMapService;
+    private final BookingReferenceService bookingReferenceService;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final int queueCapacity;
+    private final int maxBatch;
+    private final Duration timeout;
+    // Added and removed under the map's per-key lock, so a request is never queued on a removed lane
+    private final Map<Long, Lane> lanes = new ConcurrentHashMap<>();
+    private final ExecutorService writers;
+    private final DistributionSummary batchSize;
+    private final Timer commitTimer;
+    private final Counter rejected;
+    private final Counter fallbacks;
+
+    public BookingPipeline(BookingService bookingService,
+                           BookingRepository bookingRepository,
+                           ShowRepository showRepository,
+                           ShowSeatRepository showSeatRepository,
+                           UserRepository userRepository,
+                           SeatService seatService,
+                           SeatMapService seatMapService,
+                           BookingReferenceService bookingReferenceService,
+                           EntityManager entityManager,
+                           PlatformTransactionManager transactionManager,
+                           MeterRegistry meterRegistry,
+                           @Value("${booking.pipeline.enabled:false}") boolean enabled,
+                           @Value("${booking.pipeline.queue-capacity:1000}") int queueCapacity,
+                           @Value("${booking.pipeline.max-batch:64}") int maxBatch,
+                           @Value("${booking.pipeline.timeout:10s}") Duration timeout,
+                           @Value("${booking.pipeline.writer-threads:4}") int writerThreads) {
+        this.bookingService = bookingService;
+        this.bookingRepository = bookingRepository;
+        this.showRepository = showRepository;
+        this.showSeatRepository = showSeatRepository;
+        this.userRepository = userRepository;
+        this.seatService = seatService;
+        this.seatMapService = seatMapService;
+        this.bookingReferenceService = bookingReferenceService;
+        this.entityManager = entityManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.enabled = enabled;
+        this.queueCapacity = queueCapacity;
+        this.maxBatch = maxBatch;
+        this.timeout = timeout;
+        AtomicInteger threadNumber = new AtomicInteger();
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(writerThreads, writerThreads, 0, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(), runnable -> {
+                    Thread thread = new Thread(runnable, "booking-writer-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        // executor.queued, executor.active, ... tagged name=booking.pipeline
+        this.writers = ExecutorServiceMetrics.monitor(meterRegistry, pool, "booking.pipeline");
+        this.batchSize = DistributionSummary.builder("booking.pipeline.batch.size").register(meterRegistry);
+        this.commitTimer = meterRegistry.timer("booking.pipeline.commit.duration");
+        this.rejected = meterRegistry.counter("booking.pipeline.rejected");
+        this.fallbacks = meterRegistry.counter("booking.pipeline.fallbacks");
+        meterRegistry.gaugeMapSize("booking.pipeline.lanes", Tags.empty(), lanes);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    // userId comes from a verified session token, as in BookingService.createBooking
+    public CompletableFuture<BookingDto> submit(Long userId, BookingRequest request) {
+        PendingBooking pending = new PendingBooking(userId, request, new CompletableFuture<>());
+        AtomicBoolean queued = new AtomicBoolean();
+        Lane lane = lanes.compute(request.getShowId(), (showId, current) -> {
+            Lane target = current != null ? current : new Lane(showId, queueCapacity);
+            queued.set(target.queue.offer(pending));
+            return target;
+        });
+        if (!queued.get()) {
+            rejected.increment();
+            return CompletableFuture.failedFuture(new PipelineBusyException());
+        }
+        schedule(lane);
+        return pending.result();
+    }
+
+    // Waits up to booking.pipeline.timeout for the booking and throws what BookingService.createBooking
+    // would have thrown
+    public BookingDto book(Long userId, BookingRequest request) {
+        try {
+            return submit(userId, request).orTimeout(timeout.toMillis(), TimeUnit.MILLISECONDS).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof TimeoutException) {
+                throw new PipelineTimeoutException();
+            }
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    private void schedule(Lane lane) {
+        if (lane.scheduled.compareAndSet(false, true)) {
+            writers.execute(() -> drain(lane));
+        }
+    }
+
+    // One batch per turn, then the lane goes back in line behind the other shows
+    private void drain(Lane lane) {
+        try {
+            List<PendingBooking> batch = new ArrayList<>(Math.min(maxBatch, lane.queue.size()));
+            lane.queue.drainTo(batch, maxBatch);
+            try {
+                if (!batch.isEmpty()) {
+                    write(lane.showId, batch);
+                }
+            } catch (RuntimeException e) {
+                // No caller is left waiting; futures already completed keep their result
+                batch.forEach(pending -> pending.result().completeExceptionally(e));
+            }
+        } finally {
+            lane.scheduled.set(false);
+            if (!lane.queue.isEmpty()) {
+                schedule(lane);
+            } else {
+                // Kept if a request came in meanwhile, or a drain it scheduled has already started
+                lanes.computeIfPresent(lane.showId, (showId, current) ->
+                        current == lane && !lane.scheduled.get() && lane.queue.isEmpty() ? null : current);
+            }
+        }
+    }
+
+    private void write(Long showId, List<PendingBooking> batch) {
+        batchSize.record(batch.size());
+        List<PendingBooking> accepted = screen(showId, batch);
+        if (accepted.isEmpty()) {
+            return;
+        }
+
+        Object[] outcomes;
+        try {
+            outcomes = commitTimer.record(() -> transactionTemplate.execute(status -> commit(showId, accepted)));
+        } catch (RuntimeException e) {
+            fallbacks.increment();
+            for (PendingBooking pending : accepted) {
+                try {
+                    pending.result().complete(bookingService.createBooking(pending.userId(), pending.request()));
+                } catch (RuntimeException single) {
+                    pending.result().completeExceptionally(single);
+                }
+            }
+            return;
+        }
+
+        for (int i = 0; i < outcomes.length; i++) {
+            if (outcomes[i] instanceof BookingDto) {
+                accepted.get(i).result().complete((BookingDto) outcomes[i]);
+            } else {
+                accepted.get(i).result().completeExceptionally((RuntimeException) outcomes[i]);
+            }
+        }
+    }
+
+    // Answers the requests the seat map already rules out, without the database
+    private List<PendingBooking> screen(Long showId, List<PendingBooking> batch) {
+        ShowSeatMap seatMap;
+        try {
+            seatMap = seatMapService.getSeatMap(showId);
+        } catch (RuntimeException e) {
+            batch.forEach(pending -> pending.result().completeExceptionally(e));
+            return List.of();
+        }
+
+        List<PendingBooking> accepted = new ArrayList<>(batch.size());
+        Set<Integer> taken = new HashSet<>();
+        for (PendingBooking pending : batch) {
+            // Its caller has stopped waiting (book() timed out)
+            if (pending.result().isDone()) {
+                continue;
+            }
+            List<Long> seatIds = pending.request().getSeatIds();
+            List<Integer> positions = new ArrayList<>(seatIds.size());
+            List<String> unavailableSeatCodes = new ArrayList<>();
+            for (Long seatId : seatIds) {
+                Integer position = seatMap.positionOf(seatId);
+                if (position == null) {
+                    break;
+                }
+                positions.add(position);
+                ShowSeatMap.State state = seatMap.stateAt(position);
+                if (taken.contains(position) || state == ShowSeatMap.State.BOOKED
+                        || (state == ShowSeatMap.State.HELD && !pending.userId().equals(seatMap.holderAt(position)))) {
+                    unavailableSeatCodes.add(seatMap.seatCodeAt(position));
+                }
+            }
+            if (positions.size() != seatIds.size()) {
+                pending.result().completeExceptionally(new RuntimeException("Some seats not found"));
+            } else if (!unavailableSeatCodes.isEmpty()) {
+                pending.result().completeExceptionally(new SeatConflictException(unavailableSeatCodes));
+            } else {
+                taken.addAll(positions);
+                accepted.add(pending);
+            }
+        }
+        return accepted;
+    }
+
+    // Same checks and writes as BookingService.doCreateBooking, for the whole batch at once. Returns
+    // each request's BookingDto, or the exception of a request that failed a check; the rest of the
+    // batch goes ahead without it
+    private Object[] commit(Long showId, List<PendingBooking> batch) {
+        // Batches the seat updates; the booking inserts go one by one for their IDENTITY ids
+        entityManager.unwrap(Session.class).setJdbcBatchSize(maxBatch);
+        Show show = showRepository.findById(showId)
+                .orElseThrow(() -> new RuntimeException("Show not found with id: " + showId));
+        seatService.initializeShowSeats(show);
+
+        Set<Long> allSeatIds = new LinkedHashSet<>();
+        batch.forEach(pending -> allSeatIds.addAll(pending.request().getSeatIds()));
+        Map<Long, ShowSeat> seatsById = new HashMap<>();
+        for (ShowSeat seat : showSeatRepository.findByShowIdAndSeatIds(showId, allSeatIds)) {
+            seatsById.put(seat.getSeat().getId(), seat);
+        }
+
+        Object[] outcomes = new Object[batch.size()];
+        Booking[] bookings = new Booking[batch.size()];
+        List<Long> bookedSeatIds = new ArrayList<>();
+        for (int i = 0; i < batch.size(); i++) {
+            PendingBooking pending = batch.get(i);
+            Long userId = pending.userId();
+            List<ShowSeat> seats = new ArrayList<>();
+            for (Long seatId : new LinkedHashSet<>(pending.request().getSeatIds())) {
+                ShowSeat seat = seatsById.get(seatId);
+                if (seat != null) {
+                    seats.add(seat);
+                }
+            }
+            if (seats.size() != pending.request().getSeatIds().size()) {
+                outcomes[i] = new RuntimeException("Some seats not found");
+                continue;
+            }
+            List<String> unavailableSeatCodes = seats.stream()
+                    .filter(seat -> seat.getStatus() == Seat.SeatStatus.BOOKED
+                            || (seat.getStatus() == Seat.SeatStatus.BLOCKED
+                                && (seat.getBlockedByUser() == null || !seat.getBlockedByUser().getId().equals(userId))))
+                    .map(seat -> seat.getSeat().getSeatCode())
+                    .collect(Collectors.toList());
+            if (!unavailableSeatCodes.isEmpty()) {
+                outcomes[i] = new SeatConflictException(unavailableSeatCodes);
+                continue;
+            }
+
+            Booking booking = new Booking();
+            booking.setUser(userRepository.getReferenceById(userId));
+            booking.setShow(show);
+            booking.setTotalAmount(seats.size() * show.getTicketPrice());
+            booking.setBookingReference(bookingReferenceService.next());
+            booking = bookingRepository.save(booking);
+            for (ShowSeat seat : seats) {
+                seat.setStatus(Seat.SeatStatus.BOOKED);
+                seat.setBooking(booking);
+                seat.setBlockedByUser(null);
+                seat.setBlockedUntil(null);
+                bookedSeatIds.add(seat.getSeat().getId());
+            }
+            booking.setSeats(seats);
+            bookings[i] = booking;
+        }
+
+        // Flushing here turns a lost seat race into an exception before any caller sees a booking
+        entityManager.flush();
+        seatMapService.seatsBooked(showId, bookedSeatIds);
+
+        for (int i = 0; i < bookings.length; i++) {
+            if (bookings[i] != null) {
+                outcomes[i] = bookingService.convertToDto(bookings[i]);
+            }
+        }
+        return outcomes;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        writers.shutdown();
+    }
+}
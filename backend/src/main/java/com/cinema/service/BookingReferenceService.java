@@ -0,0 +1,82 @@
+package com.cinema.service;
+
+import com.cinema.util.BookingReferenceGenerator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+// Hands out booking references. Each node needs its own booking.reference.node-id (0-1023) for
+// references to be unique across nodes; without one a random id is picked, which is fine for a
+// single node but can collide between nodes.
+// A restarted node must not reissue the seconds its previous process used, even when it restarts
+// within the same second or that process had borrowed seconds ahead of the clock. So the node
+// reserves seconds in booking_reference_reservations before the generator may use them, keeping
+// booking.reference.reserve-ahead in hand, and a new process starts after the last reservation.
+@Slf4j
+@Service
+public class BookingReferenceService {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final int nodeId;
+    private final long reserveAheadSeconds;
+    private final BookingReferenceGenerator generator;
+    private long reservedUntil = -1;
+
+    public BookingReferenceService(JdbcTemplate jdbcTemplate,
+                                   PlatformTransactionManager transactionManager,
+                                   @Value("${booking.reference.node-id:-1}") int nodeId,
+                                   @Value("${booking.reference.reserve-ahead:30s}") Duration reserveAhead) {
+        if (nodeId < 0) {
+            nodeId = ThreadLocalRandom.current().nextInt(BookingReferenceGenerator.MAX_NODE_ID + 1);
+            log.warn("booking.reference.node-id is not set: using random node id {} for booking references", nodeId);
+        }
+        this.jdbcTemplate = jdbcTemplate;
+        // A booking that rolls back must not take the reservation with it
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.nodeId = nodeId;
+        this.reserveAheadSeconds = reserveAhead.toSeconds();
+        List<Long> reserved = jdbcTemplate.queryForList(
+                "SELECT reserved_until FROM booking_reference_reservations WHERE node_id = ?", Long.class, nodeId);
+        this.generator = new BookingReferenceGenerator(nodeId, () -> System.currentTimeMillis() / 1000,
+                reserved.isEmpty() ? 0 : reserved.get(0) + 1);
+        reserve();
+    }
+
+    public String next() {
+        while (true) {
+            try {
+                return generator.next();
+            } catch (BookingReferenceGenerator.NotReservedException e) {
+                reserve();
+            }
+        }
+    }
+
+    // Runs well within reserve-ahead, so next() only reserves itself when a burst borrows that far ahead
+    @Scheduled(fixedRateString = "${booking.reference.reserve-interval-ms:5000}")
+    public synchronized void reserve() {
+        long until = generator.second() + reserveAheadSeconds;
+        if (until <= reservedUntil) {
+            return;
+        }
+        // Committed before the generator may use it
+        transactionTemplate.executeWithoutResult(status -> {
+            if (jdbcTemplate.update("UPDATE booking_reference_reservations SET reserved_until = ? WHERE node_id = ?", until, nodeId) == 0) {
+                jdbcTemplate.update("INSERT INTO booking_reference_reservations (node_id, reserved_until) VALUES (?, ?)", nodeId, until);
+            }
+        });
+        reservedUntil = until;
+        generator.reserveUntil(until);
+    }
+}
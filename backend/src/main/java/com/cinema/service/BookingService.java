@@ -8,13 +8,23 @@ import com.cinema.dto.ShowDto;
 import com.cinema.dto.MovieDto;
 import com.cinema.dto.ScreenDto;
 import com.cinema.dto.CinemaDto;
+import com.cinema.dto.PageDto;
 import com.cinema.entity.*;
+import com.cinema.exception.AccessDeniedException;
+import com.cinema.exception.SeatConflictException;
 import com.cinema.repository.*;
 import lombok.RequiredArgsConstructor;
+import org.hibernate.Hibernate;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDate;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 @Service
@@ -22,38 +32,48 @@ import java.util.stream.Collectors;
 @Transactional
 public class BookingService {
     
+    private static final int MAX_PAGE_SIZE = 100;
+    
     private final BookingRepository bookingRepository;
     private final UserRepository userRepository;
     private final ShowRepository showRepository;
-    private final SeatRepository seatRepository;
+    private final ShowSeatRepository showSeatRepository;
+    private final SeatService seatService;
+    private final SeatMapService seatMapService;
+    private final OptimisticRetryExecutor retryExecutor;
+    private final BookingReferenceService bookingReferenceService;
+    
+    // Seat and booking rows are versioned; a lost race is retried in a fresh transaction.
+    // userId comes from a verified session token, so the user isn't looked up again
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public BookingDto createBooking(Long userId, BookingRequest request) {
+        return retryExecutor.execute("create_booking", request::getShowId, () -> doCreateBooking(userId, request),
+                () -> seatService.getLostSeatCodes(userId, request.getShowId(), request.getSeatIds()));
+    }
     
-    public BookingDto createBooking(BookingRequest request) {
-        // Validate user exists
-        User user = userRepository.findById(request.getUserId())
-                .orElseThrow(() -> new RuntimeException("User not found with id: " + request.getUserId()));
+    private BookingDto doCreateBooking(Long userId, BookingRequest request) {
+        User user = userRepository.getReferenceById(userId);
         
         // Validate show exists
         Show show = showRepository.findById(request.getShowId())
                 .orElseThrow(() -> new RuntimeException("Show not found with id: " + request.getShowId()));
         
-        // Validate seats exist and are available
-        List<Seat> seats = seatRepository.findAllById(request.getSeatIds());
+        // Validate seats exist in this show's inventory and are available
+        seatService.initializeShowSeats(show);
+        List<ShowSeat> seats = showSeatRepository.findByShowIdAndSeatIds(show.getId(), request.getSeatIds());
         if (seats.size() != request.getSeatIds().size()) {
             throw new RuntimeException("Some seats not found");
         }
         
-        for (Seat seat : seats) {
-            // Allow AVAILABLE seats or BLOCKED seats that are blocked by the current user
-            if (seat.getStatus() == Seat.SeatStatus.BOOKED) {
-                throw new RuntimeException("Seat " + seat.getSeatCode() + " is already booked");
-            }
-            if (seat.getStatus() == Seat.SeatStatus.BLOCKED && 
-                (seat.getBlockedByUser() == null || !seat.getBlockedByUser().getId().equals(request.getUserId()))) {
-                throw new RuntimeException("Seat " + seat.getSeatCode() + " is blocked by another user");
-            }
-            if (!seat.getScreen().getId().equals(show.getScreen().getId())) {
-                throw new RuntimeException("Seat " + seat.getSeatCode() + " does not belong to the show's screen");
-            }
+        // Allow AVAILABLE seats or BLOCKED seats that are blocked by the current user
+        List<String> unavailableSeatCodes = seats.stream()
+                .filter(seat -> seat.getStatus() == Seat.SeatStatus.BOOKED
+                        || (seat.getStatus() == Seat.SeatStatus.BLOCKED
+                            && (seat.getBlockedByUser() == null || !seat.getBlockedByUser().getId().equals(userId))))
+                .map(seat -> seat.getSeat().getSeatCode())
+                .collect(Collectors.toList());
+        if (!unavailableSeatCodes.isEmpty()) {
+            throw new SeatConflictException(unavailableSeatCodes);
         }
         
         // Create booking
@@ -61,24 +81,30 @@ public class BookingService {
         booking.setUser(user);
         booking.setShow(show);
         booking.setTotalAmount(seats.size() * show.getTicketPrice());
+        booking.setBookingReference(bookingReferenceService.next());
         
         Booking savedBooking = bookingRepository.save(booking);
         
         // Update seat status and assign to booking
-        for (Seat seat : seats) {
+        for (ShowSeat seat : seats) {
             seat.setStatus(Seat.SeatStatus.BOOKED);
             seat.setBooking(savedBooking);
             seat.setBlockedByUser(null);
             seat.setBlockedUntil(null);
         }
-        seatRepository.saveAll(seats);
+        showSeatRepository.saveAll(seats);
+        savedBooking.setSeats(seats);
+        seatMapService.seatsBooked(show.getId(), request.getSeatIds());
         
         return convertToDto(savedBooking);
     }
     
-    public BookingDto getBookingById(Long id) {
+    public BookingDto getBookingById(Long id, SessionTokenService.Principal principal) {
         Booking booking = bookingRepository.findByIdWithDetails(id)
                 .orElseThrow(() -> new RuntimeException("Booking not found with id: " + id));
+        if (!principal.admin() && booking.getUser().getId() != principal.userId()) {
+            throw new AccessDeniedException("Booking " + id + " belongs to another user");
+        }
         return convertToDto(booking);
     }
     
@@ -88,10 +114,21 @@ public class BookingService {
                 .collect(Collectors.toList());
     }
     
-    public BookingDto cancelBooking(Long bookingId) {
+    // Users may cancel their own bookings, admins any booking
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public BookingDto cancelBooking(Long bookingId, SessionTokenService.Principal principal) {
+        return retryExecutor.execute("cancel_booking", () -> bookingRepository.findShowIdByBookingId(bookingId),
+                () -> doCancelBooking(bookingId, principal));
+    }
+    
+    private BookingDto doCancelBooking(Long bookingId, SessionTokenService.Principal principal) {
         Booking booking = bookingRepository.findByIdWithDetails(bookingId)
                 .orElseThrow(() -> new RuntimeException("Booking not found with id: " + bookingId));
         
+        if (!principal.admin() && booking.getUser().getId() != principal.userId()) {
+            throw new AccessDeniedException("Booking " + bookingId + " belongs to another user");
+        }
+        
         if (booking.getStatus() != Booking.BookingStatus.CONFIRMED) {
             throw new RuntimeException("Only confirmed bookings can be cancelled");
         }
@@ -99,13 +136,16 @@ public class BookingService {
         booking.setStatus(Booking.BookingStatus.CANCELLED);
         
         // Free up the seats
-        for (Seat seat : booking.getSeats()) {
+        for (ShowSeat seat : booking.getSeats()) {
             seat.setStatus(Seat.SeatStatus.AVAILABLE);
             seat.setBooking(null);
             seat.setBlockedByUser(null);
             seat.setBlockedUntil(null);
         }
-        seatRepository.saveAll(booking.getSeats());
+        showSeatRepository.saveAll(booking.getSeats());
+        seatMapService.seatsReleased(booking.getShow().getId(), booking.getSeats().stream()
+                .map(seat -> seat.getSeat().getId())
+                .collect(Collectors.toList()));
         
         bookingRepository.save(booking);
         
@@ -117,12 +157,38 @@ public class BookingService {
     }
     
     public List<BookingDto> getAllBookings() {
-        return bookingRepository.findAll().stream()
+        return bookingRepository.findAllWithDetails().stream()
+                .map(this::convertToDto)
+                .collect(Collectors.toList());
+    }
+    
+    // Admin booking list: one query for the page of ids, one for the total and one for the details,
+    // however many bookings the page holds
+    @Transactional(readOnly = true)
+    public PageDto<BookingDto> searchBookings(LocalDate fromDate, LocalDate toDate, Long showId, Long cinemaId,
+                                              Booking.BookingStatus status, int page, int size) {
+        Page<Long> ids = bookingRepository.findIdsByFilter(
+                fromDate != null ? fromDate.atStartOfDay() : null,
+                toDate != null ? toDate.plusDays(1).atStartOfDay() : null,
+                showId, cinemaId, status,
+                PageRequest.of(Math.max(page, 0), Math.min(Math.max(size, 1), MAX_PAGE_SIZE)));
+        
+        Map<Long, Booking> bookingsById = new HashMap<>();
+        if (ids.hasContent()) {
+            for (Booking booking : bookingRepository.findAllWithDetailsByIdIn(ids.getContent())) {
+                bookingsById.put(booking.getId(), booking);
+            }
+        }
+        List<BookingDto> content = ids.getContent().stream()
+                .map(bookingsById::get)
                 .map(this::convertToDto)
                 .collect(Collectors.toList());
+        
+        return new PageDto<>(content, ids.getNumber(), ids.getSize(), ids.getTotalElements(), ids.getTotalPages());
     }
     
-    private BookingDto convertToDto(Booking booking) {
+    // Also used by BookingPipeline for the bookings it writes
+    BookingDto convertToDto(Booking booking) {
         BookingDto dto = new BookingDto();
         dto.setId(booking.getId());
         dto.setBookingReference(booking.getBookingReference());
@@ -132,8 +198,8 @@ public class BookingService {
         dto.setUserId(booking.getUser().getId());
         dto.setShowId(booking.getShow().getId());
         
-        // Include user information
-        if (booking.getUser() != null) {
+        // Include user information; a new booking only holds a reference to its user and goes without
+        if (booking.getUser() != null && Hibernate.isInitialized(booking.getUser())) {
             UserDto userDto = new UserDto();
             userDto.setId(booking.getUser().getId());
             userDto.setName(booking.getUser().getName());
@@ -169,6 +235,7 @@ public class BookingService {
                 // Movies don't have direct cinema relationship in this model
                 showDto.setMovie(movieDto);
                 showDto.setMovieTitle(booking.getShow().getMovie().getTitle());
+                dto.setMovieTitle(booking.getShow().getMovie().getTitle());
             }
             
             // Include screen details
@@ -192,6 +259,7 @@ public class BookingService {
                     cinemaDto.setContactInfo(booking.getShow().getScreen().getCinema().getContactInfo());
                     showDto.setCinemaId(booking.getShow().getScreen().getCinema().getId());
                     showDto.setCinemaName(booking.getShow().getScreen().getCinema().getName());
+                    dto.setCinemaName(booking.getShow().getScreen().getCinema().getName());
                     showDto.setCinemaLocation(booking.getShow().getScreen().getCinema().getLocation());
                     showDto.setCinemaContactInfo(booking.getShow().getScreen().getCinema().getContactInfo());
                 }
@@ -202,7 +270,7 @@ public class BookingService {
         
         if (booking.getSeats() != null) {
             dto.setSeatIds(booking.getSeats().stream()
-                    .map(Seat::getId)
+                    .map(seat -> seat.getSeat().getId())
                     .collect(Collectors.toList()));
             
             dto.setSeats(booking.getSeats().stream()
@@ -213,14 +281,15 @@ public class BookingService {
         return dto;
     }
     
-    private SeatDto convertSeatToDto(Seat seat) {
+    private SeatDto convertSeatToDto(ShowSeat seat) {
         SeatDto dto = new SeatDto();
-        dto.setId(seat.getId());
-        dto.setSeatRow(seat.getSeatRow());
-        dto.setSeatNumber(seat.getSeatNumber());
-        dto.setSeatCode(seat.getSeatCode());
+        dto.setId(seat.getSeat().getId());
+        dto.setSeatRow(seat.getSeat().getSeatRow());
+        dto.setSeatNumber(seat.getSeat().getSeatNumber());
+        dto.setSeatCode(seat.getSeat().getSeatCode());
         dto.setStatus(seat.getStatus());
-        dto.setScreenId(seat.getScreen().getId());
+        dto.setScreenId(seat.getSeat().getScreen().getId());
+        dto.setShowId(seat.getShow().getId());
         dto.setBookingId(seat.getBooking() != null ? seat.getBooking().getId() : null);
         dto.setBlockedByUserId(seat.getBlockedByUser() != null ? seat.getBlockedByUser().getId() : null);
         dto.setBlockedByUserName(seat.getBlockedByUser() != null ? seat.getBlockedByUser().getName() : null);
@@ -0,0 +1,80 @@
+package com.cinema.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+// Read-through cache in front of the catalog reads (movies, cinemas, screens). Entries are bounded
+// in number and expire after a TTL as a backstop; CatalogInvalidationBus evicts the entries admin
+// mutations affect, on this node and on every other. An eviction that races a load of the same key
+// waits for the load and then removes its result, so a reader that saw the old rows can't re-cache
+// them. Metrics: cache.gets{result=hit|miss}, cache.puts, cache.evictions (size/TTL) and cache.size
+// per region, plus catalog.cache.invalidations for evictions caused by changes.
+@Component
+public class CatalogCache {
+    
+    public enum Region {
+        MOVIES, MOVIE, CINEMAS, CINEMA, CINEMA_MOVIES, SCREENS, SCREEN
+    }
+    
+    // Key of the single entry in the list regions
+    public static final Long ALL = 0L;
+    
+    public record Key(Region region, Long id) {
+    }
+    
+    private final Map<Region, Cache<Long, Object>> caches = new EnumMap<>(Region.class);
+    private final MeterRegistry meterRegistry;
+    
+    public CatalogCache(MeterRegistry meterRegistry,
+                        @Value("${catalog.cache.maximum-size:1000}") long maximumSize,
+                        @Value("${catalog.cache.ttl:10m}") Duration ttl) {
+        this.meterRegistry = meterRegistry;
+        for (Region region : Region.values()) {
+            Cache<Long, Object> cache = Caffeine.newBuilder()
+                    .maximumSize(maximumSize)
+                    .expireAfterWrite(ttl)
+                    .recordStats()
+                    .build();
+            CaffeineCacheMetrics.monitor(meterRegistry, cache, cacheName(region));
+            caches.put(region, cache);
+        }
+    }
+    
+    public <T> T getAll(Region region, Supplier<T> loader) {
+        return get(region, ALL, loader);
+    }
+    
+    // A loader that throws (e.g. not found) caches nothing
+    @SuppressWarnings("unchecked")
+    public <T> T get(Region region, Long id, Supplier<T> loader) {
+        return (T) caches.get(region).get(id, key -> loader.get());
+    }
+    
+    public void invalidateAll() {
+        for (Region region : Region.values()) {
+            caches.get(region).invalidateAll();
+            meterRegistry.counter("catalog.cache.invalidations", "cache", cacheName(region)).increment();
+        }
+    }
+    
+    public void evict(Collection<Key> keys) {
+        for (Key key : keys) {
+            caches.get(key.region()).invalidate(key.id());
+            meterRegistry.counter("catalog.cache.invalidations", "cache", cacheName(key.region())).increment();
+        }
+    }
+    
+    private static String cacheName(Region region) {
+        return "catalog." + region.name().toLowerCase().replace('_', '-');
+    }
+}
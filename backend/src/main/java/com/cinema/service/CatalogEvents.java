@@ -0,0 +1,25 @@
+package com.cinema.service;
+
+import java.util.Set;
+
+// Domain events published by admin mutations of the catalog. CatalogCache evicts the entries each one
+// affects once the publishing transaction commits.
+public final class CatalogEvents {
+    
+    private CatalogEvents() {
+    }
+    
+    // cinemaIds: cinemas whose movie listing contains the movie
+    public record MovieChanged(Long movieId, Set<Long> cinemaIds) {
+    }
+    
+    public record CinemaChanged(Long cinemaId) {
+    }
+    
+    public record ScreenChanged(Long screenId, Long cinemaId) {
+    }
+    
+    // Shows were added, moved or removed, so these cinemas' movie listings may have changed
+    public record ShowsChanged(Set<Long> cinemaIds) {
+    }
+}
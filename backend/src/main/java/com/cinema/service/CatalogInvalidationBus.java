@@ -0,0 +1,139 @@
+package com.cinema.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Evicts the catalog cache entries an admin change affects and bumps the versions behind the list
+// ETags, on this node and on every other one. CatalogEvents arrive after their transaction commits;
+// the affected keys and aggregates are applied here and sent through the InvalidationTransport.
+// Each node numbers its messages from 1. A receiver takes the first message it sees from a node as
+// the baseline, and when that node's sequence jumps (a message was lost, or its send failed) or the
+// transport reports lost messages, it flushes the whole cache rather than guess which entries went
+// stale.
+@Slf4j
+@Service
+public class CatalogInvalidationBus implements InvalidationTransport.Listener {
+    
+    private final CatalogCache catalogCache;
+    private final CatalogVersions catalogVersions;
+    private final InvalidationTransport transport;
+    private final MeterRegistry meterRegistry;
+    private final String nodeId = UUID.randomUUID().toString();
+    private final AtomicLong sequence = new AtomicLong();
+    private final Object sendLock = new Object();
+    private final Map<String, Long> lastSequences = new HashMap<>();
+    
+    public CatalogInvalidationBus(CatalogCache catalogCache,
+                                  CatalogVersions catalogVersions,
+                                  InvalidationTransport transport,
+                                  MeterRegistry meterRegistry) {
+        this.catalogCache = catalogCache;
+        this.catalogVersions = catalogVersions;
+        this.transport = transport;
+        this.meterRegistry = meterRegistry;
+    }
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        transport.start(this);
+    }
+    
+    @PreDestroy
+    public void stop() {
+        transport.stop();
+    }
+    
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onMovieChanged(CatalogEvents.MovieChanged event) {
+        List<CatalogCache.Key> keys = new ArrayList<>();
+        keys.add(new CatalogCache.Key(CatalogCache.Region.MOVIES, CatalogCache.ALL));
+        keys.add(new CatalogCache.Key(CatalogCache.Region.MOVIE, event.movieId()));
+        event.cinemaIds().forEach(cinemaId -> keys.add(new CatalogCache.Key(CatalogCache.Region.CINEMA_MOVIES, cinemaId)));
+        // Show listings carry the movie title
+        publish(keys, List.of(CatalogVersions.Aggregate.MOVIES, CatalogVersions.Aggregate.SHOWS));
+    }
+    
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCinemaChanged(CatalogEvents.CinemaChanged event) {
+        publish(List.of(new CatalogCache.Key(CatalogCache.Region.CINEMAS, CatalogCache.ALL),
+                new CatalogCache.Key(CatalogCache.Region.CINEMA, event.cinemaId())),
+                List.of(CatalogVersions.Aggregate.CINEMAS, CatalogVersions.Aggregate.SHOWS));
+    }
+    
+    // Cinema DTOs embed their screens, show listings carry the screen name
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onScreenChanged(CatalogEvents.ScreenChanged event) {
+        publish(List.of(new CatalogCache.Key(CatalogCache.Region.SCREENS, CatalogCache.ALL),
+                new CatalogCache.Key(CatalogCache.Region.SCREEN, event.screenId()),
+                new CatalogCache.Key(CatalogCache.Region.CINEMAS, CatalogCache.ALL),
+                new CatalogCache.Key(CatalogCache.Region.CINEMA, event.cinemaId())),
+                List.of(CatalogVersions.Aggregate.SCREENS, CatalogVersions.Aggregate.CINEMAS, CatalogVersions.Aggregate.SHOWS));
+    }
+    
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onShowsChanged(CatalogEvents.ShowsChanged event) {
+        List<CatalogCache.Key> keys = new ArrayList<>();
+        event.cinemaIds().forEach(cinemaId -> keys.add(new CatalogCache.Key(CatalogCache.Region.CINEMA_MOVIES, cinemaId)));
+        publish(keys, List.of(CatalogVersions.Aggregate.SHOWS));
+    }
+    
+    @Override
+    public synchronized void onMessage(InvalidationTransport.Message message) {
+        if (nodeId.equals(message.nodeId())) {
+            return;
+        }
+        Long last = lastSequences.get(message.nodeId());
+        if (last == null || message.sequence() > last) {
+            lastSequences.put(message.nodeId(), message.sequence());
+        }
+        if (last != null && message.sequence() > last + 1) {
+            flush("node " + message.nodeId() + " skipped from message " + last + " to " + message.sequence());
+        } else {
+            catalogCache.evict(message.keys());
+            catalogVersions.bump(message.aggregates());
+        }
+    }
+    
+    @Override
+    public void onMissed(String reason) {
+        flush(reason);
+    }
+    
+    // Versions move only after the entries are gone: bumped first, a reader could tag the old cached
+    // data with the new version and clients would keep it for good. Messages are numbered and sent
+    // one at a time, so this node's messages reach the transport in sequence order and a receiver
+    // never sees a jump that is only two admin changes racing each other
+    private void publish(List<CatalogCache.Key> keys, List<CatalogVersions.Aggregate> aggregates) {
+        catalogCache.evict(keys);
+        catalogVersions.bump(aggregates);
+        synchronized (sendLock) {
+            InvalidationTransport.Message message = new InvalidationTransport.Message(nodeId, sequence.incrementAndGet(), keys, aggregates);
+            try {
+                transport.send(message);
+            } catch (RuntimeException e) {
+                // The other nodes flush when they see the gap this leaves in our sequence
+                meterRegistry.counter("catalog.invalidation.send.failures").increment();
+                log.warn("Failed to broadcast catalog invalidation {}", message.sequence(), e);
+            }
+        }
+    }
+    
+    private void flush(String reason) {
+        catalogCache.invalidateAll();
+        catalogVersions.bumpAll();
+        meterRegistry.counter("catalog.invalidation.flushes").increment();
+        log.info("Flushed catalog cache: {}", reason);
+    }
+}
@@ -0,0 +1,49 @@
+package com.cinema.service;
+
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Version counters that key this node's renderings of the catalog and showtime list endpoints.
+// CatalogInvalidationBus bumps an aggregate's counter after a committed change to it, here or on
+// another node, and only once the matching cache entries are gone, so a rendering is never filed
+// under a version newer than its data. The counters are per node and start over on restart; the
+// ETags clients see are content hashes (CatalogResponses), never these numbers.
+@Component
+public class CatalogVersions {
+    
+    public enum Aggregate {
+        MOVIES, CINEMAS, SCREENS, SHOWS
+    }
+    
+    private final Map<Aggregate, AtomicLong> versions = new EnumMap<>(Aggregate.class);
+    
+    public CatalogVersions() {
+        for (Aggregate aggregate : Aggregate.values()) {
+            versions.put(aggregate, new AtomicLong());
+        }
+    }
+    
+    public void bump(Collection<Aggregate> aggregates) {
+        aggregates.forEach(aggregate -> versions.get(aggregate).incrementAndGet());
+    }
+    
+    public void bumpAll() {
+        versions.values().forEach(AtomicLong::incrementAndGet);
+    }
+    
+    // Local version of the given aggregates, e.g. "m3-s12"
+    public String key(Aggregate... aggregates) {
+        StringBuilder key = new StringBuilder();
+        for (Aggregate aggregate : aggregates) {
+            if (key.length() > 0) {
+                key.append('-');
+            }
+            key.append(Character.toLowerCase(aggregate.name().charAt(0))).append(versions.get(aggregate).get());
+        }
+        return key.toString();
+    }
+}
@@ -4,13 +4,20 @@ import com.cinema.dto.CinemaDto;
 import com.cinema.dto.MovieDto;
 import com.cinema.dto.ScreenDto;
 import com.cinema.entity.Cinema;
+import com.cinema.entity.Screen;
 import com.cinema.repository.CinemaRepository;
 import com.cinema.repository.MovieRepository;
+import com.cinema.repository.ScreenRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 @Service
@@ -20,25 +27,59 @@ public class CinemaService {
     
     private final CinemaRepository cinemaRepository;
     private final MovieRepository movieRepository;
+    private final ScreenRepository screenRepository;
     private final ShowService showService;
+    private final CatalogCache catalogCache;
+    private final ApplicationEventPublisher eventPublisher;
     
+    // Cached reads run outside a transaction so that hits don't check out a connection
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
     public List<CinemaDto> getAllCinemas() {
-        return cinemaRepository.findAllWithScreens().stream()
-                .map(this::convertToDto)
-                .collect(Collectors.toList());
+        return catalogCache.getAll(CatalogCache.Region.CINEMAS, this::loadAllCinemas);
     }
     
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
     public CinemaDto getCinemaById(Long id) {
-        Cinema cinema = cinemaRepository.findByIdWithScreens(id)
-                .orElseThrow(() -> new RuntimeException("Cinema not found with id: " + id));
-        return convertToDto(cinema);
+        return catalogCache.get(CatalogCache.Region.CINEMA, id, () -> {
+            Cinema cinema = cinemaRepository.findByIdWithScreens(id)
+                    .orElseThrow(() -> new RuntimeException("Cinema not found with id: " + id));
+            return convertToDto(cinema);
+        });
     }
     
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
     public List<MovieDto> getMoviesByCinemaId(Long cinemaId) {
         // Get movies that have shows in screens belonging to this cinema
-        return movieRepository.findMoviesByCinemaId(cinemaId).stream()
-                .map(this::convertMovieToDto)
-                .collect(Collectors.toList());
+        return catalogCache.get(CatalogCache.Region.CINEMA_MOVIES, cinemaId, () -> movieRepository.findMoviesByCinemaId(cinemaId).stream()
+                .map(this::convertSummaryToDto)
+                .collect(Collectors.toList()));
+    }
+    
+    private List<CinemaDto> loadAllCinemas() {
+        // Flat cinema x screen rows folded into DTOs, instead of materializing every cinema and screen entity
+        Map<Long, CinemaDto> cinemas = new LinkedHashMap<>();
+        for (CinemaRepository.CinemaScreenRow row : cinemaRepository.findAllCinemaScreenRows()) {
+            CinemaDto dto = cinemas.computeIfAbsent(row.id(), id -> {
+                CinemaDto cinema = new CinemaDto();
+                cinema.setId(id);
+                cinema.setName(row.name());
+                cinema.setLocation(row.location());
+                cinema.setContactInfo(row.contactInfo());
+                cinema.setScreens(new ArrayList<>());
+                return cinema;
+            });
+            if (row.screenId() != null) {
+                ScreenDto screen = new ScreenDto();
+                screen.setId(row.screenId());
+                screen.setName(row.screenName());
+                screen.setCapacity(row.capacity());
+                screen.setTotalRows(row.totalRows());
+                screen.setSeatsPerRow(row.seatsPerRow());
+                screen.setCinemaId(row.id());
+                dto.getScreens().add(screen);
+            }
+        }
+        return new ArrayList<>(cinemas.values());
     }
 
     @Transactional
@@ -48,6 +89,7 @@ public class CinemaService {
         cinema.setLocation(cinemaDto.getLocation());
         cinema.setContactInfo(cinemaDto.getContactInfo());
         Cinema savedCinema = cinemaRepository.save(cinema);
+        eventPublisher.publishEvent(new CatalogEvents.CinemaChanged(savedCinema.getId()));
         return convertToDto(savedCinema);
     }
 
@@ -60,6 +102,7 @@ public class CinemaService {
         cinema.setLocation(cinemaDto.getLocation());
         cinema.setContactInfo(cinemaDto.getContactInfo());
         Cinema updatedCinema = cinemaRepository.save(cinema);
+        eventPublisher.publishEvent(new CatalogEvents.CinemaChanged(id));
         return convertToDto(updatedCinema);
     }
 
@@ -68,7 +111,10 @@ public class CinemaService {
         // First delete all shows in this cinema
         showService.deleteShowsByCinemaId(id);
         // Then delete the cinema (screens and movies will be cascade deleted by JPA)
+        List<Screen> screens = screenRepository.findByCinemaId(id);
         cinemaRepository.deleteById(id);
+        screens.forEach(screen -> eventPublisher.publishEvent(new CatalogEvents.ScreenChanged(screen.getId(), id)));
+        eventPublisher.publishEvent(new CatalogEvents.CinemaChanged(id));
     }
     
     private CinemaDto convertToDto(Cinema cinema) {
@@ -90,7 +136,7 @@ public class CinemaService {
         return dto;
     }
     
-    private ScreenDto convertScreenToDto(com.cinema.entity.Screen screen) {
+    private ScreenDto convertScreenToDto(Screen screen) {
         ScreenDto dto = new ScreenDto();
         dto.setId(screen.getId());
         dto.setName(screen.getName());
@@ -101,17 +147,16 @@ public class CinemaService {
         return dto;
     }
     
-    private MovieDto convertMovieToDto(com.cinema.entity.Movie movie) {
+    private MovieDto convertSummaryToDto(MovieRepository.MovieSummary movie) {
         MovieDto dto = new MovieDto();
-        dto.setId(movie.getId());
-        dto.setTitle(movie.getTitle());
-        dto.setDescription(movie.getDescription());
-        dto.setGenre(movie.getGenre());
-        dto.setRating(movie.getRating());
-        dto.setDuration(movie.getDuration());
-        dto.setReleaseDate(movie.getReleaseDate());
-        dto.setPosterUrl(movie.getPosterUrl());
-        dto.setIsActive(movie.getIsActive());
+        dto.setId(movie.id());
+        dto.setTitle(movie.title());
+        dto.setGenre(movie.genre());
+        dto.setRating(movie.rating());
+        dto.setDuration(movie.duration());
+        dto.setReleaseDate(movie.releaseDate());
+        dto.setPosterUrl(movie.posterUrl());
+        dto.setIsActive(movie.isActive());
         // Movies don't have direct cinema relationship in this model
         return dto;
     }
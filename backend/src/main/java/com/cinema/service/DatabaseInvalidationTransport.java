@@ -0,0 +1,209 @@
+package com.cinema.service;
+
+import com.cinema.entity.CatalogInvalidation;
+import com.cinema.repository.CatalogInvalidationRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+// Shares evictions through the catalog_invalidations table, so it needs nothing beyond the database
+// the nodes already use. Every message is a row; each node polls the rows above the highest id it has
+// read. A skipped id is usually a row whose insert had not committed yet when a later one was read
+// (auto-increment ids are handed out before commit, and interleaved with innodb_autoinc_lock_mode=2),
+// or an id a rolled-back insert used up. So a gap is only noted, and read again once gap-grace has
+// passed: rows that turned up by then are delivered late, and only ids still missing, such as rows
+// purged before this node read them, are reported as missed, on which the bus flushes. Rows older
+// than the retention are purged; keeping the retention above the cache TTL means a purged message can
+// only concern entries that have already expired.
+// A node's next message may be sitting in such a gap while its later ones are read, so while gaps
+// are open a row that skips ahead in its node's sequence is held back, and delivered in order once
+// the missing message turns up or the gaps open at the time have been read again.
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "catalog.invalidation.transport", havingValue = "database", matchIfMissing = true)
+public class DatabaseInvalidationTransport implements InvalidationTransport {
+    
+    private static final int BATCH_SIZE = 500;
+    private static final long PURGE_INTERVAL_MS = 60_000;
+    
+    // Ids from through to were skipped by the poll and are read again at checkAt
+    private record Gap(long from, long to, long checkAt) {
+    }
+    
+    // A row that skipped ahead in its node's sequence, delivered by releaseAt at the latest
+    private record Held(CatalogInvalidation row, long releaseAt) {
+    }
+    
+    private final CatalogInvalidationRepository repository;
+    private final TransactionTemplate transactionTemplate;
+    private final long pollIntervalMs;
+    private final Duration retention;
+    private final long gapGraceMs;
+    private final Deque<Gap> gaps = new ArrayDeque<>();
+    // Per node: the last sequence delivered, and the rows held back behind it by sequence
+    private final Map<String, Long> lastSequences = new HashMap<>();
+    private final Map<String, TreeMap<Long, Held>> heldBack = new HashMap<>();
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "catalog-invalidation");
+        thread.setDaemon(true);
+        return thread;
+    });
+    
+    private volatile Listener listener;
+    private long lastSeenId;
+    private long lastPurge;
+    
+    public DatabaseInvalidationTransport(CatalogInvalidationRepository repository,
+                                         PlatformTransactionManager transactionManager,
+                                         @Value("${catalog.invalidation.poll-interval-ms:1000}") long pollIntervalMs,
+                                         @Value("${catalog.invalidation.retention:1h}") Duration retention,
+                                         @Value("${catalog.invalidation.gap-grace:5s}") Duration gapGrace) {
+        this.repository = repository;
+        // Messages are sent after the changing transaction committed, so they need one of their own
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.pollIntervalMs = pollIntervalMs;
+        this.retention = retention;
+        this.gapGraceMs = gapGrace.toMillis();
+    }
+    
+    @Override
+    public void send(Message message) {
+        String keys = message.keys().stream()
+                .map(key -> key.region().name() + ":" + key.id())
+                .collect(Collectors.joining(","));
+        String aggregates = message.aggregates().stream()
+                .map(Enum::name)
+                .collect(Collectors.joining(","));
+        transactionTemplate.executeWithoutResult(status -> repository.save(
+                new CatalogInvalidation(null, message.nodeId(), message.sequence(), keys, aggregates, LocalDateTime.now())));
+    }
+    
+    // Changes made before this node started are already in the database it loads from
+    @Override
+    public synchronized void start(Listener listener) {
+        this.lastSeenId = repository.findMaxId();
+        this.listener = listener;
+        executor.scheduleWithFixedDelay(() -> {
+            try {
+                poll();
+            } catch (RuntimeException e) {
+                log.warn("Failed to poll catalog invalidations", e);
+            }
+        }, pollIntervalMs, pollIntervalMs, TimeUnit.MILLISECONDS);
+    }
+    
+    @Override
+    public void stop() {
+        executor.shutdownNow();
+    }
+    
+    public synchronized void poll() {
+        long now = System.currentTimeMillis();
+        List<CatalogInvalidation> rows = repository.findByIdGreaterThanOrderByIdAsc(lastSeenId, PageRequest.of(0, BATCH_SIZE));
+        for (CatalogInvalidation row : rows) {
+            if (row.getId() != lastSeenId + 1) {
+                gaps.add(new Gap(lastSeenId + 1, row.getId() - 1, now + gapGraceMs));
+            }
+            lastSeenId = row.getId();
+            offer(row);
+        }
+        
+        while (!gaps.isEmpty() && gaps.peek().checkAt() <= now) {
+            Gap gap = gaps.poll();
+            List<CatalogInvalidation> late = repository.findByIdBetweenOrderByIdAsc(gap.from(), gap.to());
+            late.forEach(this::offer);
+            long missing = gap.to() - gap.from() + 1 - late.size();
+            if (missing > 0) {
+                listener.onMissed(missing + " of catalog invalidations " + gap.from() + " to " + gap.to()
+                        + " still missing after " + gapGraceMs + " ms");
+            }
+        }
+        release(now);
+        
+        if (now - lastPurge >= PURGE_INTERVAL_MS) {
+            lastPurge = now;
+            transactionTemplate.executeWithoutResult(status ->
+                    repository.deleteCreatedBefore(LocalDateTime.now().minus(retention)));
+        }
+    }
+    
+    private void offer(CatalogInvalidation row) {
+        String nodeId = row.getNodeId();
+        Long last = lastSequences.get(nodeId);
+        TreeMap<Long, Held> held = heldBack.get(nodeId);
+        if (last != null && row.getSequence() > last + 1 && (!gaps.isEmpty() || held != null)) {
+            long releaseAt = gaps.isEmpty() ? 0 : gaps.peekLast().checkAt();
+            heldBack.computeIfAbsent(nodeId, id -> new TreeMap<>()).put(row.getSequence(), new Held(row, releaseAt));
+            return;
+        }
+        deliver(row);
+        drain(nodeId, Long.MIN_VALUE);
+    }
+    
+    // Delivers a node's held rows that are next in its sequence, or are due; a due row that still
+    // skips ahead reaches the bus as the jump it is
+    private void drain(String nodeId, long now) {
+        TreeMap<Long, Held> held = heldBack.get(nodeId);
+        while (held != null && !held.isEmpty()
+                && (held.firstKey() <= lastSequences.get(nodeId) + 1 || held.firstEntry().getValue().releaseAt() <= now)) {
+            deliver(held.pollFirstEntry().getValue().row());
+        }
+        if (held != null && held.isEmpty()) {
+            heldBack.remove(nodeId);
+        }
+    }
+    
+    private void release(long now) {
+        for (String nodeId : List.copyOf(heldBack.keySet())) {
+            drain(nodeId, now);
+        }
+    }
+    
+    private void deliver(CatalogInvalidation row) {
+        lastSequences.merge(row.getNodeId(), row.getSequence(), Math::max);
+        listener.onMessage(new Message(row.getNodeId(), row.getSequence(),
+                parseKeys(row.getCacheKeys()), parseAggregates(row.getAggregates())));
+    }
+    
+    private static List<CatalogVersions.Aggregate> parseAggregates(String aggregates) {
+        if (aggregates.isEmpty()) {
+            return List.of();
+        }
+        return Arrays.stream(aggregates.split(","))
+                .map(CatalogVersions.Aggregate::valueOf)
+                .collect(Collectors.toList());
+    }
+    
+    private static List<CatalogCache.Key> parseKeys(String keys) {
+        if (keys.isEmpty()) {
+            return List.of();
+        }
+        return Arrays.stream(keys.split(","))
+                .map(key -> {
+                    int separator = key.indexOf(':');
+                    return new CatalogCache.Key(CatalogCache.Region.valueOf(key.substring(0, separator)),
+                            Long.valueOf(key.substring(separator + 1)));
+                })
+                .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,133 @@
+package com.cinema.service;
+
+import com.cinema.repository.ShowSeatRepository;
+import com.cinema.util.TimingWheel;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+// Releases seat holds within about one tick of their blockedUntil. Holds are kept in a timing wheel
+// owned by a single thread; every tick releases everything that fell due with one UPDATE. Holds that
+// were booked, released or extended in the meantime are left alone by the conditional update.
+@Slf4j
+@Service
+public class HoldExpiryScheduler {
+    
+    public static final class Hold {
+        private final Long showSeatId;
+        private final Long showId;
+        private final Long seatId;
+        
+        public Hold(Long showSeatId, Long showId, Long seatId) {
+            this.showSeatId = showSeatId;
+            this.showId = showId;
+            this.seatId = seatId;
+        }
+    }
+    
+    private static final class Pending {
+        private final Hold hold;
+        private final long expiresAt;
+        
+        private Pending(Hold hold, long expiresAt) {
+            this.hold = hold;
+            this.expiresAt = expiresAt;
+        }
+    }
+    
+    private final ShowSeatRepository showSeatRepository;
+    private final SeatMapService seatMapService;
+    private final TransactionTemplate transactionTemplate;
+    private final long tickMs;
+    private final TimingWheel<Hold> wheel;
+    private final Queue<Pending> pending = new ConcurrentLinkedQueue<>();
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "hold-expiry");
+        thread.setDaemon(true);
+        return thread;
+    });
+    
+    public HoldExpiryScheduler(ShowSeatRepository showSeatRepository,
+                               SeatMapService seatMapService,
+                               PlatformTransactionManager transactionManager,
+                               @Value("${seat.hold.expiry-tick-ms:1000}") long tickMs) {
+        this.showSeatRepository = showSeatRepository;
+        this.seatMapService = seatMapService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.tickMs = tickMs;
+        this.wheel = new TimingWheel<>(tickMs, 64, System.currentTimeMillis());
+    }
+    
+    // Rebuild the wheel from the holds that survived a restart, then start ticking
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        List<ShowSeatRepository.ActiveHold> holds = showSeatRepository.findActiveHolds();
+        for (ShowSeatRepository.ActiveHold hold : holds) {
+            schedule(new Hold(hold.getShowSeatId(), hold.getShowId(), hold.getSeatId()), hold.getBlockedUntil());
+        }
+        log.info("Scheduled expiry of {} seat holds", holds.size());
+        executor.scheduleWithFixedDelay(this::tick, tickMs, tickMs, TimeUnit.MILLISECONDS);
+    }
+    
+    @PreDestroy
+    public void stop() {
+        executor.shutdownNow();
+    }
+    
+    public void schedule(Hold hold, LocalDateTime blockedUntil) {
+        pending.add(new Pending(hold, blockedUntil.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli()));
+    }
+    
+    private void tick() {
+        try {
+            long now = System.currentTimeMillis();
+            List<Hold> due = new ArrayList<>();
+            Pending next;
+            while ((next = pending.poll()) != null) {
+                if (!wheel.add(next.hold, next.expiresAt, now)) {
+                    due.add(next.hold);
+                }
+            }
+            wheel.advance(now, due::add);
+            if (!due.isEmpty()) {
+                release(due);
+            }
+        } catch (Exception e) {
+            // Keep ticking; anything missed is picked up by the periodic sweep in SeatService
+            log.warn("Error releasing expired seat holds", e);
+        }
+    }
+    
+    private void release(List<Hold> due) {
+        List<Long> showSeatIds = due.stream()
+                .map(hold -> hold.showSeatId)
+                .collect(Collectors.toList());
+        LocalDateTime now = LocalDateTime.now();
+        
+        transactionTemplate.executeWithoutResult(status -> {
+            showSeatRepository.unblockExpiredSeats(showSeatIds, now);
+            
+            Map<Long, List<Long>> seatIdsByShow = due.stream()
+                    .collect(Collectors.groupingBy(hold -> hold.showId,
+                            Collectors.mapping(hold -> hold.seatId, Collectors.toList())));
+            seatIdsByShow.forEach(seatMapService::seatsExpired);
+        });
+    }
+}
@@ -0,0 +1,220 @@
+package com.cinema.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+// Remembers the responses of requests sent with an Idempotency-Key, so that a client retrying after
+// a timeout gets the original response instead of running the request again. Keys are claimed twice:
+// in a bounded in-memory cache, where duplicates arriving on this node wait on the first request's
+// future, and in the idempotency_keys table, where a row inserted as "in progress" stops other nodes
+// from running the same request; they poll the row until its response is written. Only responses
+// below 500 are kept. After a server error the key is released and the next retry runs again.
+@Slf4j
+@Service
+public class IdempotencyStore {
+
+    public record StoredResponse(int status, String contentType, byte[] body) {
+    }
+
+    // replay is null when the caller owns the key and must run the request, then complete or abandon it
+    public record Claim(StoredResponse replay) {
+        public boolean isOwner() {
+            return replay == null;
+        }
+    }
+
+    // The key was already used for a request with a different body
+    public static class KeyReuseException extends RuntimeException {
+        public KeyReuseException() {
+            super("Idempotency-Key was already used for a different request");
+        }
+    }
+
+    // The first request with the key hasn't finished within the wait timeout
+    public static class InProgressException extends RuntimeException {
+        public InProgressException() {
+            super("A request with this Idempotency-Key is still in progress");
+        }
+    }
+
+    private record Entry(String requestHash, CompletableFuture<StoredResponse> response) {
+    }
+
+    private record Row(String requestHash, Integer status, String contentType, byte[] body,
+                       LocalDateTime createdAt, LocalDateTime expiresAt) {
+    }
+
+    private static final long POLL_INTERVAL_MS = 50;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Cache<String, Entry> entries;
+    private final Duration ttl;
+    private final long waitTimeoutMs;
+    private final Duration lease;
+
+    public IdempotencyStore(JdbcTemplate jdbcTemplate,
+                            MeterRegistry meterRegistry,
+                            @Value("${idempotency.ttl:24h}") Duration ttl,
+                            @Value("${idempotency.maximum-size:100000}") long maximumSize,
+                            @Value("${idempotency.wait-timeout:10s}") Duration waitTimeout,
+                            @Value("${idempotency.lease:60s}") Duration lease) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.ttl = ttl;
+        this.waitTimeoutMs = waitTimeout.toMillis();
+        this.lease = lease;
+        this.entries = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, entries, "idempotency.keys");
+    }
+
+    // scopeKey: the key qualified by user and endpoint; requestHash: digest of the request body
+    public Claim claim(String scopeKey, String requestHash) {
+        long deadline = System.currentTimeMillis() + waitTimeoutMs;
+        while (true) {
+            Entry mine = new Entry(requestHash, new CompletableFuture<>());
+            Entry existing = entries.asMap().putIfAbsent(scopeKey, mine);
+            if (existing != null) {
+                if (!existing.requestHash().equals(requestHash)) {
+                    throw new KeyReuseException();
+                }
+                StoredResponse response = await(existing.response(), deadline);
+                if (response != null) {
+                    return new Claim(response);
+                }
+                // The first request failed and released the key; claim it again
+                continue;
+            }
+
+            try {
+                StoredResponse response = claimRow(scopeKey, requestHash, deadline);
+                if (response != null) {
+                    mine.response().complete(response);
+                }
+                return new Claim(response);
+            } catch (RuntimeException e) {
+                release(scopeKey, mine);
+                throw e;
+            }
+        }
+    }
+
+    public void complete(String scopeKey, StoredResponse response) {
+        try {
+            jdbcTemplate.update("UPDATE idempotency_keys SET status_code = ?, content_type = ?, response_body = ? WHERE scope_hash = ?",
+                    response.status(), response.contentType(), response.body(), scopeKey);
+        } catch (RuntimeException e) {
+            // Replays on this node still work; other nodes see the key in progress until its lease runs out
+            log.warn("Failed to store idempotent response {}", scopeKey, e);
+        }
+        Entry entry = entries.getIfPresent(scopeKey);
+        if (entry != null) {
+            entry.response().complete(response);
+        }
+    }
+
+    public void abandon(String scopeKey) {
+        try {
+            jdbcTemplate.update("DELETE FROM idempotency_keys WHERE scope_hash = ? AND status_code IS NULL", scopeKey);
+        } finally {
+            Entry entry = entries.getIfPresent(scopeKey);
+            if (entry != null) {
+                release(scopeKey, entry);
+            }
+        }
+    }
+
+    @Scheduled(fixedRateString = "${idempotency.purge-interval-ms:300000}")
+    public void purgeExpired() {
+        jdbcTemplate.update("DELETE FROM idempotency_keys WHERE expires_at < ?", Timestamp.valueOf(LocalDateTime.now()));
+    }
+
+    // Returns null once the row is ours, or the response another node stored for the key
+    private StoredResponse claimRow(String scopeKey, String requestHash, long deadline) {
+        while (true) {
+            LocalDateTime now = LocalDateTime.now();
+            try {
+                jdbcTemplate.update("INSERT INTO idempotency_keys (scope_hash, request_hash, created_at, expires_at) VALUES (?, ?, ?, ?)",
+                        scopeKey, requestHash, Timestamp.valueOf(now), Timestamp.valueOf(now.plus(ttl)));
+                return null;
+            } catch (DuplicateKeyException e) {
+                Row row = findRow(scopeKey);
+                if (row == null) {
+                    continue;
+                }
+                // Expired, or left unfinished by a node that died mid-request
+                if (row.expiresAt().isBefore(now) || (row.status() == null && row.createdAt().plus(lease).isBefore(now))) {
+                    jdbcTemplate.update("DELETE FROM idempotency_keys WHERE scope_hash = ? AND created_at = ?",
+                            scopeKey, Timestamp.valueOf(row.createdAt()));
+                    continue;
+                }
+                if (!row.requestHash().equals(requestHash)) {
+                    throw new KeyReuseException();
+                }
+                if (row.status() != null) {
+                    return new StoredResponse(row.status(), row.contentType(), row.body());
+                }
+                if (System.currentTimeMillis() >= deadline) {
+                    throw new InProgressException();
+                }
+                sleep(POLL_INTERVAL_MS);
+            }
+        }
+    }
+
+    private Row findRow(String scopeKey) {
+        List<Row> rows = jdbcTemplate.query(
+                "SELECT request_hash, status_code, content_type, response_body, created_at, expires_at FROM idempotency_keys WHERE scope_hash = ?",
+                (rs, rowNum) -> new Row(rs.getString(1), rs.getObject(2, Integer.class), rs.getString(3),
+                        rs.getBytes(4), rs.getTimestamp(5).toLocalDateTime(), rs.getTimestamp(6).toLocalDateTime()),
+                scopeKey);
+        return rows.isEmpty() ? null : rows.get(0);
+    }
+
+    // Completing with null wakes waiting duplicates, which then try to claim the key themselves
+    private void release(String scopeKey, Entry entry) {
+        entries.asMap().remove(scopeKey, entry);
+        entry.response().complete(null);
+    }
+
+    private static StoredResponse await(CompletableFuture<StoredResponse> response, long deadline) {
+        try {
+            return response.get(Math.max(0, deadline - System.currentTimeMillis()), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            throw new InProgressException();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InProgressException();
+        } catch (ExecutionException e) {
+            return null;
+        }
+    }
+
+    private static void sleep(long ms) {
+        try {
+            Thread.sleep(ms);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InProgressException();
+        }
+    }
+}
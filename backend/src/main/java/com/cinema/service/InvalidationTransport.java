@@ -0,0 +1,25 @@
+package com.cinema.service;
+
+import java.util.List;
+
+// Carries catalog cache evictions between nodes. Delivery may be late, duplicated or lossy;
+// CatalogInvalidationBus numbers each node's messages and flushes the whole cache on a gap.
+public interface InvalidationTransport {
+    
+    // keys: cache entries to evict; aggregates: version counters to bump
+    record Message(String nodeId, long sequence, List<CatalogCache.Key> keys, List<CatalogVersions.Aggregate> aggregates) {
+    }
+    
+    interface Listener {
+        void onMessage(Message message);
+        
+        // The transport knows it lost messages (e.g. they were purged before this node read them)
+        void onMissed(String reason);
+    }
+    
+    void send(Message message);
+    
+    void start(Listener listener);
+    
+    void stop();
+}
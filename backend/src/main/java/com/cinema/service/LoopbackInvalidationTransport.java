@@ -0,0 +1,34 @@
+package com.cinema.service;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+// Delivers every message synchronously to all buses started in this JVM, so tests can run several
+// application contexts as separate nodes without a shared database or broker.
+@Component
+@ConditionalOnProperty(name = "catalog.invalidation.transport", havingValue = "loopback")
+public class LoopbackInvalidationTransport implements InvalidationTransport {
+    
+    private static final List<Listener> LISTENERS = new CopyOnWriteArrayList<>();
+    
+    private Listener listener;
+    
+    @Override
+    public void send(Message message) {
+        LISTENERS.forEach(each -> each.onMessage(message));
+    }
+    
+    @Override
+    public void start(Listener listener) {
+        this.listener = listener;
+        LISTENERS.add(listener);
+    }
+    
+    @Override
+    public void stop() {
+        LISTENERS.remove(listener);
+    }
+}
@@ -3,14 +3,16 @@ package com.cinema.service;
 import com.cinema.dto.MovieDto;
 import com.cinema.dto.ShowDto;
 import com.cinema.entity.Movie;
-import com.cinema.entity.Show;
 import com.cinema.repository.MovieRepository;
 import com.cinema.repository.ShowRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Service
@@ -21,23 +23,28 @@ public class MovieService {
     private final MovieRepository movieRepository;
     private final ShowRepository showRepository;
     private final ShowService showService;
+    private final CatalogCache catalogCache;
+    private final ApplicationEventPublisher eventPublisher;
 
+    // Cached reads run outside a transaction so that hits don't check out a connection
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
     public List<MovieDto> getAllMovies() {
-        return movieRepository.findAll().stream()
-                .map(this::convertMovieToDto)
-                .collect(Collectors.toList());
+        return catalogCache.getAll(CatalogCache.Region.MOVIES, () -> movieRepository.findAllSummaries().stream()
+                .map(this::convertSummaryToDto)
+                .collect(Collectors.toList()));
     }
 
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
     public MovieDto getMovieById(Long id) {
-        Movie movie = movieRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Movie not found with id: " + id));
-        return convertMovieToDto(movie);
+        return catalogCache.get(CatalogCache.Region.MOVIE, id, () -> {
+            Movie movie = movieRepository.findById(id)
+                    .orElseThrow(() -> new RuntimeException("Movie not found with id: " + id));
+            return convertMovieToDto(movie);
+        });
     }
 
     public List<ShowDto> getShowsByMovieId(Long movieId) {
-        return showRepository.findByMovieId(movieId).stream()
-                .map(this::convertShowToDto)
-                .collect(Collectors.toList());
+        return showService.getShowsByMovieId(movieId);
     }
 
     @Transactional
@@ -54,6 +61,7 @@ public class MovieService {
         
         
         Movie savedMovie = movieRepository.save(movie);
+        eventPublisher.publishEvent(new CatalogEvents.MovieChanged(savedMovie.getId(), Set.of()));
         return convertMovieToDto(savedMovie);
     }
 
@@ -73,6 +81,7 @@ public class MovieService {
         
 
         Movie updatedMovie = movieRepository.save(movie);
+        eventPublisher.publishEvent(new CatalogEvents.MovieChanged(id, showRepository.findCinemaIdsByMovieId(id)));
         return convertMovieToDto(updatedMovie);
     }
 
@@ -82,6 +91,7 @@ public class MovieService {
         showService.deleteShowsByMovieId(id);
         // Then delete the movie
         movieRepository.deleteById(id);
+        eventPublisher.publishEvent(new CatalogEvents.MovieChanged(id, Set.of()));
     }
 
 
@@ -101,19 +111,17 @@ public class MovieService {
         return dto;
     }
 
-    private ShowDto convertShowToDto(Show show) {
-        ShowDto dto = new ShowDto();
-        dto.setId(show.getId());
-        dto.setDate(show.getDate());
-        dto.setTime(show.getTime());
-        dto.setTicketPrice(show.getTicketPrice());
-        dto.setIsActive(show.getIsActive());
-        dto.setMovieId(show.getMovie().getId());
-        dto.setMovieTitle(show.getMovie().getTitle());
-        dto.setScreenId(show.getScreen().getId());
-        dto.setScreenName(show.getScreen().getName());
-        dto.setCinemaId(show.getScreen().getCinema().getId());
-        dto.setCinemaName(show.getScreen().getCinema().getName());
+    private MovieDto convertSummaryToDto(MovieRepository.MovieSummary movie) {
+        MovieDto dto = new MovieDto();
+        dto.setId(movie.id());
+        dto.setTitle(movie.title());
+        dto.setDescription(movie.description());
+        dto.setGenre(movie.genre());
+        dto.setRating(movie.rating());
+        dto.setDuration(movie.duration());
+        dto.setReleaseDate(movie.releaseDate());
+        dto.setPosterUrl(movie.posterUrl());
+        dto.setIsActive(movie.isActive());
         return dto;
     }
 }
@@ -0,0 +1,73 @@
+package com.cinema.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import com.cinema.exception.SeatConflictException;
+import jakarta.persistence.OptimisticLockException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+// Runs a unit of work in its own transaction and retries it when a versioned write loses to a
+// concurrent one. Each retry waits an exponentially growing, jittered delay so that the losers of
+// a race don't collide again on the next attempt.
+@Component
+public class OptimisticRetryExecutor {
+    
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+    private final int maxAttempts;
+    private final long baseDelayMs;
+    
+    public OptimisticRetryExecutor(PlatformTransactionManager transactionManager,
+                                   MeterRegistry meterRegistry,
+                                   @Value("${booking.retry.max-attempts:3}") int maxAttempts,
+                                   @Value("${booking.retry.base-delay-ms:25}") long baseDelayMs) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.meterRegistry = meterRegistry;
+        this.maxAttempts = maxAttempts;
+        this.baseDelayMs = baseDelayMs;
+    }
+    
+    // showId is only resolved when a conflict happens, to tag the counters without an extra query
+    public <T> T execute(String operation, Supplier<Long> showId, Supplier<T> work) {
+        return execute(operation, showId, work, null);
+    }
+    
+    // As above; when every attempt lost, the seats named by lostSeatCodes are reported to the
+    // caller as a SeatConflictException instead of the bare optimistic lock failure
+    public <T> T execute(String operation, Supplier<Long> showId, Supplier<T> work,
+                         Supplier<List<String>> lostSeatCodes) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return transactionTemplate.execute(status -> work.get());
+            } catch (OptimisticLockingFailureException | OptimisticLockException e) {
+                String show = String.valueOf(showId.get());
+                meterRegistry.counter("seat.write.conflicts", "operation", operation, "show", show).increment();
+                if (attempt >= maxAttempts) {
+                    if (lostSeatCodes != null) {
+                        throw new SeatConflictException(lostSeatCodes.get(), e);
+                    }
+                    throw e;
+                }
+                meterRegistry.counter("seat.write.retries", "operation", operation, "show", show).increment();
+                backOff(attempt);
+            }
+        }
+    }
+    
+    private void backOff(int attempt) {
+        long delay = baseDelayMs * (1L << (attempt - 1)) + ThreadLocalRandom.current().nextLong(baseDelayMs + 1);
+        try {
+            Thread.sleep(delay);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while retrying seat write", e);
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package com.cinema.service;
+
+import com.cinema.util.PasswordUtil;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+// Runs password hashing off the request threads. A BCrypt hash costs ~100 ms of CPU by design, so a
+// login storm handled on Tomcat's workers would queue every other request behind it. The pool is
+// small (half the CPUs by default) with a bounded queue; when the queue is full the request fails
+// fast with HashingBusyException instead of waiting, and callers answer 503.
+// The BCrypt cost is picked on this machine at startup: the highest cost whose hash still takes at
+// most security.password.target-hash-ms, never below min-cost. Older hashes are upgraded on login.
+@Slf4j
+@Service
+public class PasswordHasher {
+
+    public static class HashingBusyException extends RuntimeException {
+        public HashingBusyException() {
+            super("Too many password checks in progress, try again shortly");
+        }
+    }
+
+    private final int cost;
+    private final BCryptPasswordEncoder encoder;
+    private final ExecutorService executor;
+    private final Timer encodeTimer;
+    private final Timer verifyTimer;
+    private final Counter rejected;
+
+    public PasswordHasher(MeterRegistry meterRegistry,
+                          @Value("${security.password.target-hash-ms:100}") long targetHashMs,
+                          @Value("${security.password.min-cost:10}") int minCost,
+                          @Value("${security.password.max-cost:14}") int maxCost,
+                          @Value("${security.password.hashing.threads:0}") int threads,
+                          @Value("${security.password.hashing.queue-capacity:64}") int queueCapacity) {
+        this.cost = calibrateCost(targetHashMs, minCost, maxCost);
+        this.encoder = new BCryptPasswordEncoder(cost);
+        int poolSize = threads > 0 ? threads : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        AtomicInteger threadNumber = new AtomicInteger();
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(poolSize, poolSize, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+                    Thread thread = new Thread(runnable, "password-hash-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }, new ThreadPoolExecutor.AbortPolicy());
+        // executor.queued, executor.active, executor.completed, ... tagged name=password.hashing
+        this.executor = ExecutorServiceMetrics.monitor(meterRegistry, pool, "password.hashing");
+        this.encodeTimer = meterRegistry.timer("password.hashing.duration", "operation", "encode");
+        this.verifyTimer = meterRegistry.timer("password.hashing.duration", "operation", "verify");
+        this.rejected = meterRegistry.counter("password.hashing.rejected");
+        Gauge.builder("password.hashing.cost", this, PasswordHasher::cost).register(meterRegistry);
+    }
+
+    static int calibrateCost(long targetHashMs, int minCost, int maxCost) {
+        BCryptPasswordEncoder probe = new BCryptPasswordEncoder(minCost);
+        probe.encode("calibration");
+        long start = System.nanoTime();
+        probe.encode("calibration");
+        double hashMs = (System.nanoTime() - start) / 1_000_000.0;
+        
+        // Each cost step doubles the work
+        int cost = minCost;
+        while (cost < maxCost && hashMs * 2 <= targetHashMs) {
+            cost++;
+            hashMs *= 2;
+        }
+        log.info("BCrypt cost {} (~{} ms per hash, target {} ms)", cost, Math.round(hashMs), targetHashMs);
+        return cost;
+    }
+
+    public CompletableFuture<String> encode(String rawPassword) {
+        return submit(encodeTimer, () -> encoder.encode(rawPassword));
+    }
+
+    // Accepts BCrypt hashes and the salted SHA-256 hashes of PasswordUtil
+    public CompletableFuture<Boolean> matches(String rawPassword, String storedPassword) {
+        if (PasswordUtil.isHash(storedPassword)) {
+            return submit(verifyTimer, () -> PasswordUtil.verifyHash(rawPassword, storedPassword));
+        }
+        return submit(verifyTimer, () -> encoder.matches(rawPassword, storedPassword));
+    }
+
+    // True when a stored hash is SHA-256 or BCrypt below the current cost; call once it matched
+    public boolean needsUpgrade(String storedPassword) {
+        return PasswordUtil.isHash(storedPassword) || encoder.upgradeEncoding(storedPassword);
+    }
+
+    public int cost() {
+        return cost;
+    }
+
+    private <T> CompletableFuture<T> submit(Timer timer, Supplier<T> work) {
+        try {
+            return CompletableFuture.supplyAsync(() -> timer.record(work), executor);
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            return CompletableFuture.failedFuture(new HashingBusyException());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+}
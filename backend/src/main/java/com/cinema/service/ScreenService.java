@@ -9,11 +9,15 @@ import com.cinema.repository.CinemaRepository;
 import com.cinema.repository.ScreenRepository;
 import com.cinema.repository.SeatRepository;
 import com.cinema.repository.ShowRepository;
+import com.cinema.util.SeatLayout;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Service
@@ -25,17 +29,26 @@ public class ScreenService {
     private final CinemaRepository cinemaRepository;
     private final SeatRepository seatRepository;
     private final ShowRepository showRepository;
+    private final SeatMapService seatMapService;
+    private final SeatLayoutService seatLayoutService;
+    private final CatalogCache catalogCache;
+    private final ApplicationEventPublisher eventPublisher;
 
+    // Cached reads run outside a transaction so that hits don't check out a connection
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
     public List<ScreenDto> getAllScreens() {
-        return screenRepository.findAll().stream()
-                .map(this::convertToDto)
-                .collect(Collectors.toList());
+        return catalogCache.getAll(CatalogCache.Region.SCREENS, () -> screenRepository.findAllSummaries().stream()
+                .map(this::convertSummaryToDto)
+                .collect(Collectors.toList()));
     }
 
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
     public ScreenDto getScreenById(Long id) {
-        Screen screen = screenRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Screen not found with id: " + id));
-        return convertToDto(screen);
+        return catalogCache.get(CatalogCache.Region.SCREEN, id, () -> {
+            Screen screen = screenRepository.findById(id)
+                    .orElseThrow(() -> new RuntimeException("Screen not found with id: " + id));
+            return convertToDto(screen);
+        });
     }
 
     @Transactional
@@ -43,17 +56,23 @@ public class ScreenService {
         Cinema cinema = cinemaRepository.findById(screenDto.getCinemaId())
                 .orElseThrow(() -> new RuntimeException("Cinema not found with id: " + screenDto.getCinemaId()));
 
+        // A drawn layout sets the screen's dimensions and capacity; otherwise every position is a seat
+        SeatLayout layout = screenDto.getLayout() != null
+                ? SeatLayout.parse(screenDto.getLayout())
+                : SeatLayout.rectangular(screenDto.getTotalRows(), screenDto.getSeatsPerRow());
+
         Screen screen = new Screen();
         screen.setName(screenDto.getName());
-        screen.setCapacity(screenDto.getCapacity());
-        screen.setTotalRows(screenDto.getTotalRows());
-        screen.setSeatsPerRow(screenDto.getSeatsPerRow());
+        screen.setCapacity(screenDto.getLayout() != null ? layout.size() : screenDto.getCapacity());
+        screen.setTotalRows(layout.getRows());
+        screen.setSeatsPerRow(layout.getSeatsPerRow());
         screen.setCinema(cinema);
 
         Screen savedScreen = screenRepository.save(screen);
         
         // Create seats for the new screen
-        createSeatsForScreen(savedScreen);
+        seatLayoutService.createSeats(savedScreen, layout);
+        eventPublisher.publishEvent(new CatalogEvents.ScreenChanged(savedScreen.getId(), cinema.getId()));
         
         return convertToDto(savedScreen);
     }
@@ -69,6 +88,7 @@ public class ScreenService {
         screen.setSeatsPerRow(screenDto.getSeatsPerRow());
 
         Screen savedScreen = screenRepository.save(screen);
+        eventPublisher.publishEvent(new CatalogEvents.ScreenChanged(id, screen.getCinema().getId()));
         return convertToDto(savedScreen);
     }
 
@@ -81,6 +101,8 @@ public class ScreenService {
         List<Show> shows = showRepository.findByScreenId(id);
         if (!shows.isEmpty()) {
             showRepository.deleteAll(shows);
+            shows.forEach(show -> seatMapService.evict(show.getId()));
+            eventPublisher.publishEvent(new CatalogEvents.ShowsChanged(Set.of(screen.getCinema().getId())));
             System.out.println("Deleted " + shows.size() + " shows related to screen: " + screen.getName());
         }
         
@@ -93,24 +115,10 @@ public class ScreenService {
         
         // Finally delete the screen
         screenRepository.delete(screen);
+        eventPublisher.publishEvent(new CatalogEvents.ScreenChanged(id, screen.getCinema().getId()));
         System.out.println("Screen deleted: " + screen.getName());
     }
 
-    private void createSeatsForScreen(Screen screen) {
-        if (seatRepository.countByScreen(screen) > 0) return; // prevent duplicates
-
-        for (int row = 1; row <= screen.getTotalRows(); row++) {
-            for (int seatNum = 1; seatNum <= screen.getSeatsPerRow(); seatNum++) {
-                Seat seat = new Seat();
-                seat.setSeatRow(row);
-                seat.setSeatNumber(seatNum);
-                seat.setSeatCode(String.format("%c%d", 'A' + row - 1, seatNum));
-                seat.setStatus(Seat.SeatStatus.AVAILABLE);
-                seat.setScreen(screen);
-                seatRepository.save(seat);
-            }
-        }
-    }
 
     private ScreenDto convertToDto(Screen screen) {
         ScreenDto dto = new ScreenDto();
@@ -122,4 +130,15 @@ public class ScreenService {
         dto.setCinemaId(screen.getCinema().getId());
         return dto;
     }
+
+    private ScreenDto convertSummaryToDto(ScreenRepository.ScreenSummary screen) {
+        ScreenDto dto = new ScreenDto();
+        dto.setId(screen.id());
+        dto.setName(screen.name());
+        dto.setCapacity(screen.capacity());
+        dto.setTotalRows(screen.totalRows());
+        dto.setSeatsPerRow(screen.seatsPerRow());
+        dto.setCinemaId(screen.cinemaId());
+        return dto;
+    }
 }
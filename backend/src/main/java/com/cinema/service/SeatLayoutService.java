@@ -0,0 +1,39 @@
+package com.cinema.service;
+
+import com.cinema.entity.Screen;
+import com.cinema.repository.SeatRepository;
+import com.cinema.util.SeatLayout;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+// Writes a screen's seats in JDBC batches. Seat ids are IDENTITY columns, which stop Hibernate from
+// batching inserts, so saving seats one by one costs a round trip per seat
+@Service
+@RequiredArgsConstructor
+@Transactional
+public class SeatLayoutService {
+    
+    private static final int BATCH_SIZE = 500;
+    
+    private final SeatRepository seatRepository;
+    private final JdbcTemplate jdbcTemplate;
+    
+    // Returns the number of seats created; a screen that already has seats is left alone
+    public int createSeats(Screen screen, SeatLayout layout) {
+        if (seatRepository.countByScreen(screen) > 0) {
+            return 0;
+        }
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO seats (seat_row, seat_number, seat_code, category, screen_id) VALUES (?, ?, ?, ?, ?)",
+                layout.getCells(), BATCH_SIZE, (statement, cell) -> {
+                    statement.setInt(1, cell.row());
+                    statement.setInt(2, cell.number());
+                    statement.setString(3, cell.code());
+                    statement.setString(4, cell.category().name());
+                    statement.setLong(5, screen.getId());
+                });
+        return layout.size();
+    }
+}
@@ -0,0 +1,324 @@
+package com.cinema.service;
+
+import com.cinema.dto.SeatChangeDto;
+import com.cinema.dto.SeatDeltaDto;
+import com.cinema.dto.SeatDto;
+import com.cinema.dto.SeatMapDto;
+import com.cinema.entity.Seat;
+import com.cinema.entity.Show;
+import com.cinema.exception.SeatConflictException;
+import com.cinema.repository.SeatRepository;
+import com.cinema.repository.ShowRepository;
+import com.cinema.repository.ShowSeatRepository;
+import com.cinema.util.ShowSeatMap;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiPredicate;
+
+// Keeps a packed seat map per show in memory so availability reads don't hit the database.
+// Maps are built from the DB on startup or on first access and then follow every committed
+// block, booking, cancellation and expiry. Maps of past shows are dropped by evictPastShows.
+// With seat.broker.mode relay, changes committed on other nodes arrive through
+// applyRemoteChanges, so holds and bookings made anywhere are reflected here as well.
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class SeatMapService {
+    
+    private final ShowSeatRepository showSeatRepository;
+    private final SeatRepository seatRepository;
+    private final ShowRepository showRepository;
+    private final SeatUpdatePublisher seatUpdatePublisher;
+    
+    private final Map<Long, ShowSeatMap> seatMaps = new ConcurrentHashMap<>();
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        List<Show> shows = showRepository.findActiveShowsFromDate(LocalDate.now());
+        for (Show show : shows) {
+            getSeatMap(show.getId());
+        }
+        log.info("Loaded seat maps for {} active shows", shows.size());
+    }
+    
+    public ShowSeatMap getSeatMap(Long showId) {
+        // Loading inside computeIfAbsent makes concurrent updates for the same show wait for the
+        // load instead of being applied to a map that is about to be replaced
+        return seatMaps.computeIfAbsent(showId, this::load);
+    }
+    
+    // The snapshot is taken under the same per-show lock that numbers change events, so its
+    // sequence is exactly the last event already reflected in the bitmaps
+    public SeatMapDto getSeatMapDto(Long showId) {
+        SeatMapDto[] snapshot = new SeatMapDto[1];
+        seatMaps.compute(showId, (id, seatMap) -> {
+            ShowSeatMap current = seatMap != null ? seatMap : load(id);
+            snapshot[0] = toDto(current);
+            return current;
+        });
+        return snapshot[0];
+    }
+    
+    private SeatMapDto toDto(ShowSeatMap seatMap) {
+        SeatMapDto dto = new SeatMapDto();
+        dto.setShowId(seatMap.getShowId());
+        dto.setScreenId(seatMap.getScreenId());
+        dto.setTotalRows(seatMap.getRows());
+        dto.setSeatsPerRow(seatMap.getSeatsPerRow());
+        dto.setVersion(seatMap.getVersion());
+        dto.setNodeId(seatUpdatePublisher.getNodeId());
+        dto.setSequence(seatMap.getSequence());
+        dto.setLayout(seatMap.layoutBits());
+        dto.setHeld(seatMap.heldBits());
+        dto.setBooked(seatMap.bookedBits());
+        return dto;
+    }
+    
+    public List<SeatDto> getSeats(Long showId) {
+        ShowSeatMap seatMap = getSeatMap(showId);
+        List<SeatDto> seats = new ArrayList<>();
+        for (int position = 0; position < seatMap.size(); position++) {
+            if (!seatMap.hasSeatAt(position)) continue;
+            
+            SeatDto dto = new SeatDto();
+            dto.setId(seatMap.seatIdAt(position));
+            dto.setSeatRow(position / seatMap.getSeatsPerRow() + 1);
+            dto.setSeatNumber(position % seatMap.getSeatsPerRow() + 1);
+            dto.setSeatCode(seatMap.seatCodeAt(position));
+            dto.setStatus(toSeatStatus(seatMap.stateAt(position)));
+            dto.setScreenId(seatMap.getScreenId());
+            dto.setShowId(seatMap.getShowId());
+            dto.setBlockedByUserId(seatMap.holderAt(position));
+            seats.add(dto);
+        }
+        return seats;
+    }
+    
+    // Claims the seats in memory, all or nothing. Contended requests are turned away here without
+    // touching the database; the claim is handed back if the surrounding transaction rolls back.
+    public void claimSeats(Long showId, List<Long> seatIds, Long userId, LocalDateTime blockedUntil) {
+        ShowSeatMap seatMap = getSeatMap(showId);
+        int[] positions = new int[seatIds.size()];
+        for (int i = 0; i < positions.length; i++) {
+            Integer position = seatMap.positionOf(seatIds.get(i));
+            if (position == null) {
+                throw new RuntimeException("Some seats not found");
+            }
+            positions[i] = position;
+        }
+        
+        int[] conflicts = seatMap.tryHold(positions, userId, toMillis(blockedUntil), System.currentTimeMillis());
+        if (conflicts.length > 0) {
+            List<String> seatCodes = new ArrayList<>();
+            for (int position : conflicts) {
+                seatCodes.add(seatMap.seatCodeAt(position));
+            }
+            throw new SeatConflictException(seatCodes);
+        }
+        
+        List<Long> ids = new ArrayList<>(seatIds);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status != STATUS_COMMITTED) {
+                        seatMap.release(positions, userId);
+                    } else {
+                        seatMaps.computeIfPresent(showId, (id, current) -> {
+                            publish(current, ids, Seat.SeatStatus.BLOCKED, userId);
+                            return current;
+                        });
+                    }
+                }
+            });
+        }
+    }
+    
+    public void seatsBooked(Long showId, Collection<Long> seatIds) {
+        afterCommit(showId, seatIds, Seat.SeatStatus.BOOKED, (seatMap, position) -> {
+            seatMap.markBooked(position);
+            return true;
+        });
+    }
+    
+    public void seatsReleased(Long showId, Collection<Long> seatIds) {
+        afterCommit(showId, seatIds, Seat.SeatStatus.AVAILABLE, (seatMap, position) -> {
+            seatMap.markAvailable(position);
+            return true;
+        });
+    }
+    
+    public void seatsExpired(Long showId, Collection<Long> seatIds) {
+        long now = System.currentTimeMillis();
+        afterCommit(showId, seatIds, Seat.SeatStatus.AVAILABLE, (seatMap, position) -> seatMap.expire(position, now));
+    }
+    
+    // Changes another node committed and has already numbered and broadcast to clients; they only
+    // bring this node's bitmaps up to date. Remote holds are kept for a full hold duration from
+    // now, unless that node announces their release or expiry first
+    public void applyRemoteChanges(SeatDeltaDto delta) {
+        long holdExpiresAt = System.currentTimeMillis() + SeatService.HOLD_DURATION.toMillis();
+        seatMaps.computeIfPresent(delta.getShowId(), (id, seatMap) -> {
+            for (SeatChangeDto change : delta.getChanges()) {
+                for (Long seatId : change.getSeatIds()) {
+                    Integer position = seatMap.positionOf(seatId);
+                    if (position == null) {
+                        continue;
+                    }
+                    if (change.getStatus() == Seat.SeatStatus.BOOKED) {
+                        seatMap.markBooked(position);
+                    } else if (change.getStatus() == Seat.SeatStatus.BLOCKED && change.getBlockedByUserId() != null) {
+                        seatMap.markHeld(position, change.getBlockedByUserId(), holdExpiresAt);
+                    } else {
+                        seatMap.markAvailable(position);
+                    }
+                }
+            }
+            return seatMap;
+        });
+    }
+    
+    // Every map is reloaded from the database on next access, for when remote changes may have been missed
+    public void evictAll() {
+        seatMaps.clear();
+    }
+    
+    public void evict(Long showId) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    seatMaps.remove(showId);
+                }
+            });
+        } else {
+            seatMaps.remove(showId);
+        }
+    }
+    
+    // Past shows can't be held or booked any more, including ones loaded after they were over
+    public void evictPastShows() {
+        if (seatMaps.isEmpty()) {
+            return;
+        }
+        List<Long> pastShowIds = showRepository.findIdsBeforeDate(List.copyOf(seatMaps.keySet()), LocalDate.now());
+        pastShowIds.forEach(seatMaps::remove);
+    }
+    
+    // Applies a change once the surrounding transaction commits, so a rollback never leaks into memory,
+    // and announces the seats it actually changed
+    private void afterCommit(Long showId, Collection<Long> seatIds, Seat.SeatStatus status,
+                             BiPredicate<ShowSeatMap, Integer> change) {
+        List<Long> ids = new ArrayList<>(seatIds);
+        Runnable apply = () -> seatMaps.computeIfPresent(showId, (id, seatMap) -> {
+            List<Long> changed = new ArrayList<>();
+            for (Long seatId : ids) {
+                Integer position = seatMap.positionOf(seatId);
+                if (position != null && change.test(seatMap, position)) {
+                    changed.add(seatId);
+                }
+            }
+            publish(seatMap, changed, status, null);
+            return seatMap;
+        });
+        
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    apply.run();
+                }
+            });
+        } else {
+            apply.run();
+        }
+    }
+    
+    // Must run under the show's map lock (compute/computeIfPresent) so events leave in sequence order
+    private void publish(ShowSeatMap seatMap, List<Long> seatIds, Seat.SeatStatus status, Long userId) {
+        if (seatIds.isEmpty()) {
+            return;
+        }
+        seatUpdatePublisher.publish(seatMap.getShowId(), seatMap.nextSequence(), seatIds, status, userId);
+    }
+    
+    private ShowSeatMap load(Long showId) {
+        ShowSeatMap seatMap = loadSeats(showId);
+        // Sequences restart on every load, so start from the clock: a client holding a sequence
+        // from an earlier map sees a gap and resyncs instead of mixing two maps
+        seatMap.startSequenceAt(System.currentTimeMillis());
+        return seatMap;
+    }
+    
+    private ShowSeatMap loadSeats(Long showId) {
+        List<ShowSeatRepository.SeatState> states = showSeatRepository.findSeatStatesByShowId(showId);
+        if (!states.isEmpty()) {
+            Long screenId = showRepository.findScreenIdByShowId(showId);
+            int rows = 0;
+            int seatsPerRow = 0;
+            for (ShowSeatRepository.SeatState state : states) {
+                rows = Math.max(rows, state.getSeatRow());
+                seatsPerRow = Math.max(seatsPerRow, state.getSeatNumber());
+            }
+            ShowSeatMap seatMap = new ShowSeatMap(showId, screenId, rows, seatsPerRow);
+            for (ShowSeatRepository.SeatState state : states) {
+                seatMap.addSeat(state.getSeatId(), state.getSeatRow(), state.getSeatNumber(), state.getSeatCode(),
+                        toState(state.getStatus()), state.getBlockedByUserId(), toMillis(state.getBlockedUntil()));
+            }
+            return seatMap;
+        }
+        
+        // No inventory yet: nothing can be held or booked, so the screen layout is the whole state
+        Long screenId = showRepository.findScreenIdByShowId(showId);
+        if (screenId == null) {
+            throw new RuntimeException("Show not found with id: " + showId);
+        }
+        List<Seat> seats = seatRepository.findByScreenIdOrdered(screenId);
+        int rows = 0;
+        int seatsPerRow = 0;
+        for (Seat seat : seats) {
+            rows = Math.max(rows, seat.getSeatRow());
+            seatsPerRow = Math.max(seatsPerRow, seat.getSeatNumber());
+        }
+        ShowSeatMap seatMap = new ShowSeatMap(showId, screenId, rows, seatsPerRow);
+        for (Seat seat : seats) {
+            seatMap.addSeat(seat.getId(), seat.getSeatRow(), seat.getSeatNumber(), seat.getSeatCode(),
+                    ShowSeatMap.State.AVAILABLE, null, 0L);
+        }
+        return seatMap;
+    }
+    
+    private static long toMillis(LocalDateTime dateTime) {
+        return dateTime != null ? dateTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli() : 0L;
+    }
+    
+    private static ShowSeatMap.State toState(Seat.SeatStatus status) {
+        switch (status) {
+            case BLOCKED: return ShowSeatMap.State.HELD;
+            case BOOKED: return ShowSeatMap.State.BOOKED;
+            default: return ShowSeatMap.State.AVAILABLE;
+        }
+    }
+    
+    private static Seat.SeatStatus toSeatStatus(ShowSeatMap.State state) {
+        switch (state) {
+            case HELD: return Seat.SeatStatus.BLOCKED;
+            case BOOKED: return Seat.SeatStatus.BOOKED;
+            default: return Seat.SeatStatus.AVAILABLE;
+        }
+    }
+}
@@ -2,20 +2,30 @@ package com.cinema.service;
 
 import com.cinema.dto.SeatBlockRequest;
 import com.cinema.dto.SeatDto;
+import com.cinema.dto.SeatMapDto;
 import com.cinema.entity.Seat;
 import com.cinema.entity.Show;
+import com.cinema.entity.ShowSeat;
 import com.cinema.entity.User;
+import com.cinema.exception.SeatConflictException;
 import com.cinema.repository.SeatRepository;
 import com.cinema.repository.ShowRepository;
+import com.cinema.repository.ShowSeatRepository;
 import com.cinema.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.time.LocalDate;
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 @Service
@@ -23,84 +33,160 @@ import java.util.stream.Collectors;
 @Transactional
 public class SeatService {
     
+    public static final Duration HOLD_DURATION = Duration.ofMinutes(5);
+    
     private final SeatRepository seatRepository;
+    private final ShowSeatRepository showSeatRepository;
     private final UserRepository userRepository;
     private final ShowRepository showRepository;
+    private final SeatMapService seatMapService;
+    private final OptimisticRetryExecutor retryExecutor;
+    private final HoldExpiryScheduler holdExpiryScheduler;
+    private final JdbcTemplate jdbcTemplate;
     
     public List<SeatDto> getSeatsByScreenId(Long screenId) {
-        List<Seat> seats = seatRepository.findByScreenId(screenId);
+        // Physical layout only; availability is per show, see getSeatsByShowId
+        List<Seat> seats = seatRepository.findByScreenIdOrdered(screenId);
         return seats.stream()
                 .map(this::convertToDto)
                 .collect(Collectors.toList());
     }
     
-    public List<SeatDto> blockSeats(SeatBlockRequest request) {
-        // Validate user exists
-        User user = userRepository.findById(request.getUserId())
-                .orElseThrow(() -> new RuntimeException("User not found with id: " + request.getUserId()));
+    // Availability reads are served from the in-memory seat map and never open a transaction
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public List<SeatDto> getSeatsByShowId(Long showId) {
+        return seatMapService.getSeats(showId);
+    }
+    
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public SeatMapDto getSeatMapByShowId(Long showId) {
+        return seatMapService.getSeatMapDto(showId);
+    }
+    
+    // Creates the seat inventory of a show from its screen layout. Shows scheduled
+    // before the inventory existed, seeded or imported get theirs lazily on first access,
+    // where two first requests can race: each inserts only the seats missing from the
+    // inventory, and the one that loses on the (show_id, seat_id) key finds them created.
+    public void initializeShowSeats(Show show) {
+        if (showSeatRepository.countByShowId(show.getId()) > 0) return; // already initialized
         
-        // Get seats and validate they are available
-        List<Seat> seats = seatRepository.findAllById(request.getSeatIds());
+        try {
+            jdbcTemplate.update("INSERT INTO show_seats (show_id, seat_id, status, version) "
+                            + "SELECT ?, st.id, 'AVAILABLE', 0 FROM seats st WHERE st.screen_id = ? "
+                            + "AND NOT EXISTS (SELECT 1 FROM show_seats ss WHERE ss.show_id = ? AND ss.seat_id = st.id)",
+                    show.getId(), show.getScreen().getId(), show.getId());
+        } catch (DuplicateKeyException e) {
+            // Created by a concurrent first request, which has committed by now. A transaction
+            // reading from an older snapshot can't see those rows yet, so it is retried instead
+            if (showSeatRepository.countByShowId(show.getId()) == 0) {
+                throw new OptimisticLockingFailureException("Seats of show " + show.getId() + " were created concurrently", e);
+            }
+        }
+    }
+    
+    // userId comes from a verified session token, so the user isn't looked up again
+    public List<SeatDto> blockSeats(Long userId, SeatBlockRequest request) {
+        User user = userRepository.getReferenceById(userId);
+        
+        Show show = showRepository.findById(request.getShowId())
+                .orElseThrow(() -> new RuntimeException("Show not found with id: " + request.getShowId()));
+        initializeShowSeats(show);
+        
+        // Claim in memory first, then make the hold durable with a conditional update so that
+        // two racing requests can never both hold a seat, even across nodes
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime blockUntil = now.plus(HOLD_DURATION);
+        seatMapService.claimSeats(show.getId(), request.getSeatIds(), user.getId(), blockUntil);
+        
+        int held = showSeatRepository.holdSeatsIfAvailable(show.getId(), request.getSeatIds(), user, blockUntil, now);
+        List<ShowSeat> seats = showSeatRepository.findByShowIdAndSeatIds(show.getId(), request.getSeatIds());
         if (seats.size() != request.getSeatIds().size()) {
             throw new RuntimeException("Some seats not found");
         }
-        
-        for (Seat seat : seats) {
-            if (seat.getStatus() != Seat.SeatStatus.AVAILABLE) {
-                throw new RuntimeException("Seat " + seat.getSeatCode() + " is not available");
-            }
+        if (held != seats.size()) {
+            // Lost the race for some seats in the database; rolling back frees the ones we did get
+            List<String> seatCodes = seats.stream()
+                    .filter(seat -> seat.getStatus() == Seat.SeatStatus.BOOKED
+                            || seat.getBlockedByUser() == null
+                            || !seat.getBlockedByUser().getId().equals(user.getId()))
+                    .map(seat -> seat.getSeat().getSeatCode())
+                    .collect(Collectors.toList());
+            throw new SeatConflictException(seatCodes);
         }
         
-        // Block seats for 5 minutes
-        LocalDateTime blockUntil = LocalDateTime.now().plusMinutes(5);
-        for (Seat seat : seats) {
-            seat.setStatus(Seat.SeatStatus.BLOCKED);
-            seat.setBlockedByUser(user);
-            seat.setBlockedUntil(blockUntil);
+        // Safe to schedule before commit: expiry only releases holds that are still BLOCKED and overdue
+        for (ShowSeat seat : seats) {
+            holdExpiryScheduler.schedule(
+                    new HoldExpiryScheduler.Hold(seat.getId(), show.getId(), seat.getSeat().getId()), blockUntil);
         }
         
-        List<Seat> savedSeats = seatRepository.saveAll(seats);
-        return savedSeats.stream()
+        return seats.stream()
                 .map(this::convertToDto)
                 .collect(Collectors.toList());
     }
     
-    public void unblockSeats(List<Long> seatIds) {
-        List<Seat> seats = seatRepository.findAllById(seatIds);
-        for (Seat seat : seats) {
-            if (seat.getStatus() == Seat.SeatStatus.BLOCKED) {
+    // Releases only the seats the user holds; other users' holds are left alone
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void unblockSeats(Long userId, SeatBlockRequest request) {
+        retryExecutor.execute("unblock_seats", request::getShowId, () -> {
+            doUnblockSeats(userId, request);
+            return null;
+        }, () -> getLostSeatCodes(userId, request.getShowId(), request.getSeatIds()));
+    }
+    
+    // Seats of a request that kept losing write races: the ones now booked or held by someone
+    // else, or, when none of them are, every requested seat, since none of the writes went through
+    @Transactional(readOnly = true)
+    public List<String> getLostSeatCodes(Long userId, Long showId, List<Long> seatIds) {
+        List<ShowSeat> seats = showSeatRepository.findByShowIdAndSeatIds(showId, seatIds);
+        List<String> taken = seats.stream()
+                .filter(seat -> seat.getStatus() == Seat.SeatStatus.BOOKED
+                        || (seat.getStatus() == Seat.SeatStatus.BLOCKED
+                            && (seat.getBlockedByUser() == null || !seat.getBlockedByUser().getId().equals(userId))))
+                .map(seat -> seat.getSeat().getSeatCode())
+                .collect(Collectors.toList());
+        if (!taken.isEmpty()) {
+            return taken;
+        }
+        return seats.stream()
+                .map(seat -> seat.getSeat().getSeatCode())
+                .collect(Collectors.toList());
+    }
+    
+    private void doUnblockSeats(Long userId, SeatBlockRequest request) {
+        List<ShowSeat> seats = showSeatRepository.findByShowIdAndSeatIds(request.getShowId(), request.getSeatIds());
+        List<Long> releasedSeatIds = new ArrayList<>();
+        for (ShowSeat seat : seats) {
+            if (seat.getStatus() == Seat.SeatStatus.BLOCKED
+                    && seat.getBlockedByUser() != null && seat.getBlockedByUser().getId().equals(userId)) {
                 seat.setStatus(Seat.SeatStatus.AVAILABLE);
                 seat.setBlockedByUser(null);
                 seat.setBlockedUntil(null);
+                releasedSeatIds.add(seat.getSeat().getId());
             }
         }
-        seatRepository.saveAll(seats);
+        showSeatRepository.saveAll(seats);
+        seatMapService.seatsReleased(request.getShowId(), releasedSeatIds);
     }
     
-    @Scheduled(fixedRate = 60000) // Run every minute
+    // Holds are normally released by HoldExpiryScheduler within a tick of expiring. This sweep
+    // catches anything it never saw, such as holds taken on another node.
+    @Scheduled(fixedRateString = "${seat.hold.sweep-interval-ms:30000}")
     public void cleanupExpiredBlocks() {
-        // Clean up expired seat blocks
-        List<Seat> expiredSeats = seatRepository.findExpiredBlockedSeats(
-                null, LocalDateTime.now());
+        LocalDateTime now = LocalDateTime.now();
+        List<ShowSeat> expiredSeats = showSeatRepository.findExpiredBlockedSeats(now);
         
         if (!expiredSeats.isEmpty()) {
-            List<Long> seatIds = expiredSeats.stream()
-                    .map(Seat::getId)
+            List<Long> showSeatIds = expiredSeats.stream()
+                    .map(ShowSeat::getId)
                     .collect(Collectors.toList());
             
-            seatRepository.unblockSeats(seatIds);
-        }
-        
-        // Deactivate shows that have passed their date
-        LocalDate today = LocalDate.now();
-        List<Show> expiredShows = showRepository.findActiveShowsBeforeDate(today);
-        
-        if (!expiredShows.isEmpty()) {
-            for (Show show : expiredShows) {
-                show.setIsActive(false);
-            }
-            showRepository.saveAll(expiredShows);
-            System.out.println("Deactivated " + expiredShows.size() + " shows that have passed their date");
+            showSeatRepository.unblockExpiredSeats(showSeatIds, now);
+            
+            Map<Long, List<Long>> seatIdsByShow = expiredSeats.stream()
+                    .collect(Collectors.groupingBy(seat -> seat.getShow().getId(),
+                            Collectors.mapping(seat -> seat.getSeat().getId(), Collectors.toList())));
+            seatIdsByShow.forEach(seatMapService::seatsExpired);
         }
     }
     
@@ -110,12 +196,25 @@ public class SeatService {
         dto.setSeatRow(seat.getSeatRow());
         dto.setSeatNumber(seat.getSeatNumber());
         dto.setSeatCode(seat.getSeatCode());
-        dto.setStatus(seat.getStatus());
+        dto.setCategory(seat.getCategory() != null ? seat.getCategory() : Seat.SeatCategory.STANDARD);
         dto.setScreenId(seat.getScreen().getId());
-        dto.setBookingId(seat.getBooking() != null ? seat.getBooking().getId() : null);
-        dto.setBlockedByUserId(seat.getBlockedByUser() != null ? seat.getBlockedByUser().getId() : null);
-        dto.setBlockedByUserName(seat.getBlockedByUser() != null ? seat.getBlockedByUser().getName() : null);
-        dto.setBlockedUntil(seat.getBlockedUntil());
+        return dto;
+    }
+    
+    private SeatDto convertToDto(ShowSeat showSeat) {
+        // Clients address seats by their layout id, the show is carried alongside
+        SeatDto dto = new SeatDto();
+        dto.setId(showSeat.getSeat().getId());
+        dto.setSeatRow(showSeat.getSeat().getSeatRow());
+        dto.setSeatNumber(showSeat.getSeat().getSeatNumber());
+        dto.setSeatCode(showSeat.getSeat().getSeatCode());
+        dto.setStatus(showSeat.getStatus());
+        dto.setScreenId(showSeat.getSeat().getScreen().getId());
+        dto.setShowId(showSeat.getShow().getId());
+        dto.setBookingId(showSeat.getBooking() != null ? showSeat.getBooking().getId() : null);
+        dto.setBlockedByUserId(showSeat.getBlockedByUser() != null ? showSeat.getBlockedByUser().getId() : null);
+        dto.setBlockedByUserName(showSeat.getBlockedByUser() != null ? showSeat.getBlockedByUser().getName() : null);
+        dto.setBlockedUntil(showSeat.getBlockedUntil());
         return dto;
     }
 }
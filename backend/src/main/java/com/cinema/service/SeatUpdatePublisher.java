@@ -0,0 +1,182 @@
+package com.cinema.service;
+
+import com.cinema.dto.SeatChangeDto;
+import com.cinema.dto.SeatDeltaDto;
+import com.cinema.entity.Seat;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Pushes seat changes to the subscribers of a show's topic. Changes are buffered per show for a
+// short window and merged per seat, so an on-sale burst sends one frame per show and window
+// instead of one per hold. The buffer holds at most one entry per seat, which bounds its size.
+// With seat.broker.mode relay every frame also goes to NODE_TOPIC, where the other nodes pick it up
+// to keep their own seat maps current (see RemoteSeatEventListener).
+@Slf4j
+@Service
+public class SeatUpdatePublisher {
+    
+    private static final class SeatState {
+        private final Seat.SeatStatus status;
+        private final Long blockedByUserId;
+        
+        private SeatState(Seat.SeatStatus status, Long blockedByUserId) {
+            this.status = status;
+            this.blockedByUserId = blockedByUserId;
+        }
+        
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof SeatState
+                    && ((SeatState) other).status == status
+                    && Objects.equals(((SeatState) other).blockedByUserId, blockedByUserId);
+        }
+        
+        @Override
+        public int hashCode() {
+            return Objects.hash(status, blockedByUserId);
+        }
+    }
+    
+    private static final class Batch {
+        private final long firstSequence;
+        private long sequence;
+        private final Map<Long, SeatState> seats = new LinkedHashMap<>();
+        
+        private Batch(long firstSequence) {
+            this.firstSequence = firstSequence;
+        }
+    }
+    
+    public static final String NODE_TOPIC = "/topic/seat-events";
+    
+    private final SimpMessagingTemplate messagingTemplate;
+    private final long windowMs;
+    private final boolean relay;
+    // Each node numbers the events of its own seat maps, so frames say which node sent them
+    private final String nodeId;
+    private final Map<Long, Batch> batches = new ConcurrentHashMap<>();
+    private final AtomicInteger queuedSeats = new AtomicInteger();
+    private final Counter frames;
+    private final DistributionSummary seatsPerFrame;
+    private final Counter slowSubscribers;
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "seat-broadcast");
+        thread.setDaemon(true);
+        return thread;
+    });
+    
+    public SeatUpdatePublisher(SimpMessagingTemplate messagingTemplate,
+                               MeterRegistry meterRegistry,
+                               @Value("${seat.broadcast.window-ms:50}") long windowMs,
+                               @Value("${seat.broker.node-id:}") String nodeId,
+                               @Value("${seat.broker.mode:simple}") String brokerMode) {
+        this.messagingTemplate = messagingTemplate;
+        this.windowMs = windowMs;
+        this.relay = "relay".equals(brokerMode);
+        this.nodeId = nodeId.isEmpty() ? UUID.randomUUID().toString().substring(0, 8) : nodeId;
+        this.frames = meterRegistry.counter("seat.broadcast.frames");
+        this.seatsPerFrame = DistributionSummary.builder("seat.broadcast.seats.per.frame").register(meterRegistry);
+        this.slowSubscribers = meterRegistry.counter("seat.broadcast.slow.subscribers");
+        meterRegistry.gauge("seat.broadcast.queue.depth", queuedSeats);
+        if (windowMs > 0) {
+            executor.scheduleWithFixedDelay(this::flush, windowMs, windowMs, TimeUnit.MILLISECONDS);
+        }
+    }
+    
+    // Lets a flush that is already running finish sending its frames
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        executor.shutdown();
+        executor.awaitTermination(1, TimeUnit.SECONDS);
+    }
+    
+    public String getNodeId() {
+        return nodeId;
+    }
+    
+    public static String topicOf(Long showId) {
+        return "/topic/shows/" + showId + "/seats";
+    }
+    
+    // Callers number the events of a show and hand them over in sequence order
+    public void publish(Long showId, long sequence, List<Long> seatIds, Seat.SeatStatus status, Long blockedByUserId) {
+        SeatState state = new SeatState(status, blockedByUserId);
+        batches.compute(showId, (id, batch) -> {
+            Batch current = batch != null ? batch : new Batch(sequence);
+            current.sequence = sequence;
+            for (Long seatId : seatIds) {
+                if (current.seats.put(seatId, state) == null) {
+                    queuedSeats.incrementAndGet();
+                }
+            }
+            return current;
+        });
+        if (windowMs <= 0) {
+            flush();
+        }
+    }
+    
+    // A subscriber that can't keep up is disconnected by the broker once its send buffer or send
+    // time limit is exceeded (see WebSocketConfig); it reconnects and reloads the snapshot
+    @EventListener
+    public void onDisconnect(SessionDisconnectEvent event) {
+        if (CloseStatus.SESSION_NOT_RELIABLE.equals(event.getCloseStatus())) {
+            slowSubscribers.increment();
+        }
+    }
+    
+    private synchronized void flush() {
+        try {
+            for (Long showId : batches.keySet()) {
+                Batch batch = batches.remove(showId);
+                if (batch != null) {
+                    queuedSeats.addAndGet(-batch.seats.size());
+                    send(showId, batch);
+                }
+            }
+        } catch (Exception e) {
+            // A failed frame shows up as a sequence gap on the client, which then resyncs
+            log.warn("Error broadcasting seat changes", e);
+        }
+    }
+    
+    private void send(Long showId, Batch batch) {
+        // Regroup the merged seats by state to keep the frame small
+        Map<SeatState, List<Long>> seatIdsByState = new LinkedHashMap<>();
+        batch.seats.forEach((seatId, state) ->
+                seatIdsByState.computeIfAbsent(state, key -> new ArrayList<>()).add(seatId));
+        
+        List<SeatChangeDto> changes = new ArrayList<>();
+        seatIdsByState.forEach((state, seatIds) ->
+                changes.add(new SeatChangeDto(seatIds, state.status, state.blockedByUserId)));
+        
+        SeatDeltaDto delta = new SeatDeltaDto(showId, nodeId, batch.firstSequence, batch.sequence, changes);
+        messagingTemplate.convertAndSend(topicOf(showId), delta);
+        if (relay) {
+            messagingTemplate.convertAndSend(NODE_TOPIC, delta);
+        }
+        frames.increment();
+        seatsPerFrame.record(batch.seats.size());
+    }
+}
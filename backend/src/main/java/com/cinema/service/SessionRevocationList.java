@@ -0,0 +1,115 @@
+package com.cinema.service;
+
+import com.cinema.util.BloomFilter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Clock;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Session tokens revoked before they expire: single tokens on logout, and every token of a user
+// issued up to some moment (account deleted, admin flag changed). Every authenticated request asks
+// here, so the common answer - not revoked - comes from a bloom filter without touching the maps;
+// only filter hits are confirmed against the exact TTL sets. Entries are dropped once the tokens they
+// cover have expired anyway, and the filter is then rebuilt from what is left.
+// Revocations live in this JVM only; on other nodes a token stays valid until it expires.
+@Service
+public class SessionRevocationList {
+
+    private record UserCutoff(long issuedUpTo, long until) {
+    }
+
+    // Keeps user ids apart from token ids in the shared filter
+    private static final long USER_KEY_SALT = 0x6a09e667f3bcc909L;
+
+    private final Map<Long, Long> revokedTokens = new ConcurrentHashMap<>();
+    private final Map<Long, UserCutoff> revokedUsers = new ConcurrentHashMap<>();
+    private final int expectedEntries;
+    private final double falsePositiveRate;
+    private final Clock clock;
+    private volatile BloomFilter filter;
+    private int filterCapacity;
+
+    @Autowired
+    public SessionRevocationList(MeterRegistry meterRegistry,
+                                 @Value("${security.session.revocation.expected-entries:10000}") int expectedEntries,
+                                 @Value("${security.session.revocation.false-positive-rate:0.01}") double falsePositiveRate) {
+        this(expectedEntries, falsePositiveRate, Clock.systemUTC());
+        Gauge.builder("session.revocations", this, SessionRevocationList::size).register(meterRegistry);
+    }
+
+    SessionRevocationList(int expectedEntries, double falsePositiveRate, Clock clock) {
+        this.expectedEntries = expectedEntries;
+        this.falsePositiveRate = falsePositiveRate;
+        this.clock = clock;
+        this.filterCapacity = expectedEntries;
+        this.filter = new BloomFilter(expectedEntries, falsePositiveRate);
+    }
+
+    // Maps are written before the filter, so a filter hit always finds its entry
+    public boolean isRevoked(SessionTokenService.Principal principal) {
+        BloomFilter current = filter;
+        if (current.mightContain(principal.tokenId()) && revokedTokens.containsKey(principal.tokenId())) {
+            return true;
+        }
+        if (current.mightContain(userKey(principal.userId()))) {
+            UserCutoff cutoff = revokedUsers.get(principal.userId());
+            return cutoff != null && principal.issuedAt() <= cutoff.issuedUpTo();
+        }
+        return false;
+    }
+
+    // expiresAt: when the token runs out anyway (epoch ms); the entry is kept until then
+    public synchronized void revokeToken(long tokenId, long expiresAt) {
+        revokedTokens.put(tokenId, expiresAt);
+        filter.add(tokenId);
+        growIfFull();
+    }
+
+    // Revokes every token of the user issued up to now; until: expiry of the longest-lived of them
+    public synchronized void revokeUser(long userId, long until) {
+        long now = clock.millis();
+        revokedUsers.merge(userId, new UserCutoff(now, until),
+                (old, cutoff) -> new UserCutoff(cutoff.issuedUpTo(), Math.max(old.until(), cutoff.until())));
+        filter.add(userKey(userId));
+        growIfFull();
+    }
+
+    @Scheduled(fixedRateString = "${security.session.revocation.purge-interval-ms:60000}")
+    public synchronized void purgeExpired() {
+        long now = clock.millis();
+        boolean removed = revokedTokens.values().removeIf(expiresAt -> expiresAt <= now);
+        removed |= revokedUsers.values().removeIf(cutoff -> cutoff.until() <= now);
+        if (removed) {
+            rebuild();
+        }
+    }
+
+    public int size() {
+        return revokedTokens.size() + revokedUsers.size();
+    }
+
+    private void growIfFull() {
+        if (size() > filterCapacity) {
+            rebuild();
+        }
+    }
+
+    // The new filter is filled before it is published, so no revoked entry is ever missing from it
+    private void rebuild() {
+        filterCapacity = Math.max(expectedEntries, size() * 2);
+        BloomFilter rebuilt = new BloomFilter(filterCapacity, falsePositiveRate);
+        revokedTokens.keySet().forEach(rebuilt::add);
+        revokedUsers.keySet().forEach(userId -> rebuilt.add(userKey(userId)));
+        filter = rebuilt;
+    }
+
+    private static long userKey(long userId) {
+        return userId ^ USER_KEY_SALT;
+    }
+}
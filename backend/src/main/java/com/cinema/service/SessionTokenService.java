@@ -0,0 +1,205 @@
+package com.cinema.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Issues and verifies the session tokens sent as "Authorization: Bearer <token>". A token is
+// base64url(claims) "." base64url(mac): the claims are a fixed 38-byte record (format, key id, user
+// id, admin flag, issued-at, expiry, token id) and the mac is HMAC-SHA256 over them, truncated to
+// 128 bits. Verifying one is a MAC and a revocation lookup, with no database access.
+// Signing keys rotate every security.session.key-rotation. Key n is derived from
+// security.session.secret as HMAC(secret, "session-key:" + n), so every node holding the secret
+// agrees on the keys without sharing state, and keys stay accepted for as long as tokens they signed
+// can still be unexpired. Nodes sharing a STOMP relay (seat.broker.mode=relay) run as a cluster, so
+// they refuse to start without the secret rather than each signing tokens the others reject.
+@Slf4j
+@Service
+public class SessionTokenService {
+
+    public record Principal(long userId, boolean admin, long tokenId, long issuedAt, long expiresAt) {
+    }
+
+    public record IssuedToken(String token, long expiresAt) {
+    }
+
+    public static class InvalidTokenException extends RuntimeException {
+        public InvalidTokenException(String message) {
+            super(message);
+        }
+    }
+
+    private static final byte FORMAT = 1;
+    private static final int CLAIMS_BYTES = 1 + 4 + 8 + 1 + 8 + 8 + 8;
+    private static final int MAC_BYTES = 16;
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    private final SessionRevocationList revocations;
+    private final MeterRegistry meterRegistry;
+    private final byte[] secret;
+    private final long ttlMs;
+    private final long rotationMs;
+    // Key ids older than the current one by more than this can't have signed an unexpired token
+    private final int retainedKeys;
+    private final Clock clock;
+    private final SecureRandom random = new SecureRandom();
+    private final Map<Integer, SecretKeySpec> keys = new ConcurrentHashMap<>();
+
+    @Autowired
+    public SessionTokenService(SessionRevocationList revocations,
+                               MeterRegistry meterRegistry,
+                               @Value("${security.session.secret:}") String secret,
+                               @Value("${security.session.ttl:8h}") Duration ttl,
+                               @Value("${security.session.key-rotation:6h}") Duration keyRotation,
+                               @Value("${seat.broker.mode:simple}") String brokerMode) {
+        this(revocations, meterRegistry, requireSharedSecret(secret, brokerMode), ttl, keyRotation, Clock.systemUTC());
+    }
+
+    SessionTokenService(SessionRevocationList revocations, MeterRegistry meterRegistry, String secret,
+                        Duration ttl, Duration keyRotation, Clock clock) {
+        this.revocations = revocations;
+        this.meterRegistry = meterRegistry;
+        this.ttlMs = ttl.toMillis();
+        this.rotationMs = keyRotation.toMillis();
+        this.retainedKeys = (int) ((ttlMs + rotationMs - 1) / rotationMs);
+        this.clock = clock;
+        if (secret == null || secret.isBlank()) {
+            this.secret = new byte[32];
+            random.nextBytes(this.secret);
+            log.warn("security.session.secret is not set: session tokens are signed with a random key "
+                    + "and are only accepted by this node until it restarts");
+        } else {
+            this.secret = secret.getBytes(StandardCharsets.UTF_8);
+        }
+    }
+
+    static String requireSharedSecret(String secret, String brokerMode) {
+        if ("relay".equals(brokerMode) && (secret == null || secret.isBlank())) {
+            throw new IllegalStateException("security.session.secret (SESSION_SECRET) must be set when seat.broker.mode "
+                    + "is relay: every node has to accept the session tokens the others issue");
+        }
+        return secret;
+    }
+
+    public IssuedToken issue(long userId, boolean admin) {
+        long now = clock.millis();
+        long expiresAt = now + ttlMs;
+        int keyId = keyId(now);
+        ByteBuffer claims = ByteBuffer.allocate(CLAIMS_BYTES)
+                .put(FORMAT)
+                .putInt(keyId)
+                .putLong(userId)
+                .put((byte) (admin ? 1 : 0))
+                .putLong(now)
+                .putLong(expiresAt)
+                .putLong(random.nextLong());
+        byte[] claimBytes = claims.array();
+        return new IssuedToken(ENCODER.encodeToString(claimBytes) + "." + ENCODER.encodeToString(mac(keyId, claimBytes)),
+                expiresAt);
+    }
+
+    public Principal verify(String token) {
+        int dot = token.indexOf('.');
+        if (dot < 0) {
+            throw reject("malformed", "Malformed session token");
+        }
+        byte[] claimBytes;
+        byte[] mac;
+        try {
+            claimBytes = DECODER.decode(token.substring(0, dot));
+            mac = DECODER.decode(token.substring(dot + 1));
+        } catch (IllegalArgumentException e) {
+            throw reject("malformed", "Malformed session token");
+        }
+        if (claimBytes.length != CLAIMS_BYTES || mac.length != MAC_BYTES || claimBytes[0] != FORMAT) {
+            throw reject("malformed", "Malformed session token");
+        }
+
+        ByteBuffer claims = ByteBuffer.wrap(claimBytes, 1, CLAIMS_BYTES - 1);
+        int keyId = claims.getInt();
+        long now = clock.millis();
+        int currentKeyId = keyId(now);
+        // One key ahead is accepted for nodes whose clock is slightly behind the issuer's
+        if (keyId < currentKeyId - retainedKeys || keyId > currentKeyId + 1) {
+            throw reject("key", "Session token signed with a retired key");
+        }
+        if (!MessageDigest.isEqual(mac, mac(keyId, claimBytes))) {
+            throw reject("signature", "Invalid session token signature");
+        }
+
+        long userId = claims.getLong();
+        boolean admin = claims.get() == 1;
+        long issuedAt = claims.getLong();
+        long expiresAt = claims.getLong();
+        long tokenId = claims.getLong();
+        if (expiresAt <= now) {
+            throw reject("expired", "Session token expired");
+        }
+        Principal principal = new Principal(userId, admin, tokenId, issuedAt, expiresAt);
+        if (revocations.isRevoked(principal)) {
+            throw reject("revoked", "Session token revoked");
+        }
+        return principal;
+    }
+
+    // Logout: the token stops working on this node right away
+    public void revoke(Principal principal) {
+        revocations.revokeToken(principal.tokenId(), principal.expiresAt());
+    }
+
+    // Ends every session of the user issued so far; they have to log in again to get a new token
+    public void revokeUser(long userId) {
+        revocations.revokeUser(userId, clock.millis() + ttlMs);
+    }
+
+    private int keyId(long epochMs) {
+        return (int) (epochMs / rotationMs);
+    }
+
+    private byte[] mac(int keyId, byte[] claimBytes) {
+        SecretKeySpec key = keys.computeIfAbsent(keyId, this::deriveKey);
+        if (keys.size() > retainedKeys + 3) {
+            int oldest = keyId(clock.millis()) - retainedKeys;
+            keys.keySet().removeIf(id -> id < oldest);
+        }
+        return Arrays.copyOf(hmac(key, claimBytes), MAC_BYTES);
+    }
+
+    private SecretKeySpec deriveKey(int keyId) {
+        byte[] material = hmac(new SecretKeySpec(secret, "HmacSHA256"),
+                ("session-key:" + keyId).getBytes(StandardCharsets.UTF_8));
+        return new SecretKeySpec(material, "HmacSHA256");
+    }
+
+    private static byte[] hmac(SecretKeySpec key, byte[] data) {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(key);
+            return mac.doFinal(data);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HmacSHA256 is not available", e);
+        }
+    }
+
+    private InvalidTokenException reject(String reason, String message) {
+        meterRegistry.counter("session.tokens.rejected", "reason", reason).increment();
+        return new InvalidTokenException(message);
+    }
+}
@@ -0,0 +1,270 @@
+package com.cinema.service;
+
+import com.cinema.dto.ScheduleImportResponse;
+import com.cinema.dto.ShowDto;
+import com.cinema.entity.Movie;
+import com.cinema.entity.Screen;
+import com.cinema.repository.MovieRepository;
+import com.cinema.repository.ScreenRepository;
+import com.cinema.repository.ShowRepository;
+import com.cinema.util.IntervalTree;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+// Screen time conflicts for single shows and bulk schedule imports. A show occupies its screen from
+// its start until the movie ends plus the cleaning buffer, on an absolute minute scale, so a late
+// show that runs past midnight blocks the start of the next day.
+@Slf4j
+@Service
+@Transactional
+public class ShowScheduleService {
+    
+    private static final long MINUTES_PER_DAY = 24 * 60;
+    
+    private static final List<String> CSV_COLUMNS = List.of("movie_id", "screen_id", "date", "time", "ticket_price");
+    
+    // An import row or an existing show, placed on a screen
+    private record Slot(Integer row, Long showId, String movieTitle, LocalDate date, LocalTime time) {
+    }
+    
+    private final ShowRepository showRepository;
+    private final MovieRepository movieRepository;
+    private final ScreenRepository screenRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final int cleaningBufferMinutes;
+    private final int batchSize;
+    
+    public ShowScheduleService(ShowRepository showRepository,
+                               MovieRepository movieRepository,
+                               ScreenRepository screenRepository,
+                               JdbcTemplate jdbcTemplate,
+                               ApplicationEventPublisher eventPublisher,
+                               @Value("${show.schedule.cleaning-buffer-minutes:15}") int cleaningBufferMinutes,
+                               @Value("${show.schedule.batch-size:500}") int batchSize) {
+        this.showRepository = showRepository;
+        this.movieRepository = movieRepository;
+        this.screenRepository = screenRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.eventPublisher = eventPublisher;
+        this.cleaningBufferMinutes = cleaningBufferMinutes;
+        this.batchSize = batchSize;
+    }
+    
+    // Throws if a show of the given length starting at date/time would overlap another active show on
+    // the screen. The day before and after are included, for shows that cross midnight
+    @Transactional(readOnly = true)
+    public void validateSlot(Long screenId, LocalDate date, LocalTime time, int durationMinutes, Long excludeShowId) {
+        long start = minuteOf(date, time);
+        long end = start + durationMinutes + cleaningBufferMinutes;
+        for (ShowRepository.ScheduledShow existing : showRepository.findScheduledShows(screenId, date.minusDays(1), date.plusDays(1))) {
+            if (existing.id().equals(excludeShowId)) {
+                continue;
+            }
+            long existingStart = minuteOf(existing.date(), existing.time());
+            long existingEnd = existingStart + existing.duration() + cleaningBufferMinutes;
+            if (start < existingEnd && existingStart < end) {
+                throw new RuntimeException("Time conflict detected! Another show '" + existing.movieTitle() +
+                        "' is already scheduled on this screen from " + existing.time() +
+                        " to " + existing.time().plusMinutes(existing.duration()) + " on " + existing.date() +
+                        " (plus " + cleaningBufferMinutes + " minutes of cleaning)");
+            }
+        }
+    }
+    
+    // CSV with a header row naming the columns movie_id, screen_id, date, time and optionally ticket_price
+    public ScheduleImportResponse importCsv(String csv) {
+        List<ScheduleImportResponse.Problem> problems = new ArrayList<>();
+        List<ShowDto> rows = new ArrayList<>();
+        String[] lines = csv.strip().split("\r?\n");
+        List<String> header = Arrays.stream(lines[0].split(",")).map(String::trim).map(String::toLowerCase).collect(Collectors.toList());
+        for (String column : CSV_COLUMNS.subList(0, 4)) {
+            if (!header.contains(column)) {
+                problems.add(new ScheduleImportResponse.Problem(null, "Missing column: " + column, null, null));
+            }
+        }
+        if (!problems.isEmpty()) {
+            return new ScheduleImportResponse(0, problems);
+        }
+        
+        for (int i = 1; i < lines.length; i++) {
+            if (lines[i].isBlank()) {
+                continue;
+            }
+            String[] values = lines[i].split(",", -1);
+            try {
+                ShowDto row = new ShowDto();
+                row.setMovieId(Long.valueOf(value(header, values, "movie_id")));
+                row.setScreenId(Long.valueOf(value(header, values, "screen_id")));
+                row.setDate(LocalDate.parse(value(header, values, "date")));
+                row.setTime(LocalTime.parse(value(header, values, "time")));
+                String price = value(header, values, "ticket_price");
+                if (price != null && !price.isEmpty()) {
+                    row.setTicketPrice(Double.valueOf(price));
+                }
+                rows.add(row);
+            } catch (RuntimeException e) {
+                // Keeps row numbers aligned with the file; the null row is skipped by the import
+                rows.add(null);
+                problems.add(new ScheduleImportResponse.Problem(rows.size(), "Unreadable row: " + lines[i], null, null));
+            }
+        }
+        return importRows(rows, problems);
+    }
+    
+    public ScheduleImportResponse importSchedule(List<ShowDto> rows) {
+        return importRows(rows, new ArrayList<>());
+    }
+    
+    // All or nothing: every problem in the batch is reported, and the shows are inserted only if
+    // there are none. Existing shows are read with one query per screen, and the shows and their seat
+    // inventories are written with JDBC batches and one INSERT ... SELECT per screen
+    private ScheduleImportResponse importRows(List<ShowDto> rows, List<ScheduleImportResponse.Problem> problems) {
+        Map<Long, Movie> movies = movieRepository.findAllById(distinct(rows, ShowDto::getMovieId)).stream()
+                .collect(Collectors.toMap(Movie::getId, Function.identity()));
+        Map<Long, Screen> screens = screenRepository.findAllById(distinct(rows, ShowDto::getScreenId)).stream()
+                .collect(Collectors.toMap(Screen::getId, Function.identity()));
+        
+        LocalDate tomorrow = LocalDate.now().plusDays(1);
+        Map<Long, List<Integer>> rowsByScreen = new LinkedHashMap<>();
+        for (int i = 0; i < rows.size(); i++) {
+            ShowDto row = rows.get(i);
+            if (row == null) {
+                continue;
+            }
+            String problem = null;
+            if (row.getMovieId() == null || row.getScreenId() == null || row.getDate() == null || row.getTime() == null) {
+                problem = "movie_id, screen_id, date and time are required";
+            } else if (!movies.containsKey(row.getMovieId())) {
+                problem = "Movie not found with id: " + row.getMovieId();
+            } else if (!screens.containsKey(row.getScreenId())) {
+                problem = "Screen not found with id: " + row.getScreenId();
+            } else if (row.getDate().isBefore(tomorrow)) {
+                problem = "Show cannot be scheduled for today or in the past. Earliest allowed date: " + tomorrow;
+            } else if (row.getDate().isBefore(movies.get(row.getMovieId()).getReleaseDate())) {
+                problem = "Show cannot be scheduled before movie release date: " + movies.get(row.getMovieId()).getReleaseDate();
+            } else if (row.getTicketPrice() != null && row.getTicketPrice() <= 0) {
+                problem = "Ticket price must be positive";
+            }
+            if (problem != null) {
+                problems.add(new ScheduleImportResponse.Problem(i + 1, problem, null, null));
+            } else {
+                rowsByScreen.computeIfAbsent(row.getScreenId(), id -> new ArrayList<>()).add(i);
+            }
+        }
+        
+        for (Map.Entry<Long, List<Integer>> screen : rowsByScreen.entrySet()) {
+            findConflicts(screen.getKey(), screen.getValue(), rows, movies, problems);
+        }
+        if (!problems.isEmpty()) {
+            problems.sort((a, b) -> Integer.compare(a.getRow() != null ? a.getRow() : 0, b.getRow() != null ? b.getRow() : 0));
+            return new ScheduleImportResponse(0, problems);
+        }
+        
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO shows (date, time, ticket_price, is_active, movie_id, screen_id) VALUES (?, ?, ?, ?, ?, ?)",
+                rows, batchSize, (statement, row) -> {
+                    statement.setObject(1, row.getDate());
+                    statement.setObject(2, row.getTime());
+                    statement.setDouble(3, row.getTicketPrice() != null ? row.getTicketPrice() : 15.0);
+                    statement.setBoolean(4, row.getIsActive() == null || row.getIsActive());
+                    statement.setLong(5, row.getMovieId());
+                    statement.setLong(6, row.getScreenId());
+                });
+        
+        Set<Long> cinemaIds = new HashSet<>();
+        for (Map.Entry<Long, List<Integer>> screen : rowsByScreen.entrySet()) {
+            List<LocalDate> dates = screen.getValue().stream().map(i -> rows.get(i).getDate()).sorted().collect(Collectors.toList());
+            jdbcTemplate.update("INSERT INTO show_seats (show_id, seat_id, status, version) "
+                            + "SELECT s.id, st.id, 'AVAILABLE', 0 FROM shows s JOIN seats st ON st.screen_id = s.screen_id "
+                            + "WHERE s.screen_id = ? AND s.date BETWEEN ? AND ? "
+                            + "AND NOT EXISTS (SELECT 1 FROM show_seats ss WHERE ss.show_id = s.id)",
+                    screen.getKey(), dates.get(0), dates.get(dates.size() - 1));
+            cinemaIds.add(screens.get(screen.getKey()).getCinema().getId());
+        }
+        eventPublisher.publishEvent(new CatalogEvents.ShowsChanged(cinemaIds));
+        log.info("Imported {} shows on {} screens", rows.size(), rowsByScreen.size());
+        return new ScheduleImportResponse(rows.size(), List.of());
+    }
+    
+    // Places the screen's import rows and its existing shows from the day before the first row to
+    // the day after the last in one interval tree, and reports every pair that overlaps once
+    private void findConflicts(Long screenId, List<Integer> screenRows, List<ShowDto> rows, Map<Long, Movie> movies,
+                               List<ScheduleImportResponse.Problem> problems) {
+        LocalDate first = screenRows.stream().map(i -> rows.get(i).getDate()).min(LocalDate::compareTo).orElseThrow();
+        LocalDate last = screenRows.stream().map(i -> rows.get(i).getDate()).max(LocalDate::compareTo).orElseThrow();
+        
+        List<IntervalTree.Interval<Slot>> intervals = new ArrayList<>();
+        for (ShowRepository.ScheduledShow existing : showRepository.findScheduledShows(screenId, first.minusDays(1), last.plusDays(1))) {
+            intervals.add(interval(new Slot(null, existing.id(), existing.movieTitle(), existing.date(), existing.time()), existing.duration()));
+        }
+        List<IntervalTree.Interval<Slot>> imported = new ArrayList<>(screenRows.size());
+        for (int i : screenRows) {
+            ShowDto row = rows.get(i);
+            Movie movie = movies.get(row.getMovieId());
+            imported.add(interval(new Slot(i + 1, null, movie.getTitle(), row.getDate(), row.getTime()), movie.getDuration()));
+        }
+        intervals.addAll(imported);
+        IntervalTree<Slot> tree = new IntervalTree<>(intervals);
+        
+        for (IntervalTree.Interval<Slot> interval : imported) {
+            Slot slot = interval.value();
+            for (IntervalTree.Interval<Slot> other : tree.overlapping(interval.start(), interval.end())) {
+                Slot otherSlot = other.value();
+                // Import rows overlap each other symmetrically; report the pair on the later row
+                if (otherSlot == slot || (otherSlot.row() != null && otherSlot.row() > slot.row())) {
+                    continue;
+                }
+                String with = otherSlot.row() != null ? "row " + otherSlot.row() : "existing show " + otherSlot.showId();
+                problems.add(new ScheduleImportResponse.Problem(slot.row(),
+                        "'" + slot.movieTitle() + "' on screen " + screenId + " at " + slot.date() + " " + slot.time()
+                                + " overlaps '" + otherSlot.movieTitle() + "' at " + otherSlot.date() + " " + otherSlot.time()
+                                + " (" + with + ")",
+                        otherSlot.row(), otherSlot.showId()));
+            }
+        }
+    }
+    
+    private IntervalTree.Interval<Slot> interval(Slot slot, int durationMinutes) {
+        long start = minuteOf(slot.date(), slot.time());
+        return new IntervalTree.Interval<>(start, start + durationMinutes + cleaningBufferMinutes, slot);
+    }
+    
+    private static long minuteOf(LocalDate date, LocalTime time) {
+        return date.toEpochDay() * MINUTES_PER_DAY + time.getHour() * 60L + time.getMinute();
+    }
+    
+    private static Set<Long> distinct(List<ShowDto> rows, Function<ShowDto, Long> id) {
+        return rows.stream()
+                .filter(row -> row != null && id.apply(row) != null)
+                .map(id)
+                .collect(Collectors.toSet());
+    }
+    
+    private static String value(List<String> header, String[] values, String column) {
+        int index = header.indexOf(column);
+        if (index < 0) {
+            return null;
+        }
+        if (index >= values.length) {
+            throw new IllegalArgumentException("Missing " + column);
+        }
+        return values[index].trim();
+    }
+}
@@ -1,5 +1,6 @@
 package com.cinema.service;
 
+import com.cinema.dto.CursorPageDto;
 import com.cinema.dto.ShowDto;
 import com.cinema.entity.Movie;
 import com.cinema.entity.Screen;
@@ -7,13 +8,21 @@ import com.cinema.entity.Show;
 import com.cinema.repository.MovieRepository;
 import com.cinema.repository.ScreenRepository;
 import com.cinema.repository.ShowRepository;
+import com.cinema.repository.ShowSeatRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
 import java.time.LocalTime;
+import java.util.Base64;
 import java.util.List;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Service
@@ -21,9 +30,21 @@ import java.util.stream.Collectors;
 @Transactional
 public class ShowService {
 
+    private static final int MAX_PAGE_SIZE = 100;
+    // Searches without an end date cover a week
+    private static final int DEFAULT_SEARCH_DAYS = 7;
+
+    private record SearchPosition(LocalDate date, LocalTime time, Long id) {
+    }
+
     private final ShowRepository showRepository;
     private final MovieRepository movieRepository;
     private final ScreenRepository screenRepository;
+    private final ShowSeatRepository showSeatRepository;
+    private final SeatService seatService;
+    private final SeatMapService seatMapService;
+    private final ShowScheduleService showScheduleService;
+    private final ApplicationEventPublisher eventPublisher;
 
     public ShowDto getShowById(Long id) {
         Show show = showRepository.findById(id)
@@ -33,18 +54,50 @@ public class ShowService {
 
     @Transactional(readOnly = true)
     public List<ShowDto> getAllShows() {
-        return showRepository.findAll().stream()
-                .map(this::convertToDto)
+        return showRepository.findAllSummaries().stream()
+                .map(this::convertSummaryToDto)
                 .collect(Collectors.toList());
     }
 
     @Transactional(readOnly = true)
     public List<ShowDto> getShowsByMovieId(Long movieId) {
-        return showRepository.findByMovieId(movieId).stream()
-                .map(this::convertToDto)
+        return showRepository.findSummariesByMovieId(movieId).stream()
+                .map(this::convertSummaryToDto)
                 .collect(Collectors.toList());
     }
 
+    // Active showtimes matching every given filter, in (date, time) order. The cursor is the position
+    // of the last row already returned, so each page costs the same however deep the client pages
+    @Transactional(readOnly = true)
+    public CursorPageDto<ShowDto> searchShows(LocalDate fromDate, LocalDate toDate, Long movieId, Long cinemaId, String city,
+                                              LocalTime fromTime, LocalTime toTime, Double minPrice, Double maxPrice,
+                                              String cursor, int size) {
+        LocalDate from = fromDate != null ? fromDate : LocalDate.now();
+        LocalDate to = toDate != null ? toDate : from.plusDays(DEFAULT_SEARCH_DAYS - 1);
+        if (to.isBefore(from)) {
+            throw new IllegalArgumentException("to_date must not be before from_date");
+        }
+        int pageSize = Math.min(Math.max(size, 1), MAX_PAGE_SIZE);
+        SearchPosition after = cursor != null && !cursor.isBlank() ? decodeCursor(cursor) : null;
+        
+        // One row beyond the page tells whether there is a next page
+        List<ShowRepository.ShowSummary> rows = showRepository.searchSummaries(from, to, movieId, cinemaId,
+                city != null && !city.isBlank() ? city.trim() : null,
+                fromTime, toTime, minPrice, maxPrice,
+                after != null ? after.date() : null, after != null ? after.time() : null, after != null ? after.id() : null,
+                Limit.of(pageSize + 1));
+        
+        String nextCursor = null;
+        if (rows.size() > pageSize) {
+            rows = rows.subList(0, pageSize);
+            nextCursor = encodeCursor(rows.get(pageSize - 1));
+        }
+        List<ShowDto> content = rows.stream()
+                .map(this::convertSummaryToDto)
+                .collect(Collectors.toList());
+        return new CursorPageDto<>(content, pageSize, nextCursor);
+    }
+
     @Transactional
     public ShowDto createShow(ShowDto showDto) {
         Movie movie = movieRepository.findById(showDto.getMovieId())
@@ -72,8 +125,8 @@ public class ShowService {
         }
 
         // Validate no time conflicts on the same screen
-        validateNoTimeConflicts(showDto.getScreenId(), showDto.getDate(), showDto.getTime(), 
-                              movie.getDuration(), null);
+        showScheduleService.validateSlot(showDto.getScreenId(), showDto.getDate(), showDto.getTime(),
+                movie.getDuration(), null);
 
         Show show = new Show();
         show.setDate(showDto.getDate());
@@ -84,6 +137,11 @@ public class ShowService {
         show.setScreen(screen);
 
         Show savedShow = showRepository.save(show);
+        
+        // Give the show its own seat inventory so bookings don't leak into other shows on the screen
+        seatService.initializeShowSeats(savedShow);
+        eventPublisher.publishEvent(new CatalogEvents.ShowsChanged(Set.of(screen.getCinema().getId())));
+        
         return convertToDto(savedShow);
     }
 
@@ -117,8 +175,20 @@ public class ShowService {
         }
 
         // Validate no time conflicts on the same screen (excluding current show)
-        validateNoTimeConflicts(showDto.getScreenId(), showDto.getDate(), showDto.getTime(), 
-                              movie.getDuration(), id);
+        showScheduleService.validateSlot(showDto.getScreenId(), showDto.getDate(), showDto.getTime(),
+                movie.getDuration(), id);
+
+        Long previousCinemaId = show.getScreen().getCinema().getId();
+
+        // Moving a show to another screen rebuilds its seat inventory from the new layout
+        boolean screenChanged = !show.getScreen().getId().equals(screen.getId());
+        if (screenChanged) {
+            if (showSeatRepository.countUnavailableByShowId(id) > 0) {
+                throw new RuntimeException("Cannot move show to another screen while it has booked or blocked seats");
+            }
+            showSeatRepository.deleteByShowId(id);
+            seatMapService.evict(id);
+        }
 
         show.setDate(showDto.getDate());
         show.setTime(showDto.getTime());
@@ -128,55 +198,62 @@ public class ShowService {
         show.setScreen(screen);
 
         Show updatedShow = showRepository.save(show);
+        if (screenChanged) {
+            seatService.initializeShowSeats(updatedShow);
+        }
+        eventPublisher.publishEvent(new CatalogEvents.ShowsChanged(Set.copyOf(List.of(previousCinemaId, screen.getCinema().getId()))));
         return convertToDto(updatedShow);
     }
 
     @Transactional
     public void deleteShow(Long id) {
+        Long cinemaId = showRepository.findCinemaIdByShowId(id);
         showRepository.deleteById(id);
+        seatMapService.evict(id);
+        if (cinemaId != null) {
+            eventPublisher.publishEvent(new CatalogEvents.ShowsChanged(Set.of(cinemaId)));
+        }
     }
 
     @Transactional
     public void deleteShowsByMovieId(Long movieId) {
+        Set<Long> cinemaIds = showRepository.findCinemaIdsByMovieId(movieId);
         List<Show> shows = showRepository.findAllByMovieId(movieId);
         showRepository.deleteAll(shows);
+        shows.forEach(show -> seatMapService.evict(show.getId()));
+        eventPublisher.publishEvent(new CatalogEvents.ShowsChanged(cinemaIds));
     }
 
     @Transactional
     public void deleteShowsByCinemaId(Long cinemaId) {
         List<Show> shows = showRepository.findAllByCinemaId(cinemaId);
         showRepository.deleteAll(shows);
+        shows.forEach(show -> seatMapService.evict(show.getId()));
+        eventPublisher.publishEvent(new CatalogEvents.ShowsChanged(Set.of(cinemaId)));
     }
 
-    private void validateNoTimeConflicts(Long screenId, java.time.LocalDate date, LocalTime startTime, 
-                                       Integer durationMinutes, Long excludeShowId) {
-        LocalTime endTime = startTime.plusMinutes(durationMinutes);
-        
-        List<Show> existingShows;
-        if (excludeShowId != null) {
-            existingShows = showRepository.findShowsByScreenAndDateExcluding(screenId, date, excludeShowId);
-        } else {
-            existingShows = showRepository.findShowsByScreenAndDate(screenId, date);
-        }
+    @Scheduled(cron = "0 0 * * * *") // Run every hour
+    public void deactivatePastShows() {
+        // Deactivate shows that have passed their date
+        List<Show> expiredShows = showRepository.findActiveShowsBeforeDate(LocalDate.now());
         
-        for (Show existingShow : existingShows) {
-            LocalTime existingStartTime = existingShow.getTime();
-            LocalTime existingEndTime = existingStartTime.plusMinutes(existingShow.getMovie().getDuration());
-            
-            // Check for time overlap
-            if (isTimeOverlapping(startTime, endTime, existingStartTime, existingEndTime)) {
-                throw new RuntimeException("Time conflict detected! Another show '" + existingShow.getMovie().getTitle() + 
-                        "' is already scheduled on this screen from " + existingStartTime + 
-                        " to " + existingEndTime + " on " + existingShow.getDate());
+        if (!expiredShows.isEmpty()) {
+            for (Show show : expiredShows) {
+                show.setIsActive(false);
             }
+            showRepository.saveAll(expiredShows);
+            eventPublisher.publishEvent(new CatalogEvents.ShowsChanged(Set.of()));
+            System.out.println("Deactivated " + expiredShows.size() + " shows that have passed their date");
         }
+        seatMapService.evictPastShows();
     }
     
-    private boolean isTimeOverlapping(LocalTime start1, LocalTime end1, LocalTime start2, LocalTime end2) {
-        // Two time ranges overlap if one starts before the other ends and vice versa
-        return start1.isBefore(end2) && start2.isBefore(end1);
+    // Searches that default to "from today" change at midnight even when no show does
+    @Scheduled(cron = "0 0 0 * * *")
+    public void startNewDay() {
+        eventPublisher.publishEvent(new CatalogEvents.ShowsChanged(Set.of()));
     }
-
+    
     private ShowDto convertToDto(Show show) {
         ShowDto dto = new ShowDto();
         dto.setId(show.getId());
@@ -194,4 +271,40 @@ public class ShowService {
         dto.setCinemaContactInfo(show.getScreen().getCinema().getContactInfo());
         return dto;
     }
+    
+    // The cursor is "date|time|id" in URL-safe base64, opaque to clients
+    private static String encodeCursor(ShowRepository.ShowSummary last) {
+        String position = last.date() + "|" + last.time() + "|" + last.id();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(position.getBytes(StandardCharsets.UTF_8));
+    }
+    
+    private static SearchPosition decodeCursor(String cursor) {
+        try {
+            String[] position = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split("\\|");
+            if (position.length != 3) {
+                throw new IllegalArgumentException();
+            }
+            return new SearchPosition(LocalDate.parse(position[0]), LocalTime.parse(position[1]), Long.valueOf(position[2]));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor, e);
+        }
+    }
+    
+    private ShowDto convertSummaryToDto(ShowRepository.ShowSummary show) {
+        ShowDto dto = new ShowDto();
+        dto.setId(show.id());
+        dto.setDate(show.date());
+        dto.setTime(show.time());
+        dto.setTicketPrice(show.ticketPrice());
+        dto.setIsActive(show.isActive());
+        dto.setMovieId(show.movieId());
+        dto.setMovieTitle(show.movieTitle());
+        dto.setScreenId(show.screenId());
+        dto.setScreenName(show.screenName());
+        dto.setCinemaId(show.cinemaId());
+        dto.setCinemaName(show.cinemaName());
+        dto.setCinemaLocation(show.cinemaLocation());
+        dto.setCinemaContactInfo(show.cinemaContactInfo());
+        return dto;
+    }
 }
@@ -5,81 +5,108 @@ import com.cinema.dto.SignupRequest;
 import com.cinema.dto.UserDto;
 import com.cinema.entity.User;
 import com.cinema.repository.UserRepository;
-import lombok.RequiredArgsConstructor;
-import org.springframework.security.crypto.password.PasswordEncoder;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
 
+@Slf4j
 @Service
-@RequiredArgsConstructor
 @Transactional
 public class UserService {
     
     private final UserRepository userRepository;
-    private final PasswordEncoder passwordEncoder;
+    private final PasswordHasher passwordHasher;
+    private final SessionTokenService sessionTokenService;
+    private final TransactionTemplate transactionTemplate;
     
-    public UserDto createUser(UserDto userDto) {
+    public UserService(UserRepository userRepository,
+                       PasswordHasher passwordHasher,
+                       SessionTokenService sessionTokenService,
+                       PlatformTransactionManager transactionManager) {
+        this.userRepository = userRepository;
+        this.passwordHasher = passwordHasher;
+        this.sessionTokenService = sessionTokenService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+    
+    // Password hashing runs on the PasswordHasher pool; the user row is then saved from that thread,
+    // in the repository's own transaction
+    public CompletableFuture<UserDto> createUser(UserDto userDto) {
         if (userRepository.existsByEmail(userDto.getEmail())) {
             throw new RuntimeException("User with email " + userDto.getEmail() + " already exists");
         }
         
-        User user = new User();
-        user.setEmail(userDto.getEmail());
-        user.setName(userDto.getName());
-        user.setPassword(passwordEncoder.encode(userDto.getPassword()));
-        user.setPhoneNumber(userDto.getPhoneNumber());
-        user.setIsAdmin(userDto.getIsAdmin());
-        
-        User savedUser = userRepository.save(user);
-        return convertToDto(savedUser);
+        return passwordHasher.encode(userDto.getPassword()).thenApply(hash -> {
+            User user = new User();
+            user.setEmail(userDto.getEmail());
+            user.setName(userDto.getName());
+            user.setPassword(hash);
+            user.setPhoneNumber(userDto.getPhoneNumber());
+            user.setIsAdmin(userDto.getIsAdmin());
+            
+            User savedUser = userRepository.save(user);
+            return convertToDto(savedUser);
+        });
     }
     
-    public UserDto signup(SignupRequest signupRequest) {
+    public CompletableFuture<UserDto> signup(SignupRequest signupRequest) {
         if (userRepository.existsByEmail(signupRequest.getEmail())) {
             throw new RuntimeException("User with email " + signupRequest.getEmail() + " already exists");
         }
         
-        System.out.println("=== SIGNUP DEBUG ===");
-        System.out.println("Received isAdmin: " + signupRequest.getIsAdmin());
-        System.out.println("isAdmin type: " + (signupRequest.getIsAdmin() != null ? signupRequest.getIsAdmin().getClass().getSimpleName() : "null"));
-        
-        User user = new User();
-        user.setEmail(signupRequest.getEmail());
-        user.setName(signupRequest.getName());
-        user.setPassword(passwordEncoder.encode(signupRequest.getPassword()));
-        user.setPhoneNumber(signupRequest.getPhoneNumber());
-        
-        // Explicitly set isAdmin - don't rely on default value
-        Boolean adminValue = signupRequest.getIsAdmin();
-        if (adminValue == null) {
-            adminValue = false;
-        }
-        user.setIsAdmin(adminValue);
-        
-        System.out.println("User entity isAdmin before save: " + user.getIsAdmin());
-        System.out.println("Admin value set: " + adminValue);
-        
-        User savedUser = userRepository.save(user);
-        
-        System.out.println("User entity isAdmin after save: " + savedUser.getIsAdmin());
-        System.out.println("User ID: " + savedUser.getId());
-        System.out.println("===================");
-        
-        return convertToDto(savedUser);
+        return passwordHasher.encode(signupRequest.getPassword()).thenApply(hash -> {
+            User user = new User();
+            user.setEmail(signupRequest.getEmail());
+            user.setName(signupRequest.getName());
+            user.setPassword(hash);
+            user.setPhoneNumber(signupRequest.getPhoneNumber());
+            
+            // Explicitly set isAdmin - don't rely on default value
+            Boolean adminValue = signupRequest.getIsAdmin();
+            if (adminValue == null) {
+                adminValue = false;
+            }
+            user.setIsAdmin(adminValue);
+            
+            User savedUser = userRepository.save(user);
+            return withSession(convertToDto(savedUser));
+        });
     }
     
-    public UserDto login(LoginRequest loginRequest) {
+    public CompletableFuture<UserDto> login(LoginRequest loginRequest) {
         User user = userRepository.findByEmail(loginRequest.getEmail())
                 .orElseThrow(() -> new RuntimeException("Invalid email or password"));
+        String storedHash = user.getPassword();
         
-        if (!passwordEncoder.matches(loginRequest.getPassword(), user.getPassword())) {
-            throw new RuntimeException("Invalid email or password");
-        }
-        
-        return convertToDto(user);
+        return passwordHasher.matches(loginRequest.getPassword(), storedHash).thenApply(matches -> {
+            if (!matches) {
+                throw new RuntimeException("Invalid email or password");
+            }
+            if (passwordHasher.needsUpgrade(storedHash)) {
+                upgradePasswordHash(user.getId(), loginRequest.getPassword(), storedHash);
+            }
+            return withSession(convertToDto(user));
+        });
+    }
+    
+    // Rehashes SHA-256 and lower-cost BCrypt hashes at the current cost. The login doesn't wait for
+    // it; if the pool is busy the upgrade is simply tried again on the next login. The new hash is
+    // saved from the hashing thread, long after the login's transaction, so it commits in its own.
+    private void upgradePasswordHash(Long userId, String rawPassword, String storedHash) {
+        passwordHasher.encode(rawPassword)
+                .thenAccept(newHash -> transactionTemplate.executeWithoutResult(status ->
+                        userRepository.replacePasswordHash(userId, storedHash, newHash)))
+                .exceptionally(e -> {
+                    log.warn("Password hash upgrade for user {} skipped: {}", userId, e.getMessage());
+                    return null;
+                });
     }
     
     public UserDto getUserById(Long id) {
@@ -104,6 +131,11 @@ public class UserService {
         User user = userRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("User not found with id: " + id));
         
+        // Tokens carry the admin flag; a change takes effect with the user's next login
+        if (!Objects.equals(user.getIsAdmin(), userDto.getIsAdmin())) {
+            sessionTokenService.revokeUser(id);
+        }
+        
         user.setName(userDto.getName());
         user.setPhoneNumber(userDto.getPhoneNumber());
         user.setIsAdmin(userDto.getIsAdmin());
@@ -117,6 +149,18 @@ public class UserService {
             throw new RuntimeException("User not found with id: " + id);
         }
         userRepository.deleteById(id);
+        sessionTokenService.revokeUser(id);
+    }
+    
+    public void logout(SessionTokenService.Principal principal) {
+        sessionTokenService.revoke(principal);
+    }
+    
+    private UserDto withSession(UserDto dto) {
+        SessionTokenService.IssuedToken issued = sessionTokenService.issue(dto.getId(), Boolean.TRUE.equals(dto.getIsAdmin()));
+        dto.setToken(issued.token());
+        dto.setTokenExpiresAt(issued.expiresAt());
+        return dto;
     }
     
     private UserDto convertToDto(User user) {
@@ -0,0 +1,162 @@
+package com.cinema.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+// Booking references such as "BK7QX3M0ZK1D9WA": "BK", 12 Crockford base32 symbols and a check symbol.
+// The symbols encode a 60-bit Snowflake-style id: 32 bits of seconds since 2024, a 10-bit node id and
+// an 18-bit per-node sequence. Nodes with distinct ids can never produce the same id, and within a
+// node the (second, sequence) pair only moves forward: it is a single AtomicLong advanced by CAS, so
+// next() is lock-free. When a node runs through all 262144 sequence numbers of a second it borrows
+// the next second rather than wait, and a clock stepping back is ignored until it catches up.
+// Uniqueness across restarts of a node is up to the caller: a generator starts no earlier than the
+// start second it is given, and with reserveUntil() set it refuses to use later seconds than those
+// reserved, so seconds reserved (and recorded) before use can be skipped by the next process.
+// Before encoding, the id goes through a fixed bijective mix of its 60 bits, so consecutive bookings
+// don't get consecutive references and the count of bookings can't be read off them.
+public class BookingReferenceGenerator {
+    
+    // Every second the generator may use is taken; reserve further ones and call again
+    public static class NotReservedException extends RuntimeException {
+        public NotReservedException(long second) {
+            super("Booking reference second " + second + " is not reserved");
+        }
+    }
+    
+    public static final String PREFIX = "BK";
+    public static final int NODE_BITS = 10;
+    public static final int MAX_NODE_ID = (1 << NODE_BITS) - 1;
+    public static final int LENGTH = PREFIX.length() + 13;
+    
+    private static final int SEQUENCE_BITS = 18;
+    private static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+    private static final long SECOND_MASK = (1L << 32) - 1;
+    private static final long ID_MASK = (1L << 60) - 1;
+    // 2024-01-01T00:00:00Z
+    private static final long EPOCH_SECOND = 1_704_067_200L;
+    private static final long MIX_1 = 0x9E3779B97F4A7C15L;
+    private static final long MIX_2 = 0xBF58476D1CE4E5B9L;
+    private static final long UNMIX_1 = inverse(MIX_1);
+    private static final long UNMIX_2 = inverse(MIX_2);
+    
+    private final long node;
+    private final LongSupplier epochSeconds;
+    // second << SEQUENCE_BITS | sequence of the last id handed out
+    private final AtomicLong state;
+    // Last second ids may be issued in; unlimited unless reserveUntil() is called
+    private volatile long reservedUntil = Long.MAX_VALUE;
+    
+    public BookingReferenceGenerator(int nodeId) {
+        this(nodeId, () -> System.currentTimeMillis() / 1000);
+    }
+    
+    public BookingReferenceGenerator(int nodeId, LongSupplier epochSeconds) {
+        this(nodeId, epochSeconds, 0);
+    }
+    
+    // startSecond is in generator seconds (see second()): ids start in it if the clock is behind it
+    public BookingReferenceGenerator(int nodeId, LongSupplier epochSeconds, long startSecond) {
+        if (nodeId < 0 || nodeId > MAX_NODE_ID) {
+            throw new IllegalArgumentException("Node id must be between 0 and " + MAX_NODE_ID + ": " + nodeId);
+        }
+        this.node = nodeId;
+        this.epochSeconds = epochSeconds;
+        this.state = new AtomicLong(Math.max(currentSecond(), startSecond) << SEQUENCE_BITS);
+    }
+    
+    // The second ids are being issued in, counted from 2024: the clock's, or a later one while borrowing
+    public long second() {
+        return Math.max(state.get() >>> SEQUENCE_BITS, currentSecond());
+    }
+    
+    // Limits ids to seconds up to and including the given one, and from then on to later reservations
+    public synchronized void reserveUntil(long second) {
+        if (reservedUntil == Long.MAX_VALUE || second > reservedUntil) {
+            reservedUntil = second;
+        }
+    }
+    
+    public String next() {
+        return format(nextId());
+    }
+    
+    // The raw id behind the next reference; ids of one generator increase strictly
+    public long nextId() {
+        while (true) {
+            long current = state.get();
+            long second = current >>> SEQUENCE_BITS;
+            long now = currentSecond();
+            long next;
+            if (now > second) {
+                next = now << SEQUENCE_BITS;
+            } else if ((current & SEQUENCE_MASK) < SEQUENCE_MASK) {
+                next = current + 1;
+            } else {
+                next = (second + 1) << SEQUENCE_BITS;
+            }
+            long nextSecond = next >>> SEQUENCE_BITS;
+            if (nextSecond > reservedUntil) {
+                throw new NotReservedException(nextSecond);
+            }
+            if (state.compareAndSet(current, next)) {
+                return ((nextSecond & SECOND_MASK) << (NODE_BITS + SEQUENCE_BITS)) | (node << SEQUENCE_BITS) | (next & SEQUENCE_MASK);
+            }
+        }
+    }
+    
+    public static String format(long id) {
+        long mixed = mix(id & ID_MASK);
+        char[] reference = new char[LENGTH];
+        reference[0] = 'B';
+        reference[1] = 'K';
+        CrockfordBase32.encode(mixed, reference, 2, 12);
+        reference[LENGTH - 1] = CrockfordBase32.checkSymbol(mixed);
+        return new String(reference);
+    }
+    
+    // The id behind a reference, or -1 if it isn't one (wrong prefix or length, bad symbol or check)
+    public static long parse(String reference) {
+        if (reference == null || reference.length() != LENGTH || !reference.regionMatches(true, 0, PREFIX, 0, PREFIX.length())) {
+            return -1;
+        }
+        long mixed = CrockfordBase32.decode(reference, PREFIX.length(), LENGTH - 1);
+        if (mixed < 0 || Character.toUpperCase(reference.charAt(LENGTH - 1)) != CrockfordBase32.checkSymbol(mixed)) {
+            return -1;
+        }
+        return unmix(mixed);
+    }
+    
+    public static boolean isValid(String reference) {
+        return parse(reference) >= 0;
+    }
+    
+    private long currentSecond() {
+        return Math.max(0, epochSeconds.getAsLong() - EPOCH_SECOND);
+    }
+    
+    // Multiplying by an odd constant and xor-shifting right are both invertible on 60 bits
+    private static long mix(long x) {
+        x = (x * MIX_1) & ID_MASK;
+        x ^= x >>> 29;
+        x = (x * MIX_2) & ID_MASK;
+        x ^= x >>> 32;
+        return x;
+    }
+    
+    private static long unmix(long x) {
+        x ^= x >>> 32;
+        x = (x * UNMIX_2) & ID_MASK;
+        x ^= (x >>> 29) ^ (x >>> 58);
+        x = (x * UNMIX_1) & ID_MASK;
+        return x;
+    }
+    
+    // Multiplicative inverse mod 2^64 (hence mod 2^60) of an odd number, by Newton's iteration
+    private static long inverse(long odd) {
+        long inverse = odd;
+        for (int i = 0; i < 5; i++) {
+            inverse *= 2 - odd * inverse;
+        }
+        return inverse;
+    }
+}
@@ -0,0 +1,53 @@
+package com.cinema.util;
+
+// Crockford's base32: digits and upper-case letters without I, L, O and U, so references read
+// aloud or typed from a ticket can't be confused. Decoding ignores case and reads O as 0 and
+// I/L as 1. The check symbol is the value mod 37, from the alphabet plus "*~$=U".
+public final class CrockfordBase32 {
+    
+    private static final char[] SYMBOLS = "0123456789ABCDEFGHJKMNPQRSTVWXYZ*~$=U".toCharArray();
+    private static final byte[] VALUES = new byte[128];
+    
+    static {
+        java.util.Arrays.fill(VALUES, (byte) -1);
+        for (int i = 0; i < 32; i++) {
+            VALUES[SYMBOLS[i]] = (byte) i;
+            VALUES[Character.toLowerCase(SYMBOLS[i])] = (byte) i;
+        }
+        VALUES['O'] = VALUES['o'] = 0;
+        VALUES['I'] = VALUES['i'] = VALUES['L'] = VALUES['l'] = 1;
+    }
+    
+    private CrockfordBase32() {
+    }
+    
+    // Writes the low 5 * length bits of value into out[offset..offset + length), most significant first
+    public static void encode(long value, char[] out, int offset, int length) {
+        for (int i = offset + length - 1; i >= offset; i--) {
+            out[i] = SYMBOLS[(int) (value & 31)];
+            value >>>= 5;
+        }
+    }
+    
+    // Returns -1 when the text holds anything but base32 symbols, or more than 12 of them
+    public static long decode(CharSequence text, int start, int end) {
+        if (end - start > 12) {
+            return -1;
+        }
+        long value = 0;
+        for (int i = start; i < end; i++) {
+            char c = text.charAt(i);
+            int digit = c < 128 ? VALUES[c] : -1;
+            if (digit < 0) {
+                return -1;
+            }
+            value = (value << 5) | digit;
+        }
+        return value;
+    }
+    
+    // value must not be negative
+    public static char checkSymbol(long value) {
+        return SYMBOLS[(int) (value % 37)];
+    }
+}
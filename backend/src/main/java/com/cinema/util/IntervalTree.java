@@ -0,0 +1,70 @@
+package com.cinema.util;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+
+// Static interval tree over half-open intervals [start, end). The intervals are sorted by start and
+// laid out as an implicit balanced tree (the middle of every range is its root), with each node
+// holding the largest end in its subtree. Building is O(n log n); finding the k intervals that
+// overlap a query is O(log n + k), because a subtree whose largest end is at or before the query's
+// start is skipped whole, and so is everything right of a node that starts at or after its end.
+public class IntervalTree<T> {
+    
+    public record Interval<T>(long start, long end, T value) {
+        
+        public boolean overlaps(long otherStart, long otherEnd) {
+            return start < otherEnd && otherStart < end;
+        }
+    }
+    
+    private final List<Interval<T>> intervals;
+    private final long[] maxEnd;
+    
+    public IntervalTree(Collection<Interval<T>> intervals) {
+        this.intervals = new ArrayList<>(intervals);
+        this.intervals.sort(Comparator.comparingLong(Interval<T>::start));
+        this.maxEnd = new long[this.intervals.size()];
+        index(0, this.intervals.size());
+    }
+    
+    public int size() {
+        return intervals.size();
+    }
+    
+    // Every interval that overlaps [start, end), in start order
+    public List<Interval<T>> overlapping(long start, long end) {
+        List<Interval<T>> found = new ArrayList<>();
+        collect(0, intervals.size(), start, end, found);
+        return found;
+    }
+    
+    private long index(int from, int to) {
+        if (from >= to) {
+            return Long.MIN_VALUE;
+        }
+        int mid = (from + to) >>> 1;
+        long max = Math.max(intervals.get(mid).end(), Math.max(index(from, mid), index(mid + 1, to)));
+        maxEnd[mid] = max;
+        return max;
+    }
+    
+    private void collect(int from, int to, long start, long end, List<Interval<T>> found) {
+        if (from >= to) {
+            return;
+        }
+        int mid = (from + to) >>> 1;
+        if (maxEnd[mid] <= start) {
+            return;
+        }
+        collect(from, mid, start, end, found);
+        Interval<T> interval = intervals.get(mid);
+        if (interval.start() < end) {
+            if (interval.overlaps(start, end)) {
+                found.add(interval);
+            }
+            collect(mid + 1, to, start, end, found);
+        }
+    }
+}
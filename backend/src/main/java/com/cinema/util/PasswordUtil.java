@@ -9,13 +9,16 @@ public class PasswordUtil {
     
     private static final String ALGORITHM = "SHA-256";
     private static final int SALT_LENGTH = 16;
+    private static final int DIGEST_LENGTH = 32;
+    // DRBG generates salts in memory once seeded; the default NativePRNG reads /dev/urandom while
+    // holding a lock, which pins a virtual thread to its carrier for the read
+    private static final SecureRandom RANDOM = newRandom();
     
     public static String hashPassword(String password) {
         try {
             // Generate a random salt
-            SecureRandom random = new SecureRandom();
             byte[] salt = new byte[SALT_LENGTH];
-            random.nextBytes(salt);
+            RANDOM.nextBytes(salt);
             
             // Hash the password with salt
             MessageDigest md = MessageDigest.getInstance(ALGORITHM);
@@ -34,41 +37,54 @@ public class PasswordUtil {
     }
     
     public static boolean verifyPassword(String password, String hashedPassword) {
+        // Check if it's a plain text password (old format)
+        if (password.equals(hashedPassword)) {
+            return true;
+        }
+        
+        return verifyHash(password, hashedPassword);
+    }
+    
+    // True for values written by hashPassword: Base64 of the salt followed by the digest
+    public static boolean isHash(String value) {
+        try {
+            return Base64.getDecoder().decode(value).length == SALT_LENGTH + DIGEST_LENGTH;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+    
+    // Compares against a hashPassword value only; unlike verifyPassword, the stored value itself is
+    // never accepted as the password
+    public static boolean verifyHash(String password, String hashedPassword) {
+        if (!isHash(hashedPassword)) {
+            return false;
+        }
         try {
-            // Check if it's a plain text password (old format)
-            if (password.equals(hashedPassword)) {
-                return true;
-            }
+            // Extract salt and hashed password
+            byte[] combined = Base64.getDecoder().decode(hashedPassword);
+            byte[] salt = new byte[SALT_LENGTH];
+            byte[] storedHash = new byte[DIGEST_LENGTH];
+            System.arraycopy(combined, 0, salt, 0, SALT_LENGTH);
+            System.arraycopy(combined, SALT_LENGTH, storedHash, 0, DIGEST_LENGTH);
             
-            // Try to decode as Base64 (new format)
-            try {
-                byte[] combined = Base64.getDecoder().decode(hashedPassword);
-                
-                // If we can decode it and it has the right length, it's the new format
-                if (combined.length > SALT_LENGTH) {
-                    // Extract salt and hashed password
-                    byte[] salt = new byte[SALT_LENGTH];
-                    byte[] storedHash = new byte[combined.length - SALT_LENGTH];
-                    System.arraycopy(combined, 0, salt, 0, SALT_LENGTH);
-                    System.arraycopy(combined, SALT_LENGTH, storedHash, 0, storedHash.length);
-                    
-                    // Hash the input password with the same salt
-                    MessageDigest md = MessageDigest.getInstance(ALGORITHM);
-                    md.update(salt);
-                    byte[] inputHash = md.digest(password.getBytes());
-                    
-                    // Compare the hashes
-                    return MessageDigest.isEqual(storedHash, inputHash);
-                }
-            } catch (IllegalArgumentException e) {
-                // Not a valid Base64 string, treat as plain text
-                return password.equals(hashedPassword);
-            }
+            // Hash the input password with the same salt
+            MessageDigest md = MessageDigest.getInstance(ALGORITHM);
+            md.update(salt);
+            byte[] inputHash = md.digest(password.getBytes());
             
-            // Fallback to plain text comparison
-            return password.equals(hashedPassword);
+            // Compare the hashes
+            return MessageDigest.isEqual(storedHash, inputHash);
         } catch (NoSuchAlgorithmException e) {
             throw new RuntimeException("Error verifying password", e);
         }
     }
+    
+    private static SecureRandom newRandom() {
+        try {
+            return SecureRandom.getInstance("DRBG");
+        } catch (NoSuchAlgorithmException e) {
+            return new SecureRandom();
+        }
+    }
 }
@@ -0,0 +1,92 @@
+package com.cinema.util;
+
+import com.cinema.entity.Seat;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+// Seat positions of a screen. A drawn layout has one string per row, one character per position:
+// S standard, P premium, R recliner, W wheelchair space (accessible), and '.', '_' or a space for an
+// aisle or gap. Seat numbers are physical columns, so a gap leaves a hole in the numbering and the
+// seat map keeps every seat at the position it is drawn at.
+public class SeatLayout {
+    
+    public record Cell(int row, int number, String code, Seat.SeatCategory category) {
+    }
+    
+    private final int rows;
+    private final int seatsPerRow;
+    private final List<Cell> cells;
+    
+    private SeatLayout(int rows, int seatsPerRow, List<Cell> cells) {
+        this.rows = rows;
+        this.seatsPerRow = seatsPerRow;
+        this.cells = Collections.unmodifiableList(cells);
+    }
+    
+    public static SeatLayout rectangular(int rows, int seatsPerRow) {
+        List<Cell> cells = new ArrayList<>(rows * seatsPerRow);
+        for (int row = 1; row <= rows; row++) {
+            for (int number = 1; number <= seatsPerRow; number++) {
+                cells.add(new Cell(row, number, rowLabel(row) + number, Seat.SeatCategory.STANDARD));
+            }
+        }
+        return new SeatLayout(rows, seatsPerRow, cells);
+    }
+    
+    public static SeatLayout parse(List<String> drawing) {
+        if (drawing == null || drawing.isEmpty()) {
+            throw new RuntimeException("Seat layout must have at least one row");
+        }
+        List<Cell> cells = new ArrayList<>();
+        int seatsPerRow = 0;
+        for (int row = 1; row <= drawing.size(); row++) {
+            String line = drawing.get(row - 1);
+            for (int number = 1; number <= line.length(); number++) {
+                char symbol = line.charAt(number - 1);
+                Seat.SeatCategory category = switch (symbol) {
+                    case 'S', 's' -> Seat.SeatCategory.STANDARD;
+                    case 'P', 'p' -> Seat.SeatCategory.PREMIUM;
+                    case 'R', 'r' -> Seat.SeatCategory.RECLINER;
+                    case 'W', 'w' -> Seat.SeatCategory.ACCESSIBLE;
+                    case '.', '_', ' ' -> null;
+                    default -> throw new RuntimeException("Unknown seat layout symbol '" + symbol + "' in row " + row);
+                };
+                if (category != null) {
+                    cells.add(new Cell(row, number, rowLabel(row) + number, category));
+                    seatsPerRow = Math.max(seatsPerRow, number);
+                }
+            }
+        }
+        if (cells.isEmpty()) {
+            throw new RuntimeException("Seat layout has no seats");
+        }
+        return new SeatLayout(drawing.size(), seatsPerRow, cells);
+    }
+    
+    // A..Z, then AA, AB, ... for very deep auditoriums
+    public static String rowLabel(int row) {
+        StringBuilder label = new StringBuilder();
+        for (int n = row; n > 0; n = (n - 1) / 26) {
+            label.insert(0, (char) ('A' + (n - 1) % 26));
+        }
+        return label.toString();
+    }
+    
+    public int getRows() {
+        return rows;
+    }
+    
+    public int getSeatsPerRow() {
+        return seatsPerRow;
+    }
+    
+    public List<Cell> getCells() {
+        return cells;
+    }
+    
+    public int size() {
+        return cells.size();
+    }
+}
@@ -0,0 +1,271 @@
+package com.cinema.util;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+// In-memory seat state of one show, packed as row-major bitsets (one bit per seat position).
+// A position is AVAILABLE when it exists in the layout and is neither held nor booked.
+public class ShowSeatMap {
+    
+    public enum State {
+        AVAILABLE, HELD, BOOKED
+    }
+    
+    // Holder and expiry of a claimed seat. Replaced as a whole, never modified, so a claim that
+    // wins the compare-and-set publishes both at once: no other claim can see the new holder
+    // next to the expiry of the hold it replaced
+    private record Hold(long holder, long expiresAt) {
+    }
+    
+    private final Long showId;
+    private final Long screenId;
+    private final int rows;
+    private final int seatsPerRow;
+    
+    // Static layout, indexed by position
+    private final long[] seatIds;
+    private final String[] seatCodes;
+    private final long[] layout;
+    private final Map<Long, Integer> positionBySeatId;
+    
+    // Mutable state, bit i of word i >>> 6 is position i
+    private final AtomicLongArray held;
+    private final AtomicLongArray booked;
+    private final AtomicReferenceArray<Hold> holds;
+    private final AtomicLong version = new AtomicLong();
+    // Numbers the change events published for this show; see SeatMapService
+    private final AtomicLong sequence = new AtomicLong();
+    
+    public ShowSeatMap(Long showId, Long screenId, int rows, int seatsPerRow) {
+        this.showId = showId;
+        this.screenId = screenId;
+        this.rows = rows;
+        this.seatsPerRow = seatsPerRow;
+        int size = rows * seatsPerRow;
+        int words = (size + 63) >>> 6;
+        this.seatIds = new long[size];
+        this.seatCodes = new String[size];
+        this.layout = new long[words];
+        this.positionBySeatId = new HashMap<>(size * 2);
+        this.held = new AtomicLongArray(words);
+        this.booked = new AtomicLongArray(words);
+        this.holds = new AtomicReferenceArray<>(size);
+    }
+    
+    // Layout is only written while the map is being built, before it is published
+    public void addSeat(Long seatId, int seatRow, int seatNumber, String seatCode, State state,
+                        Long holderId, long holdExpiresAt) {
+        int position = (seatRow - 1) * seatsPerRow + (seatNumber - 1);
+        seatIds[position] = seatId;
+        seatCodes[position] = seatCode;
+        layout[position >>> 6] |= 1L << position;
+        positionBySeatId.put(seatId, position);
+        if (state == State.HELD) {
+            setBit(held, position);
+            holds.set(position, new Hold(holderId != null ? holderId : 0L, holdExpiresAt));
+        } else if (state == State.BOOKED) {
+            setBit(booked, position);
+        }
+    }
+    
+    public Integer positionOf(Long seatId) {
+        return positionBySeatId.get(seatId);
+    }
+    
+    public State stateAt(int position) {
+        if (testBit(booked, position)) return State.BOOKED;
+        if (testBit(held, position)) return State.HELD;
+        return State.AVAILABLE;
+    }
+    
+    public Long holderAt(int position) {
+        Hold hold = holds.get(position);
+        return hold != null && hold.holder() != 0L ? hold.holder() : null;
+    }
+    
+    // Claims all positions for userId or none of them. Each seat is claimed with a compare-and-set
+    // of its hold, holder and expiry together, so two racing claims can never both win a seat; on
+    // the first conflict the seats claimed so far are handed back. Returns the conflicting
+    // positions, empty on success.
+    public int[] tryHold(int[] positions, long userId, long expiresAt, long now) {
+        Hold[] previous = new Hold[positions.length];
+        Hold claim = new Hold(userId, expiresAt);
+        for (int i = 0; i < positions.length; i++) {
+            int position = positions[i];
+            Hold hold = holds.get(position);
+            boolean claimable = !testBit(booked, position)
+                    && (hold == null || hold.holder() == 0L || hold.holder() == userId || hold.expiresAt() <= now);
+            if (!claimable || !holds.compareAndSet(position, hold, claim)) {
+                for (int j = i - 1; j >= 0; j--) {
+                    holds.compareAndSet(positions[j], claim, previous[j]);
+                }
+                int[] conflicts = conflictsOf(positions, userId, now);
+                // A racing claim may already have been handed back, the seat we lost still counts
+                return conflicts.length > 0 ? conflicts : new int[] { position };
+            }
+            previous[i] = hold;
+        }
+        
+        for (int position : positions) {
+            setBit(held, position);
+        }
+        version.incrementAndGet();
+        return new int[0];
+    }
+    
+    // Gives back seats claimed by userId, leaving any seat that has since changed hands alone
+    public void release(int[] positions, long userId) {
+        for (int position : positions) {
+            Hold hold = holds.get(position);
+            if (hold != null && hold.holder() == userId && holds.compareAndSet(position, hold, null)) {
+                clearBit(held, position);
+            }
+        }
+        version.incrementAndGet();
+    }
+    
+    // Frees seats whose hold has run out, leaving re-held or booked seats alone
+    public boolean expire(int position, long now) {
+        Hold hold = holds.get(position);
+        if (hold != null && hold.holder() != 0L && hold.expiresAt() <= now
+                && holds.compareAndSet(position, hold, null)) {
+            clearBit(held, position);
+            version.incrementAndGet();
+            return true;
+        }
+        return false;
+    }
+    
+    private int[] conflictsOf(int[] positions, long userId, long now) {
+        return Arrays.stream(positions)
+                .filter(position -> {
+                    Hold hold = holds.get(position);
+                    return testBit(booked, position)
+                            || (hold != null && hold.holder() != 0L && hold.holder() != userId && hold.expiresAt() > now);
+                })
+                .toArray();
+    }
+    
+    // Records a hold taken on another node, replacing whatever this map had for the seat
+    public void markHeld(int position, long holderId, long expiresAt) {
+        holds.set(position, new Hold(holderId, expiresAt));
+        setBit(held, position);
+        clearBit(booked, position);
+        version.incrementAndGet();
+    }
+    
+    public void markBooked(int position) {
+        setBit(booked, position);
+        clearBit(held, position);
+        holds.set(position, null);
+        version.incrementAndGet();
+    }
+    
+    public void markAvailable(int position) {
+        clearBit(held, position);
+        clearBit(booked, position);
+        holds.set(position, null);
+        version.incrementAndGet();
+    }
+    
+    public boolean hasSeatAt(int position) {
+        return (layout[position >>> 6] & (1L << position)) != 0;
+    }
+    
+    public int size() {
+        return rows * seatsPerRow;
+    }
+    
+    public Long getShowId() {
+        return showId;
+    }
+    
+    public Long getScreenId() {
+        return screenId;
+    }
+    
+    public int getRows() {
+        return rows;
+    }
+    
+    public int getSeatsPerRow() {
+        return seatsPerRow;
+    }
+    
+    public long getVersion() {
+        return version.get();
+    }
+    
+    public long getSequence() {
+        return sequence.get();
+    }
+    
+    public long nextSequence() {
+        return sequence.incrementAndGet();
+    }
+    
+    public void startSequenceAt(long start) {
+        sequence.set(start);
+    }
+    
+    public Long seatIdAt(int position) {
+        return seatIds[position];
+    }
+    
+    public String seatCodeAt(int position) {
+        return seatCodes[position];
+    }
+    
+    public byte[] layoutBits() {
+        byte[] bytes = new byte[(size() + 7) >>> 3];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = (byte) (layout[i >>> 3] >>> ((i & 7) << 3));
+        }
+        return bytes;
+    }
+    
+    public byte[] heldBits() {
+        return toBytes(held);
+    }
+    
+    public byte[] bookedBits() {
+        return toBytes(booked);
+    }
+    
+    // Little-endian bit order: position i is bit (i % 8) of byte (i / 8)
+    private byte[] toBytes(AtomicLongArray bits) {
+        byte[] bytes = new byte[(size() + 7) >>> 3];
+        long word = 0;
+        for (int i = 0; i < bytes.length; i++) {
+            if ((i & 7) == 0) word = bits.get(i >>> 3);
+            bytes[i] = (byte) (word >>> ((i & 7) << 3));
+        }
+        return bytes;
+    }
+    
+    private static boolean testBit(AtomicLongArray bits, int position) {
+        return (bits.get(position >>> 6) & (1L << position)) != 0;
+    }
+    
+    private static void setBit(AtomicLongArray bits, int position) {
+        int word = position >>> 6;
+        long mask = 1L << position;
+        long current;
+        do {
+            current = bits.get(word);
+        } while ((current & mask) == 0 && !bits.compareAndSet(word, current, current | mask));
+    }
+    
+    private static void clearBit(AtomicLongArray bits, int position) {
+        int word = position >>> 6;
+        long mask = 1L << position;
+        long current;
+        do {
+            current = bits.get(word);
+        } while ((current & mask) != 0 && !bits.compareAndSet(word, current, current & ~mask));
+    }
+}
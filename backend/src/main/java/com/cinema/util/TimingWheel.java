@@ -0,0 +1,106 @@
+package com.cinema.util;
+
+import java.util.ArrayDeque;
+import java.util.function.Consumer;
+
+// Hierarchical timing wheel. Each level is a ring of buckets, one per tick; entries too far in the
+// future go to a coarser overflow wheel and cascade down as their time approaches. Adding and
+// expiring an entry are O(1), and an entry fires at most one tick after its expiry time.
+// Not thread-safe: callers own the wheel from a single thread.
+public class TimingWheel<T> {
+    
+    private static final class Timer<T> {
+        private final T item;
+        private final long expiresAt;
+        
+        private Timer(T item, long expiresAt) {
+            this.item = item;
+            this.expiresAt = expiresAt;
+        }
+    }
+    
+    private final long tickMs;
+    private final int wheelSize;
+    private final long span;
+    private final ArrayDeque<Timer<T>>[] buckets;
+    
+    // Start of the next bucket that has not been expired (or cascaded) yet
+    private long currentTime;
+    private TimingWheel<T> overflow;
+    private int size;
+    
+    @SuppressWarnings("unchecked")
+    public TimingWheel(long tickMs, int wheelSize, long startMs) {
+        this.tickMs = tickMs;
+        this.wheelSize = wheelSize;
+        this.span = tickMs * wheelSize;
+        this.buckets = new ArrayDeque[wheelSize];
+        for (int i = 0; i < wheelSize; i++) {
+            buckets[i] = new ArrayDeque<>();
+        }
+        this.currentTime = startMs - (startMs % tickMs);
+    }
+    
+    // Returns false when the entry is already due, in which case the caller should fire it itself
+    public boolean add(T item, long expiresAt, long now) {
+        if (expiresAt <= now) {
+            return false;
+        }
+        place(new Timer<>(item, expiresAt));
+        return true;
+    }
+    
+    // Moves the wheel forward to now, handing every entry whose bucket has fully elapsed to onExpire
+    public void advance(long now, Consumer<T> onExpire) {
+        while (currentTime + tickMs <= now) {
+            ArrayDeque<Timer<T>> bucket = buckets[slot(currentTime)];
+            while (!bucket.isEmpty()) {
+                size--;
+                onExpire.accept(bucket.poll().item);
+            }
+            currentTime += tickMs;
+            if (overflow != null) {
+                overflow.cascade(currentTime, this::place);
+            }
+        }
+    }
+    
+    public int size() {
+        return size + (overflow != null ? overflow.size() : 0);
+    }
+    
+    private void place(Timer<T> timer) {
+        if (timer.expiresAt < currentTime + span) {
+            buckets[slot(timer.expiresAt)].add(timer);
+            size++;
+        } else {
+            overflow().place(timer);
+        }
+    }
+    
+    // Redistributes every coarse bucket that starts at or before the finer wheel's time
+    private void cascade(long lowerTime, Consumer<Timer<T>> lower) {
+        while (currentTime <= lowerTime) {
+            ArrayDeque<Timer<T>> bucket = buckets[slot(currentTime)];
+            while (!bucket.isEmpty()) {
+                size--;
+                lower.accept(bucket.poll());
+            }
+            currentTime += tickMs;
+            if (overflow != null) {
+                overflow.cascade(currentTime, this::place);
+            }
+        }
+    }
+    
+    private TimingWheel<T> overflow() {
+        if (overflow == null) {
+            overflow = new TimingWheel<>(span, wheelSize, currentTime);
+        }
+        return overflow;
+    }
+    
+    private int slot(long time) {
+        return (int) ((time / tickMs) % wheelSize);
+    }
+}
@@ -0,0 +1,7 @@
+-- Last booking reference second each node id has reserved (BookingReferenceService); a restarted
+-- node starts after it, so it never reissues references of its previous process
+create table booking_reference_reservations (
+    node_id integer not null,
+    reserved_until bigint not null,
+    primary key (node_id)
+) engine=InnoDB;
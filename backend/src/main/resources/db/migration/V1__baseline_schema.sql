@@ -0,0 +1,128 @@
+-- Schema as Hibernate created it with ddl-auto=update on the last release before migrations;
+-- existing databases are baselined at this version. Everything since is in V2 onwards.
+
+create table bookings (
+    total_amount float(53) not null,
+    booking_date datetime(6) not null,
+    id bigint not null auto_increment,
+    show_id bigint not null,
+    user_id bigint not null,
+    booking_reference varchar(255),
+    status enum ('CONFIRMED','CANCELLED','COMPLETED') not null,
+    primary key (id)
+) engine=InnoDB;
+
+create table cinemas (
+    id bigint not null auto_increment,
+    contact_info varchar(255),
+    location varchar(255) not null,
+    name varchar(255) not null,
+    primary key (id)
+) engine=InnoDB;
+
+create table movies (
+    duration integer not null,
+    is_active bit,
+    release_date date not null,
+    id bigint not null auto_increment,
+    description TEXT,
+    genre varchar(255) not null,
+    poster_url varchar(255),
+    rating varchar(255) not null,
+    title varchar(255) not null,
+    primary key (id)
+) engine=InnoDB;
+
+create table screens (
+    capacity integer not null,
+    seats_per_row integer,
+    total_rows integer,
+    cinema_id bigint not null,
+    id bigint not null auto_increment,
+    name varchar(255) not null,
+    primary key (id)
+) engine=InnoDB;
+
+create table seats (
+    seat_number integer not null,
+    seat_row integer not null,
+    blocked_by_user_id bigint,
+    blocked_until datetime(6),
+    booking_id bigint,
+    id bigint not null auto_increment,
+    screen_id bigint not null,
+    seat_code varchar(255),
+    status enum ('AVAILABLE','BOOKED','BLOCKED') not null,
+    primary key (id)
+) engine=InnoDB;
+
+create table shows (
+    date date not null,
+    is_active bit,
+    ticket_price float(53),
+    time time(6) not null,
+    id bigint not null auto_increment,
+    movie_id bigint not null,
+    screen_id bigint not null,
+    primary key (id)
+) engine=InnoDB;
+
+create table users (
+    is_admin TINYINT(1) DEFAULT 0 not null,
+    created_at datetime(6),
+    id bigint not null auto_increment,
+    email varchar(255) not null,
+    name varchar(255) not null,
+    password varchar(255) not null,
+    phone_number varchar(255),
+    primary key (id)
+) engine=InnoDB;
+
+alter table bookings 
+   add constraint UK_e92mgyq35mdeo8gc1un2o6uk0 unique (booking_reference);
+
+alter table shows 
+   add constraint UK3nf8lvgj99stymlrjobuicq7k unique (screen_id, date, time);
+
+alter table users 
+   add constraint UK_6dotkott2kjsp8vw4d0m25fb7 unique (email);
+
+alter table bookings 
+   add constraint FK5f9847fuaqx7qe2xug4e5pky1 
+   foreign key (show_id) 
+   references shows (id);
+
+alter table bookings 
+   add constraint FKeyog2oic85xg7hsu2je2lx3s6 
+   foreign key (user_id) 
+   references users (id);
+
+alter table screens 
+   add constraint FKqqmvbwdxvrh3mhr78pu495wm0 
+   foreign key (cinema_id) 
+   references cinemas (id);
+
+alter table seats 
+   add constraint FKftcpsxxr30muvu43esxdi19vo 
+   foreign key (blocked_by_user_id) 
+   references users (id);
+
+alter table seats 
+   add constraint FKku1rurcfuh5d7pve1vsyomxa6 
+   foreign key (booking_id) 
+   references bookings (id);
+
+alter table seats 
+   add constraint FKle5tj2wlw9xe9wat223f2dq8j 
+   foreign key (screen_id) 
+   references screens (id);
+
+alter table shows 
+   add constraint FKqdpwhiv5r3lx844pct0eudapk 
+   foreign key (movie_id) 
+   references movies (id);
+
+alter table shows 
+   add constraint FKl8acj48ghject9oq8aq8qjqmp 
+   foreign key (screen_id) 
+   references screens (id);
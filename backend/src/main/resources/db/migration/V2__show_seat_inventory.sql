@@ -0,0 +1,53 @@
+-- Seat availability is per show. Seats booked under the single-show model are carried over to the
+-- inventory of the show they were booked for; the columns left on seats are then dropped, since the
+-- NOT NULL status breaks plain seat inserts
+create table show_seats (
+    blocked_by_user_id bigint,
+    blocked_until datetime(6),
+    booking_id bigint,
+    id bigint not null auto_increment,
+    seat_id bigint not null,
+    show_id bigint not null,
+    status enum ('AVAILABLE','BOOKED','BLOCKED') not null,
+    primary key (id)
+) engine=InnoDB;
+
+alter table show_seats 
+   add constraint UK7an1nntm77pbvdk5cmjbve9yt unique (show_id, seat_id);
+
+alter table show_seats 
+   add constraint FK2wrrh7ecx5fv355j9ijo1j1kx 
+   foreign key (blocked_by_user_id) 
+   references users (id);
+
+alter table show_seats 
+   add constraint FK8xn57t3sajoka5xvnk6mkwbsr 
+   foreign key (booking_id) 
+   references bookings (id);
+
+alter table show_seats 
+   add constraint FKrv3vjiyngf73knixxu2d4ac0d 
+   foreign key (seat_id) 
+   references seats (id);
+
+alter table show_seats 
+   add constraint FKldtrq74q8syptlbgqag9cw9w1 
+   foreign key (show_id) 
+   references shows (id);
+
+-- A show's inventory is created whole (shows without one get it on first access), so every seat of
+-- a show with carried-over bookings gets its row here
+insert into show_seats (show_id, seat_id, status, booking_id)
+select sh.id, st.id, case when b.id is null then 'AVAILABLE' else 'BOOKED' end, b.id
+from shows sh
+join seats st on st.screen_id = sh.screen_id
+left join bookings b on b.id = st.booking_id and b.show_id = sh.id and b.status = 'CONFIRMED' and st.status = 'BOOKED'
+where exists (select 1 from seats bs join bookings bb on bb.id = bs.booking_id
+              where bb.show_id = sh.id and bb.status = 'CONFIRMED' and bs.status = 'BOOKED');
+
+alter table seats drop foreign key FKftcpsxxr30muvu43esxdi19vo;
+alter table seats drop foreign key FKku1rurcfuh5d7pve1vsyomxa6;
+alter table seats drop column blocked_by_user_id;
+alter table seats drop column booking_id;
+alter table seats drop column blocked_until;
+alter table seats drop column status;
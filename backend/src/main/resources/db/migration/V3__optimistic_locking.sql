@@ -0,0 +1,3 @@
+-- Version columns for optimistic locking of seat holds and bookings
+alter table show_seats add column version BIGINT DEFAULT 0 not null;
+alter table bookings add column version BIGINT DEFAULT 0 not null;
@@ -0,0 +1,14 @@
+-- Catalog cache evictions, written by the node that made the change and polled by every node.
+-- Rows are purged after catalog.invalidation.retention
+create table catalog_invalidations (
+    created_at datetime(6) not null,
+    id bigint not null auto_increment,
+    sequence bigint not null,
+    node_id varchar(36) not null,
+    aggregates varchar(64) not null,
+    cache_keys TEXT not null,
+    primary key (id)
+) engine=InnoDB;
+
+create index IDXmguk6n23wibksmfddy1p1dvju 
+   on catalog_invalidations (created_at);
@@ -0,0 +1,6 @@
+-- Showtime search by movie, and across all movies, in (date, time) order
+create index idx_shows_movie_active_date 
+   on shows (movie_id, is_active, date, time);
+
+create index idx_shows_active_date 
+   on shows (is_active, date, time);
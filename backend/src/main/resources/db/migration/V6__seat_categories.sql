@@ -0,0 +1,3 @@
+-- Seat categories of drawn layouts; existing seats are standard
+alter table seats add column category enum ('STANDARD','PREMIUM','RECLINER','ACCESSIBLE');
+update seats set category = 'STANDARD' where category is null;
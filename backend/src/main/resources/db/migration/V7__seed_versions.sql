@@ -0,0 +1,6 @@
+-- Versions of the demo data applied to this database (DataInitializer)
+create table seed_versions (
+    applied_at datetime(6) not null,
+    version varchar(32) not null,
+    primary key (version)
+) engine=InnoDB;
@@ -0,0 +1,11 @@
+-- Seat map of a screen, in row/number order
+create index idx_seats_screen_position on seats (screen_id, seat_row, seat_number);
+
+-- Sold/held counts per show, and the hold expiry sweep
+create index idx_show_seats_show_status on show_seats (show_id, status);
+create index idx_show_seats_status_blocked_until on show_seats (status, blocked_until);
+
+-- My bookings (newest first), confirmed bookings per show, admin date filters
+create index idx_bookings_user_date on bookings (user_id, booking_date);
+create index idx_bookings_show_status on bookings (show_id, status);
+create index idx_bookings_date on bookings (booking_date);
@@ -0,0 +1,14 @@
+-- Responses of POST requests sent with an Idempotency-Key, shared by all nodes. A row without a
+-- status_code is a request still in progress; scope_hash is the SHA-256 of user, path and key
+create table idempotency_keys (
+    scope_hash char(64) not null,
+    request_hash char(64) not null,
+    status_code integer,
+    content_type varchar(255),
+    response_body mediumblob,
+    created_at datetime(6) not null,
+    expires_at datetime(6) not null,
+    primary key (scope_hash)
+) engine=InnoDB;
+
+create index idx_idempotency_keys_expires_at on idempotency_keys (expires_at);
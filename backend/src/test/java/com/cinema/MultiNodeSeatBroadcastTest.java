@@ -0,0 +1,180 @@
+package com.cinema;
+
+import com.cinema.config.RemoteSeatEventListener;
+import com.cinema.dto.SeatBlockRequest;
+import com.cinema.dto.SeatDto;
+import com.cinema.dto.SeatMapDto;
+import com.cinema.dto.SignupRequest;
+import com.cinema.dto.UserDto;
+import com.cinema.exception.SeatConflictException;
+import com.cinema.repository.ShowRepository;
+import com.cinema.service.SeatService;
+import com.cinema.service.UserService;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.messaging.converter.SimpleMessageConverter;
+import org.springframework.messaging.simp.stomp.StompFrameHandler;
+import org.springframework.messaging.simp.stomp.StompHeaders;
+import org.springframework.messaging.simp.stomp.StompSession;
+import org.springframework.messaging.simp.stomp.StompSessionHandlerAdapter;
+import org.springframework.messaging.simp.stomp.StompBrokerRelayMessageHandler;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import org.springframework.web.socket.client.standard.StandardWebSocketClient;
+import org.springframework.web.socket.messaging.WebSocketStompClient;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.lang.reflect.Type;
+import java.net.ServerSocket;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+// Two application nodes share one database and relay STOMP through the broker embedded in the
+// first one. A hold taken on node 1 must reach a client connected to node 2 and node 2's own seat
+// map, and once node 1 releases it node 2 must let another user hold the seat.
+public class MultiNodeSeatBroadcastTest {
+
+    private static final long LATENCY_BUDGET_MS = 1000;
+
+    @Test
+    public void testSeatChangesOnOneNodeReachTheOther() throws Exception {
+        int brokerPort = freePort();
+        ConfigurableApplicationContext node1 = startNode(brokerPort, true, "node-1");
+        ConfigurableApplicationContext node2 = null;
+        WebSocketStompClient client = null;
+        try {
+            node2 = startNode(brokerPort, false, "node-2");
+            awaitBrokerRelay(node1);
+            awaitBrokerRelay(node2);
+
+            UserDto user = node1.getBean(UserService.class)
+                    .signup(new SignupRequest("relay@test.com", "Relay", "secret1", null, false)).join();
+            UserDto other = node1.getBean(UserService.class)
+                    .signup(new SignupRequest("relay-other@test.com", "Relay", "secret1", null, false)).join();
+            Long showId = node1.getBean(ShowRepository.class).findAll().get(0).getId();
+            List<SeatDto> seats = node1.getBean(SeatService.class).getSeatsByShowId(showId);
+            SeatDto seat = seats.get(0);
+            SeatService seats2 = node2.getBean(SeatService.class);
+            // Node 2 has the show's seat map in memory before anything changes on node 1
+            assertFalse(isHeld(seats2.getSeatMapByShowId(showId), seat));
+
+            client = new WebSocketStompClient(new StandardWebSocketClient());
+            client.setMessageConverter(new SimpleMessageConverter());
+            ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+            scheduler.initialize();
+            client.setTaskScheduler(scheduler);
+            String node2Url = "ws://localhost:" + node2.getEnvironment().getProperty("local.server.port") + "/ws/websocket";
+            StompSession session = client.connectAsync(node2Url, new StompSessionHandlerAdapter() {})
+                    .get(5, TimeUnit.SECONDS);
+
+            BlockingQueue<String> frames = new LinkedBlockingQueue<>();
+            CountDownLatch subscribed = new CountDownLatch(1);
+            session.setAutoReceipt(true);
+            session.subscribe("/topic/shows/" + showId + "/seats", new StompFrameHandler() {
+                @Override
+                public Type getPayloadType(StompHeaders headers) {
+                    return byte[].class;
+                }
+
+                @Override
+                public void handleFrame(StompHeaders headers, Object payload) {
+                    frames.add(new String((byte[]) payload, StandardCharsets.UTF_8));
+                }
+            }).addReceiptTask(subscribed::countDown);
+            assertTrue(subscribed.await(5, TimeUnit.SECONDS), "subscription was not confirmed");
+
+            long start = System.nanoTime();
+            node1.getBean(SeatService.class).blockSeats(user.getId(), new SeatBlockRequest(showId, List.of(seat.getId())));
+            String frame = frames.poll(LATENCY_BUDGET_MS, TimeUnit.MILLISECONDS);
+            long latencyMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+            assertNotNull(frame, "no frame within " + LATENCY_BUDGET_MS + " ms");
+            assertTrue(latencyMs <= LATENCY_BUDGET_MS);
+            assertTrue(frame.contains("\"node_id\":\"node-1\""), frame);
+            assertTrue(frame.contains("\"seat_ids\":[" + seat.getId() + "]"), frame);
+            assertTrue(frame.contains("\"status\":\"BLOCKED\""), frame);
+
+            // Node 2's snapshots show the hold, without it having reloaded the map from the database
+            assertTrue(eventually(() -> isHeld(seats2.getSeatMapByShowId(showId), seat)), "node 2's map never showed the hold");
+            assertEquals(user.getId(), holderOf(seats2, showId, seat));
+            assertThrows(SeatConflictException.class,
+                    () -> seats2.blockSeats(other.getId(), new SeatBlockRequest(showId, List.of(seat.getId()))));
+
+            // Released on node 1, the seat can be held through node 2
+            node1.getBean(SeatService.class).unblockSeats(user.getId(), new SeatBlockRequest(showId, List.of(seat.getId())));
+            assertTrue(eventually(() -> {
+                try {
+                    seats2.blockSeats(other.getId(), new SeatBlockRequest(showId, List.of(seat.getId())));
+                    return true;
+                } catch (SeatConflictException e) {
+                    return false;
+                }
+            }), "node 2 kept the released seat held");
+            assertTrue(isHeld(seats2.getSeatMapByShowId(showId), seat));
+            assertEquals(other.getId(), holderOf(seats2, showId, seat));
+        } finally {
+            if (client != null) client.stop();
+            if (node2 != null) node2.close();
+            node1.close();
+        }
+    }
+
+    private static ConfigurableApplicationContext startNode(int brokerPort, boolean embeddedBroker, String nodeId) {
+        return new SpringApplicationBuilder(CinemaBookingSystemApplication.class).run(
+                "--server.port=0",
+                "--spring.profiles.active=test",
+                "--spring.datasource.url=jdbc:h2:mem:multinode;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+                "--seat.broker.mode=relay",
+                "--security.session.secret=multi-node-test-secret",
+                "--seat.broker.relay.port=" + brokerPort,
+                "--seat.broker.embedded.enabled=" + embeddedBroker,
+                "--seat.broker.node-id=" + nodeId);
+    }
+
+    private static Long holderOf(SeatService seatService, Long showId, SeatDto seat) {
+        return seatService.getSeatsByShowId(showId).stream()
+                .filter(s -> s.getId().equals(seat.getId()))
+                .findFirst().orElseThrow().getBlockedByUserId();
+    }
+
+    private static void awaitBrokerRelay(ConfigurableApplicationContext node) throws InterruptedException {
+        StompBrokerRelayMessageHandler relay = node.getBean(StompBrokerRelayMessageHandler.class);
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (!relay.isBrokerAvailable() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+        }
+        assertTrue(relay.isBrokerAvailable(), "broker relay did not connect");
+        RemoteSeatEventListener listener = node.getBean(RemoteSeatEventListener.class);
+        while (!listener.isSubscribed() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+        }
+        assertTrue(listener.isSubscribed(), "seat events from other nodes were not subscribed");
+    }
+
+    private static boolean isHeld(SeatMapDto seatMap, SeatDto seat) {
+        int position = (seat.getSeatRow() - 1) * seatMap.getSeatsPerRow() + (seat.getSeatNumber() - 1);
+        return (seatMap.getHeld()[position / 8] & (1 << (position % 8))) != 0;
+    }
+
+    private static boolean eventually(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + LATENCY_BUDGET_MS * 5;
+        while (!condition.getAsBoolean()) {
+            if (System.currentTimeMillis() > deadline) {
+                return false;
+            }
+            Thread.sleep(20);
+        }
+        return true;
+    }
+
+    private static int freePort() throws Exception {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.cinema.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+@SpringBootTest
+@ActiveProfiles("test")
+public class DataInitializerTest {
+
+    private static final String DEMO_SHOWS = "SELECT COUNT(*) FROM shows s JOIN screens sc ON sc.id = s.screen_id "
+            + "JOIN cinemas c ON c.id = sc.cinema_id WHERE c.name IN ('PVR Cinemas - Phoenix MarketCity', "
+            + "'INOX Megaplex - Forum Mall', 'Cinepolis - Orion Mall') AND s.date BETWEEN ? AND ?";
+
+    @Autowired
+    private DataInitializer dataInitializer;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    // The seed version was applied when the context started. A later boot adds back a missing demo
+    // show, as it would the day after tomorrow's once a day has passed, and duplicates nothing
+    @Test
+    public void testDemoShowsAreToppedUpOnLaterBoots() {
+        LocalDate today = LocalDate.now();
+        Long showId = jdbcTemplate.queryForObject("SELECT s.id FROM shows s JOIN screens sc ON sc.id = s.screen_id "
+                + "JOIN cinemas c ON c.id = sc.cinema_id WHERE c.name = 'Cinepolis - Orion Mall' AND sc.name = 'Screen X' "
+                + "AND s.date = ? AND s.time = ?", Long.class, today.plusDays(2), LocalTime.of(14, 0));
+        jdbcTemplate.update("DELETE FROM show_seats WHERE show_id = ?", showId);
+        jdbcTemplate.update("DELETE FROM shows WHERE id = ?", showId);
+        int before = jdbcTemplate.queryForObject(DEMO_SHOWS, Integer.class, today.plusDays(1), today.plusDays(2));
+
+        dataInitializer.run();
+        dataInitializer.run();
+
+        assertEquals(before + 1, jdbcTemplate.queryForObject(DEMO_SHOWS, Integer.class, today.plusDays(1), today.plusDays(2)));
+        assertEquals(1, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM seed_versions WHERE version = ?",
+                Integer.class, DataInitializer.SEED_VERSION));
+    }
+}
@@ -0,0 +1,73 @@
+package com.cinema.config;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import static org.junit.jupiter.api.Assertions.*;
+
+// Seeding cost at boot with a million users in the database: the check that skips an applied seed
+// version, and a full seed pass, whose only work over users is one set-based UPDATE
+@Tag("benchmark")
+@SpringBootTest
+@ActiveProfiles("test")
+public class SeedStartupTest {
+
+    private static final int USERS = 1_000_000;
+
+    @Autowired
+    private DataInitializer dataInitializer;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    public void tearDown() {
+        jdbcTemplate.update("DELETE FROM users WHERE email LIKE 'load-%'");
+    }
+
+    @Test
+    public void testSeedingStaysCheapWithAMillionUsers() {
+        long start = System.nanoTime();
+        jdbcTemplate.update("INSERT INTO users (email, name, password, is_admin, created_at) "
+                + "SELECT CONCAT('load-', r.\"X\", '@example.com'), CONCAT('Load User ', r.\"X\"), 'hashed=', FALSE, CURRENT_TIMESTAMP "
+                + "FROM SYSTEM_RANGE(1, ?) r", USERS);
+        System.out.printf("Inserted %d users in %d ms%n", USERS, (System.nanoTime() - start) / 1_000_000);
+        String counts = catalogCounts();
+
+        // Already applied: one insert into seed_versions, rejected on its primary key
+        long applied = time(() -> { }, dataInitializer::run);
+        // As if the seed version were new: the full pass, which finds every catalog row already there
+        long full = time(() -> jdbcTemplate.update("DELETE FROM seed_versions WHERE version = ?", DataInitializer.SEED_VERSION),
+                dataInitializer::run);
+        System.out.printf("Seed with %d users: %.2f ms when applied, %.1f ms for a full pass%n",
+                USERS, applied / 1e6, full / 1e6);
+
+        assertEquals(counts, catalogCounts());
+        assertEquals(1, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM seed_versions WHERE version = ?",
+                Integer.class, DataInitializer.SEED_VERSION));
+        assertTrue(applied < 50_000_000L, "skipping an applied seed took " + applied / 1e6 + " ms");
+    }
+
+    private String catalogCounts() {
+        return jdbcTemplate.queryForObject("SELECT CONCAT((SELECT COUNT(*) FROM cinemas), '/', (SELECT COUNT(*) FROM screens), '/', "
+                + "(SELECT COUNT(*) FROM movies), '/', (SELECT COUNT(*) FROM shows), '/', (SELECT COUNT(*) FROM seats))", String.class);
+    }
+
+    private static long time(Runnable setUp, Runnable run) {
+        // Best of three, after a warm-up
+        setUp.run();
+        run.run();
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < 3; i++) {
+            setUp.run();
+            long start = System.nanoTime();
+            run.run();
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        return best;
+    }
+}
@@ -0,0 +1,132 @@
+package com.cinema.controller;
+
+import com.cinema.config.SessionTokenFilter;
+import com.cinema.dto.BookingDto;
+import com.cinema.dto.BookingRequest;
+import com.cinema.dto.SeatDto;
+import com.cinema.dto.SignupRequest;
+import com.cinema.dto.UserDto;
+import com.cinema.entity.Show;
+import com.cinema.repository.ShowRepository;
+import com.cinema.service.BookingService;
+import com.cinema.service.SeatService;
+import com.cinema.service.UserService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+
+import java.util.List;
+
+@SpringBootTest
+@ActiveProfiles("test")
+public class BookingAccessTest {
+
+    @Autowired
+    private WebApplicationContext context;
+
+    @Autowired
+    private SessionTokenFilter sessionTokenFilter;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private SeatService seatService;
+
+    @Autowired
+    private ShowRepository showRepository;
+
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    public void setUp() {
+        mockMvc = MockMvcBuilders.webAppContextSetup(context)
+                .addFilters(sessionTokenFilter)
+                .build();
+    }
+
+    @Test
+    public void testBookingListsNeedTheRightSession() throws Exception {
+        UserDto user = signup("lists-user@test.com", false);
+        UserDto other = signup("lists-other@test.com", false);
+        UserDto admin = signup("lists-admin@test.com", true);
+
+        for (String url : new String[] { "/api/bookings", "/api/bookings/admin" }) {
+            assertEquals(401, status(url, null), url);
+            assertEquals(403, status(url, user), url);
+            assertEquals(200, status(url, admin), url);
+        }
+
+        String own = "/api/bookings/user/" + user.getId();
+        assertEquals(401, status(own, null));
+        assertEquals(200, status(own, user));
+        assertEquals(403, status(own, other));
+        assertEquals(200, status(own, admin));
+    }
+
+    @Test
+    public void testBookingIsOnlyShownToItsOwnerAndAdmins() throws Exception {
+        UserDto user = signup("owner-user@test.com", false);
+        UserDto other = signup("owner-other@test.com", false);
+        UserDto admin = signup("owner-admin@test.com", true);
+        List<Show> shows = showRepository.findAll();
+        Show show = shows.get(shows.size() - 2);
+        List<SeatDto> seats = seatService.getSeatsByShowId(show.getId());
+        BookingDto booking = bookingService.createBooking(user.getId(), new BookingRequest(show.getId(),
+                List.of(seats.get(seats.size() - 1).getId())));
+
+        String url = "/api/bookings/" + booking.getId();
+        assertEquals(401, status(url, null));
+        assertEquals(200, status(url, user));
+        assertEquals(403, status(url, other));
+        assertEquals(200, status(url, admin));
+    }
+
+    @Test
+    public void testOnlyAdminsManageUsers() throws Exception {
+        UserDto user = signup("manage-user@test.com", false);
+        UserDto target = signup("manage-target@test.com", false);
+        UserDto admin = signup("manage-admin@test.com", true);
+
+        assertEquals(401, status(get("/api/users"), null));
+        assertEquals(403, status(get("/api/users"), user));
+        assertEquals(200, status(get("/api/users"), admin));
+
+        String promote = "/api/users/" + target.getId() + "/promote-admin";
+        assertEquals(401, status(put(promote), null));
+        assertEquals(403, status(put(promote), user));
+        assertEquals(401, status(delete("/api/users/" + target.getId()), null));
+        assertEquals(403, status(delete("/api/users/" + target.getId()), user));
+        assertEquals(200, status(put(promote), admin));
+        assertEquals(204, status(delete("/api/users/" + target.getId()), admin));
+    }
+
+    private UserDto signup(String email, boolean admin) {
+        return userService.signup(new SignupRequest(email, "Lists", "secret1", null, admin)).join();
+    }
+
+    private int status(String url, UserDto user) throws Exception {
+        return status(get(url), user);
+    }
+
+    private int status(MockHttpServletRequestBuilder request, UserDto user) throws Exception {
+        if (user != null) {
+            request.header(HttpHeaders.AUTHORIZATION, "Bearer " + user.getToken());
+        }
+        return mockMvc.perform(request).andReturn().getResponse().getStatus();
+    }
+}
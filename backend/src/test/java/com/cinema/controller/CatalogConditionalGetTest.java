@@ -0,0 +1,180 @@
+package com.cinema.controller;
+
+import com.cinema.dto.MovieDto;
+import com.cinema.service.CatalogCache;
+import com.cinema.service.CatalogVersions;
+import com.cinema.service.MovieService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+import java.io.ByteArrayInputStream;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+@SpringBootTest
+@ActiveProfiles("test")
+public class CatalogConditionalGetTest {
+
+    private static final List<String> LISTINGS = List.of(
+            "/api/movies", "/api/cinemas", "/api/shows",
+            "/api/cinemas/1/movies", "/api/movies/1/shows", "/api/shows/movie/1");
+
+    @Autowired
+    private WebApplicationContext context;
+
+    @Autowired
+    private CatalogCache catalogCache;
+
+    @Autowired
+    private CatalogVersions catalogVersions;
+
+    @Autowired
+    private MovieService movieService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    public void setUp() {
+        mockMvc = MockMvcBuilders.webAppContextSetup(context).build();
+        catalogCache.invalidateAll();
+        // Retires renderings left by earlier tests, so the first request of each listing reaches the database
+        catalogVersions.bumpAll();
+    }
+
+    @Test
+    public void testMatchingETagIsAnsweredWithoutRepositoryCalls() throws Exception {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        for (String url : LISTINGS) {
+            long before = repositoryCalls();
+            String etag = mockMvc.perform(get(url))
+                    .andExpect(status().isOk())
+                    .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "no-cache, public"))
+                    .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+            assertNotNull(etag, url);
+            assertTrue(repositoryCalls() > before, url);
+
+            before = repositoryCalls();
+            statistics.clear();
+            mockMvc.perform(get(url).header(HttpHeaders.IF_NONE_MATCH, etag))
+                    .andExpect(status().isNotModified())
+                    .andExpect(header().string(HttpHeaders.ETAG, etag))
+                    .andExpect(content().string(""));
+
+            assertEquals(before, repositoryCalls(), url);
+            assertEquals(0, statistics.getPrepareStatementCount(), url);
+        }
+    }
+
+    @Test
+    public void testAdminWriteChangesOnlyAffectedETags() throws Exception {
+        String moviesTag = mockMvc.perform(get("/api/movies")).andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        String showsTag = mockMvc.perform(get("/api/shows")).andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        String cinemasTag = mockMvc.perform(get("/api/cinemas")).andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        MovieDto movie = movieService.getAllMovies().get(0);
+        movie.setTitle(movie.getTitle() + " (Remastered)");
+        movieService.updateMovie(movie.getId(), movie);
+
+        mockMvc.perform(get("/api/movies").header(HttpHeaders.IF_NONE_MATCH, moviesTag))
+                .andExpect(status().isOk());
+        // Show listings carry the movie title
+        mockMvc.perform(get("/api/shows").header(HttpHeaders.IF_NONE_MATCH, showsTag))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/api/cinemas").header(HttpHeaders.IF_NONE_MATCH, cinemasTag))
+                .andExpect(status().isNotModified());
+    }
+
+    // Another node, or this one after a restart, holds other version counters and no rendering:
+    // an unchanged listing still gets the same tag and the client's copy is confirmed
+    @Test
+    public void testETagSurvivesVersionsStartingOver() throws Exception {
+        for (String url : LISTINGS) {
+            String etag = mockMvc.perform(get(url)).andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+            catalogVersions.bumpAll();
+            mockMvc.perform(get(url).header(HttpHeaders.IF_NONE_MATCH, etag))
+                    .andExpect(status().isNotModified())
+                    .andExpect(header().string(HttpHeaders.ETAG, etag))
+                    .andExpect(content().string(""));
+        }
+    }
+
+    @Test
+    public void testRenderedBodiesMatchJacksonOutput() throws Exception {
+        byte[] expected = objectMapper.writeValueAsBytes(movieService.getAllMovies());
+
+        MockHttpServletResponse plain = mockMvc.perform(get("/api/movies"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING))
+                .andReturn().getResponse();
+        assertTrue(plain.getHeaders(HttpHeaders.VARY).contains(HttpHeaders.ACCEPT_ENCODING));
+        assertArrayEquals(expected, plain.getContentAsByteArray());
+
+        // Rendered once per version: the gzipped request is served from the same rendering
+        long before = repositoryCalls();
+        byte[] gzipped = mockMvc.perform(get("/api/movies").header(HttpHeaders.ACCEPT_ENCODING, "gzip, deflate, br"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+                .andReturn().getResponse().getContentAsByteArray();
+        assertEquals(before, repositoryCalls());
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(gzipped))) {
+            assertArrayEquals(expected, in.readAllBytes());
+        }
+
+        mockMvc.perform(get("/api/movies").header(HttpHeaders.ACCEPT_ENCODING, "gzip;q=0"))
+                .andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING));
+    }
+
+    // The identity and gzip bodies are different representations, so neither confirms the other
+    @Test
+    public void testGzippedBodyHasItsOwnETag() throws Exception {
+        String plainTag = mockMvc.perform(get("/api/movies"))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        String gzipTag = mockMvc.perform(get("/api/movies").header(HttpHeaders.ACCEPT_ENCODING, "gzip"))
+                .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertEquals(plainTag.substring(0, plainTag.length() - 1) + "-gzip\"", gzipTag);
+
+        mockMvc.perform(get("/api/movies").header(HttpHeaders.ACCEPT_ENCODING, "gzip").header(HttpHeaders.IF_NONE_MATCH, gzipTag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, gzipTag));
+        mockMvc.perform(get("/api/movies").header(HttpHeaders.IF_NONE_MATCH, gzipTag))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, plainTag));
+        mockMvc.perform(get("/api/movies").header(HttpHeaders.ACCEPT_ENCODING, "gzip").header(HttpHeaders.IF_NONE_MATCH, plainTag))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"));
+    }
+
+    private long repositoryCalls() {
+        return meterRegistry.find("spring.data.repository.invocations").timers().stream()
+                .mapToLong(Timer::count)
+                .sum();
+    }
+}
@@ -0,0 +1,185 @@
+package com.cinema.controller;
+
+import com.cinema.config.IdempotencyFilter;
+import com.cinema.config.SessionTokenFilter;
+import com.cinema.dto.SeatDto;
+import com.cinema.dto.SignupRequest;
+import com.cinema.dto.UserDto;
+import com.cinema.entity.Show;
+import com.cinema.repository.ShowRepository;
+import com.cinema.service.BookingService;
+import com.cinema.service.SeatService;
+import com.cinema.service.UserService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+@SpringBootTest
+@ActiveProfiles("test")
+public class IdempotentBookingTest {
+
+    @Autowired
+    private WebApplicationContext context;
+
+    @Autowired
+    private SessionTokenFilter sessionTokenFilter;
+
+    @Autowired
+    private IdempotencyFilter idempotencyFilter;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private SeatService seatService;
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private ShowRepository showRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private MockMvc mockMvc;
+
+    private Show show;
+
+    private List<SeatDto> seats;
+
+    @BeforeEach
+    public void setUp() {
+        mockMvc = MockMvcBuilders.webAppContextSetup(context)
+                .addFilters(sessionTokenFilter, idempotencyFilter)
+                .build();
+        List<Show> shows = showRepository.findAll();
+        show = shows.get(shows.size() - 2);
+        seats = seatService.getSeatsByShowId(show.getId());
+    }
+
+    @Test
+    public void testRetriedBookingIsReplayed() throws Exception {
+        UserDto user = signup("retry@test.com");
+        String body = bookingBody(seats.get(seats.size() - 1));
+
+        MockHttpServletResponse first = book(user, "booking-1", body);
+        MockHttpServletResponse retry = book(user, "booking-1", body);
+
+        assertEquals(201, first.getStatus());
+        assertNull(first.getHeader(IdempotencyFilter.REPLAYED_HEADER));
+        assertEquals(201, retry.getStatus());
+        assertEquals("true", retry.getHeader(IdempotencyFilter.REPLAYED_HEADER));
+        assertEquals(first.getContentAsString(), retry.getContentAsString());
+        assertEquals(1, bookingService.getBookingsByUserId(user.getId()).size());
+
+        // Without a key the retry runs again and finds the seat taken
+        assertEquals(409, book(user, null, body).getStatus());
+    }
+
+    @Test
+    public void testKeyReusedForOtherRequestIsRefused() throws Exception {
+        UserDto user = signup("reuse@test.com");
+        assertEquals(201, book(user, "booking-2", bookingBody(seats.get(seats.size() - 2))).getStatus());
+
+        assertEquals(422, book(user, "booking-2", bookingBody(seats.get(seats.size() - 3))).getStatus());
+        assertEquals(1, bookingService.getBookingsByUserId(user.getId()).size());
+    }
+
+    // Keys are per user: the same key from another user is a request of its own
+    @Test
+    public void testKeysAreScopedToTheUser() throws Exception {
+        UserDto first = signup("scope-1@test.com");
+        UserDto second = signup("scope-2@test.com");
+        String body = bookingBody(seats.get(seats.size() - 4));
+
+        assertEquals(201, book(first, "shared-key", body).getStatus());
+        MockHttpServletResponse other = book(second, "shared-key", body);
+
+        assertEquals(409, other.getStatus());
+        assertNull(other.getHeader(IdempotencyFilter.REPLAYED_HEADER));
+    }
+
+    // Duplicates sent at once wait for the first request and all get its response
+    @Test
+    public void testConcurrentDuplicatesRunOnce() throws Exception {
+        UserDto user = signup("burst@test.com");
+        String body = "{\"show_id\":" + show.getId() + ",\"seat_ids\":[" + seats.get(seats.size() - 5).getId() + "]}";
+        int clients = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(clients);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<MockHttpServletResponse>> responses = new ArrayList<>();
+            for (int i = 0; i < clients; i++) {
+                Callable<MockHttpServletResponse> hold = () -> {
+                    start.await();
+                    return mockMvc.perform(post("/api/seats/block")
+                                    .header(HttpHeaders.AUTHORIZATION, "Bearer " + user.getToken())
+                                    .header(IdempotencyFilter.HEADER, "hold-1")
+                                    .contentType(MediaType.APPLICATION_JSON)
+                                    .content(body))
+                            .andReturn().getResponse();
+                };
+                responses.add(executor.submit(hold));
+            }
+            start.countDown();
+
+            int executed = 0;
+            String expected = null;
+            for (Future<MockHttpServletResponse> future : responses) {
+                MockHttpServletResponse response = future.get();
+                assertEquals(200, response.getStatus());
+                if (response.getHeader(IdempotencyFilter.REPLAYED_HEADER) == null) {
+                    executed++;
+                }
+                if (expected == null) {
+                    expected = response.getContentAsString();
+                }
+                assertEquals(expected, response.getContentAsString());
+            }
+            assertEquals(1, executed);
+        } finally {
+            executor.shutdown();
+        }
+        assertEquals(1, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM idempotency_keys WHERE status_code = 200", Integer.class));
+    }
+
+    private UserDto signup(String email) {
+        return userService.signup(new SignupRequest(email, "Idempotent", "secret1", null, false)).join();
+    }
+
+    private String bookingBody(SeatDto seat) {
+        return "{\"show_id\":" + show.getId() + ",\"seat_ids\":[" + seat.getId() + "]}";
+    }
+
+    private MockHttpServletResponse book(UserDto user, String key, String body) throws Exception {
+        var request = post("/api/bookings")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + user.getToken())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(body);
+        if (key != null) {
+            request.header(IdempotencyFilter.HEADER, key);
+        }
+        return mockMvc.perform(request).andReturn().getResponse();
+    }
+}
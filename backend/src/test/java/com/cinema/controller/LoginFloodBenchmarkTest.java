@@ -0,0 +1,185 @@
+package com.cinema.controller;
+
+import com.cinema.dto.LoginRequest;
+import com.cinema.dto.SignupRequest;
+import com.cinema.dto.UserDto;
+import com.cinema.entity.User;
+import com.cinema.repository.UserRepository;
+import com.cinema.service.PasswordHasher;
+import com.cinema.service.UserService;
+import com.cinema.util.PasswordUtil;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Latency of GET /api/movies while clients hammer POST /api/users/login, with a fixed pool standing
+// in for Tomcat's request threads. "blocking" holds the request thread until the hash is done, as
+// login did before it moved to the hashing pool. The flood is tagged benchmark; the hash upgrade
+// test runs with the rest of the suite.
+@SpringBootTest
+@ActiveProfiles("test")
+public class LoginFloodBenchmarkTest {
+
+    private static final int REQUEST_THREADS = 8;
+    private static final int FLOOD_CLIENTS = 16;
+    private static final int CATALOG_REQUESTS = 50;
+    private static final String EMAIL = "flood@test.com";
+    private static final String PASSWORD = "secret1";
+
+    @Autowired
+    private WebApplicationContext context;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private PasswordHasher passwordHasher;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    public void setUp() {
+        mockMvc = MockMvcBuilders.webAppContextSetup(context).build();
+    }
+
+    @Test
+    public void testLegacyHashIsUpgradedOnLogin() throws Exception {
+        User user = new User();
+        user.setEmail("legacy@test.com");
+        user.setName("Legacy");
+        user.setPassword(PasswordUtil.hashPassword(PASSWORD));
+        user.setIsAdmin(false);
+        userRepository.save(user);
+
+        UserDto loggedIn = userService.login(new LoginRequest("legacy@test.com", PASSWORD)).join();
+        assertEquals(user.getId(), loggedIn.getId());
+
+        String upgraded = awaitPasswordChange(user.getId(), user.getPassword());
+        assertTrue(upgraded.startsWith("$2"), upgraded);
+        assertFalse(passwordHasher.needsUpgrade(upgraded));
+        assertNotNull(userService.login(new LoginRequest("legacy@test.com", PASSWORD)).join());
+    }
+
+    @Tag("benchmark")
+    @Test
+    public void testCatalogLatencyStaysFlatDuringLoginFlood() throws Exception {
+        if (!userRepository.existsByEmail(EMAIL)) {
+            userService.signup(new SignupRequest(EMAIL, "Flood", PASSWORD, null, false)).join();
+        }
+        ExecutorService requestThreads = Executors.newFixedThreadPool(REQUEST_THREADS);
+        try {
+            catalogLatencies(requestThreads, null);
+            long[] idle = catalogLatencies(requestThreads, null);
+            long[] async = catalogLatencies(requestThreads, false);
+            long[] blocking = catalogLatencies(requestThreads, true);
+
+            report("idle", idle);
+            report("login flood", async);
+            report("login flood, blocking", blocking);
+            assertTrue(percentile(async, 99) * 2 < percentile(blocking, 99),
+                    "catalog p99 should not queue behind password hashes");
+        } finally {
+            requestThreads.shutdownNow();
+        }
+    }
+
+    // Catalog requests one after another, timed from submission so queueing for a request thread counts
+    private long[] catalogLatencies(ExecutorService requestThreads, Boolean blockingLogins) throws Exception {
+        AtomicBoolean running = new AtomicBoolean(true);
+        AtomicInteger logins = new AtomicInteger();
+        List<Thread> clients = new ArrayList<>();
+        if (blockingLogins != null) {
+            for (int i = 0; i < FLOOD_CLIENTS; i++) {
+                Thread client = new Thread(() -> flood(requestThreads, blockingLogins, running, logins));
+                client.start();
+                clients.add(client);
+            }
+            Thread.sleep(200);
+        }
+
+        long[] latencies = new long[CATALOG_REQUESTS];
+        for (int i = 0; i < CATALOG_REQUESTS; i++) {
+            long start = System.nanoTime();
+            requestThreads.submit(() -> mockMvc.perform(get("/api/movies")).andReturn()).get();
+            latencies[i] = System.nanoTime() - start;
+        }
+
+        running.set(false);
+        for (Thread client : clients) {
+            client.join();
+        }
+        if (blockingLogins != null) {
+            assertTrue(logins.get() > 0);
+        }
+        Arrays.sort(latencies);
+        return latencies;
+    }
+
+    private void flood(ExecutorService requestThreads, boolean blocking, AtomicBoolean running, AtomicInteger logins) {
+        try {
+            byte[] body = objectMapper.writeValueAsBytes(new LoginRequest(EMAIL, PASSWORD));
+            while (running.get()) {
+                Future<MvcResult> login = requestThreads.submit(() -> {
+                    MvcResult result = mockMvc.perform(post("/api/users/login")
+                            .contentType(MediaType.APPLICATION_JSON).content(body)).andReturn();
+                    if (blocking) {
+                        result.getAsyncResult(10_000);
+                    }
+                    return result;
+                });
+                login.get().getAsyncResult(10_000);
+                logins.incrementAndGet();
+            }
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private String awaitPasswordChange(Long userId, String oldHash) throws InterruptedException {
+        for (int i = 0; i < 100; i++) {
+            String current = userRepository.findById(userId).orElseThrow().getPassword();
+            if (!current.equals(oldHash)) {
+                return current;
+            }
+            Thread.sleep(50);
+        }
+        fail("password hash was not upgraded");
+        return null;
+    }
+
+    private static long percentile(long[] sorted, int percentile) {
+        return sorted[Math.min(sorted.length - 1, sorted.length * percentile / 100)];
+    }
+
+    private static void report(String label, long[] sorted) {
+        System.out.printf("GET /api/movies, %-22s p50 %6.1f ms  p99 %6.1f ms%n", label,
+                percentile(sorted, 50) / 1e6, percentile(sorted, 99) / 1e6);
+    }
+}
@@ -0,0 +1,101 @@
+package com.cinema.controller;
+
+import com.cinema.entity.Movie;
+import com.cinema.repository.MovieRepository;
+import com.cinema.service.CatalogCache;
+import com.cinema.service.CatalogVersions;
+import com.cinema.service.MovieService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.test.context.ActiveProfiles;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.lang.management.ManagementFactory;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+
+// Heap allocated and CPU time per request for GET /api/movies on a catalog of 40 movies with 4 KB
+// descriptions, with the catalog cache warm: serializing the cached DTOs on every request, as Spring
+// MVC's message converter does, against writing the pre-rendered bytes
+@Tag("benchmark")
+@SpringBootTest
+@ActiveProfiles("test")
+public class RenderedResponseBenchmarkTest {
+
+    private static final int WARMUP = 500;
+    private static final int ITERATIONS = 2000;
+
+    @Autowired
+    private MovieService movieService;
+
+    @Autowired
+    private MovieRepository movieRepository;
+
+    @Autowired
+    private CatalogResponses catalogResponses;
+
+    @Autowired
+    private CatalogCache catalogCache;
+
+    @Autowired
+    private CatalogVersions catalogVersions;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    public void testRenderedResponsesAllocateLessThanSerializing() throws Exception {
+        seedMovies();
+        catalogCache.invalidateAll();
+        catalogVersions.bumpAll();
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/movies");
+
+        long[] serialized = measure("serialize per request",
+                () -> objectMapper.writeValueAsBytes(movieService.getAllMovies()).length);
+        long[] rendered = measure("pre-rendered",
+                () -> catalogResponses.respond(request, movieService::getAllMovies, CatalogVersions.Aggregate.MOVIES).getBody().length);
+
+        assertTrue(rendered[0] * 4 < serialized[0], "pre-rendered responses should allocate far less");
+    }
+
+    private void seedMovies() {
+        String description = "A long synopsis. ".repeat(256);
+        List<Movie> movies = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            Movie movie = new Movie();
+            movie.setTitle("Serialization Movie " + i);
+            movie.setDescription(description);
+            movie.setDuration(120);
+            movie.setGenre("Drama");
+            movie.setRating("PG-13");
+            movie.setReleaseDate(LocalDate.now().plusDays(200 + i));
+            movies.add(movie);
+        }
+        movieRepository.saveAll(movies);
+    }
+
+    // Returns { bytes allocated per call, nanoseconds of CPU per call }
+    private long[] measure(String label, Callable<Integer> call) throws Exception {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long thread = Thread.currentThread().getId();
+        int size = 0;
+        for (int i = 0; i < WARMUP; i++) {
+            size = call.call();
+        }
+        long allocatedBefore = threads.getThreadAllocatedBytes(thread);
+        long cpuBefore = threads.getCurrentThreadCpuTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            call.call();
+        }
+        long allocated = (threads.getThreadAllocatedBytes(thread) - allocatedBefore) / ITERATIONS;
+        long cpu = (threads.getCurrentThreadCpuTime() - cpuBefore) / ITERATIONS;
+        System.out.printf("%-22s %7d B body %9d B/call %8.1f us cpu/call%n", label, size, allocated, cpu / 1000.0);
+        return new long[] { allocated, cpu };
+    }
+}
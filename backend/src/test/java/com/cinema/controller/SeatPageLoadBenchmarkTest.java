@@ -0,0 +1,129 @@
+package com.cinema.controller;
+
+import com.cinema.config.VirtualThreadPinningMonitor;
+import com.cinema.entity.Show;
+import com.cinema.repository.ShowRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// 5000 users opening the seat page at once: GET /api/shows/{id}, the screen layout from
+// /api/seats/screen/{screenId} (a JPA read) and /api/seats/show/{id}/map. Run on 200 platform
+// threads, the size of Tomcat's default worker pool, and on a virtual thread per user as with
+// spring.threads.virtual.enabled, with VirtualThreadPinningMonitor reporting pins meanwhile.
+// The virtual run needs Java 21 and is skipped on older runtimes
+@Tag("benchmark")
+@SpringBootTest
+@ActiveProfiles("test")
+public class SeatPageLoadBenchmarkTest {
+
+    private static final int USERS = 5000;
+    private static final int TOMCAT_THREADS = 200;
+
+    @Autowired
+    private WebApplicationContext context;
+
+    @Autowired
+    private ShowRepository showRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    public void setUp() {
+        mockMvc = MockMvcBuilders.webAppContextSetup(context).build();
+    }
+
+    @Test
+    public void testSeatPageUnderConcurrentUsers() throws Exception {
+        List<Show> shows = showRepository.findAll();
+        Show show = shows.get(0);
+        Long screenId = show.getScreen().getId();
+
+        ExecutorService platform = Executors.newFixedThreadPool(TOMCAT_THREADS);
+        try {
+            load(platform, show.getId(), screenId);
+            report("platform threads", load(platform, show.getId(), screenId));
+        } finally {
+            platform.shutdown();
+        }
+
+        if (Runtime.version().feature() < 21) {
+            System.out.println("Virtual threads need Java 21, skipping the virtual-thread run");
+            return;
+        }
+        VirtualThreadPinningMonitor monitor = new VirtualThreadPinningMonitor(meterRegistry, Duration.ofMillis(1));
+        monitor.start();
+        ExecutorService virtual = (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        try {
+            load(virtual, show.getId(), screenId);
+            report("virtual threads", load(virtual, show.getId(), screenId));
+            // Flight recorder events reach the monitor about once a second
+            Thread.sleep(1500);
+        } finally {
+            virtual.shutdown();
+            monitor.stop();
+        }
+        for (Timer pinned : meterRegistry.find("jvm.threads.virtual.pinned").timers()) {
+            System.out.printf("pinned %5d times, %8.1f ms in total, at %s%n", pinned.count(),
+                    pinned.totalTime(TimeUnit.MILLISECONDS), pinned.getId().getTag("site"));
+        }
+    }
+
+    // Every user arrives at once; latency is counted from then, so waiting for a thread counts
+    private long[] load(ExecutorService threads, Long showId, Long screenId) throws InterruptedException {
+        long[] latencies = new long[USERS];
+        AtomicInteger failures = new AtomicInteger();
+        CountDownLatch done = new CountDownLatch(USERS);
+        long start = System.nanoTime();
+        for (int i = 0; i < USERS; i++) {
+            int user = i;
+            threads.execute(() -> {
+                try {
+                    for (String url : new String[] { "/api/shows/" + showId, "/api/seats/screen/" + screenId,
+                            "/api/seats/show/" + showId + "/map" }) {
+                        if (mockMvc.perform(get(url)).andReturn().getResponse().getStatus() != 200) {
+                            failures.incrementAndGet();
+                        }
+                    }
+                } catch (Exception e) {
+                    failures.incrementAndGet();
+                } finally {
+                    latencies[user] = System.nanoTime() - start;
+                    done.countDown();
+                }
+            });
+        }
+        assertTrue(done.await(5, TimeUnit.MINUTES));
+        assertEquals(0, failures.get());
+        Arrays.sort(latencies);
+        return latencies;
+    }
+
+    private static void report(String label, long[] sorted) {
+        double seconds = sorted[sorted.length - 1] / 1e9;
+        System.out.printf("%d seat pages on %-16s %7.0f pages/s  p50 %7.1f ms  p99 %7.1f ms%n", USERS, label,
+                USERS / seconds, sorted[USERS / 2] / 1e6, sorted[(int) (USERS * 0.99)] / 1e6);
+    }
+}
@@ -0,0 +1,195 @@
+package com.cinema.controller;
+
+import com.cinema.entity.Movie;
+import com.cinema.entity.Screen;
+import com.cinema.entity.Show;
+import com.cinema.repository.MovieRepository;
+import com.cinema.repository.ScreenRepository;
+import com.cinema.repository.ShowRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+@SpringBootTest
+@ActiveProfiles("test")
+public class ShowSearchTest {
+
+    private static final int DAYS = 5;
+    private static final int[] HOURS = { 10, 13, 16, 19, 22 };
+
+    @Autowired
+    private WebApplicationContext context;
+
+    @Autowired
+    private MovieRepository movieRepository;
+
+    @Autowired
+    private ScreenRepository screenRepository;
+
+    @Autowired
+    private ShowRepository showRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private MockMvc mockMvc;
+
+    private Movie movie;
+
+    private LocalDate firstDay;
+
+    @BeforeEach
+    public void setUp() {
+        mockMvc = MockMvcBuilders.webAppContextSetup(context).build();
+        firstDay = LocalDate.now().plusDays(400);
+        movie = movieRepository.findAll().stream()
+                .filter(m -> m.getTitle().equals("Search Movie"))
+                .findFirst()
+                .orElseGet(this::seedShows);
+    }
+
+    @Test
+    public void testKeysetPagesCoverEveryShowOnceInOrder() throws Exception {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        List<JsonNode> shows = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            MockHttpServletRequestBuilder request = search().param("size", "4");
+            if (cursor != null) {
+                request.param("cursor", cursor);
+            }
+            statistics.clear();
+            JsonNode page = read(request);
+            // One statement per page, whatever its depth
+            assertEquals(1, statistics.getPrepareStatementCount());
+            assertTrue(page.get("content").size() <= 4);
+            page.get("content").forEach(shows::add);
+            cursor = page.has("next_cursor") ? page.get("next_cursor").asText() : null;
+            pages++;
+        } while (cursor != null);
+
+        int expected = DAYS * HOURS.length * 2;
+        assertEquals(expected, shows.size());
+        assertEquals((expected + 3) / 4, pages);
+        Set<Long> ids = new HashSet<>();
+        String previous = "";
+        for (JsonNode show : shows) {
+            assertTrue(ids.add(show.get("id").asLong()));
+            assertEquals(movie.getId(), show.get("movie_id").asLong());
+            String position = show.get("date").asText() + "T" + show.get("time").asText();
+            assertTrue(position.compareTo(previous) >= 0);
+            previous = position;
+        }
+    }
+
+    @Test
+    public void testFiltersNarrowTheResults() throws Exception {
+        Screen screen = screenRepository.findAll().get(0);
+        JsonNode page = read(search(firstDay.plusDays(1))
+                .param("from_time", "12:00")
+                .param("to_time", "20:00")
+                .param("min_price", "12")
+                .param("cinema_id", screen.getCinema().getId().toString())
+                .param("size", "100"));
+
+        // Days 0 and 1, 13:00 to 19:00, the screen whose shows cost 12
+        assertEquals(2 * 3, page.get("content").size());
+        for (JsonNode show : page.get("content")) {
+            assertEquals(screen.getId(), show.get("screen_id").asLong());
+            assertTrue(show.get("ticket_price").asDouble() >= 12);
+        }
+        assertFalse(page.has("next_cursor"));
+
+        assertEquals(0, read(search().param("city", "No Such City")).get("content").size());
+        mockMvc.perform(search().param("cursor", "not-a-cursor")).andExpect(status().isBadRequest());
+        mockMvc.perform(search(firstDay.minusDays(1))).andExpect(status().isBadRequest());
+    }
+
+    @Test
+    public void testMovieSearchUsesCompositeIndex() {
+        String plan = jdbcTemplate.queryForObject(
+                "EXPLAIN SELECT id FROM shows WHERE movie_id = ? AND is_active = TRUE AND date BETWEEN ? AND ? ORDER BY date, time, id",
+                String.class, movie.getId(), firstDay, firstDay.plusDays(7));
+        assertTrue(plan.toLowerCase().contains("idx_shows_movie_active_date"), plan);
+
+        plan = jdbcTemplate.queryForObject(
+                "EXPLAIN SELECT id FROM shows WHERE is_active = TRUE AND date BETWEEN ? AND ? ORDER BY date, time, id",
+                String.class, firstDay, firstDay.plusDays(7));
+        assertTrue(plan.toLowerCase().contains("idx_shows_active_date"), plan);
+    }
+
+    private MockHttpServletRequestBuilder search() {
+        return search(firstDay.plusDays(DAYS - 1));
+    }
+
+    private MockHttpServletRequestBuilder search(LocalDate toDate) {
+        return get("/api/shows/search")
+                .param("movie_id", movie.getId().toString())
+                .param("from_date", firstDay.toString())
+                .param("to_date", toDate.toString());
+    }
+
+    private JsonNode read(MockHttpServletRequestBuilder request) throws Exception {
+        return objectMapper.readTree(mockMvc.perform(request)
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsByteArray());
+    }
+
+    // Two screens, five showtimes a day for five days; the first screen's shows cost 12, the second's 10
+    private Movie seedShows() {
+        Movie seeded = new Movie();
+        seeded.setTitle("Search Movie");
+        seeded.setGenre("Drama");
+        seeded.setRating("UA");
+        seeded.setDuration(120);
+        seeded.setReleaseDate(LocalDate.now());
+        seeded = movieRepository.save(seeded);
+
+        List<Screen> screens = screenRepository.findAll();
+        List<Show> shows = new ArrayList<>();
+        for (int day = 0; day < DAYS; day++) {
+            for (int hour : HOURS) {
+                for (int s = 0; s < 2; s++) {
+                    Show show = new Show();
+                    show.setMovie(seeded);
+                    show.setScreen(screens.get(s));
+                    show.setDate(firstDay.plusDays(day));
+                    show.setTime(LocalTime.of(hour, 0));
+                    show.setTicketPrice(s == 0 ? 12.0 : 10.0);
+                    shows.add(show);
+                }
+            }
+        }
+        showRepository.saveAll(shows);
+        return seeded;
+    }
+}
@@ -0,0 +1,158 @@
+package com.cinema.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.repository.Repository;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Runs every query declared on our repositories against the Flyway schema and EXPLAINs the SQL
+// Hibernate issued; a table read without an index condition fails the test
+@SpringBootTest
+@ActiveProfiles("test")
+public class QueryPlanTest {
+
+    // Listings whose answer is the whole table; the catalog ones are served from the catalog cache,
+    // and the admin booking search pages over every booking when no filter is set
+    private static final Set<String> WHOLE_TABLE_READS = Set.of(
+            "BookingRepository.findAllWithDetails",
+            "BookingRepository.findIdsByFilter",
+            "CinemaRepository.findAllCinemaScreenRows",
+            "MovieRepository.findAllSummaries",
+            "ScreenRepository.findAllSummaries",
+            "ShowRepository.findAllSummaries");
+
+    // H2 prints the access path of each table as /* schema.index: condition */ or /* schema.table.tableScan */
+    private static final Pattern ACCESS = Pattern.compile("/\\* public\\.(\\S+?)(:[^*]*)? \\*/");
+
+    @Autowired
+    private ApplicationContext context;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Test
+    public void testRepositoryQueriesUseIndexes() throws Exception {
+        List<String> failures = new ArrayList<>();
+        for (Repository<?, ?> repository : context.getBeansOfType(Repository.class).values()) {
+            Class<?> type = Arrays.stream(repository.getClass().getInterfaces())
+                    .filter(i -> i.getPackageName().equals(getClass().getPackageName()))
+                    .findFirst().orElseThrow();
+            Method[] methods = type.getDeclaredMethods();
+            Arrays.sort(methods, Comparator.comparing(Method::getName));
+            for (Method method : methods) {
+                if (Modifier.isStatic(method.getModifiers()) || method.isDefault()) {
+                    continue;
+                }
+                String name = type.getSimpleName() + "." + method.getName();
+                if (WHOLE_TABLE_READS.contains(name)) {
+                    continue;
+                }
+                for (String sql : statementsOf(repository, method)) {
+                    String plan = explain(sql);
+                    if (scansWholeTable(plan)) {
+                        failures.add(name + " reads a whole table:\n" + plan);
+                    }
+                }
+            }
+        }
+        assertTrue(failures.isEmpty(), String.join("\n\n", failures));
+    }
+
+    @Test
+    public void testDetectsScans() {
+        assertTrue(scansWholeTable(explain("SELECT id FROM movies WHERE title = ?")));
+        assertFalse(scansWholeTable(explain("SELECT id FROM bookings WHERE show_id = ? AND status = 'CONFIRMED'")));
+        assertFalse(scansWholeTable(explain("SELECT MAX(id) FROM catalog_invalidations")));
+    }
+
+    // A table scan, or an index walked end to end without a condition (MIN/MAX lookups excepted)
+    static boolean scansWholeTable(String plan) {
+        Matcher access = ACCESS.matcher(plan);
+        while (access.find()) {
+            if (access.group(1).endsWith(".tableScan")) {
+                return true;
+            }
+            if (access.group(2) == null && !plan.contains("/* direct lookup */")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private List<String> statementsOf(Object repository, Method method) {
+        return transactionTemplate.execute(status -> {
+            status.setRollbackOnly();
+            Object[] args = Arrays.stream(method.getParameterTypes()).map(this::sampleArgument).toArray();
+            RecordingStatementInspector.start();
+            try {
+                method.invoke(repository, args);
+            } catch (IllegalAccessException | InvocationTargetException e) {
+                throw new IllegalStateException(method.getName(), e);
+            } finally {
+                entityManager.flush();
+            }
+            return RecordingStatementInspector.stop();
+        });
+    }
+
+    private Object sampleArgument(Class<?> type) {
+        if (type == Long.class || type == long.class) return 1L;
+        if (type == Integer.class || type == int.class) return 1;
+        if (type == Double.class) return 10.0;
+        if (type == String.class) return "a";
+        if (type == LocalDate.class) return LocalDate.now();
+        if (type == LocalTime.class) return LocalTime.NOON;
+        if (type == LocalDateTime.class) return LocalDateTime.now();
+        if (Collection.class.isAssignableFrom(type)) return List.of(1L, 2L);
+        if (type == Pageable.class) return PageRequest.of(0, 10);
+        if (type == Limit.class) return Limit.of(10);
+        if (type.isEnum()) return type.getEnumConstants()[0];
+        if (type.isAnnotationPresent(jakarta.persistence.Entity.class)) return entityManager.getReference(type, 1L);
+        throw new IllegalArgumentException("No sample value for " + type);
+    }
+
+    private String explain(String sql) {
+        return jdbcTemplate.execute("EXPLAIN " + sql, (java.sql.PreparedStatement ps) -> {
+            int count = ps.getParameterMetaData().getParameterCount();
+            for (int i = 1; i <= count; i++) {
+                ps.setObject(i, null);
+            }
+            try (var rs = ps.executeQuery()) {
+                rs.next();
+                return rs.getString(1);
+            }
+        });
+    }
+}
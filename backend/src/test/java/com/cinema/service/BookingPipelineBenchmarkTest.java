@@ -0,0 +1,161 @@
+package com.cinema.service;
+
+import com.cinema.dto.BookingRequest;
+import com.cinema.dto.ScreenDto;
+import com.cinema.dto.SeatDto;
+import com.cinema.entity.Show;
+import com.cinema.entity.User;
+import com.cinema.repository.CinemaRepository;
+import com.cinema.repository.MovieRepository;
+import com.cinema.repository.ScreenRepository;
+import com.cinema.repository.ShowRepository;
+import com.cinema.repository.UserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.BiConsumer;
+
+// Single-seat bookings for one show sent at a fixed rate for one second - 500, 2000 and 10000
+// requests/s - through BookingService.createBooking, one transaction per booking, and through
+// BookingPipeline, batched per show. Requests are sent on schedule whether or not earlier ones have
+// finished, and latency is counted from the scheduled send time, so a backlog shows up in p99.
+// H2 in memory has no commit cost to speak of; on MySQL every saved commit is a log flush
+@Tag("benchmark")
+@SpringBootTest
+@ActiveProfiles("test")
+public class BookingPipelineBenchmarkTest {
+
+    private static final int[] RATES = { 500, 2000, 10000 };
+    private static final int CLIENTS = 200;
+    private static final int USERS = 200;
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private BookingPipeline bookingPipeline;
+
+    @Autowired
+    private SeatService seatService;
+
+    @Autowired
+    private ScreenService screenService;
+
+    @Autowired
+    private CinemaRepository cinemaRepository;
+
+    @Autowired
+    private ScreenRepository screenRepository;
+
+    @Autowired
+    private MovieRepository movieRepository;
+
+    @Autowired
+    private ShowRepository showRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    public void testPipelineAgainstTransactionPerBooking() throws Exception {
+        List<Long> users = new ArrayList<>();
+        for (int i = 0; i < USERS; i++) {
+            User user = new User();
+            user.setEmail("load-" + i + "@pipeline.test");
+            user.setName("Load " + i);
+            user.setPassword("unused");
+            users.add(userRepository.save(user).getId());
+        }
+
+        ExecutorService clients = Executors.newFixedThreadPool(CLIENTS);
+        try {
+            for (int rate : RATES) {
+                run("per booking", rate, clients, users, bookingService::createBooking);
+
+                double batchesBefore = meterRegistry.get("booking.pipeline.batch.size").summary().count();
+                run("pipeline", rate, clients, users, bookingPipeline::book);
+                double batches = meterRegistry.get("booking.pipeline.batch.size").summary().count() - batchesBefore;
+                System.out.printf("%-12s %6d req/s  %d batches, %.1f bookings per commit%n",
+                        "pipeline", rate, (long) batches, rate / batches);
+                assertTrue(batches < rate, "no batching at " + rate + " req/s");
+            }
+        } finally {
+            clients.shutdown();
+        }
+    }
+
+    private void run(String name, int rate, ExecutorService clients, List<Long> users,
+                     BiConsumer<Long, BookingRequest> book) throws InterruptedException {
+        Show show = newShow(name, rate);
+        List<SeatDto> seats = seatService.getSeatsByShowId(show.getId());
+        // Seat inventory is created by the first booking; keep that out of the measurement
+        seatService.initializeShowSeats(show);
+
+        long[] latencies = new long[rate];
+        AtomicInteger failures = new AtomicInteger();
+        AtomicLong finishedAt = new AtomicLong();
+        CountDownLatch done = new CountDownLatch(rate);
+        long interval = TimeUnit.SECONDS.toNanos(1) / rate;
+        long start = System.nanoTime();
+        for (int i = 0; i < rate; i++) {
+            int request = i;
+            long scheduled = start + i * interval;
+            long wait;
+            while ((wait = scheduled - System.nanoTime()) > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            clients.execute(() -> {
+                try {
+                    book.accept(users.get(request % users.size()),
+                            new BookingRequest(show.getId(), List.of(seats.get(request).getId())));
+                } catch (RuntimeException e) {
+                    failures.incrementAndGet();
+                } finally {
+                    long now = System.nanoTime();
+                    latencies[request] = now - scheduled;
+                    finishedAt.accumulateAndGet(now, Math::max);
+                    done.countDown();
+                }
+            });
+        }
+        assertTrue(done.await(5, TimeUnit.MINUTES));
+
+        Arrays.sort(latencies);
+        System.out.printf("%-12s %6d req/s  %8.0f done/s  p50 %7.2f ms  p99 %7.2f ms  %d failed%n",
+                name, rate, rate / ((finishedAt.get() - start) / 1e9),
+                latencies[rate / 2] / 1e6, latencies[(int) (rate * 0.99)] / 1e6, failures.get());
+        assertEquals(0, failures.get(), name + " at " + rate + " req/s");
+    }
+
+    // A 100 x 100 screen holds the 10000 seats of the fastest run
+    private Show newShow(String name, int rate) {
+        ScreenDto screen = screenService.createScreen(new ScreenDto(null, name + " " + rate, 10000, 100, 100,
+                cinemaRepository.findAll().get(0).getId(), null));
+        Show show = new Show();
+        show.setMovie(movieRepository.findAll().get(0));
+        show.setScreen(screenRepository.findById(screen.getId()).orElseThrow());
+        show.setDate(LocalDate.now().plusDays(90));
+        show.setTime(LocalTime.of(20, 0));
+        return showRepository.save(show);
+    }
+}
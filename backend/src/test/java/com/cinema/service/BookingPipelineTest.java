@@ -0,0 +1,222 @@
+package com.cinema.service;
+
+import com.cinema.dto.BookingDto;
+import com.cinema.dto.BookingRequest;
+import com.cinema.dto.ScreenDto;
+import com.cinema.dto.SeatBlockRequest;
+import com.cinema.dto.SeatDto;
+import com.cinema.entity.Seat;
+import com.cinema.entity.Show;
+import com.cinema.entity.User;
+import com.cinema.exception.SeatConflictException;
+import com.cinema.repository.CinemaRepository;
+import com.cinema.repository.MovieRepository;
+import com.cinema.repository.ScreenRepository;
+import com.cinema.repository.ShowRepository;
+import com.cinema.repository.UserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@SpringBootTest(properties = "booking.pipeline.queue-capacity=16")
+@ActiveProfiles("test")
+public class BookingPipelineTest {
+
+    private static final AtomicInteger SHOWS = new AtomicInteger();
+
+    @Autowired
+    private BookingPipeline bookingPipeline;
+
+    @Autowired
+    private SeatService seatService;
+
+    @Autowired
+    private ScreenService screenService;
+
+    @Autowired
+    private CinemaRepository cinemaRepository;
+
+    @Autowired
+    private ScreenRepository screenRepository;
+
+    @Autowired
+    private MovieRepository movieRepository;
+
+    @Autowired
+    private ShowRepository showRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    // Requests submitted at once are committed together, each caller getting its own booking
+    @Test
+    public void testQueuedBookingsAreCommittedInBatches() {
+        Show show = newShow();
+        List<SeatDto> seats = seatService.getSeatsByShowId(show.getId());
+        double batchesBefore = meterRegistry.get("booking.pipeline.batch.size").summary().count();
+
+        List<CompletableFuture<BookingDto>> results = new ArrayList<>();
+        for (int i = 0; i < 16; i++) {
+            User user = newUser("batch-" + i);
+            results.add(bookingPipeline.submit(user.getId(), request(show, seats.get(i))));
+        }
+
+        Set<String> references = new HashSet<>();
+        for (int i = 0; i < results.size(); i++) {
+            BookingDto booking = results.get(i).join();
+            assertEquals(show.getId(), booking.getShowId());
+            assertEquals(show.getTicketPrice(), booking.getTotalAmount());
+            references.add(booking.getBookingReference());
+        }
+        assertEquals(16, references.size());
+        assertTrue(seatService.getSeatsByShowId(show.getId()).subList(0, 16).stream()
+                .allMatch(seat -> seat.getStatus() == Seat.SeatStatus.BOOKED));
+
+        double batches = meterRegistry.get("booking.pipeline.batch.size").summary().count() - batchesBefore;
+        System.out.println("16 bookings committed in " + (long) batches + " batches");
+        assertTrue(batches < 16);
+    }
+
+    // Only the first request for a seat wins, whether the others are in its batch or a later one
+    @Test
+    public void testContendedSeatIsBookedOnce() {
+        Show show = newShow();
+        SeatDto seat = seatService.getSeatsByShowId(show.getId()).get(0);
+
+        List<CompletableFuture<BookingDto>> results = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            results.add(bookingPipeline.submit(newUser("contended-" + i).getId(), request(show, seat)));
+        }
+
+        int booked = 0;
+        for (CompletableFuture<BookingDto> result : results) {
+            try {
+                result.join();
+                booked++;
+            } catch (CompletionException e) {
+                assertInstanceOf(SeatConflictException.class, e.getCause());
+                assertEquals(List.of(seat.getSeatCode()), ((SeatConflictException) e.getCause()).getSeatCodes());
+            }
+        }
+        assertEquals(1, booked);
+    }
+
+    @Test
+    public void testHeldSeatsCanOnlyBeBookedByTheirHolder() {
+        Show show = newShow();
+        SeatDto seat = seatService.getSeatsByShowId(show.getId()).get(0);
+        User holder = newUser("holder");
+        User other = newUser("other");
+        seatService.blockSeats(holder.getId(), new SeatBlockRequest(show.getId(), List.of(seat.getId())));
+
+        assertThrows(SeatConflictException.class, () -> bookingPipeline.book(other.getId(), request(show, seat)));
+        BookingDto booking = bookingPipeline.book(holder.getId(), request(show, seat));
+
+        assertEquals(holder.getId(), booking.getUserId());
+        assertEquals(Seat.SeatStatus.BOOKED, seatService.getSeatsByShowId(show.getId()).get(0).getStatus());
+    }
+
+    @Test
+    public void testUnknownSeatIsRejected() {
+        Show show = newShow();
+        User user = newUser("unknown-seat");
+
+        RuntimeException e = assertThrows(RuntimeException.class,
+                () -> bookingPipeline.book(user.getId(), new BookingRequest(show.getId(), List.of(-1L))));
+        assertEquals("Some seats not found", e.getMessage());
+    }
+
+    // More requests than the show's queue holds: the overflow fails fast, the rest is booked
+    @Test
+    public void testFullQueueRejectsRequests() {
+        Show show = newShow();
+        List<SeatDto> seats = seatService.getSeatsByShowId(show.getId());
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < 48; i++) {
+            users.add(newUser("flood-" + i));
+        }
+
+        List<CompletableFuture<BookingDto>> results = new ArrayList<>();
+        for (int i = 0; i < users.size(); i++) {
+            results.add(bookingPipeline.submit(users.get(i).getId(), request(show, seats.get(i))));
+        }
+
+        int booked = 0;
+        int rejected = 0;
+        for (CompletableFuture<BookingDto> result : results) {
+            try {
+                result.join();
+                booked++;
+            } catch (CompletionException e) {
+                assertInstanceOf(BookingPipeline.PipelineBusyException.class, e.getCause());
+                rejected++;
+            }
+        }
+        assertTrue(rejected > 0);
+        assertEquals(48, booked + rejected);
+    }
+
+    // Once a show's bookings are through, its queue goes away
+    @Test
+    public void testDrainedLanesAreRemoved() throws Exception {
+        Show show = newShow();
+        List<SeatDto> seats = seatService.getSeatsByShowId(show.getId());
+        List<CompletableFuture<BookingDto>> results = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            results.add(bookingPipeline.submit(newUser("drained-" + i).getId(), request(show, seats.get(i))));
+        }
+        results.forEach(CompletableFuture::join);
+
+        long deadline = System.currentTimeMillis() + 5000;
+        while (lanes() > 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(0, lanes());
+
+        assertNotNull(bookingPipeline.book(newUser("drained-again").getId(), request(show, seats.get(8))));
+    }
+
+    private double lanes() {
+        return meterRegistry.get("booking.pipeline.lanes").gauge().value();
+    }
+
+    private Show newShow() {
+        int number = SHOWS.incrementAndGet();
+        ScreenDto screen = screenService.createScreen(new ScreenDto(null, "Pipeline " + number, 64, 8, 8,
+                cinemaRepository.findAll().get(0).getId(), null));
+        Show show = new Show();
+        show.setMovie(movieRepository.findAll().get(0));
+        show.setScreen(screenRepository.findById(screen.getId()).orElseThrow());
+        show.setDate(LocalDate.now().plusDays(60 + number));
+        show.setTime(LocalTime.of(18, 0));
+        return showRepository.save(show);
+    }
+
+    private User newUser(String name) {
+        User user = new User();
+        user.setEmail(name + "@pipeline.test");
+        user.setName(name);
+        user.setPassword("unused");
+        return userRepository.save(user);
+    }
+
+    private static BookingRequest request(Show show, SeatDto seat) {
+        return new BookingRequest(show.getId(), List.of(seat.getId()));
+    }
+}
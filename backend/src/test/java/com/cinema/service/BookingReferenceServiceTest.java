@@ -0,0 +1,46 @@
+package com.cinema.service;
+
+import com.cinema.util.BookingReferenceGenerator;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.Duration;
+
+@SpringBootTest
+@ActiveProfiles("test")
+public class BookingReferenceServiceTest {
+
+    private static final int NODE_ID = 1000;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    // A node restarted within the same second, after its previous process had reserved ahead,
+    // issues references past everything the previous one could have issued
+    @Test
+    public void testRestartedNodeStartsAfterItsReservation() {
+        BookingReferenceService before = start();
+        long used = BookingReferenceGenerator.parse(before.next());
+        long reserved = jdbcTemplate.queryForObject(
+                "SELECT reserved_until FROM booking_reference_reservations WHERE node_id = ?", Long.class, NODE_ID);
+
+        BookingReferenceService after = start();
+        long issued = BookingReferenceGenerator.parse(after.next());
+
+        assertTrue(issued > used);
+        assertTrue(jdbcTemplate.queryForObject(
+                "SELECT reserved_until FROM booking_reference_reservations WHERE node_id = ?", Long.class, NODE_ID) > reserved);
+    }
+
+    private BookingReferenceService start() {
+        return new BookingReferenceService(jdbcTemplate, transactionManager, NODE_ID, Duration.ofSeconds(30));
+    }
+}
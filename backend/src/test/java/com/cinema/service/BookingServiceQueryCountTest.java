@@ -0,0 +1,108 @@
+package com.cinema.service;
+
+import com.cinema.dto.BookingDto;
+import com.cinema.dto.BookingRequest;
+import com.cinema.dto.PageDto;
+import com.cinema.dto.SeatDto;
+import com.cinema.dto.SignupRequest;
+import com.cinema.dto.UserDto;
+import com.cinema.entity.Booking;
+import com.cinema.entity.Show;
+import com.cinema.repository.ShowRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+
+// The admin booking list must cost the same number of SQL statements whatever the page holds
+@SpringBootTest
+@ActiveProfiles("test")
+public class BookingServiceQueryCountTest {
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private SeatService seatService;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private ShowRepository showRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    public void testStatementCountDoesNotGrowWithBookings() {
+        UserDto user = userService.signup(new SignupRequest("counter@test.com", "Counter", "secret1", null, false)).join();
+        List<Show> shows = showRepository.findAll();
+
+        book(user, shows, 0, 3);
+        long fewPage = statementsFor(() -> bookingService.searchBookings(null, null, null, null, null, 0, 50));
+        long fewAll = statementsFor(() -> bookingService.getAllBookings());
+
+        book(user, shows, 3, 15);
+        long manyPage = statementsFor(() -> bookingService.searchBookings(null, null, null, null, null, 0, 50));
+        long manyAll = statementsFor(() -> bookingService.getAllBookings());
+
+        System.out.println("Admin booking page: " + fewPage + " statements for 3 bookings, " + manyPage + " for 18");
+        assertEquals(fewPage, manyPage);
+        assertTrue(manyPage <= 3, "page took " + manyPage + " statements");
+        assertEquals(fewAll, manyAll);
+    }
+
+    @Test
+    public void testFiltersAndPaging() {
+        UserDto user = userService.signup(new SignupRequest("filter@test.com", "Filter", "secret1", null, false)).join();
+        List<Show> shows = showRepository.findAll();
+        Show show = shows.get(shows.size() - 1);
+        List<SeatDto> seats = seatService.getSeatsByShowId(show.getId());
+        BookingDto kept = bookingService.createBooking(user.getId(), new BookingRequest(show.getId(),
+                List.of(seats.get(0).getId())));
+        BookingDto cancelled = bookingService.createBooking(user.getId(), new BookingRequest(show.getId(),
+                List.of(seats.get(1).getId())));
+        bookingService.cancelBooking(cancelled.getId(),
+                new SessionTokenService.Principal(user.getId(), false, 1L, 0L, Long.MAX_VALUE));
+
+        PageDto<BookingDto> byShow = bookingService.searchBookings(null, null, show.getId(), null, null, 0, 1);
+        assertEquals(2L, byShow.getTotalElements());
+        assertEquals(2, byShow.getTotalPages());
+        assertEquals(cancelled.getId(), byShow.getContent().get(0).getId());
+
+        PageDto<BookingDto> confirmed = bookingService.searchBookings(null, null, show.getId(), null,
+                Booking.BookingStatus.CONFIRMED, 0, 20);
+        assertEquals(List.of(kept.getId()), confirmed.getContent().stream().map(BookingDto::getId).toList());
+        assertEquals(List.of(seats.get(0).getId()), confirmed.getContent().get(0).getSeatIds());
+        assertNotNull(confirmed.getContent().get(0).getCinemaName());
+
+        Long cinemaId = confirmed.getContent().get(0).getShow().getCinemaId();
+        assertTrue(bookingService.searchBookings(null, null, null, cinemaId, null, 0, 20).getTotalElements() >= 2);
+        assertEquals(0L, bookingService.searchBookings(null, null, null, -1L, null, 0, 20).getTotalElements());
+    }
+
+    private void book(UserDto user, List<Show> shows, int from, int to) {
+        for (int i = from; i < to; i++) {
+            Show show = shows.get(i % 3);
+            List<SeatDto> seats = seatService.getSeatsByShowId(show.getId());
+            int first = (i / 3) * 2;
+            bookingService.createBooking(user.getId(), new BookingRequest(show.getId(),
+                    List.of(seats.get(first).getId(), seats.get(first + 1).getId())));
+        }
+    }
+
+    private long statementsFor(Runnable work) {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+        work.run();
+        return statistics.getPrepareStatementCount();
+    }
+}
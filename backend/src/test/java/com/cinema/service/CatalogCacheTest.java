@@ -0,0 +1,135 @@
+package com.cinema.service;
+
+import com.cinema.dto.CinemaDto;
+import com.cinema.dto.MovieDto;
+import com.cinema.dto.ScreenDto;
+import com.cinema.dto.ShowDto;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+
+@SpringBootTest
+@ActiveProfiles("test")
+public class CatalogCacheTest {
+
+    @Autowired
+    private MovieService movieService;
+
+    @Autowired
+    private CinemaService cinemaService;
+
+    @Autowired
+    private ScreenService screenService;
+
+    @Autowired
+    private ShowService showService;
+
+    @Autowired
+    private CatalogCache catalogCache;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    public void setUp() {
+        catalogCache.invalidateAll();
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    public void testRepeatedReadsAreServedFromCache() {
+        movieService.getAllMovies();
+        cinemaService.getAllCinemas();
+        screenService.getAllScreens();
+        double hits = hits("catalog.movies");
+
+        statistics.clear();
+        movieService.getAllMovies();
+        cinemaService.getAllCinemas();
+        screenService.getAllScreens();
+
+        assertEquals(0, statistics.getPrepareStatementCount());
+        assertEquals(hits + 1, hits("catalog.movies"));
+    }
+
+    @Test
+    public void testMovieUpdateEvictsMovieEntries() {
+        MovieDto movie = movieService.getAllMovies().get(0);
+        movieService.getMovieById(movie.getId());
+
+        movie.setTitle(movie.getTitle() + " (Director's Cut)");
+        movieService.updateMovie(movie.getId(), movie);
+
+        assertEquals(movie.getTitle(), movieService.getMovieById(movie.getId()).getTitle());
+        assertTrue(movieService.getAllMovies().stream().anyMatch(m -> m.getTitle().equals(movie.getTitle())));
+        assertTrue(meterRegistry.counter("catalog.cache.invalidations", "cache", "catalog.movie").count() > 0);
+    }
+
+    @Test
+    public void testNewShowEvictsOnlyItsCinemaMovieListing() {
+        List<CinemaDto> cinemas = cinemaService.getAllCinemas();
+        CinemaDto target = cinemas.get(0);
+        CinemaDto other = cinemas.get(1);
+        ScreenDto screen = target.getScreens().get(0);
+
+        MovieDto movie = new MovieDto();
+        movie.setTitle("Cache Test Movie");
+        movie.setGenre("Drama");
+        movie.setRating("U");
+        movie.setDuration(90);
+        movie.setReleaseDate(LocalDate.now());
+        movie = movieService.createMovie(movie);
+
+        List<MovieDto> targetBefore = cinemaService.getMoviesByCinemaId(target.getId());
+        List<MovieDto> otherBefore = cinemaService.getMoviesByCinemaId(other.getId());
+        Long movieId = movie.getId();
+        assertTrue(targetBefore.stream().noneMatch(m -> m.getId().equals(movieId)));
+
+        ShowDto show = new ShowDto();
+        show.setMovieId(movieId);
+        show.setScreenId(screen.getId());
+        show.setDate(LocalDate.now().plusDays(90));
+        show.setTime(LocalTime.of(23, 0));
+        showService.createShow(show);
+
+        assertTrue(cinemaService.getMoviesByCinemaId(target.getId()).stream().anyMatch(m -> m.getId().equals(movieId)));
+        assertSame(otherBefore, cinemaService.getMoviesByCinemaId(other.getId()));
+    }
+
+    @Test
+    public void testScreenChangeEvictsCinemaEntries() {
+        CinemaDto cinema = cinemaService.getAllCinemas().get(0);
+        cinemaService.getCinemaById(cinema.getId());
+        ScreenDto screen = screenService.getScreenById(cinema.getScreens().get(0).getId());
+
+        screen.setName(screen.getName() + " IMAX");
+        screenService.updateScreen(screen.getId(), screen);
+
+        assertEquals(screen.getName(), screenService.getScreenById(screen.getId()).getName());
+        assertTrue(cinemaService.getCinemaById(cinema.getId()).getScreens().stream()
+                .anyMatch(s -> s.getName().equals(screen.getName())));
+        assertTrue(cinemaService.getAllCinemas().stream()
+                .flatMap(c -> c.getScreens().stream())
+                .anyMatch(s -> s.getName().equals(screen.getName())));
+    }
+
+    private double hits(String cache) {
+        return meterRegistry.get("cache.gets").tag("cache", cache).tag("result", "hit").functionCounter().count();
+    }
+}
@@ -0,0 +1,84 @@
+package com.cinema.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+
+public class CatalogInvalidationBusTest {
+
+    private CatalogCache cacheA;
+    private CatalogCache cacheB;
+    private CatalogVersions versionsA;
+    private CatalogVersions versionsB;
+    private CatalogInvalidationBus busA;
+    private CatalogInvalidationBus busB;
+
+    @BeforeEach
+    public void setUp() {
+        cacheA = new CatalogCache(new SimpleMeterRegistry(), 100, Duration.ofMinutes(10));
+        cacheB = new CatalogCache(new SimpleMeterRegistry(), 100, Duration.ofMinutes(10));
+        versionsA = new CatalogVersions();
+        versionsB = new CatalogVersions();
+        busA = new CatalogInvalidationBus(cacheA, versionsA, new LoopbackInvalidationTransport(), new SimpleMeterRegistry());
+        busB = new CatalogInvalidationBus(cacheB, versionsB, new LoopbackInvalidationTransport(), new SimpleMeterRegistry());
+        busA.start();
+        busB.start();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        busA.stop();
+        busB.stop();
+    }
+
+    @Test
+    public void testChangeOnOneNodeEvictsTheSameKeysOnTheOther() {
+        for (CatalogCache cache : List.of(cacheA, cacheB)) {
+            cache.getAll(CatalogCache.Region.MOVIES, () -> "stale");
+            cache.get(CatalogCache.Region.CINEMA_MOVIES, 1L, () -> "stale");
+            cache.get(CatalogCache.Region.CINEMA_MOVIES, 2L, () -> "stale");
+        }
+        String cinemasVersion = versionsB.key(CatalogVersions.Aggregate.CINEMAS);
+        String showsVersion = versionsB.key(CatalogVersions.Aggregate.SHOWS);
+
+        busA.onMovieChanged(new CatalogEvents.MovieChanged(7L, Set.of(1L)));
+
+        for (CatalogCache cache : List.of(cacheA, cacheB)) {
+            assertEquals("fresh", cache.getAll(CatalogCache.Region.MOVIES, () -> "fresh"));
+            assertEquals("fresh", cache.get(CatalogCache.Region.CINEMA_MOVIES, 1L, () -> "fresh"));
+            assertEquals("stale", cache.get(CatalogCache.Region.CINEMA_MOVIES, 2L, () -> "fresh"));
+        }
+        assertEquals(cinemasVersion, versionsB.key(CatalogVersions.Aggregate.CINEMAS));
+        assertNotEquals(showsVersion, versionsB.key(CatalogVersions.Aggregate.SHOWS));
+    }
+
+    @Test
+    public void testSequenceGapFlushesEverything() {
+        cacheB.getAll(CatalogCache.Region.SCREENS, () -> "stale");
+        cacheB.get(CatalogCache.Region.CINEMA, 3L, () -> "stale");
+        List<CatalogCache.Key> movie = List.of(new CatalogCache.Key(CatalogCache.Region.MOVIE, 9L));
+
+        busB.onMessage(new InvalidationTransport.Message("node-c", 41, movie, List.of()));
+        busB.onMessage(new InvalidationTransport.Message("node-c", 42, movie, List.of()));
+        assertEquals("stale", cacheB.getAll(CatalogCache.Region.SCREENS, () -> "fresh"));
+
+        busB.onMessage(new InvalidationTransport.Message("node-c", 44, movie, List.of()));
+        assertEquals("fresh", cacheB.getAll(CatalogCache.Region.SCREENS, () -> "fresh"));
+        assertEquals("fresh", cacheB.get(CatalogCache.Region.CINEMA, 3L, () -> "fresh"));
+    }
+
+    @Test
+    public void testTransportReportedLossFlushesEverything() {
+        cacheB.get(CatalogCache.Region.SCREEN, 5L, () -> "stale");
+
+        busB.onMissed("test");
+
+        assertEquals("fresh", cacheB.get(CatalogCache.Region.SCREEN, 5L, () -> "fresh"));
+    }
+}
@@ -0,0 +1,161 @@
+package com.cinema.service;
+
+import com.cinema.entity.Movie;
+import com.cinema.entity.Screen;
+import com.cinema.entity.Show;
+import com.cinema.repository.MovieRepository;
+import com.cinema.repository.ScreenRepository;
+import com.cinema.repository.ShowRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.lang.management.ManagementFactory;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Supplier;
+
+// Heap allocated and p99 latency per call of the catalog list endpoints' service methods, on a
+// catalog of 40 movies with 4 KB descriptions and 400 shows. The catalog cache is cleared before
+// every call, so this measures the database path of a cache miss. Only the measurement is tagged
+// benchmark; every list being one statement that loads no entities is checked with the rest of the suite
+@SpringBootTest
+@ActiveProfiles("test")
+public class CatalogListBenchmarkTest {
+
+    private static final int WARMUP = 200;
+    private static final int ITERATIONS = 500;
+
+    @Autowired
+    private MovieService movieService;
+
+    @Autowired
+    private ShowService showService;
+
+    @Autowired
+    private ScreenService screenService;
+
+    @Autowired
+    private CinemaService cinemaService;
+
+    @Autowired
+    private MovieRepository movieRepository;
+
+    @Autowired
+    private ScreenRepository screenRepository;
+
+    @Autowired
+    private ShowRepository showRepository;
+
+    @Autowired
+    private CatalogCache catalogCache;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @BeforeEach
+    public void setUp() {
+        seedCatalog();
+    }
+
+    // The list reads are projections: one statement each, nothing hydrated into the persistence context
+    @Test
+    public void testCatalogListsLoadNoEntities() {
+        Long cinemaId = screenRepository.findAll().get(0).getCinema().getId();
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        for (Supplier<List<?>> read : List.<Supplier<List<?>>>of(() -> movieService.getAllMovies(),
+                () -> showService.getAllShows(), () -> screenService.getAllScreens(),
+                () -> cinemaService.getAllCinemas(), () -> cinemaService.getMoviesByCinemaId(cinemaId))) {
+            catalogCache.invalidateAll();
+            statistics.clear();
+            assertFalse(read.get().isEmpty());
+            assertEquals(1, statistics.getPrepareStatementCount());
+            assertEquals(0, statistics.getEntityLoadCount());
+        }
+    }
+
+    @Tag("benchmark")
+    @Test
+    public void testCatalogListCost() {
+        Long cinemaId = screenRepository.findAll().get(0).getCinema().getId();
+
+        measure("GET /api/movies", () -> movieService.getAllMovies());
+        measure("GET /api/shows", () -> showService.getAllShows());
+        measure("GET /api/screens", () -> screenService.getAllScreens());
+        measure("GET /api/cinemas", () -> cinemaService.getAllCinemas());
+        measure("GET /api/cinemas/{id}/movies", () -> cinemaService.getMoviesByCinemaId(cinemaId));
+    }
+
+    // Once per database: both tests share the Spring context, and with it the H2 database
+    private void seedCatalog() {
+        if (movieRepository.findAll().stream().anyMatch(movie -> movie.getTitle().equals("Benchmark Movie 0"))) {
+            return;
+        }
+        List<Screen> screens = screenRepository.findAll();
+        String description = "A long synopsis. ".repeat(256);
+        for (int i = 0; i < 40; i++) {
+            Movie movie = new Movie();
+            movie.setTitle("Benchmark Movie " + i);
+            movie.setDescription(description);
+            movie.setGenre("Drama");
+            movie.setRating("UA");
+            movie.setDuration(120);
+            movie.setReleaseDate(LocalDate.now());
+            movie = movieRepository.save(movie);
+
+            List<Show> shows = new ArrayList<>();
+            for (int j = 0; j < 10; j++) {
+                Show show = new Show();
+                show.setMovie(movie);
+                show.setScreen(screens.get(j % screens.size()));
+                show.setDate(LocalDate.now().plusDays(30 + i));
+                show.setTime(LocalTime.of(9 + j, 0));
+                shows.add(show);
+            }
+            showRepository.saveAll(shows);
+        }
+    }
+
+    private void measure(String name, Supplier<List<?>> read) {
+        Supplier<List<?>> call = () -> {
+            catalogCache.invalidateAll();
+            return read.get();
+        };
+        for (int i = 0; i < WARMUP; i++) {
+            call.get();
+        }
+
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+        long[] nanos = new long[ITERATIONS];
+        long allocatedBefore = threads.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < ITERATIONS; i++) {
+            long start = System.nanoTime();
+            call.get();
+            nanos[i] = System.nanoTime() - start;
+        }
+        long allocatedPerCall = (threads.getThreadAllocatedBytes(threadId) - allocatedBefore) / ITERATIONS;
+        Arrays.sort(nanos);
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        int rows = call.get().size();
+        long statements = statistics.getPrepareStatementCount();
+        long entities = statistics.getEntityLoadCount();
+
+        System.out.printf("%-30s %4d rows  %8.1f KB/call  p50 %6.2f ms  p99 %6.2f ms  %d statements  %4d entities%n",
+                name, rows, allocatedPerCall / 1024.0, nanos[ITERATIONS / 2] / 1e6, nanos[(int) (ITERATIONS * 0.99)] / 1e6,
+                statements, entities);
+    }
+}
@@ -0,0 +1,152 @@
+package com.cinema.service;
+
+import com.cinema.repository.CatalogInvalidationRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+@SpringBootTest
+@ActiveProfiles("test")
+public class DatabaseInvalidationTransportTest {
+
+    private static final List<CatalogCache.Key> KEYS = List.of(
+            new CatalogCache.Key(CatalogCache.Region.MOVIES, CatalogCache.ALL),
+            new CatalogCache.Key(CatalogCache.Region.CINEMA_MOVIES, 12L));
+    private static final List<CatalogVersions.Aggregate> AGGREGATES = List.of(
+            CatalogVersions.Aggregate.MOVIES, CatalogVersions.Aggregate.SHOWS);
+    private static final Duration GRACE = Duration.ofMillis(200);
+
+    @Autowired
+    private CatalogInvalidationRepository repository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final List<InvalidationTransport.Message> received = new ArrayList<>();
+    private final List<String> missed = new ArrayList<>();
+    private DatabaseInvalidationTransport sender;
+    private DatabaseInvalidationTransport receiver;
+
+    @BeforeEach
+    public void setUp() {
+        // Polled by hand below
+        sender = new DatabaseInvalidationTransport(repository, transactionManager, 3_600_000, Duration.ofHours(1), GRACE);
+        receiver = new DatabaseInvalidationTransport(repository, transactionManager, 3_600_000, Duration.ofHours(1), GRACE);
+        receiver.start(new InvalidationTransport.Listener() {
+            @Override
+            public void onMessage(InvalidationTransport.Message message) {
+                received.add(message);
+            }
+
+            @Override
+            public void onMissed(String reason) {
+                missed.add(reason);
+            }
+        });
+    }
+
+    @AfterEach
+    public void tearDown() {
+        sender.stop();
+        receiver.stop();
+    }
+
+    @Test
+    public void testMessageSentAfterCommitReachesOtherNode() {
+        // Buses send from an after-commit callback, where the finished transaction is still bound
+        new TransactionTemplate(transactionManager).executeWithoutResult(status ->
+                TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                    @Override
+                    public void afterCommit() {
+                        sender.send(new InvalidationTransport.Message("node-a", 1, KEYS, AGGREGATES));
+                    }
+                }));
+
+        receiver.poll();
+
+        assertEquals(List.of(new InvalidationTransport.Message("node-a", 1, KEYS, AGGREGATES)), received);
+        assertTrue(missed.isEmpty());
+    }
+
+    // A gap is only reported once it is still there after the grace period
+    @Test
+    public void testPurgedMessageIsReportedMissed() throws InterruptedException {
+        sender.send(new InvalidationTransport.Message("node-a", 1, KEYS, AGGREGATES));
+        sender.send(new InvalidationTransport.Message("node-a", 2, List.of(), List.of()));
+        sender.send(new InvalidationTransport.Message("node-a", 3, KEYS, AGGREGATES));
+        repository.deleteById(repository.findMaxId() - 1);
+
+        receiver.poll();
+        assertTrue(missed.isEmpty());
+
+        Thread.sleep(GRACE.toMillis() + 50);
+        receiver.poll();
+
+        assertEquals(1, missed.size());
+        assertEquals(List.of(1L, 3L), received.stream().map(InvalidationTransport.Message::sequence).toList());
+    }
+
+    // An id skipped because its insert committed after a later one (or after a rolled-back insert
+    // used up an id in between) is not a lost message: the row is read again and delivered late
+    @Test
+    public void testLateCommittedMessageIsDeliveredWithoutFlush() throws InterruptedException {
+        sender.send(new InvalidationTransport.Message("node-a", 1, KEYS, AGGREGATES));
+        sender.send(new InvalidationTransport.Message("node-b", 1, List.of(), List.of()));
+        sender.send(new InvalidationTransport.Message("node-a", 2, KEYS, AGGREGATES));
+        long lateId = repository.findMaxId() - 1;
+        Map<String, Object> late = jdbcTemplate.queryForMap("SELECT * FROM catalog_invalidations WHERE id = ?", lateId);
+        repository.deleteById(lateId);
+
+        receiver.poll();
+        jdbcTemplate.update("INSERT INTO catalog_invalidations (id, node_id, sequence, cache_keys, aggregates, created_at) "
+                + "VALUES (?, ?, ?, ?, ?, ?)", lateId, late.get("node_id"), late.get("sequence"), late.get("cache_keys"),
+                late.get("aggregates"), late.get("created_at"));
+        Thread.sleep(GRACE.toMillis() + 50);
+        receiver.poll();
+
+        assertTrue(missed.isEmpty());
+        assertEquals(List.of("node-a", "node-a", "node-b"),
+                received.stream().map(InvalidationTransport.Message::nodeId).toList());
+    }
+
+    // A node's message read late must not be overtaken by its next one, which the bus would take for
+    // a lost message and flush on
+    @Test
+    public void testNodeMessagesAreDeliveredInSequenceAroundGaps() throws InterruptedException {
+        sender.send(new InvalidationTransport.Message("node-a", 1, KEYS, AGGREGATES));
+        sender.send(new InvalidationTransport.Message("node-a", 2, KEYS, AGGREGATES));
+        sender.send(new InvalidationTransport.Message("node-a", 3, KEYS, AGGREGATES));
+        long lateId = repository.findMaxId() - 1;
+        Map<String, Object> late = jdbcTemplate.queryForMap("SELECT * FROM catalog_invalidations WHERE id = ?", lateId);
+        repository.deleteById(lateId);
+
+        receiver.poll();
+        assertEquals(List.of(1L), received.stream().map(InvalidationTransport.Message::sequence).toList());
+
+        jdbcTemplate.update("INSERT INTO catalog_invalidations (id, node_id, sequence, cache_keys, aggregates, created_at) "
+                + "VALUES (?, ?, ?, ?, ?, ?)", lateId, late.get("node_id"), late.get("sequence"), late.get("cache_keys"),
+                late.get("aggregates"), late.get("created_at"));
+        Thread.sleep(GRACE.toMillis() + 50);
+        receiver.poll();
+
+        assertTrue(missed.isEmpty());
+        assertEquals(List.of(1L, 2L, 3L), received.stream().map(InvalidationTransport.Message::sequence).toList());
+    }
+}
@@ -0,0 +1,53 @@
+package com.cinema.service;
+
+import com.cinema.exception.SeatConflictException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.transaction.PlatformTransactionManager;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class OptimisticRetryExecutorTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final OptimisticRetryExecutor executor =
+            new OptimisticRetryExecutor(mock(PlatformTransactionManager.class), meterRegistry, 3, 0);
+
+    @Test
+    public void testLostRaceIsRetried() {
+        AtomicInteger attempts = new AtomicInteger();
+
+        String result = executor.execute("create_booking", () -> 1L, () -> {
+            if (attempts.incrementAndGet() < 3) {
+                throw new OptimisticLockingFailureException("stale");
+            }
+            return "booked";
+        }, () -> List.of("A1"));
+
+        assertEquals("booked", result);
+        assertEquals(2, meterRegistry.counter("seat.write.retries", "operation", "create_booking", "show", "1").count());
+    }
+
+    // Once every attempt lost, the caller learns which seats it lost
+    @Test
+    public void testExhaustedRetriesNameTheLostSeats() {
+        OptimisticLockingFailureException stale = new OptimisticLockingFailureException("stale");
+
+        SeatConflictException e = assertThrows(SeatConflictException.class,
+                () -> executor.execute("create_booking", () -> 1L, () -> { throw stale; }, () -> List.of("A1", "A2")));
+
+        assertEquals(List.of("A1", "A2"), e.getSeatCodes());
+        assertSame(stale, e.getCause());
+        assertEquals(3, meterRegistry.counter("seat.write.conflicts", "operation", "create_booking", "show", "1").count());
+    }
+
+    @Test
+    public void testExhaustedRetriesWithoutSeatsRethrow() {
+        assertThrows(OptimisticLockingFailureException.class, () -> executor.execute("cancel_booking", () -> 1L,
+                () -> { throw new OptimisticLockingFailureException("stale"); }));
+    }
+}
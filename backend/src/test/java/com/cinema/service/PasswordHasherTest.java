@@ -0,0 +1,66 @@
+package com.cinema.service;
+
+import com.cinema.util.PasswordUtil;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+public class PasswordHasherTest {
+
+    @Test
+    public void testCalibratedCostStaysWithinBounds() {
+        assertEquals(4, PasswordHasher.calibrateCost(0, 4, 8));
+        assertEquals(8, PasswordHasher.calibrateCost(60_000, 4, 8));
+    }
+
+    @Test
+    public void testBCryptHashesBelowTheCurrentCostNeedUpgrade() {
+        PasswordHasher hasher = hasher(new SimpleMeterRegistry(), 1, 16);
+        String current = hasher.encode("secret1").join();
+
+        assertTrue(hasher.matches("secret1", current).join());
+        assertFalse(hasher.matches("wrong", current).join());
+        assertFalse(hasher.needsUpgrade(current));
+        assertTrue(hasher.needsUpgrade(new BCryptPasswordEncoder(4).encode("secret1")));
+    }
+
+    @Test
+    public void testLegacyHashesAreAcceptedAndNeedUpgrade() {
+        PasswordHasher hasher = hasher(new SimpleMeterRegistry(), 1, 16);
+        String legacy = PasswordUtil.hashPassword("secret1");
+
+        assertTrue(hasher.matches("secret1", legacy).join());
+        assertFalse(hasher.matches("wrong", legacy).join());
+        // PasswordUtil.verifyPassword took the stored value itself as a password; the hasher doesn't
+        assertFalse(hasher.matches(legacy, legacy).join());
+        assertTrue(hasher.needsUpgrade(legacy));
+    }
+
+    @Test
+    public void testFullQueueFailsFast() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        PasswordHasher hasher = hasher(registry, 1, 1);
+
+        List<CompletableFuture<String>> hashes = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            hashes.add(hasher.encode("secret" + i));
+        }
+
+        CompletionException e = assertThrows(CompletionException.class, () -> hashes.get(3).join());
+        assertInstanceOf(PasswordHasher.HashingBusyException.class, e.getCause());
+        assertNotNull(hashes.get(0).join());
+        assertTrue(registry.get("password.hashing.rejected").counter().count() >= 1);
+        assertEquals(10, registry.get("password.hashing.cost").gauge().value());
+    }
+
+    private PasswordHasher hasher(SimpleMeterRegistry registry, int threads, int queueCapacity) {
+        // Cost 10, the floor, whatever this machine's speed
+        return new PasswordHasher(registry, 0, 10, 14, threads, queueCapacity);
+    }
+}
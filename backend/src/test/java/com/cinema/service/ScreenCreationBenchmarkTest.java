@@ -0,0 +1,131 @@
+package com.cinema.service;
+
+import com.cinema.dto.ScreenDto;
+import com.cinema.dto.SeatDto;
+import com.cinema.entity.Cinema;
+import com.cinema.entity.Screen;
+import com.cinema.entity.Seat;
+import com.cinema.repository.CinemaRepository;
+import com.cinema.repository.ScreenRepository;
+import com.cinema.repository.SeatRepository;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+// Time to create a 500-seat screen (20 rows of 25): one seatRepository.save per seat, as screens
+// were created before, against ScreenService.createScreen writing the seats in JDBC batches. Only
+// the timing is tagged benchmark; the drawn layout test runs with the rest of the suite
+@SpringBootTest
+@ActiveProfiles("test")
+public class ScreenCreationBenchmarkTest {
+
+    private static final int ROWS = 20;
+    private static final int SEATS_PER_ROW = 25;
+    private static final int WARMUP = 3;
+    private static final int ITERATIONS = 10;
+
+    @Autowired
+    private ScreenService screenService;
+
+    @Autowired
+    private SeatService seatService;
+
+    @Autowired
+    private CinemaRepository cinemaRepository;
+
+    @Autowired
+    private ScreenRepository screenRepository;
+
+    @Autowired
+    private SeatRepository seatRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Tag("benchmark")
+    @Test
+    public void testBatchedSeatsAreFasterThanSavingEachSeat() {
+        Cinema cinema = cinemaRepository.findAll().get(0);
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+
+        double perSeat = measure("save per seat", i -> transaction.executeWithoutResult(status -> {
+            Screen screen = new Screen();
+            screen.setName("Per-seat IMAX " + i);
+            screen.setCapacity(ROWS * SEATS_PER_ROW);
+            screen.setTotalRows(ROWS);
+            screen.setSeatsPerRow(SEATS_PER_ROW);
+            screen.setCinema(cinema);
+            screen = screenRepository.save(screen);
+            for (int row = 1; row <= ROWS; row++) {
+                for (int number = 1; number <= SEATS_PER_ROW; number++) {
+                    Seat seat = new Seat();
+                    seat.setSeatRow(row);
+                    seat.setSeatNumber(number);
+                    seat.setSeatCode(String.format("%c%d", 'A' + row - 1, number));
+                    seat.setScreen(screen);
+                    seatRepository.save(seat);
+                }
+            }
+        }));
+        double batched = measure("JDBC batches", i -> screenService.createScreen(
+                new ScreenDto(null, "Batched IMAX " + i, ROWS * SEATS_PER_ROW, ROWS, SEATS_PER_ROW, cinema.getId(), null)));
+
+        Screen last = screenRepository.findAll().stream()
+                .filter(screen -> screen.getName().equals("Batched IMAX " + (WARMUP + ITERATIONS - 1)))
+                .findFirst().orElseThrow();
+        assertEquals(ROWS * SEATS_PER_ROW, seatRepository.countByScreen(last));
+        assertTrue(batched < perSeat, "batched " + batched + " ms, per seat " + perSeat + " ms");
+    }
+
+    @Test
+    public void testDrawnLayoutCreatesCategorisedSeatsWithGaps() {
+        Cinema cinema = cinemaRepository.findAll().get(0);
+        List<String> drawing = List.of(
+                "WW.SSSSSS.WW",
+                "SSS.SSSSSS.SSS",
+                "",
+                "PPP.PPPPPP.PPP",
+                "...RRRRRR...");
+        ScreenDto created = screenService.createScreen(
+                new ScreenDto(null, "Drawn Screen", 0, null, null, cinema.getId(), drawing));
+
+        assertEquals(5, created.getTotalRows());
+        assertEquals(14, created.getSeatsPerRow());
+        assertEquals(10 + 12 + 12 + 6, created.getCapacity());
+
+        List<SeatDto> seats = seatService.getSeatsByScreenId(created.getId());
+        assertEquals(created.getCapacity(), seats.size());
+        assertEquals(List.of("A1", "A2", "A4", "A5", "A6", "A7", "A8", "A9", "A11", "A12"), seats.stream()
+                .filter(seat -> seat.getSeatRow() == 1)
+                .map(SeatDto::getSeatCode)
+                .collect(Collectors.toList()));
+        assertEquals(4, seats.stream().filter(seat -> seat.getCategory() == Seat.SeatCategory.ACCESSIBLE).count());
+        assertEquals(6, seats.stream().filter(seat -> seat.getCategory() == Seat.SeatCategory.RECLINER).count());
+        assertTrue(seats.stream().noneMatch(seat -> seat.getSeatRow() == 3));
+    }
+
+    private double measure(String label, java.util.function.IntConsumer createScreen) {
+        for (int i = 0; i < WARMUP; i++) {
+            createScreen.accept(i);
+        }
+        long[] nanos = new long[ITERATIONS];
+        for (int i = 0; i < ITERATIONS; i++) {
+            long start = System.nanoTime();
+            createScreen.accept(WARMUP + i);
+            nanos[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(nanos);
+        double median = nanos[ITERATIONS / 2] / 1_000_000.0;
+        System.out.printf("%-14s %d seats: median %.1f ms per screen%n", label, ROWS * SEATS_PER_ROW, median);
+        return median;
+    }
+}
@@ -0,0 +1,106 @@
+package com.cinema.service;
+
+import com.cinema.dto.ScreenDto;
+import com.cinema.entity.Show;
+import com.cinema.repository.CinemaRepository;
+import com.cinema.repository.MovieRepository;
+import com.cinema.repository.ScreenRepository;
+import com.cinema.repository.ShowRepository;
+import com.cinema.repository.ShowSeatRepository;
+import com.cinema.util.ShowSeatMap;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+@SpringBootTest
+@ActiveProfiles("test")
+public class SeatServiceTest {
+
+    @Autowired
+    private SeatService seatService;
+
+    @Autowired
+    private ScreenService screenService;
+
+    @Autowired
+    private CinemaRepository cinemaRepository;
+
+    @Autowired
+    private ScreenRepository screenRepository;
+
+    @Autowired
+    private MovieRepository movieRepository;
+
+    @Autowired
+    private ShowRepository showRepository;
+
+    @Autowired
+    private ShowSeatRepository showSeatRepository;
+
+    @Autowired
+    private SeatMapService seatMapService;
+
+    // A seeded or imported show has no inventory until its first requests, which may come at once
+    @Test
+    public void testConcurrentFirstRequestsCreateTheInventoryOnce() throws Exception {
+        Show saved = newShow("Lazy inventory", LocalDate.now().plusDays(200));
+
+        int threads = 8;
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    seatService.initializeShowSeats(saved);
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        assertEquals(64, showSeatRepository.countByShowId(saved.getId()));
+    }
+
+    // Once a show is over its seat map is dropped, while upcoming shows keep theirs
+    @Test
+    public void testSeatMapsOfPastShowsAreEvicted() {
+        Show past = newShow("Past show", LocalDate.now().minusDays(1));
+        Show upcoming = newShow("Upcoming show", LocalDate.now().plusDays(201));
+        ShowSeatMap pastMap = seatMapService.getSeatMap(past.getId());
+        ShowSeatMap upcomingMap = seatMapService.getSeatMap(upcoming.getId());
+
+        seatMapService.evictPastShows();
+
+        assertNotSame(pastMap, seatMapService.getSeatMap(past.getId()));
+        assertSame(upcomingMap, seatMapService.getSeatMap(upcoming.getId()));
+    }
+
+    private Show newShow(String screenName, LocalDate date) {
+        ScreenDto screen = screenService.createScreen(new ScreenDto(null, screenName, 64, 8, 8,
+                cinemaRepository.findAll().get(0).getId(), null));
+        Show show = new Show();
+        show.setMovie(movieRepository.findAll().get(0));
+        show.setScreen(screenRepository.findById(screen.getId()).orElseThrow());
+        show.setDate(date);
+        show.setTime(LocalTime.of(18, 0));
+        return showRepository.save(show);
+    }
+}
@@ -0,0 +1,47 @@
+package com.cinema.service;
+
+import com.cinema.dto.SeatChangeDto;
+import com.cinema.dto.SeatDeltaDto;
+import com.cinema.entity.Seat;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+import java.util.List;
+
+public class SeatUpdatePublisherTest {
+
+    @Test
+    public void testChangesWithinWindowAreMergedPerSeat() throws Exception {
+        SimpMessagingTemplate messagingTemplate = mock(SimpMessagingTemplate.class);
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        SeatUpdatePublisher publisher = new SeatUpdatePublisher(messagingTemplate, meterRegistry, 200, "node-1", "simple");
+
+        publisher.publish(1L, 11L, List.of(100L, 101L), Seat.SeatStatus.BLOCKED, 7L);
+        publisher.publish(1L, 12L, List.of(102L), Seat.SeatStatus.BLOCKED, 8L);
+        publisher.publish(1L, 13L, List.of(100L, 101L), Seat.SeatStatus.BOOKED, null);
+        assertEquals(3.0, meterRegistry.get("seat.broadcast.queue.depth").gauge().value());
+
+        ArgumentCaptor<Object> frame = ArgumentCaptor.forClass(Object.class);
+        verify(messagingTemplate, timeout(2000)).convertAndSend(eq("/topic/shows/1/seats"), frame.capture());
+        publisher.stop();
+
+        SeatDeltaDto delta = (SeatDeltaDto) frame.getValue();
+        assertEquals("node-1", delta.getNodeId());
+        assertEquals(11L, delta.getFirstSequence());
+        assertEquals(13L, delta.getSequence());
+        assertEquals(List.of(
+                new SeatChangeDto(List.of(100L, 101L), Seat.SeatStatus.BOOKED, null),
+                new SeatChangeDto(List.of(102L), Seat.SeatStatus.BLOCKED, 8L)), delta.getChanges());
+
+        verify(messagingTemplate, times(1)).convertAndSend(any(String.class), any(Object.class));
+        assertEquals(1.0, meterRegistry.get("seat.broadcast.frames").counter().count());
+        assertEquals(3.0, meterRegistry.get("seat.broadcast.seats.per.frame").summary().totalAmount());
+        assertEquals(0.0, meterRegistry.get("seat.broadcast.queue.depth").gauge().value());
+    }
+}
@@ -0,0 +1,157 @@
+package com.cinema.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Base64;
+
+public class SessionTokenServiceTest {
+
+    private static final Duration TTL = Duration.ofHours(8);
+    private static final Duration ROTATION = Duration.ofHours(6);
+
+    private final MutableClock clock = new MutableClock(1_700_000_000_000L);
+    private final SessionRevocationList revocations = new SessionRevocationList(100, 0.01, clock);
+    private final SessionTokenService tokens = service("secret-1");
+
+    @Test
+    public void testIssuedTokenCarriesClaims() {
+        SessionTokenService.IssuedToken issued = tokens.issue(42L, true);
+        SessionTokenService.Principal principal = tokens.verify(issued.token());
+
+        assertEquals(42L, principal.userId());
+        assertTrue(principal.admin());
+        assertEquals(clock.millis(), principal.issuedAt());
+        assertEquals(issued.expiresAt(), principal.expiresAt());
+        assertTrue(issued.token().length() < 80, "token is " + issued.token().length() + " characters");
+    }
+
+    @Test
+    public void testTamperedTokenIsRejected() {
+        String token = tokens.issue(42L, false).token();
+        // Flip the admin flag inside the claims
+        byte[] claims = Base64.getUrlDecoder().decode(token.substring(0, token.indexOf('.')));
+        claims[13] = 1;
+        String forged = Base64.getUrlEncoder().withoutPadding().encodeToString(claims)
+                + token.substring(token.indexOf('.'));
+
+        assertThrows(SessionTokenService.InvalidTokenException.class, () -> tokens.verify(forged));
+        assertThrows(SessionTokenService.InvalidTokenException.class, () -> tokens.verify("not-a-token"));
+        assertThrows(SessionTokenService.InvalidTokenException.class, () -> service("secret-2").verify(token));
+    }
+
+    @Test
+    public void testTokenExpires() {
+        String token = tokens.issue(42L, false).token();
+        clock.advance(TTL.minusSeconds(1));
+        assertEquals(42L, tokens.verify(token).userId());
+
+        clock.advance(Duration.ofSeconds(1));
+        assertThrows(SessionTokenService.InvalidTokenException.class, () -> tokens.verify(token));
+    }
+
+    // Nodes sharing the secret derive the same keys, also after the signing key has rotated
+    @Test
+    public void testTokensSurviveKeyRotationAcrossNodes() {
+        String token = tokens.issue(42L, false).token();
+        SessionTokenService otherNode = service("secret-1");
+        clock.advance(ROTATION.plusMinutes(1));
+
+        assertEquals(42L, otherNode.verify(token).userId());
+        String rotated = otherNode.issue(43L, false).token();
+        assertNotEquals(token.substring(0, 8), rotated.substring(0, 8));
+        assertEquals(43L, tokens.verify(rotated).userId());
+    }
+
+    @Test
+    public void testLogoutRevokesOnlyThatToken() {
+        String first = tokens.issue(42L, false).token();
+        String second = tokens.issue(42L, false).token();
+
+        tokens.revoke(tokens.verify(first));
+
+        assertThrows(SessionTokenService.InvalidTokenException.class, () -> tokens.verify(first));
+        assertEquals(42L, tokens.verify(second).userId());
+    }
+
+    @Test
+    public void testRevokingUserEndsEarlierSessionsOnly() {
+        String before = tokens.issue(42L, false).token();
+        String otherUser = tokens.issue(7L, false).token();
+        clock.advance(Duration.ofSeconds(1));
+        tokens.revokeUser(42L);
+        clock.advance(Duration.ofSeconds(1));
+        String after = tokens.issue(42L, true).token();
+
+        assertThrows(SessionTokenService.InvalidTokenException.class, () -> tokens.verify(before));
+        assertTrue(tokens.verify(after).admin());
+        assertEquals(7L, tokens.verify(otherUser).userId());
+    }
+
+    // Once the revoked tokens would have expired anyway their entries go, the filter is rebuilt
+    @Test
+    public void testRevocationsArePurgedAfterExpiry() {
+        for (int i = 0; i < 500; i++) {
+            tokens.revoke(tokens.verify(tokens.issue(i, false).token()));
+        }
+        clock.advance(Duration.ofMinutes(1));
+        String live = tokens.issue(1000L, false).token();
+        assertEquals(500, revocations.size());
+
+        clock.advance(TTL.minusMinutes(1));
+        revocations.purgeExpired();
+
+        assertEquals(0, revocations.size());
+        assertEquals(1000L, tokens.verify(live).userId());
+    }
+
+    @Test
+    public void testRelayModeRequiresSharedSecret() {
+        assertThrows(IllegalStateException.class, () -> SessionTokenService.requireSharedSecret("", "relay"));
+        assertThrows(IllegalStateException.class, () -> SessionTokenService.requireSharedSecret(null, "relay"));
+        assertEquals("s3cret", SessionTokenService.requireSharedSecret("s3cret", "relay"));
+        assertEquals("", SessionTokenService.requireSharedSecret("", "simple"));
+    }
+
+    private SessionTokenService service(String secret) {
+        return new SessionTokenService(revocations, new SimpleMeterRegistry(), secret, TTL, ROTATION, clock);
+    }
+
+    private static final class MutableClock extends Clock {
+        private long millis;
+
+        private MutableClock(long millis) {
+            this.millis = millis;
+        }
+
+        void advance(Duration duration) {
+            millis += duration.toMillis();
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return Instant.ofEpochMilli(millis);
+        }
+
+        @Override
+        public long millis() {
+            return millis;
+        }
+    }
+}
@@ -0,0 +1,176 @@
+package com.cinema.service;
+
+import com.cinema.dto.ScheduleImportResponse;
+import com.cinema.dto.ShowDto;
+import com.cinema.entity.Movie;
+import com.cinema.entity.Screen;
+import com.cinema.entity.Show;
+import com.cinema.repository.MovieRepository;
+import com.cinema.repository.ScreenRepository;
+import com.cinema.repository.ShowRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+@SpringBootTest
+@ActiveProfiles("test")
+public class ShowScheduleImportTest {
+
+    @Autowired
+    private ShowScheduleService showScheduleService;
+
+    @Autowired
+    private ShowService showService;
+
+    @Autowired
+    private MovieRepository movieRepository;
+
+    @Autowired
+    private ScreenRepository screenRepository;
+
+    @Autowired
+    private ShowRepository showRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private WebApplicationContext context;
+
+    private Movie movie;
+
+    private List<Screen> screens;
+
+    @BeforeEach
+    public void setUp() {
+        screens = screenRepository.findAll();
+        movie = movieRepository.findAll().stream()
+                .filter(m -> m.getTitle().equals("Import Movie"))
+                .findFirst()
+                .orElseGet(() -> {
+                    Movie created = new Movie();
+                    created.setTitle("Import Movie");
+                    created.setGenre("Drama");
+                    created.setRating("UA");
+                    created.setDuration(120);
+                    created.setReleaseDate(LocalDate.now());
+                    return movieRepository.save(created);
+                });
+    }
+
+    @Test
+    public void testSeasonImportCreatesShowsAndSeatInventories() {
+        LocalDate firstDay = LocalDate.now().plusDays(500);
+        int[] hours = { 10, 13, 16, 19, 22 };
+        List<ShowDto> rows = new ArrayList<>();
+        for (int day = 0; day < 60; day++) {
+            for (int hour : hours) {
+                for (int s = 0; s < 2; s++) {
+                    rows.add(row(screens.get(s), firstDay.plusDays(day), LocalTime.of(hour, 0)));
+                }
+            }
+        }
+
+        long start = System.nanoTime();
+        ScheduleImportResponse result = showScheduleService.importSchedule(rows);
+        System.out.printf("Imported %d shows in %d ms%n", result.getImported(), (System.nanoTime() - start) / 1_000_000);
+
+        assertEquals(List.of(), result.getProblems());
+        assertEquals(rows.size(), result.getImported());
+        assertEquals(rows.size(), jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM shows WHERE movie_id = ? AND date BETWEEN ? AND ?", Integer.class, movie.getId(), firstDay, firstDay.plusDays(59)));
+        // Every imported show gets a seat inventory from its screen's layout
+        assertEquals(0, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM shows s WHERE s.movie_id = ? AND s.date BETWEEN ? AND ? AND "
+                        + "(SELECT COUNT(*) FROM show_seats ss WHERE ss.show_id = s.id) <> (SELECT COUNT(*) FROM seats st WHERE st.screen_id = s.screen_id)",
+                Integer.class, movie.getId(), firstDay, firstDay.plusDays(59)));
+    }
+
+    @Test
+    public void testEveryConflictIsReportedAndNothingIsInserted() {
+        LocalDate day = LocalDate.now().plusDays(600);
+        Screen screen = screens.get(0);
+        Show late = new Show();
+        late.setMovie(movie);
+        late.setScreen(screen);
+        late.setDate(day);
+        late.setTime(LocalTime.of(23, 0));
+        late = showRepository.save(late);
+
+        LocalDate nextDay = day.plusDays(1);
+        ShowDto unknownMovie = row(screen, nextDay, LocalTime.of(18, 0));
+        unknownMovie.setMovieId(-1L);
+        List<ShowDto> rows = List.of(
+                row(screen, nextDay, LocalTime.of(0, 30)),          // 1: inside yesterday's 23:00 show
+                row(screen, nextDay, LocalTime.of(10, 0)),          // 2
+                row(screen, nextDay, LocalTime.of(12, 5)),          // 3: row 2 ends at 12:00, cleaning until 12:15
+                row(screen, nextDay, LocalTime.of(11, 0)),          // 4: overlaps rows 2 and 3
+                unknownMovie,                                        // 5
+                row(screens.get(1), nextDay, LocalTime.of(12, 5))); // 6: another screen
+
+        ScheduleImportResponse result = showScheduleService.importSchedule(rows);
+
+        assertEquals(0, result.getImported());
+        List<String> problems = result.getProblems().stream()
+                .map(p -> p.getRow() + ":" + (p.getConflictingShowId() != null ? "show" : p.getConflictingRow()))
+                .collect(Collectors.toList());
+        assertEquals(List.of("1:show", "3:2", "4:2", "4:3", "5:null"), problems);
+        assertEquals(late.getId(), result.getProblems().get(0).getConflictingShowId());
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM shows WHERE date = ?", Integer.class, nextDay));
+
+        // Single shows are checked across midnight too
+        ShowDto single = row(screen, nextDay, LocalTime.of(1, 0));
+        RuntimeException conflict = assertThrows(RuntimeException.class, () -> showService.createShow(single));
+        assertTrue(conflict.getMessage().startsWith("Time conflict detected!"), conflict.getMessage());
+    }
+
+    @Test
+    public void testCsvImport() throws Exception {
+        MockMvc mockMvc = MockMvcBuilders.webAppContextSetup(context).build();
+        LocalDate day = LocalDate.now().plusDays(700);
+        String csv = "movie_id,screen_id,date,time,ticket_price\n"
+                + movie.getId() + "," + screens.get(0).getId() + "," + day + ",10:00,12.5\n"
+                + movie.getId() + "," + screens.get(0).getId() + "," + day + ",14:00,\n";
+
+        mockMvc.perform(post("/api/shows/import").contentType("text/csv").content(csv))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.imported").value(2));
+        assertEquals(12.5, jdbcTemplate.queryForObject(
+                "SELECT ticket_price FROM shows WHERE date = ? AND time = ?", Double.class, day, LocalTime.of(10, 0)));
+
+        mockMvc.perform(post("/api/shows/import").contentType("text/csv")
+                        .content("movie_id,screen_id,date,time\n" + movie.getId() + ",x," + day + ",18:00\n"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.problems[0].row").value(1));
+        mockMvc.perform(post("/api/shows/import").contentType(MediaType.APPLICATION_JSON)
+                        .content("[{\"movie_id\":" + movie.getId() + ",\"screen_id\":" + screens.get(0).getId()
+                                + ",\"date\":\"" + day + "\",\"time\":\"11:00\"}]"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.problems[0].conflicting_show_id").exists());
+    }
+
+    private ShowDto row(Screen screen, LocalDate date, LocalTime time) {
+        ShowDto row = new ShowDto();
+        row.setMovieId(movie.getId());
+        row.setScreenId(screen.getId());
+        row.setDate(date);
+        row.setTime(time);
+        return row;
+    }
+}
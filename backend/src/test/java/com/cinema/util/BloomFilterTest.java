@@ -0,0 +1,50 @@
+package com.cinema.util;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Random;
+
+public class BloomFilterTest {
+
+    @Test
+    public void testAddedKeysAreAlwaysFound() {
+        BloomFilter filter = new BloomFilter(10_000, 0.01);
+        Random random = new Random(7);
+        long[] keys = new long[10_000];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = random.nextLong();
+            filter.add(keys[i]);
+        }
+        for (long key : keys) {
+            assertTrue(filter.mightContain(key));
+        }
+    }
+
+    // Filled to capacity, the filter should stay close to the rate it was sized for
+    @Test
+    public void testFalsePositiveRateAtCapacity() {
+        BloomFilter filter = new BloomFilter(10_000, 0.01);
+        for (long key = 1; key <= 10_000; key++) {
+            filter.add(key);
+        }
+        int falsePositives = 0;
+        for (long key = 1_000_000; key < 1_100_000; key++) {
+            if (filter.mightContain(key)) {
+                falsePositives++;
+            }
+        }
+        double rate = falsePositives / 100_000.0;
+        System.out.printf("Bloom filter: %d bits, %d hashes, false-positive rate %.4f%n",
+                filter.bitCount(), filter.hashCount(), rate);
+        assertTrue(rate < 0.02, "false-positive rate " + rate);
+    }
+
+    @Test
+    public void testEmptyFilterContainsNothing() {
+        BloomFilter filter = new BloomFilter(100, 0.01);
+        for (long key = 0; key < 1000; key++) {
+            assertFalse(filter.mightContain(key));
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package com.cinema.util;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+
+// Cost per booking reference of the generator against the previous "BK" + currentTimeMillis
+// scheme: median ns per reference over several rounds on one and on eight threads, and heap
+// allocated per reference. Also counts the duplicates each scheme hands out in a burst
+@Tag("benchmark")
+public class BookingReferenceBenchmarkTest {
+
+    private static final int ROUNDS = 7;
+    private static final int PER_ROUND = 200_000;
+    private static final int THREADS = 8;
+
+    @Test
+    public void testGeneratorIsCheapAndCollisionFree() throws Exception {
+        BookingReferenceGenerator generator = new BookingReferenceGenerator(1);
+        Supplier<String> current = generator::next;
+        Supplier<String> previous = () -> "BK" + System.currentTimeMillis();
+
+        double generatorBytes = measure("generator", current);
+        measure("BK + currentTimeMillis", previous);
+
+        assertEquals(0, duplicates(current));
+        // The old scheme repeats itself within the same millisecond
+        assertTrue(duplicates(previous) > 0);
+        // One String and the char[] it's built from
+        assertTrue(generatorBytes < 160, "allocated " + generatorBytes + " bytes per reference");
+    }
+
+    private double measure(String name, Supplier<String> next) throws Exception {
+        for (int i = 0; i < PER_ROUND * 5; i++) {
+            next.get();
+        }
+
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+        long[] single = new long[ROUNDS];
+        long allocatedBefore = threads.getThreadAllocatedBytes(threadId);
+        for (int r = 0; r < ROUNDS; r++) {
+            long start = System.nanoTime();
+            for (int i = 0; i < PER_ROUND; i++) {
+                next.get();
+            }
+            single[r] = System.nanoTime() - start;
+        }
+        double bytesPerReference = (threads.getThreadAllocatedBytes(threadId) - allocatedBefore) / (double) (ROUNDS * PER_ROUND);
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        long[] contended = new long[ROUNDS];
+        try {
+            for (int r = 0; r < ROUNDS; r++) {
+                CountDownLatch start = new CountDownLatch(1);
+                List<Future<?>> workers = new ArrayList<>();
+                for (int t = 0; t < THREADS; t++) {
+                    workers.add(executor.submit(() -> {
+                        start.await();
+                        for (int i = 0; i < PER_ROUND; i++) {
+                            next.get();
+                        }
+                        return null;
+                    }));
+                }
+                long begin = System.nanoTime();
+                start.countDown();
+                for (Future<?> worker : workers) {
+                    worker.get();
+                }
+                contended[r] = System.nanoTime() - begin;
+            }
+        } finally {
+            executor.shutdown();
+        }
+        Arrays.sort(single);
+        Arrays.sort(contended);
+
+        System.out.printf("%-24s 1 thread %7.1f ns/ref  %d threads %7.1f ns/ref  %6.1f B/ref%n",
+                name, single[ROUNDS / 2] / (double) PER_ROUND, THREADS,
+                contended[ROUNDS / 2] / (double) (PER_ROUND * THREADS), bytesPerReference);
+        return bytesPerReference;
+    }
+
+    private int duplicates(Supplier<String> next) {
+        Set<String> seen = new HashSet<>();
+        int duplicates = 0;
+        for (int i = 0; i < 100_000; i++) {
+            if (!seen.add(next.get())) {
+                duplicates++;
+            }
+        }
+        return duplicates;
+    }
+}
@@ -0,0 +1,184 @@
+package com.cinema.util;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class BookingReferenceGeneratorTest {
+
+    private static final long NOW = 1_760_000_000L;
+    private static final String SYMBOLS = "0123456789ABCDEFGHJKMNPQRSTVWXYZ";
+
+    // Two nodes with a frozen clock, so every thread races on the same second and runs through
+    // the sequence into borrowed seconds; every reference is parsed back to its id
+    @Test
+    public void testTenMillionConcurrentReferencesAreUnique() throws Exception {
+        int threads = 8;
+        int perThread = 1_250_000;
+        BookingReferenceGenerator[] nodes = {
+                new BookingReferenceGenerator(1, () -> NOW),
+                new BookingReferenceGenerator(2, () -> NOW)
+        };
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<long[]>> results = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                BookingReferenceGenerator generator = nodes[t % nodes.length];
+                results.add(executor.submit(() -> {
+                    long[] ids = new long[perThread];
+                    start.await();
+                    for (int i = 0; i < perThread; i++) {
+                        String reference = generator.next();
+                        ids[i] = BookingReferenceGenerator.parse(reference);
+                    }
+                    return ids;
+                }));
+            }
+            start.countDown();
+
+            long[] all = new long[threads * perThread];
+            int offset = 0;
+            for (Future<long[]> result : results) {
+                long[] ids = result.get();
+                // Ids of one thread come from one generator and strictly increase
+                for (int i = 1; i < ids.length; i++) {
+                    assertTrue(ids[i] > ids[i - 1]);
+                }
+                System.arraycopy(ids, 0, all, offset, ids.length);
+                offset += ids.length;
+            }
+            Arrays.sort(all);
+            assertTrue(all[0] >= 0);
+            for (int i = 1; i < all.length; i++) {
+                assertTrue(all[i] > all[i - 1], "duplicate id");
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testClockSteppingBackDoesNotRepeatIds() {
+        AtomicLong clock = new AtomicLong(NOW);
+        BookingReferenceGenerator generator = new BookingReferenceGenerator(3, clock::get);
+        long first = generator.nextId();
+
+        clock.set(NOW - 60);
+        long second = generator.nextId();
+        clock.set(NOW + 1);
+        long third = generator.nextId();
+
+        assertTrue(second > first);
+        assertTrue(third > second);
+    }
+
+    // A process restarted within the second its predecessor used starts after it
+    @Test
+    public void testRestartStartsAfterTheGivenSecond() {
+        BookingReferenceGenerator before = new BookingReferenceGenerator(4, () -> NOW);
+        long used = before.nextId();
+        long start = before.second() + 1;
+
+        BookingReferenceGenerator after = new BookingReferenceGenerator(4, () -> NOW, start);
+
+        assertEquals(start, after.second());
+        assertTrue(after.nextId() > used);
+    }
+
+    @Test
+    public void testBorrowingStopsAtTheReservation() {
+        BookingReferenceGenerator generator = new BookingReferenceGenerator(6, () -> NOW);
+        long reserved = generator.second();
+        generator.reserveUntil(reserved);
+        // Sequence numbers 1 to 262143 of the reserved second
+        for (int i = 1; i < 1 << 18; i++) {
+            generator.nextId();
+        }
+
+        assertThrows(BookingReferenceGenerator.NotReservedException.class, generator::nextId);
+        assertEquals(reserved, generator.second());
+        generator.reserveUntil(reserved + 1);
+        generator.nextId();
+        assertEquals(reserved + 1, generator.second());
+    }
+
+    @Test
+    public void testReferenceFormat() {
+        String reference = new BookingReferenceGenerator(0).next();
+
+        assertEquals(BookingReferenceGenerator.LENGTH, reference.length());
+        assertTrue(reference.startsWith(BookingReferenceGenerator.PREFIX));
+        assertTrue(reference.matches("BK[0-9A-HJKMNP-TV-Z]{12}[0-9A-HJKMNP-TV-Z*~$=U]"), reference);
+        assertTrue(BookingReferenceGenerator.isValid(reference.toLowerCase()));
+        assertEquals(reference, BookingReferenceGenerator.format(BookingReferenceGenerator.parse(reference)));
+    }
+
+    @Test
+    public void testConsecutiveReferencesLookUnrelated() {
+        BookingReferenceGenerator generator = new BookingReferenceGenerator(0, () -> NOW);
+        String previous = generator.next();
+        for (int i = 0; i < 1000; i++) {
+            String next = generator.next();
+            int same = 0;
+            for (int j = 2; j < BookingReferenceGenerator.LENGTH - 1; j++) {
+                if (next.charAt(j) == previous.charAt(j)) {
+                    same++;
+                }
+            }
+            assertTrue(same < 8, previous + " " + next);
+            previous = next;
+        }
+    }
+
+    // Every mistyped symbol and every swap of two adjacent differing symbols fails the check
+    @Test
+    public void testCheckSymbolCatchesTypos() {
+        BookingReferenceGenerator generator = new BookingReferenceGenerator(5);
+        for (int n = 0; n < 200; n++) {
+            char[] reference = generator.next().toCharArray();
+            for (int i = 2; i < reference.length - 1; i++) {
+                char original = reference[i];
+                for (char symbol : SYMBOLS.toCharArray()) {
+                    if (symbol != original) {
+                        reference[i] = symbol;
+                        assertFalse(BookingReferenceGenerator.isValid(new String(reference)));
+                    }
+                }
+                reference[i] = original;
+
+                if (i + 1 < reference.length - 1 && reference[i + 1] != original) {
+                    reference[i] = reference[i + 1];
+                    reference[i + 1] = original;
+                    assertFalse(BookingReferenceGenerator.isValid(new String(reference)));
+                    reference[i + 1] = reference[i];
+                    reference[i] = original;
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testMalformedReferencesAreRejected() {
+        assertEquals(-1, BookingReferenceGenerator.parse(null));
+        assertEquals(-1, BookingReferenceGenerator.parse("BK1760000000123"));
+        assertEquals(-1, BookingReferenceGenerator.parse("XX0000000000000"));
+        assertEquals(-1, BookingReferenceGenerator.parse("BK00000000000#0"));
+        assertEquals(-1, BookingReferenceGenerator.parse("BK0000000000001"));
+    }
+
+    @Test
+    public void testNodeIdOutOfRangeIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> new BookingReferenceGenerator(-1));
+        assertThrows(IllegalArgumentException.class,
+                () -> new BookingReferenceGenerator(BookingReferenceGenerator.MAX_NODE_ID + 1));
+    }
+}
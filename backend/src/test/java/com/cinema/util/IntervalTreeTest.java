@@ -0,0 +1,53 @@
+package com.cinema.util;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+public class IntervalTreeTest {
+
+    @Test
+    public void testTouchingIntervalsDoNotOverlap() {
+        IntervalTree<String> tree = new IntervalTree<>(List.of(
+                new IntervalTree.Interval<>(0, 10, "a"),
+                new IntervalTree.Interval<>(10, 20, "b"),
+                new IntervalTree.Interval<>(25, 30, "c")));
+
+        assertEquals(List.of("b"), values(tree.overlapping(10, 20)));
+        assertEquals(List.of("a", "b"), values(tree.overlapping(9, 11)));
+        assertTrue(tree.overlapping(20, 25).isEmpty());
+        assertEquals(List.of("a", "b", "c"), values(tree.overlapping(-5, 100)));
+    }
+
+    @Test
+    public void testMatchesBruteForce() {
+        Random random = new Random(7);
+        List<IntervalTree.Interval<Integer>> intervals = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            long start = random.nextInt(100_000);
+            intervals.add(new IntervalTree.Interval<>(start, start + 1 + random.nextInt(500), i));
+        }
+        IntervalTree<Integer> tree = new IntervalTree<>(intervals);
+        assertEquals(intervals.size(), tree.size());
+
+        for (int q = 0; q < 1000; q++) {
+            long start = random.nextInt(100_000);
+            long end = start + 1 + random.nextInt(1000);
+            List<Integer> expected = intervals.stream()
+                    .filter(interval -> interval.overlaps(start, end))
+                    .map(IntervalTree.Interval::value)
+                    .sorted()
+                    .collect(Collectors.toList());
+            List<Integer> actual = values(tree.overlapping(start, end)).stream().sorted().collect(Collectors.toList());
+            assertEquals(expected, actual);
+        }
+    }
+
+    private static <T> List<T> values(List<IntervalTree.Interval<T>> intervals) {
+        return intervals.stream().map(IntervalTree.Interval::value).collect(Collectors.toList());
+    }
+}
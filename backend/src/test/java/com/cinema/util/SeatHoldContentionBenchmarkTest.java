@@ -0,0 +1,158 @@
+package com.cinema.util;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// 1k clients racing for holds on the seats of one 100-seat screen through ShowSeatMap.tryHold,
+// printing hold attempts per second. First with holds that are given back, then in rounds where
+// every hold of the previous round has run out, so each claim replaces an expired hold - the path
+// on which a claim must never be visible with the expiry of the hold it replaced
+@Tag("benchmark")
+public class SeatHoldContentionBenchmarkTest {
+
+    private static final int CLIENTS = 1000;
+    private static final int ATTEMPTS_PER_CLIENT = 200;
+    private static final int ROUNDS = 50;
+    private static final long NOW = 1_000_000L;
+    private static final long LATER = NOW + 300_000L;
+
+    @Test
+    public void testClientsReleasingTheirHolds() throws Exception {
+        ShowSeatMap seatMap = createScreen();
+        ConcurrentHashMap<Integer, Long> winners = new ConcurrentHashMap<>();
+        AtomicInteger doubleHolds = new AtomicInteger();
+        AtomicLong successes = new AtomicLong();
+        AtomicLong conflicts = new AtomicLong();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(CLIENTS);
+        for (int client = 1; client <= CLIENTS; client++) {
+            long userId = client;
+            executor.submit(() -> {
+                start.await();
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                for (int attempt = 0; attempt < ATTEMPTS_PER_CLIENT; attempt++) {
+                    int[] positions = randomSeats(random);
+                    if (seatMap.tryHold(positions, userId, LATER, NOW).length > 0) {
+                        conflicts.incrementAndGet();
+                        continue;
+                    }
+                    successes.incrementAndGet();
+                    for (int position : positions) {
+                        if (winners.putIfAbsent(position, userId) != null) {
+                            doubleHolds.incrementAndGet();
+                        }
+                    }
+                    for (int position : positions) {
+                        winners.remove(position, userId);
+                    }
+                    seatMap.release(positions, userId);
+                }
+                return null;
+            });
+        }
+
+        long started = System.nanoTime();
+        start.countDown();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(5, TimeUnit.MINUTES));
+        double seconds = (System.nanoTime() - started) / 1e9;
+
+        System.out.printf("released holds: %d clients, %d attempts in %.2fs (%.0f attempts/s), %d won, %d conflicts%n",
+                CLIENTS, CLIENTS * ATTEMPTS_PER_CLIENT, seconds, CLIENTS * ATTEMPTS_PER_CLIENT / seconds,
+                successes.get(), conflicts.get());
+        assertEquals(0, doubleHolds.get());
+        for (int position = 0; position < seatMap.size(); position++) {
+            assertEquals(ShowSeatMap.State.AVAILABLE, seatMap.stateAt(position));
+        }
+        assertEquals((long) CLIENTS * ATTEMPTS_PER_CLIENT, successes.get() + conflicts.get());
+    }
+
+    // Round r runs at time r * 1000 and holds until r * 1000 + 500: every hold left by round r - 1
+    // has expired, none taken in round r has. Each seat has at most one winner per round, and the
+    // map ends the round held by exactly the recorded winners
+    @Test
+    public void testClientsTakingOverExpiredHolds() throws Exception {
+        ShowSeatMap seatMap = createScreen();
+        AtomicLongArray winners = new AtomicLongArray(seatMap.size());
+        AtomicInteger doubleHolds = new AtomicInteger();
+        AtomicInteger wrongHolders = new AtomicInteger();
+        AtomicLong attempts = new AtomicLong();
+        CyclicBarrier barrier = new CyclicBarrier(CLIENTS, () -> {
+            for (int position = 0; position < seatMap.size(); position++) {
+                long winner = winners.getAndSet(position, 0L);
+                Long holder = seatMap.holderAt(position);
+                if (holder != null && winner != 0L && holder != winner) {
+                    wrongHolders.incrementAndGet();
+                }
+            }
+        });
+        ExecutorService executor = Executors.newFixedThreadPool(CLIENTS);
+        for (int client = 1; client <= CLIENTS; client++) {
+            long userId = client;
+            executor.submit(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                for (int round = 1; round <= ROUNDS; round++) {
+                    long now = round * 1000L;
+                    for (int attempt = 0; attempt < 4; attempt++) {
+                        int[] positions = randomSeats(random);
+                        attempts.incrementAndGet();
+                        if (seatMap.tryHold(positions, userId, now + 500, now).length == 0) {
+                            for (int position : positions) {
+                                long previous = winners.getAndSet(position, userId);
+                                if (previous != 0L && previous != userId) {
+                                    doubleHolds.incrementAndGet();
+                                }
+                            }
+                        }
+                    }
+                    barrier.await();
+                }
+                return null;
+            });
+        }
+
+        long started = System.nanoTime();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(5, TimeUnit.MINUTES));
+        double seconds = (System.nanoTime() - started) / 1e9;
+
+        System.out.printf("expired holds:  %d clients, %d attempts in %.2fs (%.0f attempts/s)%n",
+                CLIENTS, attempts.get(), seconds, attempts.get() / seconds);
+        assertEquals(0, doubleHolds.get());
+        assertEquals(0, wrongHolders.get());
+        assertEquals((long) CLIENTS * ROUNDS * 4, attempts.get());
+    }
+
+    private static ShowSeatMap createScreen() {
+        ShowSeatMap seatMap = new ShowSeatMap(1L, 1L, 10, 10);
+        for (int row = 1; row <= 10; row++) {
+            for (int number = 1; number <= 10; number++) {
+                seatMap.addSeat((long) (row - 1) * 10 + number, row, number, row + "-" + number,
+                        ShowSeatMap.State.AVAILABLE, null, 0L);
+            }
+        }
+        return seatMap;
+    }
+
+    // One to six adjacent seats, as a group booking them together would pick
+    private static int[] randomSeats(ThreadLocalRandom random) {
+        int first = random.nextInt(95);
+        int[] positions = new int[1 + random.nextInt(6)];
+        for (int i = 0; i < positions.length; i++) {
+            positions[i] = first + i;
+        }
+        return positions;
+    }
+}
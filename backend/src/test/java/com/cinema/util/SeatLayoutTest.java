@@ -0,0 +1,57 @@
+package com.cinema.util;
+
+import com.cinema.entity.Seat;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+public class SeatLayoutTest {
+
+    @Test
+    public void testDrawnLayoutKeepsPhysicalPositions() {
+        SeatLayout layout = SeatLayout.parse(List.of(
+                "SS.SS",
+                "",
+                "PP.PPP",
+                "W..RR"));
+
+        assertEquals(4, layout.getRows());
+        assertEquals(6, layout.getSeatsPerRow());
+        assertEquals(4 + 5 + 3, layout.size());
+        assertEquals(List.of("A1", "A2", "A4", "A5", "C1", "C2", "C4", "C5", "C6", "D1", "D4", "D5"),
+                layout.getCells().stream().map(SeatLayout.Cell::code).collect(Collectors.toList()));
+
+        SeatLayout.Cell wheelchair = layout.getCells().get(9);
+        assertEquals(4, wheelchair.row());
+        assertEquals(1, wheelchair.number());
+        assertEquals(Seat.SeatCategory.ACCESSIBLE, wheelchair.category());
+        assertEquals(Seat.SeatCategory.RECLINER, layout.getCells().get(11).category());
+    }
+
+    @Test
+    public void testRectangularLayout() {
+        SeatLayout layout = SeatLayout.rectangular(3, 4);
+
+        assertEquals(12, layout.size());
+        assertEquals("C4", layout.getCells().get(11).code());
+        assertTrue(layout.getCells().stream().allMatch(cell -> cell.category() == Seat.SeatCategory.STANDARD));
+    }
+
+    @Test
+    public void testRowLabelsGoPastZ() {
+        assertEquals("A", SeatLayout.rowLabel(1));
+        assertEquals("Z", SeatLayout.rowLabel(26));
+        assertEquals("AA", SeatLayout.rowLabel(27));
+        assertEquals("AZ", SeatLayout.rowLabel(52));
+        assertEquals("BA", SeatLayout.rowLabel(53));
+    }
+
+    @Test
+    public void testRejectsUnknownSymbolsAndEmptyLayouts() {
+        assertThrows(RuntimeException.class, () -> SeatLayout.parse(List.of("SSX")));
+        assertThrows(RuntimeException.class, () -> SeatLayout.parse(List.of("...", "")));
+        assertThrows(RuntimeException.class, () -> SeatLayout.parse(List.of()));
+    }
+}
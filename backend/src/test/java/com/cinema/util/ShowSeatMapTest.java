@@ -0,0 +1,159 @@
+package com.cinema.util;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+public class ShowSeatMapTest {
+
+    private static final long NOW = 1_000_000L;
+    private static final long LATER = NOW + 300_000L;
+
+    private ShowSeatMap createMap() {
+        // 3 rows x 4 seats with a gap at B2
+        ShowSeatMap seatMap = new ShowSeatMap(1L, 7L, 3, 4);
+        long seatId = 100;
+        for (int row = 1; row <= 3; row++) {
+            for (int number = 1; number <= 4; number++) {
+                if (row == 2 && number == 2) continue;
+                String code = String.format("%c%d", 'A' + row - 1, number);
+                seatMap.addSeat(seatId++, row, number, code, ShowSeatMap.State.AVAILABLE, null, 0L);
+            }
+        }
+        return seatMap;
+    }
+
+    @Test
+    public void testLayoutAndStateTransitions() {
+        ShowSeatMap seatMap = createMap();
+        int position = seatMap.positionOf(100L);
+
+        assertEquals(0, position);
+        assertFalse(seatMap.hasSeatAt(5));
+        assertEquals(ShowSeatMap.State.AVAILABLE, seatMap.stateAt(position));
+
+        assertEquals(0, seatMap.tryHold(new int[] { position }, 42L, LATER, NOW).length);
+        assertEquals(ShowSeatMap.State.HELD, seatMap.stateAt(position));
+        assertEquals(42L, seatMap.holderAt(position));
+
+        seatMap.markBooked(position);
+        assertEquals(ShowSeatMap.State.BOOKED, seatMap.stateAt(position));
+        assertNull(seatMap.holderAt(position));
+
+        seatMap.markAvailable(position);
+        assertEquals(ShowSeatMap.State.AVAILABLE, seatMap.stateAt(position));
+        assertEquals(3, seatMap.getVersion());
+    }
+
+    @Test
+    public void testWireBitsAreRowMajorLittleEndian() {
+        ShowSeatMap seatMap = createMap();
+        // C1 is position 8, the first bit of the second byte
+        seatMap.markBooked(seatMap.positionOf(107L));
+        seatMap.tryHold(new int[] { seatMap.positionOf(101L) }, 42L, LATER, NOW);
+
+        byte[] booked = seatMap.bookedBits();
+        byte[] held = seatMap.heldBits();
+        byte[] layout = seatMap.layoutBits();
+
+        assertEquals(2, booked.length);
+        assertEquals(0, booked[0]);
+        assertEquals(1, booked[1]);
+        assertEquals(0b10, held[0]);
+        assertEquals((byte) 0b11011111, layout[0]);
+        assertEquals(0b1111, layout[1]);
+    }
+
+    @Test
+    public void testHoldIsAllOrNothing() {
+        ShowSeatMap seatMap = createMap();
+        seatMap.tryHold(new int[] { 1 }, 7L, LATER, NOW);
+
+        int[] conflicts = seatMap.tryHold(new int[] { 0, 1, 2 }, 42L, LATER, NOW);
+
+        assertArrayEquals(new int[] { 1 }, conflicts);
+        assertEquals(ShowSeatMap.State.AVAILABLE, seatMap.stateAt(0));
+        assertEquals(ShowSeatMap.State.AVAILABLE, seatMap.stateAt(2));
+        assertEquals(7L, seatMap.holderAt(1));
+    }
+
+    @Test
+    public void testExpiredHoldCanBeTakenOver() {
+        ShowSeatMap seatMap = createMap();
+        seatMap.tryHold(new int[] { 0 }, 7L, NOW - 1, NOW - 300_000L);
+
+        assertEquals(0, seatMap.tryHold(new int[] { 0 }, 42L, LATER, NOW).length);
+        assertEquals(42L, seatMap.holderAt(0));
+
+        seatMap.release(new int[] { 0 }, 7L);
+        assertEquals(42L, seatMap.holderAt(0));
+    }
+
+    @Test
+    public void testExpireOnlyFreesOverdueHolds() {
+        ShowSeatMap seatMap = createMap();
+        seatMap.tryHold(new int[] { 0 }, 7L, NOW, NOW - 300_000L);
+        seatMap.tryHold(new int[] { 1 }, 7L, LATER, NOW);
+        seatMap.markBooked(2);
+
+        seatMap.expire(0, NOW);
+        seatMap.expire(1, NOW);
+        seatMap.expire(2, NOW);
+
+        assertEquals(ShowSeatMap.State.AVAILABLE, seatMap.stateAt(0));
+        assertEquals(ShowSeatMap.State.HELD, seatMap.stateAt(1));
+        assertEquals(ShowSeatMap.State.BOOKED, seatMap.stateAt(2));
+    }
+
+    // Many clients race for the same seats, all under a hold that has run out: exactly one claim wins,
+    // and the losers handing back their lost claims, as they do when their transaction rolls back,
+    // leave the winner's hold in place. Half the clients list the seats the other way round, so
+    // claims meet halfway and each looks at seats the other has only just taken
+    @Test
+    public void testRacingClaimsForExpiredSeatsHaveOneWinner() throws Exception {
+        int[] seats = { 0, 1, 2, 3, 4, 6, 7, 8, 9, 10, 11 };
+        int[] reversed = { 11, 10, 9, 8, 7, 6, 4, 3, 2, 1, 0 };
+        int clients = 16;
+        ExecutorService executor = Executors.newFixedThreadPool(clients);
+        try {
+            for (int round = 0; round < 500; round++) {
+                ShowSeatMap seatMap = createMap();
+                seatMap.tryHold(seats, 7L, NOW - 1, NOW - 300_000L);
+
+                CountDownLatch start = new CountDownLatch(1);
+                List<Future<Boolean>> claims = new ArrayList<>();
+                for (int client = 1; client <= clients; client++) {
+                    long userId = 100L + client;
+                    int[] order = client % 2 == 0 ? seats : reversed;
+                    claims.add(executor.submit(() -> {
+                        start.await();
+                        return seatMap.tryHold(order, userId, LATER, NOW).length == 0;
+                    }));
+                }
+                start.countDown();
+
+                List<Long> winners = new ArrayList<>();
+                for (int client = 1; client <= clients; client++) {
+                    if (claims.get(client - 1).get()) {
+                        winners.add(100L + client);
+                    } else {
+                        seatMap.release(seats, 100L + client);
+                    }
+                }
+                assertEquals(1, winners.size(), "round " + round + " winners " + winners);
+                for (int position : seats) {
+                    assertEquals(winners.get(0), seatMap.holderAt(position));
+                    assertEquals(ShowSeatMap.State.HELD, seatMap.stateAt(position));
+                }
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
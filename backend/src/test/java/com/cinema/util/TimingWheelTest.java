@@ -0,0 +1,66 @@
+package com.cinema.util;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+public class TimingWheelTest {
+
+    private static final long START = 1_000_000L;
+
+    @Test
+    public void testEntryFiresWithinOneTick() {
+        TimingWheel<String> wheel = new TimingWheel<>(1000, 8, START);
+        List<String> fired = new ArrayList<>();
+        assertTrue(wheel.add("hold", START + 2500, START));
+
+        wheel.advance(START + 2999, fired::add);
+        assertTrue(fired.isEmpty());
+
+        wheel.advance(START + 3000, fired::add);
+        assertEquals(List.of("hold"), fired);
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    public void testDueEntryIsRejected() {
+        TimingWheel<String> wheel = new TimingWheel<>(1000, 8, START);
+
+        assertFalse(wheel.add("hold", START, START));
+        assertEquals(0, wheel.size());
+    }
+
+    // Entries far beyond one revolution go through the overflow wheels and must still fire in
+    // the tick after their expiry, never before it
+    @Test
+    public void testEntriesCascadeFromOverflowWheels() {
+        TimingWheel<Integer> wheel = new TimingWheel<>(100, 4, START);
+        Random random = new Random(42);
+        Map<Integer, Long> expiries = new HashMap<>();
+        for (int i = 0; i < 10_000; i++) {
+            long expiresAt = START + 1 + random.nextInt(200_000);
+            expiries.put(i, expiresAt);
+            assertTrue(wheel.add(i, expiresAt, START));
+        }
+        assertEquals(10_000, wheel.size());
+
+        Map<Integer, Long> firedAt = new HashMap<>();
+        for (long now = START; now <= START + 201_000; now += 37) {
+            long tickTime = now;
+            wheel.advance(now, item -> firedAt.put(item, tickTime));
+        }
+
+        assertEquals(10_000, firedAt.size());
+        assertEquals(0, wheel.size());
+        for (Map.Entry<Integer, Long> entry : firedAt.entrySet()) {
+            long lateness = entry.getValue() - expiries.get(entry.getKey());
+            assertTrue(lateness >= 0, "fired early by " + -lateness);
+            assertTrue(lateness < 100 + 37, "fired late by " + lateness);
+        }
+    }
+}
@@ -2,7 +2,7 @@ import { useState, useEffect } from 'react';
 import { useApp } from '../context/AppContext';
 import { FaPlus, FaEdit, FaTrash, FaEye, FaChair, FaUser, FaFilm, FaBuilding, FaCalendarAlt, FaTicketAlt, FaCog } from 'react-icons/fa';
 import { MovieModal, CinemaModal, ScreenModal, ShowModal } from './AdminModals';
-import API_BASE_URL from '../config/api';
+import API_BASE_URL, { authHeaders } from '../config/api';
 
 function AdminPanel() {
   const { state } = useApp();
@@ -78,8 +78,8 @@ function AdminPanel() {
         const [cinemasRes, moviesRes, bookingsRes, usersRes, screensRes, showsRes] = await Promise.all([
           fetch(`${API_BASE_URL}/api/cinemas`),
           fetch(`${API_BASE_URL}/api/movies`),
-          fetch(`${API_BASE_URL}/api/bookings`),
-          fetch(`${API_BASE_URL}/api/users`),
+          fetch(`${API_BASE_URL}/api/bookings`, { headers: authHeaders(state.currentUser) }),
+          fetch(`${API_BASE_URL}/api/users`, { headers: authHeaders(state.currentUser) }),
           fetch(`${API_BASE_URL}/api/screens`),
           fetch(`${API_BASE_URL}/api/shows`)
         ]);
@@ -135,7 +135,7 @@ function AdminPanel() {
     try {
       const response = await fetch(`${API_BASE_URL}/api/${endpoint}/${id}`, {
         method: 'PUT',
-        headers: { 'Content-Type': 'application/json' },
+        headers: { 'Content-Type': 'application/json', ...authHeaders(state.currentUser) },
         body: JSON.stringify(data)
       });
       
@@ -163,6 +163,7 @@ function AdminPanel() {
     try {
       const response = await fetch(`${API_BASE_URL}/api/${endpoint}/${id}`, {
         method: 'DELETE',
+        headers: authHeaders(state.currentUser),
       });
       if (!response.ok) throw new Error(`Failed to delete ${endpoint}: ${response.status}`);
       
@@ -393,7 +394,7 @@ function AdminPanel() {
           {activeTab === 'movies' && <MoviesTab movies={movies} setMovies={setMovies} cinemas={cinemas} setShowAddMovieModal={setShowAddMovieModal} setShowEditMovieModal={setShowEditMovieModal} setEditingItem={setEditingItem} handleDelete={handleDelete} />}
           {activeTab === 'screens' && <ScreensTab screens={screens} setScreens={setScreens} cinemas={cinemas} setShowAddScreenModal={setShowAddScreenModal} setShowEditScreenModal={setShowEditScreenModal} setEditingItem={setEditingItem} handleDelete={handleDelete} />}
           {activeTab === 'shows' && <ShowsTab shows={shows} setShows={setShows} movies={movies} screens={screens} cinemas={cinemas} setShowAddShowModal={setShowAddShowModal} setShowEditShowModal={setShowEditShowModal} setEditingItem={setEditingItem} handleDelete={handleDelete} setError={setError} />}
-          {activeTab === 'bookings' && <BookingsTab bookings={bookings} users={users} />}
+          {activeTab === 'bookings' && <BookingsTab cinemas={cinemas} shows={shows} />}
           {activeTab === 'users' && <UsersTab users={users} />}
         </div>
       </div>
@@ -763,7 +764,43 @@ function ShowsTab({ shows, setShows, movies, screens, cinemas, setShowAddShowMod
 }
 
 // Bookings Tab Component
-function BookingsTab({ bookings, users }) {
+// Pages through /api/bookings/admin with the filters applied on the server
+function BookingsTab({ cinemas, shows }) {
+  const { state } = useApp();
+  const pageSize = 20;
+  const [filters, setFilters] = useState({ from_date: '', to_date: '', cinema_id: '', show_id: '', status: '' });
+  const [page, setPage] = useState(0);
+  const [result, setResult] = useState({ content: [], total_elements: 0, total_pages: 0 });
+  const [error, setError] = useState(null);
+
+  useEffect(() => {
+    const fetchBookings = async () => {
+      const params = new URLSearchParams({ page, size: pageSize });
+      Object.entries(filters).forEach(([key, value]) => {
+        if (value) params.append(key, value);
+      });
+      try {
+        const response = await fetch(`${API_BASE_URL}/api/bookings/admin?${params}`, { headers: authHeaders(state.currentUser) });
+        if (!response.ok) throw new Error(`Failed to fetch bookings: ${response.status}`);
+        setResult(await response.json());
+        setError(null);
+      } catch (e) {
+        setError(e.message);
+      }
+    };
+    fetchBookings();
+  }, [filters, page, state.currentUser]);
+
+  const updateFilter = (key, value) => {
+    setFilters(prev => ({ ...prev, [key]: value }));
+    setPage(0);
+  };
+
+  const bookings = result.content || [];
+  const filteredShows = filters.cinema_id
+    ? shows.filter(show => String(show.cinema_id) === filters.cinema_id)
+    : shows;
+
   const getStatusColor = (status) => {
     switch (status) {
       case 'CONFIRMED': return 'bg-green-100 text-green-800';
@@ -776,6 +813,34 @@ function BookingsTab({ bookings, users }) {
     <div className="space-y-6">
       <h2 className="text-2xl font-bold text-gray-900">Bookings</h2>
 
+      <div className="bg-white rounded-xl shadow-lg p-4 grid grid-cols-1 md:grid-cols-5 gap-4">
+        <input type="date" value={filters.from_date} onChange={e => updateFilter('from_date', e.target.value)}
+          className="border rounded-lg px-3 py-2 text-sm" title="From date" />
+        <input type="date" value={filters.to_date} onChange={e => updateFilter('to_date', e.target.value)}
+          className="border rounded-lg px-3 py-2 text-sm" title="To date" />
+        <select value={filters.cinema_id} onChange={e => updateFilter('cinema_id', e.target.value)}
+          className="border rounded-lg px-3 py-2 text-sm">
+          <option value="">All cinemas</option>
+          {cinemas.map(cinema => <option key={cinema.id} value={cinema.id}>{cinema.name}</option>)}
+        </select>
+        <select value={filters.show_id} onChange={e => updateFilter('show_id', e.target.value)}
+          className="border rounded-lg px-3 py-2 text-sm">
+          <option value="">All shows</option>
+          {filteredShows.map(show => (
+            <option key={show.id} value={show.id}>{show.movie_title} - {show.date} {show.time}</option>
+          ))}
+        </select>
+        <select value={filters.status} onChange={e => updateFilter('status', e.target.value)}
+          className="border rounded-lg px-3 py-2 text-sm">
+          <option value="">All statuses</option>
+          <option value="CONFIRMED">Confirmed</option>
+          <option value="CANCELLED">Cancelled</option>
+          <option value="COMPLETED">Completed</option>
+        </select>
+      </div>
+
+      {error && <div className="text-red-600 text-sm">{error}</div>}
+
       <div className="bg-white rounded-xl shadow-lg overflow-hidden">
         <div className="overflow-x-auto">
           <table className="w-full">
@@ -822,6 +887,17 @@ function BookingsTab({ bookings, users }) {
           </table>
         </div>
       </div>
+
+      <div className="flex items-center justify-between text-sm text-gray-600">
+        <span>{result.total_elements} bookings</span>
+        <div className="space-x-2">
+          <button onClick={() => setPage(p => p - 1)} disabled={page === 0}
+            className="px-3 py-1 border rounded-lg disabled:opacity-50">Previous</button>
+          <span>Page {result.total_pages === 0 ? 0 : page + 1} of {result.total_pages}</span>
+          <button onClick={() => setPage(p => p + 1)} disabled={page + 1 >= result.total_pages}
+            className="px-3 py-1 border rounded-lg disabled:opacity-50">Next</button>
+        </div>
+      </div>
     </div>
   );
 }
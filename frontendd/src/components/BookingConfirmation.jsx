@@ -1,10 +1,12 @@
 import { useState, useEffect } from 'react';
 import { useParams, Link } from 'react-router-dom';
 import { FaCheckCircle, FaTicketAlt, FaCalendarAlt, FaClock, FaMapMarkerAlt, FaChair, FaUser, FaEnvelope, FaPhone } from 'react-icons/fa';
-import API_BASE_URL from '../config/api';
+import { useApp } from '../context/AppContext';
+import API_BASE_URL, { authHeaders } from '../config/api';
 
 function BookingConfirmation() {
   const { bookingId } = useParams();
+  const { state } = useApp();
   const [booking, setBooking] = useState(null);
   const [loading, setLoading] = useState(true);
   const [error, setError] = useState(null);
@@ -13,7 +15,7 @@ function BookingConfirmation() {
     const fetchBooking = async () => {
       setLoading(true);
       try {
-        const response = await fetch(`${API_BASE_URL}/api/bookings/${bookingId}`);
+        const response = await fetch(`${API_BASE_URL}/api/bookings/${bookingId}`, { headers: authHeaders(state.currentUser) });
         if (!response.ok) {
           throw new Error(`HTTP error! status: ${response.status}`);
         }
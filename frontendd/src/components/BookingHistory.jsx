@@ -2,7 +2,7 @@ import { useState, useEffect } from 'react';
 import { Link, useNavigate } from 'react-router-dom';
 import { useApp } from '../context/AppContext';
 import { FaTicketAlt, FaCalendarAlt, FaClock, FaMapMarkerAlt, FaChair, FaTimes, FaEye } from 'react-icons/fa';
-import API_BASE_URL from '../config/api';
+import API_BASE_URL, { authHeaders } from '../config/api';
 
 function BookingHistory() {
   const { state } = useApp();
@@ -18,7 +18,7 @@ function BookingHistory() {
     const fetchBookings = async () => {
       setLoading(true);
       try {
-        const response = await fetch(`${API_BASE_URL}/api/bookings/user/${userId}`);
+        const response = await fetch(`${API_BASE_URL}/api/bookings/user/${userId}`, { headers: authHeaders(state.currentUser) });
         if (!response.ok) {
           throw new Error(`HTTP error! status: ${response.status}`);
         }
@@ -50,6 +50,7 @@ function BookingHistory() {
           method: 'PUT',
           headers: {
             'Content-Type': 'application/json',
+            ...authHeaders(state.currentUser),
           },
         });
 
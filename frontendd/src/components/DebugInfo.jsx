@@ -19,7 +19,7 @@ function DebugInfo() {
   const testApiConnection = async () => {
     try {
       setTestResult('Testing...');
-      const response = await fetch(`${API_BASE_URL}/api/users`, {
+      const response = await fetch(`${API_BASE_URL}/api/movies`, {
         method: 'GET',
         headers: {
           'Content-Type': 'application/json',
@@ -2,7 +2,25 @@ import { useState, useEffect, useCallback } from 'react';
 import { useParams, useNavigate, Link } from 'react-router-dom';
 import { useApp } from '../context/AppContext';
 import { FaArrowLeft, FaChair, FaCheck, FaTimes } from 'react-icons/fa';
-import API_BASE_URL from '../config/api';
+import API_BASE_URL, { authHeaders, postIdempotent } from '../config/api';
+import { subscribeToSeatUpdates } from '../config/seatUpdates';
+
+// Seat map bitmaps are base64, one bit per seat in row-major order
+const decodeBits = (base64) => Uint8Array.from(atob(base64 || ''), c => c.charCodeAt(0));
+
+const applySeatMap = (layout, seatMap) => {
+  const held = decodeBits(seatMap.held);
+  const booked = decodeBits(seatMap.booked);
+  const isSet = (bits, position) => (bits[position >> 3] & (1 << (position & 7))) !== 0;
+
+  return layout.map(seat => {
+    const position = (seat.seat_row - 1) * seatMap.seats_per_row + (seat.seat_number - 1);
+    let status = 'AVAILABLE';
+    if (isSet(booked, position)) status = 'BOOKED';
+    else if (isSet(held, position)) status = 'BLOCKED';
+    return { ...seat, status, show_id: seatMap.show_id };
+  });
+};
 
 function SeatSelection() {
   const { cinemaId, movieId, showtimeId } = useParams();
@@ -38,26 +56,73 @@ function SeatSelection() {
     fetchShow();
   }, [showtimeId]);
 
-  // Fetch Seats for the Screen once Show is loaded
+  // Load the screen layout once, then keep this show's seats live: every (re)connect loads the
+  // compact seat map snapshot and change events are applied on top of it in sequence order.
+  // Events that arrive while a snapshot is loading are buffered; a gap triggers a resync.
+  // Every backend node numbers its own events, so sequences are tracked per node.
   useEffect(() => {
-    if (show && show.screen_id) {
-      const fetchSeats = async () => {
-        setLoadingSeats(true);
-        try {
-          const response = await fetch(`${API_BASE_URL}/api/seats/screen/${show.screen_id}`);
-          if (!response.ok) {
-            throw new Error(`HTTP error! status: ${response.status}`);
-          }
-          const data = await response.json();
-          setSeats(data);
-        } catch (e) {
-          setError(e.message);
-        } finally {
-          setLoadingSeats(false);
+    if (!show || !show.id) return;
+    let cancelled = false;
+    let layout = null;
+    let sequences = null;
+    let buffered = [];
+
+    const applyDelta = (delta) => {
+      if (sequences === null) {
+        buffered.push(delta);
+        return;
+      }
+      const last = sequences[delta.node_id];
+      if (last !== undefined) {
+        if (delta.sequence <= last) return;
+        if (delta.first_sequence > last + 1) {
+          resync();
+          return;
         }
-      };
-      fetchSeats();
-    }
+      }
+      // Frames carry each seat's latest state, so one overlapping the snapshot is safe to apply
+      sequences[delta.node_id] = delta.sequence;
+      const changed = new Map();
+      delta.changes.forEach(change => change.seat_ids.forEach(id => changed.set(id, change)));
+      setSeats(prevSeats => prevSeats.map(s => {
+        const change = changed.get(s.id);
+        return change ? { ...s, status: change.status, blocked_by_user_id: change.blocked_by_user_id ?? null } : s;
+      }));
+    };
+
+    const resync = async () => {
+      sequences = null;
+      try {
+        if (!layout) {
+          const layoutResponse = await fetch(`${API_BASE_URL}/api/seats/screen/${show.screen_id}`);
+          if (!layoutResponse.ok) throw new Error(`HTTP error! status: ${layoutResponse.status}`);
+          layout = await layoutResponse.json();
+        }
+        const mapResponse = await fetch(`${API_BASE_URL}/api/seats/show/${show.id}/map`);
+        if (!mapResponse.ok) throw new Error(`HTTP error! status: ${mapResponse.status}`);
+        const seatMap = await mapResponse.json();
+        if (cancelled) return;
+
+        setSeats(applySeatMap(layout, seatMap));
+        sequences = { [seatMap.node_id]: seatMap.sequence };
+        const pending = buffered;
+        buffered = [];
+        pending.forEach(applyDelta);
+      } catch (e) {
+        if (!cancelled) setError(e.message);
+      } finally {
+        if (!cancelled) setLoadingSeats(false);
+      }
+    };
+
+    // Load right away too, so the page works even when the socket can't connect
+    setLoadingSeats(true);
+    resync();
+    const unsubscribe = subscribeToSeatUpdates(show.id, applyDelta, resync);
+    return () => {
+      cancelled = true;
+      unsubscribe();
+    };
   }, [show]);
 
   // Handle seat selection/deselection
@@ -82,13 +147,17 @@ function SeatSelection() {
           method: 'POST',
           headers: {
             'Content-Type': 'application/json',
+            ...authHeaders(state.currentUser),
           },
-          body: JSON.stringify([seat.id]), // Unblock expects a list of seat IDs
+          body: JSON.stringify({
+            show_id: show.id,
+            seat_ids: [seat.id],
+          }),
         });
 
         if (!response.ok) {
           const errorData = await response.json();
-          throw new Error(errorData.message || `Failed to unblock seat ${seat.seat_code}`);
+          throw new Error(errorData.error || errorData.message || `Failed to unblock seat ${seat.seat_code}`);
         }
 
         setSelectedLocalSeats(prev => prev.filter(s => s.id !== seat.id));
@@ -106,20 +175,17 @@ function SeatSelection() {
       }
 
       try {
-        const response = await fetch(`${API_BASE_URL}/api/seats/block`, {
-          method: 'POST',
-          headers: {
-            'Content-Type': 'application/json',
-          },
-          body: JSON.stringify({
-            user_id: currentUserId,
-            seat_ids: [seat.id],
-          }),
-        });
+        const response = await postIdempotent(`${API_BASE_URL}/api/seats/block`, {
+          'Content-Type': 'application/json',
+          ...authHeaders(state.currentUser),
+        }, JSON.stringify({
+          show_id: show.id,
+          seat_ids: [seat.id],
+        }));
 
         if (!response.ok) {
           const errorData = await response.json();
-          throw new Error(errorData.message || `Failed to block seat ${seat.seat_code}`);
+          throw new Error(errorData.error || errorData.message || `Failed to block seat ${seat.seat_code}`);
         }
 
         const blockedSeatsData = await response.json(); // Backend returns updated seats
@@ -131,7 +197,7 @@ function SeatSelection() {
         setError(e.message);
       }
     }
-  }, [selectedLocalSeats, state.currentUser.id]);
+  }, [selectedLocalSeats, state.currentUser.id, show]);
 
   const getSeatStatus = useCallback((seat) => {
     if (seat.status === 'BOOKED') return 'booked';
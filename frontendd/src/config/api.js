@@ -14,4 +14,23 @@ const getApiBaseUrl = () => {
 
 const API_BASE_URL = getApiBaseUrl();
 
+// Session token issued by signup/login, for the requests that act on behalf of the user
+export const authHeaders = (user) => (user?.token ? { Authorization: `Bearer ${user.token}` } : {});
+
+// crypto.randomUUID needs a secure context, which plain-http access from other devices is not
+const newIdempotencyKey = () => (window.crypto?.randomUUID
+  ? window.crypto.randomUUID()
+  : `${Date.now().toString(36)}-${Math.random().toString(36).slice(2)}${Math.random().toString(36).slice(2)}`);
+
+// POSTs with an Idempotency-Key and, if the network fails, retries once with the same key:
+// when the first attempt did reach the backend, the retry gets its response instead of running again
+export const postIdempotent = async (url, headers, body) => {
+  const init = { method: 'POST', headers: { ...headers, 'Idempotency-Key': newIdempotencyKey() }, body };
+  try {
+    return await fetch(url, init);
+  } catch {
+    return fetch(url, init);
+  }
+};
+
 export default API_BASE_URL;
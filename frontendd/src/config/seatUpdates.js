@@ -0,0 +1,59 @@
+import API_BASE_URL from './api';
+
+// Minimal STOMP client over the raw WebSocket transport of the backend's /ws SockJS endpoint.
+// It only needs to subscribe to a show's seat topic, so a full STOMP library is not pulled in.
+const WS_URL = `${API_BASE_URL.replace(/^http/, 'ws')}/ws/websocket`;
+const RECONNECT_DELAY_MS = 2000;
+
+const frame = (command, headers = {}) =>
+  `${command}\n${Object.entries(headers).map(([k, v]) => `${k}:${v}`).join('\n')}\n\n\0`;
+
+const parseFrames = (data) => data.split('\0')
+  .map(raw => raw.replace(/^\n+/, ''))
+  .filter(raw => raw.length > 0)
+  .map(raw => {
+    const split = raw.indexOf('\n\n');
+    const [command, ...headerLines] = raw.slice(0, split).split('\n');
+    const headers = Object.fromEntries(headerLines.map(line => {
+      const colon = line.indexOf(':');
+      return [line.slice(0, colon), line.slice(colon + 1)];
+    }));
+    return { command, headers, body: raw.slice(split + 2) };
+  });
+
+// Calls onDelta with every seat change frame of the show and onConnect after each (re)connect,
+// which is where callers should load or reload the snapshot. Returns an unsubscribe function.
+export const subscribeToSeatUpdates = (showId, onDelta, onConnect) => {
+  let socket = null;
+  let closed = false;
+  let reconnectTimer = null;
+
+  const connect = () => {
+    socket = new WebSocket(WS_URL);
+    socket.onopen = () => {
+      socket.send(frame('CONNECT', { 'accept-version': '1.2', 'heart-beat': '0,0' }));
+    };
+    socket.onmessage = (event) => {
+      for (const { command, body } of parseFrames(event.data)) {
+        if (command === 'CONNECTED') {
+          socket.send(frame('SUBSCRIBE', { id: `show-${showId}`, destination: `/topic/shows/${showId}/seats` }));
+          onConnect();
+        } else if (command === 'MESSAGE') {
+          onDelta(JSON.parse(body));
+        }
+      }
+    };
+    socket.onclose = () => {
+      if (!closed) {
+        reconnectTimer = setTimeout(connect, RECONNECT_DELAY_MS);
+      }
+    };
+  };
+
+  connect();
+  return () => {
+    closed = true;
+    clearTimeout(reconnectTimer);
+    if (socket) socket.close();
+  };
+};
@@ -1,5 +1,5 @@
 import { createContext, useContext, useReducer, useEffect } from 'react';
-import API_BASE_URL from '../config/api';
+import API_BASE_URL, { authHeaders, postIdempotent } from '../config/api';
 
 const AppContext = createContext();
 
@@ -96,21 +96,17 @@ export function AppProvider({ children }) {
   // Implement confirmBooking API call
   const confirmBooking = async (showId, seatIds) => {
     try {
-      const response = await fetch(`${API_BASE_URL}/api/bookings`, {
-        method: 'POST',
-        headers: {
-          'Content-Type': 'application/json',
-        },
-        body: JSON.stringify({
-          user_id: state.currentUser.id,
-          show_id: showId,
-          seat_ids: seatIds,
-        }),
-      });
+      const response = await postIdempotent(`${API_BASE_URL}/api/bookings`, {
+        'Content-Type': 'application/json',
+        ...authHeaders(state.currentUser),
+      }, JSON.stringify({
+        show_id: showId,
+        seat_ids: seatIds,
+      }));
 
       if (!response.ok) {
         const errorData = await response.json();
-        throw new Error(errorData.message || `HTTP error! status: ${response.status}`);
+        throw new Error(errorData.error || errorData.message || `HTTP error! status: ${response.status}`);
       }
 
       const bookingData = await response.json();
@@ -122,6 +118,15 @@ export function AppProvider({ children }) {
     }
   };
 
+  // Revokes the session token on the backend; the user is logged out locally either way
+  const logout = () => {
+    if (state.currentUser?.token) {
+      fetch(`${API_BASE_URL}/api/users/logout`, { method: 'POST', headers: authHeaders(state.currentUser) })
+        .catch(error => console.error("Error logging out:", error));
+    }
+    dispatch({ type: 'LOGOUT' });
+  };
+
   const value = {
     state,
     dispatch,
@@ -129,7 +134,7 @@ export function AppProvider({ children }) {
     cancelBooking: (bookingId) => dispatch({ type: 'CANCEL_BOOKING', bookingId }),
     toggleAdmin: () => dispatch({ type: 'TOGGLE_ADMIN' }),
     addMovie: (cinemaId, movie) => dispatch({ type: 'ADD_MOVIE', cinemaId, movie }), // This will need to be updated
-    logout: () => dispatch({ type: 'LOGOUT' })
+    logout
   };
 
   return (